@@ -9,6 +9,12 @@ public class Main {
     
     public static void main(String[] args) {
 
+        // The footprint mode compares memory use only, at sizes up to 10^7 elements
+        if (args.length > 0 && args[0].equals("footprint")) {
+            CompareFootprints.benchmarkFootprints(10_000_000);
+            return;
+        }
+
         int n = 100_000;
         long startTime = System.nanoTime();
 
@@ -19,8 +25,54 @@ public class Main {
         System.out.println("-------------------------------------------------");
         CompareSets.benchmarkSets(n);
         System.out.println("-------------------------------------------------");
+        CompareSets.benchmarkCollisionDistribution(n);
+        System.out.println("-------------------------------------------------");
+        CompareSets.benchmarkBucketIndexing(n);
+        System.out.println("-------------------------------------------------");
+        CompareSets.benchmarkBulkLoad(n);
+        System.out.println("-------------------------------------------------");
+        CompareSets.benchmarkSwissSet(n);
+        System.out.println("-------------------------------------------------");
+        CompareSets.benchmarkPrimitiveSets(n);
+        System.out.println("-------------------------------------------------");
+        CompareSets.benchmarkRoaringBitmap(n);
+        System.out.println("-------------------------------------------------");
+        CompareSets.benchmarkBulkSetAlgebra(n);
+        System.out.println("-------------------------------------------------");
+        CompareSets.benchmarkCuckooFilter(n);
+        System.out.println("-------------------------------------------------");
         CompareMaps.benchmarkMaps(n);
         System.out.println("-------------------------------------------------");
+        CompareMaps.benchmarkWordCount(n);
+        System.out.println("-------------------------------------------------");
+        CompareMaps.benchmarkBulkLoad(n);
+        System.out.println("-------------------------------------------------");
+        CompareMaps.benchmarkMultimap(n);
+        System.out.println("-------------------------------------------------");
+        CompareMaps.benchmarkIteration(n);
+        System.out.println("-------------------------------------------------");
+        CompareMaps.benchmarkCollisions(n);
+        System.out.println("-------------------------------------------------");
+        CompareMaps.benchmarkOpenHashMap(n);
+        System.out.println("-------------------------------------------------");
+        CompareMaps.benchmarkPrimitiveMaps(n);
+        System.out.println("-------------------------------------------------");
+        CompareMaps.benchmarkResizeLatency(n);
+        System.out.println("-------------------------------------------------");
+        CompareMaps.benchmarkOffHeapMap(n);
+        System.out.println("-------------------------------------------------");
+        CompareMaps.benchmarkPersistentMap(n);
+        System.out.println("-------------------------------------------------");
+        CompareMaps.benchmarkNegativeCache(n);
+        System.out.println("-------------------------------------------------");
+        CompareSnapshots.benchmarkSnapshots(n);
+        System.out.println("-------------------------------------------------");
+        CompareConcurrentMaps.benchmarkConcurrentMaps(n);
+        System.out.println("-------------------------------------------------");
+        CompareConcurrentMaps.benchmarkConcurrentMerge(n);
+        System.out.println("-------------------------------------------------");
+        CompareConcurrentMaps.benchmarkHotKeyCounters(n);
+        System.out.println("-------------------------------------------------");
         CompareStack.benchmarkStacks(n);
         System.out.println("-------------------------------------------------");
         CompareQueues.benchmarkQueues(n);
@@ -35,6 +87,14 @@ public class Main {
         System.out.println("-------------------------------------------------");
         CompareTrees.benchmarkTrees(n);
         System.out.println("-------------------------------------------------");
+        CompareCaches.benchmarkCaches(n * 10);
+        System.out.println("-------------------------------------------------");
+        CompareSketches.benchmarkCardinality(n * 10);
+        System.out.println("-------------------------------------------------");
+        CompareSketches.benchmarkFrequency(n * 10);
+        System.out.println("-------------------------------------------------");
+        CompareFootprints.benchmarkFootprints(n);
+        System.out.println("-------------------------------------------------");
 
         // Total time metrics
         long endTime = System.nanoTime();
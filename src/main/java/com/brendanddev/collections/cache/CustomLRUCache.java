@@ -0,0 +1,303 @@
+package com.brendanddev.collections.cache;
+
+import com.brendanddev.collections.map.CustomHashMap;
+
+/**
+ * A bounded generic cache that evicts the least recently used entry.
+ * 
+ * Entries are indexed by a CustomHashMap and also linked into a doubly linked recency list,
+ * using the same node layout as CustomDeque. The head of the list is the most recently used
+ * entry and the tail is the next to be evicted. Because the map stores the list nodes directly,
+ * moving an entry to the front or unlinking it never requires a search.
+ * 
+ * The cache is bounded either by a maximum number of entries or by a maximum total weight
+ * computed by a Weigher. Hit, miss and eviction counters are kept for sizing the cache.
+ * 
+ * Time Complexity
+ * Get: O(1)
+ * Put: O(1) (plus O(1) per evicted entry)
+ * Remove: O(1)
+ * 
+ * Note: Null keys and values are not allowed, since get returns null on a miss.
+ */
+public class CustomLRUCache<K, V> {
+
+    private final CustomHashMap<K, Node<K, V>> map = new CustomHashMap<>();
+    private final long maxWeight;
+    private final Weigher<? super K, ? super V> weigher;
+
+    private Node<K, V> head;
+    private Node<K, V> tail;
+    private int size = 0;
+    private long weightedSize = 0;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * Constructs an empty CustomLRUCache holding at most the given number of entries.
+     * 
+     * @param maxEntries The maximum number of entries.
+     * @throws IllegalArgumentException if maxEntries is not positive.
+     */
+    public CustomLRUCache(int maxEntries) {
+        this(maxEntries, (key, value) -> 1);
+    }
+
+    /**
+     * Constructs an empty CustomLRUCache whose entries may weigh at most the given total.
+     * 
+     * @param maxWeight The maximum total weight of all entries.
+     * @param weigher The Weigher computing the weight of each entry.
+     * @throws IllegalArgumentException if maxWeight is not positive or weigher is null.
+     */
+    public CustomLRUCache(long maxWeight, Weigher<? super K, ? super V> weigher) {
+        if (maxWeight <= 0) throw new IllegalArgumentException("Maximum weight must be positive");
+        if (weigher == null) throw new IllegalArgumentException("Weigher must not be null");
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns the value cached for a key and marks the entry as most recently used.
+     * 
+     * @param key The key to look up.
+     * @return The cached value, or null on a miss.
+     */
+    public V get(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        moveToFront(node);
+        return node.value;
+    }
+
+    /**
+     * Adds or replaces the value cached for a key and marks the entry as most recently used.
+     * Least recently used entries are evicted until the cache is within its bound again,
+     * which may include the new entry itself if it alone exceeds the maximum weight.
+     * 
+     * @param key The key to cache.
+     * @param value The value to cache.
+     * @return The previously cached value, or null if the key was not cached.
+     * @throws IllegalArgumentException if the key or value is null, or the weight is negative.
+     */
+    public V put(K key, V value) {
+        if (key == null || value == null) throw new IllegalArgumentException("Null keys and values not allowed");
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) throw new IllegalArgumentException("Weight must not be negative");
+
+        V oldValue = null;
+        Node<K, V> node = map.get(key);
+        if (node != null) {
+            // Replace the value in place and refresh its recency
+            oldValue = node.value;
+            weightedSize += weight - node.weight;
+            node.value = value;
+            node.weight = weight;
+            moveToFront(node);
+        } else {
+            node = new Node<>(key, value, weight);
+            map.put(key, node);
+            linkFirst(node);
+            size++;
+            weightedSize += weight;
+        }
+
+        evictIfNeeded();
+        return oldValue;
+    }
+
+    /**
+     * Removes the entry for a key without counting it as an eviction.
+     * 
+     * @param key The key to remove.
+     * @return true if the key was cached and removed, otherwise false.
+     */
+    public boolean remove(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) return false;
+        map.remove(key);
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * Checks if a key is cached, without affecting its recency or the hit and miss counters.
+     * 
+     * @param key The key to check.
+     * @return true if the key is cached, otherwise false.
+     */
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    /**
+     * Removes every entry from the cache. Counters are left unchanged.
+     */
+    public void clear() {
+        while (tail != null) {
+            map.remove(tail.key);
+            unlink(tail);
+        }
+    }
+
+    /**
+     * Returns the number of entries currently cached.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the cache is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the total weight of the cached entries.
+     * Equal to size() when the cache is bounded by number of entries.
+     */
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * Returns the maximum total weight, or the maximum number of entries for an entry bounded cache.
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Returns the number of get calls that found a cached value.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of get calls that found no cached value.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted to keep the cache within its bound.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the fraction of get calls that were hits, or 0 if get was never called.
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Evicts least recently used entries until the total weight is within the maximum.
+     */
+    private void evictIfNeeded() {
+        while (weightedSize > maxWeight && tail != null) {
+            Node<K, V> victim = tail;
+            map.remove(victim.key);
+            unlink(victim);
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Moves a linked node to the head of the recency list.
+     * 
+     * @param node The node that was just used.
+     */
+    private void moveToFront(Node<K, V> node) {
+        if (node == head) return;
+
+        // Detach the node from its current position
+        node.prev.next = node.next;
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            tail = node.prev;
+        }
+
+        // Reinsert at the front
+        node.prev = null;
+        node.next = head;
+        head.prev = node;
+        head = node;
+    }
+
+    /**
+     * Links a new node at the head of the recency list.
+     * 
+     * @param node The node to link.
+     */
+    private void linkFirst(Node<K, V> node) {
+        if (head == null) {
+            head = tail = node;
+        } else {
+            node.next = head;
+            head.prev = node;
+            head = node;
+        }
+    }
+
+    /**
+     * Unlinks a node from the recency list and subtracts it from the size and weight.
+     * 
+     * @param node The node to unlink.
+     */
+    private void unlink(Node<K, V> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            tail = node.prev;
+        }
+        node.prev = node.next = null;
+        size--;
+        weightedSize -= node.weight;
+    }
+
+
+    /**
+     * A doubly linked Node of the recency list, holding one cache entry.
+     */
+    private static class Node<K, V> {
+        final K key;
+        V value;
+        int weight;
+        Node<K, V> next;
+        Node<K, V> prev;
+
+        /**
+         * Constructs a new Node for a cache entry.
+         * 
+         * @param key The key of the entry.
+         * @param value The value of the entry.
+         * @param weight The weight of the entry.
+         */
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+}
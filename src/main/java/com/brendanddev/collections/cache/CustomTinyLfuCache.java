@@ -0,0 +1,592 @@
+package com.brendanddev.collections.cache;
+
+import java.util.function.LongSupplier;
+
+import com.brendanddev.collections.map.CustomHashMap;
+
+/**
+ * A bounded generic cache using the W-TinyLFU eviction policy.
+ * 
+ * Plain LRU admits every new entry and evicts whatever was used least recently, so a single scan
+ * over many one-off keys flushes the whole cache. W-TinyLFU splits the cache into three regions:
+ * 
+ * Window: a small LRU region (1% of the capacity) that every new entry enters first.
+ * Probation: the part of the main region holding entries that have left the window.
+ * Protected: the part of the main region (80% of it) holding entries accessed again while on probation.
+ * 
+ * When an entry leaves the window and the main region is full, it competes with the least recently
+ * used probation entry. A FrequencySketch estimates how often each key was requested recently, and
+ * the candidate is only admitted if its key is more popular than the victim's. One-off keys from a scan
+ * therefore pass through the small window without displacing the popular entries of the main region.
+ * 
+ * The cache is bounded either by number of entries or by a total weight computed by a Weigher.
+ * The sketch is sized by number of entries in either case: it starts small and grows with the cache,
+ * so a cache bounded by a large weight, such as a number of bytes, does not allocate a sketch for it.
+ * Entries can also expire a fixed time after they were written and/or last accessed. Expired entries
+ * are never returned; they are removed when looked up and when they reach the front of the write
+ * order or access order queues, which is checked on every put and by cleanUp.
+ * 
+ * Time Complexity
+ * Get: O(1)
+ * Put: O(1) amortized (plus O(1) per evicted or expired entry)
+ * Remove: O(1)
+ * 
+ * Note: Null keys and values are not allowed, since get returns null on a miss.
+ */
+public class CustomTinyLfuCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    public static final double WINDOW_PERCENT = 0.01;
+    public static final double PROTECTED_PERCENT = 0.80;
+    private static final int INITIAL_SKETCH_SIZE = 64;
+
+    private final CustomHashMap<K, Node<K, V>> map = new CustomHashMap<>();
+    private final FrequencySketch<K> sketch;
+    private final Weigher<? super K, ? super V> weigher;
+    private final LongSupplier ticker;
+
+    private final long maxWeight;
+    private final long windowMax;
+    private final long mainMax;
+    private final long protectedMax;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+
+    private final AccessQueue<K, V> window = new AccessQueue<>();
+    private final AccessQueue<K, V> probation = new AccessQueue<>();
+    private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+
+    // Write order list, only maintained when entries expire after write
+    private Node<K, V> writeHead;
+    private Node<K, V> writeTail;
+    private int size = 0;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+    private long expirationCount = 0;
+
+    /**
+     * Constructs an empty CustomTinyLfuCache holding at most the given number of entries.
+     * 
+     * @param maxEntries The maximum number of entries.
+     * @throws IllegalArgumentException if maxEntries is not positive.
+     */
+    public CustomTinyLfuCache(int maxEntries) {
+        this(maxEntries, (key, value) -> 1);
+    }
+
+    /**
+     * Constructs an empty CustomTinyLfuCache whose entries may weigh at most the given total.
+     * 
+     * @param maxWeight The maximum total weight of all entries.
+     * @param weigher The Weigher computing the weight of each entry.
+     * @throws IllegalArgumentException if maxWeight is not positive or weigher is null.
+     */
+    public CustomTinyLfuCache(long maxWeight, Weigher<? super K, ? super V> weigher) {
+        this(maxWeight, weigher, 0, 0, System::nanoTime);
+    }
+
+    /**
+     * Constructs an empty CustomTinyLfuCache with a weight bound and expiration timers.
+     * 
+     * @param maxWeight The maximum total weight of all entries.
+     * @param weigher The Weigher computing the weight of each entry.
+     * @param expireAfterWriteNanos How long an entry lives after it was written, or 0 to never expire.
+     * @param expireAfterAccessNanos How long an entry lives after it was last read or written, or 0 to never expire.
+     * @param ticker The time source in nanoseconds, normally System::nanoTime.
+     * @throws IllegalArgumentException if maxWeight is not positive, a duration is negative,
+     *                                  or the weigher or ticker is null.
+     */
+    public CustomTinyLfuCache(long maxWeight, Weigher<? super K, ? super V> weigher,
+            long expireAfterWriteNanos, long expireAfterAccessNanos, LongSupplier ticker) {
+        if (maxWeight <= 0) throw new IllegalArgumentException("Maximum weight must be positive");
+        if (weigher == null || ticker == null) throw new IllegalArgumentException("Weigher and ticker must not be null");
+        if (expireAfterWriteNanos < 0 || expireAfterAccessNanos < 0) {
+            throw new IllegalArgumentException("Expiration durations must not be negative");
+        }
+
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.ticker = ticker;
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+        this.expireAfterAccessNanos = expireAfterAccessNanos;
+
+        windowMax = Math.max(1, (long) (maxWeight * WINDOW_PERCENT));
+        mainMax = maxWeight - windowMax;
+        protectedMax = (long) (mainMax * PROTECTED_PERCENT);
+        sketch = new FrequencySketch<>(Math.min(maxWeight, INITIAL_SKETCH_SIZE));
+    }
+
+    /**
+     * Returns the value cached for a key, recording the access in the frequency sketch.
+     * 
+     * @param key The key to look up.
+     * @return The cached value, or null on a miss or if the entry has expired.
+     */
+    public V get(K key) {
+        sketch.increment(key);
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+
+        long now = readTicker();
+        if (isExpired(node, now)) {
+            removeNode(node);
+            expirationCount++;
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        node.accessTime = now;
+        onAccess(node);
+        return node.value;
+    }
+
+    /**
+     * Adds or replaces the value cached for a key.
+     * New entries enter the window region, and entries pushed out of the window must win
+     * the frequency based admission check to stay in the cache.
+     * 
+     * @param key The key to cache.
+     * @param value The value to cache.
+     * @return The previously cached value, or null if the key was not cached or had expired.
+     * @throws IllegalArgumentException if the key or value is null, or the weight is negative.
+     */
+    public V put(K key, V value) {
+        if (key == null || value == null) throw new IllegalArgumentException("Null keys and values not allowed");
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) throw new IllegalArgumentException("Weight must not be negative");
+
+        long now = readTicker();
+        expireEntries(now);
+
+        V oldValue = null;
+        Node<K, V> node = map.get(key);
+        if (node != null && isExpired(node, now)) {
+            removeNode(node);
+            expirationCount++;
+            node = null;
+        }
+
+        if (node != null) {
+            // Replace the value in place, the entry keeps its region. An update is a use of the key, while
+            // a new key was normally just recorded by the get that missed
+            sketch.increment(key);
+            oldValue = node.value;
+            queueOf(node).weight += weight - node.weight;
+            node.value = value;
+            node.weight = weight;
+            node.writeTime = now;
+            node.accessTime = now;
+            if (expireAfterWriteNanos > 0) {
+                unlinkWrite(node);
+                linkWriteLast(node);
+            }
+            onAccess(node);
+        } else {
+            node = new Node<>(key, value, weight, now);
+            map.put(key, node);
+            window.addLast(node);
+            if (expireAfterWriteNanos > 0) linkWriteLast(node);
+            size++;
+            sketch.ensureCapacity(size);
+        }
+
+        evict();
+        return oldValue;
+    }
+
+    /**
+     * Removes the entry for a key without counting it as an eviction.
+     * 
+     * @param key The key to remove.
+     * @return true if the key was cached and removed, otherwise false.
+     */
+    public boolean remove(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) return false;
+        removeNode(node);
+        return true;
+    }
+
+    /**
+     * Checks if an unexpired entry is cached for a key, without recording an access.
+     * 
+     * @param key The key to check.
+     * @return true if the key is cached, otherwise false.
+     */
+    public boolean containsKey(K key) {
+        Node<K, V> node = map.get(key);
+        return node != null && !isExpired(node, readTicker());
+    }
+
+    /**
+     * Removes entries that have expired and reached the front of their queues.
+     */
+    public void cleanUp() {
+        expireEntries(readTicker());
+    }
+
+    /**
+     * Returns the number of entries currently cached, including expired ones not yet removed.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the cache is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the total weight of the cached entries.
+     */
+    public long weightedSize() {
+        return window.weight + probation.weight + protectedQueue.weight;
+    }
+
+    /**
+     * Returns the maximum total weight, or the maximum number of entries for an entry bounded cache.
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Returns the number of get calls that found a cached value.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of get calls that found no cached value.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted or rejected to keep the cache within its bound.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of entries removed because they expired.
+     */
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    /**
+     * Returns the fraction of get calls that were hits, or 0 if get was never called.
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Updates the position of an entry after it was read or written.
+     * A probation entry that is used again is promoted to the protected region.
+     * 
+     * @param node The entry that was used.
+     */
+    private void onAccess(Node<K, V> node) {
+        if (node.queue == PROBATION) {
+            probation.remove(node);
+            node.queue = PROTECTED;
+            protectedQueue.addLast(node);
+            demoteProtected();
+        } else {
+            queueOf(node).moveToTail(node);
+        }
+    }
+
+    /**
+     * Demotes the least recently used protected entries back to probation
+     * while the protected region is over its share of the main region.
+     */
+    private void demoteProtected() {
+        while (protectedQueue.weight > protectedMax && protectedQueue.head != protectedQueue.tail) {
+            Node<K, V> demoted = protectedQueue.head;
+            protectedQueue.remove(demoted);
+            demoted.queue = PROBATION;
+            probation.addLast(demoted);
+        }
+    }
+
+    /**
+     * Restores the size bounds after an insert or update.
+     * 
+     * Entries that overflow the window move to the tail of probation as candidates. While the main
+     * region is over its bound, each candidate is compared with the least recently used entry of
+     * the main region, and whichever key is less popular according to the sketch is evicted.
+     * An update can also make a main region entry heavier without any candidate leaving the window,
+     * so the main region is finally trimmed from its least recently used end, probation first.
+     */
+    private void evict() {
+        demoteProtected();
+
+        while (window.weight > windowMax && window.head != null) {
+            Node<K, V> candidate = window.head;
+            window.remove(candidate);
+            candidate.queue = PROBATION;
+            probation.addLast(candidate);
+            admit(candidate);
+        }
+
+        while (probation.weight + protectedQueue.weight > mainMax) {
+            evictNode(probation.head != null ? probation.head : protectedQueue.head);
+        }
+    }
+
+    /**
+     * Runs the TinyLFU admission check for a candidate that has just joined probation.
+     * 
+     * @param candidate The entry that has left the window.
+     */
+    private void admit(Node<K, V> candidate) {
+        while (probation.weight + protectedQueue.weight > mainMax) {
+            if (candidate.weight > mainMax) {
+                evictNode(candidate);
+                return;
+            }
+
+            // The victim is the least recently used entry of the main region other than the candidate
+            Node<K, V> victim = probation.head != candidate ? probation.head : protectedQueue.head;
+            if (victim == null || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                evictNode(candidate);
+                return;
+            }
+            evictNode(victim);
+        }
+    }
+
+    /**
+     * Removes entries whose expiration time has passed from the front of the write order
+     * and access order queues.
+     * 
+     * @param now The current ticker time.
+     */
+    private void expireEntries(long now) {
+        if (expireAfterWriteNanos > 0) {
+            while (writeHead != null && now - writeHead.writeTime >= expireAfterWriteNanos) {
+                removeNode(writeHead);
+                expirationCount++;
+            }
+        }
+        if (expireAfterAccessNanos > 0) {
+            expireAccessQueue(window, now);
+            expireAccessQueue(probation, now);
+            expireAccessQueue(protectedQueue, now);
+        }
+    }
+
+    /**
+     * Removes expired entries from the least recently used end of one region.
+     * 
+     * @param queue The region to expire.
+     * @param now The current ticker time.
+     */
+    private void expireAccessQueue(AccessQueue<K, V> queue, long now) {
+        while (queue.head != null && now - queue.head.accessTime >= expireAfterAccessNanos) {
+            removeNode(queue.head);
+            expirationCount++;
+        }
+    }
+
+    /**
+     * Checks if an entry has expired.
+     * 
+     * @param node The entry to check.
+     * @param now The current ticker time.
+     * @return true if either expiration timer has elapsed, otherwise false.
+     */
+    private boolean isExpired(Node<K, V> node, long now) {
+        return (expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos)
+                || (expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos);
+    }
+
+    /**
+     * Reads the ticker, skipping the call entirely when no expiration is configured.
+     * 
+     * @return The current ticker time, or 0 if entries never expire.
+     */
+    private long readTicker() {
+        return (expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0) ? ticker.getAsLong() : 0;
+    }
+
+    /**
+     * Evicts an entry to keep the cache within its bound.
+     * 
+     * @param node The entry to evict.
+     */
+    private void evictNode(Node<K, V> node) {
+        removeNode(node);
+        evictionCount++;
+    }
+
+    /**
+     * Removes an entry from the map and from every queue it is linked into.
+     * 
+     * @param node The entry to remove.
+     */
+    private void removeNode(Node<K, V> node) {
+        map.remove(node.key);
+        queueOf(node).remove(node);
+        if (expireAfterWriteNanos > 0) unlinkWrite(node);
+        size--;
+    }
+
+    /**
+     * Returns the region queue an entry currently belongs to.
+     * 
+     * @param node The entry.
+     * @return The queue of the entry's region.
+     */
+    private AccessQueue<K, V> queueOf(Node<K, V> node) {
+        if (node.queue == WINDOW) return window;
+        return node.queue == PROBATION ? probation : protectedQueue;
+    }
+
+    /**
+     * Links an entry at the tail of the write order list.
+     * 
+     * @param node The entry that was just written.
+     */
+    private void linkWriteLast(Node<K, V> node) {
+        node.writePrev = writeTail;
+        node.writeNext = null;
+        if (writeTail == null) {
+            writeHead = node;
+        } else {
+            writeTail.writeNext = node;
+        }
+        writeTail = node;
+    }
+
+    /**
+     * Unlinks an entry from the write order list.
+     * 
+     * @param node The entry to unlink.
+     */
+    private void unlinkWrite(Node<K, V> node) {
+        if (node.writePrev != null) {
+            node.writePrev.writeNext = node.writeNext;
+        } else {
+            writeHead = node.writeNext;
+        }
+        if (node.writeNext != null) {
+            node.writeNext.writePrev = node.writePrev;
+        } else {
+            writeTail = node.writePrev;
+        }
+        node.writePrev = node.writeNext = null;
+    }
+
+
+    /**
+     * A cache entry, linked into the access order queue of its region
+     * and, when entries expire after write, into the write order list.
+     */
+    private static class Node<K, V> {
+        final K key;
+        V value;
+        int weight;
+        int queue = WINDOW;
+        long writeTime;
+        long accessTime;
+        Node<K, V> prev;
+        Node<K, V> next;
+        Node<K, V> writePrev;
+        Node<K, V> writeNext;
+
+        /**
+         * Constructs a new Node for a cache entry.
+         * 
+         * @param key The key of the entry.
+         * @param value The value of the entry.
+         * @param weight The weight of the entry.
+         * @param now The ticker time the entry was written.
+         */
+        Node(K key, V value, int weight, long now) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = now;
+            this.accessTime = now;
+        }
+    }
+
+
+    /**
+     * A doubly linked queue of entries in access order, with its total weight.
+     * The head is the least recently used entry and the tail the most recently used one.
+     */
+    private static class AccessQueue<K, V> {
+        Node<K, V> head;
+        Node<K, V> tail;
+        long weight = 0;
+
+        /**
+         * Links an entry at the tail of the queue.
+         * 
+         * @param node The entry to add.
+         */
+        void addLast(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            weight += node.weight;
+        }
+
+        /**
+         * Unlinks an entry from the queue.
+         * 
+         * @param node The entry to remove.
+         */
+        void remove(Node<K, V> node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                tail = node.prev;
+            }
+            node.prev = node.next = null;
+            weight -= node.weight;
+        }
+
+        /**
+         * Moves an entry to the tail of the queue.
+         * 
+         * @param node The entry that was just used.
+         */
+        void moveToTail(Node<K, V> node) {
+            if (node == tail) return;
+            remove(node);
+            addLast(node);
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+package com.brendanddev.collections.cache;
+
+import com.brendanddev.collections.core.Hashing;
+
+/**
+ * A compact count-min sketch estimating how often keys have been seen recently.
+ * 
+ * Counters are 4 bits wide, packed sixteen to a long, and every key is counted in four of them
+ * chosen by different hash functions. The estimated frequency of a key is the smallest of its four
+ * counters, which may overestimate but never underestimates the true count. Counters saturate at 15.
+ * 
+ * To keep the estimate about recent history, the sketch ages itself: after a sample of additions
+ * proportional to the cache size, every counter is halved. Old popularity therefore decays, and keys
+ * that were hot long ago can be displaced by keys that are hot now.
+ * 
+ * The table is sized by number of entries, never by weight, and is capped at MAX_TABLE_LENGTH words.
+ * A cache whose entry count is not known up front starts small and calls ensureCapacity as it fills.
+ * Growing repeats the old table into the larger one, so every key keeps its estimate.
+ * 
+ * Time Complexity
+ * Increment: O(1)
+ * Frequency: O(1)
+ * Reset (aging): O(table size), once per sample period
+ * Ensure capacity: O(table size), at most once per doubling of the entry count
+ */
+public class FrequencySketch<K> {
+
+    private static final int[] SEEDS = {0x97cb3127, 0xb7a1e38d, 0x4b3e7f2b, 0x2f9c5d61};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+    public static final int MAX_TABLE_LENGTH = 1 << 24;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int additions = 0;
+    private long resetCount = 0;
+
+    /**
+     * Constructs a FrequencySketch sized for a cache holding about the given number of entries.
+     * 
+     * @param maximumSize The expected number of entries in the cache.
+     */
+    public FrequencySketch(long maximumSize) {
+        int capacity = capacityFor(maximumSize);
+        table = new long[Hashing.tableSizeFor(capacity)];
+        tableMask = table.length - 1;
+        sampleSize = 10 * capacity;
+    }
+
+    /**
+     * Grows the table, if needed, for a cache holding about the given number of entries.
+     * Each word of the larger table starts as the word of the old table its keys used to map to,
+     * so the estimates carry over and only the sample period is lengthened.
+     * 
+     * @param maximumSize The expected number of entries in the cache.
+     */
+    public void ensureCapacity(long maximumSize) {
+        int capacity = capacityFor(maximumSize);
+        int length = Hashing.tableSizeFor(capacity);
+        if (length <= table.length) return;
+
+        long[] grown = new long[length];
+        for (int i = 0; i < length; i++) {
+            grown[i] = table[i & tableMask];
+        }
+        table = grown;
+        tableMask = length - 1;
+        sampleSize = 10 * capacity;
+    }
+
+    /**
+     * Returns the estimated number of recent occurrences of a key, between 0 and 15.
+     * 
+     * @param key The key to estimate.
+     * @return The estimated frequency of the key.
+     */
+    public int frequency(K key) {
+        int hash = Hashing.hash(key);
+        int min = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int item = Hashing.spread(hash ^ SEEDS[i]);
+            int count = (int) ((table[item & tableMask] >>> counterShift(item)) & 0xF);
+            if (count < min) min = count;
+        }
+        return min;
+    }
+
+    /**
+     * Records an occurrence of a key, aging the whole sketch when the sample period is complete.
+     * 
+     * @param key The key to record.
+     */
+    public void increment(K key) {
+        int hash = Hashing.hash(key);
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int item = Hashing.spread(hash ^ SEEDS[i]);
+            int index = item & tableMask;
+            int shift = counterShift(item);
+            // Saturated counters are left at their maximum
+            if (((table[index] >>> shift) & 0xF) < MAX_COUNT) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Returns the number of words in the table, each holding sixteen counters.
+     */
+    public int getTableLength() {
+        return table.length;
+    }
+
+    /**
+     * Returns how many times the sketch has aged its counters.
+     */
+    public long getResetCount() {
+        return resetCount;
+    }
+
+    /**
+     * Halves every counter, so that past occurrences weigh half as much as new ones.
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+        resetCount++;
+    }
+
+    /**
+     * Clamps an expected number of entries to the range the table supports.
+     * 
+     * @param maximumSize The expected number of entries in the cache.
+     * @return The number of entries the table is sized for, from 1 to MAX_TABLE_LENGTH.
+     */
+    private static int capacityFor(long maximumSize) {
+        return (int) Math.min(Math.max(maximumSize, 1), MAX_TABLE_LENGTH);
+    }
+
+    /**
+     * Selects which of the sixteen counters in a word an item uses, from its high bits.
+     * 
+     * @param item The mixed hash of a key for one of the hash functions.
+     * @return The bit offset of the counter within its word.
+     */
+    private static int counterShift(int item) {
+        return (item >>> 28) << 2;
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.brendanddev.collections.cache;
+
+/**
+ * Computes the weight of a cache entry, used by caches bounded by total weight
+ * instead of by number of entries.
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     * Returns the weight of an entry.
+     * 
+     * @param key The key of the entry.
+     * @param value The value of the entry.
+     * @return The non negative weight of the entry.
+     */
+    int weigh(K key, V value);
+
+}
@@ -0,0 +1,109 @@
+package com.brendanddev.collections.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A custom Codec interface for converting values of type T to and from bytes.
+ * 
+ * Used by collections that store their contents outside the Java heap, where values can only
+ * be kept in serialized form. Encodings must be deterministic, since equal values are
+ * recognized by comparing their encoded bytes.
+ */
+public interface CustomCodec<T> {
+
+    /**
+     * Codec for Integer values, encoded as 4 big endian bytes.
+     */
+    CustomCodec<Integer> INTEGER = new CustomCodec<Integer>() {
+        public int encodedSize(Integer value) { return Integer.BYTES; }
+        public void encode(Integer value, ByteBuffer buffer) { buffer.putInt(value); }
+        public Integer decode(ByteBuffer buffer) { return buffer.getInt(); }
+    };
+
+    /**
+     * Codec for Long values, encoded as 8 big endian bytes.
+     */
+    CustomCodec<Long> LONG = new CustomCodec<Long>() {
+        public int encodedSize(Long value) { return Long.BYTES; }
+        public void encode(Long value, ByteBuffer buffer) { buffer.putLong(value); }
+        public Long decode(ByteBuffer buffer) { return buffer.getLong(); }
+    };
+
+    /**
+     * Codec for String values, encoded as UTF-8 bytes.
+     */
+    CustomCodec<String> STRING = new CustomCodec<String>() {
+        public int encodedSize(String value) { return utf8Length(value); }
+        public void encode(String value, ByteBuffer buffer) { buffer.put(value.getBytes(StandardCharsets.UTF_8)); }
+        public String decode(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * Codec for byte arrays, stored as they are.
+     */
+    CustomCodec<byte[]> BYTES = new CustomCodec<byte[]>() {
+        public int encodedSize(byte[] value) { return value.length; }
+        public void encode(byte[] value, ByteBuffer buffer) { buffer.put(value); }
+        public byte[] decode(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }
+    };
+
+    /**
+     * Counts the UTF-8 bytes of a String without encoding it, so sizing a String costs no allocation.
+     * 
+     * @param value The String to measure.
+     * @return The length of the UTF-8 encoding in bytes.
+     */
+    static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) continue;
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                // A surrogate pair is 2 chars and 4 bytes
+                bytes += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+            // An unpaired surrogate is encoded as a single '?' byte
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the number of bytes encode will write for a value.
+     * 
+     * @param value The value to measure.
+     * @return The size of the encoded value in bytes.
+     */
+    int encodedSize(T value);
+
+    /**
+     * Writes the encoding of a value at the buffer's position, advancing it by encodedSize(value).
+     * 
+     * @param value The value to encode.
+     * @param buffer The buffer to write into.
+     */
+    void encode(T value, ByteBuffer buffer);
+
+    /**
+     * Reads a value from the buffer, whose remaining bytes are exactly one encoding.
+     * 
+     * @param buffer The buffer to read from.
+     * @return The decoded value.
+     */
+    T decode(ByteBuffer buffer);
+
+}
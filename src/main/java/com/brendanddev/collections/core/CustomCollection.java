@@ -2,9 +2,9 @@ package com.brendanddev.collections.core;
 
 /**
  * A generic collection interface representing a collection of elements.
- * Provides basic operations for managing the collection.
+ * Provides basic operations for managing the collection, and an estimate of its memory footprint.
  */
-public interface CustomCollection<T> {
+public interface CustomCollection<T> extends MemoryFootprint {
     int size();
     boolean isEmpty();
     boolean add(T element);
@@ -0,0 +1,10 @@
+package com.brendanddev.collections.core;
+
+/**
+ * Represents an iterator over a collection of primitive long values.
+ * Provides methods to traverse the collection sequentially without boxing any value.
+ */
+public interface CustomLongIterator {
+    boolean hasNext();
+    long nextLong();
+}
@@ -0,0 +1,121 @@
+package com.brendanddev.collections.core;
+
+/**
+ * An estimate of the heap memory used by a data structure, split by where the bytes go.
+ * 
+ * The estimate covers the structure's own objects only: the collection object itself, its backing
+ * arrays and its node or entry objects. The elements, keys and values stored in it are not counted,
+ * since they are usually shared with the rest of the program. Sizes follow the object layout of a
+ * 64-bit HotSpot JVM with compressed references, which is the default for heaps below 32 GB:
+ * 12 byte object headers, 16 byte array headers, 4 byte references and 8 byte alignment.
+ * 
+ * Slack is the part of the array bytes held by slots that currently store nothing, such as unused
+ * capacity at the end of a list or empty slots of a hash table. It is the memory a trimToSize or
+ * a smaller load factor could give back.
+ */
+public final class Footprint {
+
+    public static final int OBJECT_HEADER_BYTES = 12;
+    public static final int ARRAY_HEADER_BYTES = 16;
+    public static final int REFERENCE_BYTES = 4;
+    public static final int OBJECT_ALIGNMENT = 8;
+
+    private final long arrayBytes;
+    private final long nodeBytes;
+    private final long slackBytes;
+
+    /**
+     * Constructs a Footprint from its parts.
+     * 
+     * @param arrayBytes The bytes of all backing arrays, including their headers and slack.
+     * @param nodeBytes The bytes of the collection object and its node or entry objects.
+     * @param slackBytes The bytes of array slots that hold nothing.
+     * @throws IllegalArgumentException if any part is negative or slack exceeds the array bytes.
+     */
+    public Footprint(long arrayBytes, long nodeBytes, long slackBytes) {
+        if (arrayBytes < 0 || nodeBytes < 0 || slackBytes < 0) throw new IllegalArgumentException("Sizes must not be negative");
+        if (slackBytes > arrayBytes) throw new IllegalArgumentException("Slack cannot exceed the array bytes");
+        this.arrayBytes = arrayBytes;
+        this.nodeBytes = nodeBytes;
+        this.slackBytes = slackBytes;
+    }
+
+    /**
+     * Returns the estimated total number of bytes retained by the structure itself.
+     */
+    public long retainedBytes() {
+        return arrayBytes + nodeBytes;
+    }
+
+    /**
+     * Returns the bytes of all backing arrays, including their headers and slack.
+     */
+    public long arrayBytes() {
+        return arrayBytes;
+    }
+
+    /**
+     * Returns the bytes of the collection object and its node or entry objects.
+     */
+    public long nodeBytes() {
+        return nodeBytes;
+    }
+
+    /**
+     * Returns the bytes of array slots that hold nothing.
+     */
+    public long slackBytes() {
+        return slackBytes;
+    }
+
+    /**
+     * Combines this footprint with the footprint of a nested structure.
+     * 
+     * @param other The footprint to add.
+     * @return A new Footprint holding the sum of both.
+     */
+    public Footprint plus(Footprint other) {
+        return new Footprint(arrayBytes + other.arrayBytes, nodeBytes + other.nodeBytes, slackBytes + other.slackBytes);
+    }
+
+    /**
+     * Returns a readable summary of the footprint.
+     */
+    @Override
+    public String toString() {
+        return String.format("%d bytes (arrays %d, nodes %d, slack %d)", retainedBytes(), arrayBytes, nodeBytes, slackBytes);
+    }
+
+    /**
+     * Estimates the size of an object from its fields.
+     * 
+     * @param references The number of reference fields.
+     * @param primitiveBytes The total size of the primitive fields in bytes.
+     * @return The aligned size of the object in bytes.
+     */
+    public static long objectBytes(int references, int primitiveBytes) {
+        return align(OBJECT_HEADER_BYTES + (long) references * REFERENCE_BYTES + primitiveBytes);
+    }
+
+    /**
+     * Estimates the size of an array.
+     * 
+     * @param length The number of slots in the array.
+     * @param elementBytes The size of one slot in bytes, REFERENCE_BYTES for object arrays.
+     * @return The aligned size of the array in bytes.
+     */
+    public static long arrayBytes(long length, int elementBytes) {
+        return align(ARRAY_HEADER_BYTES + length * elementBytes);
+    }
+
+    /**
+     * Helper to round a size up to the object alignment.
+     * 
+     * @param bytes The unaligned size.
+     * @return The aligned size.
+     */
+    private static long align(long bytes) {
+        return (bytes + OBJECT_ALIGNMENT - 1) & -OBJECT_ALIGNMENT;
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.brendanddev.collections.core;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Static helpers shared by the hash based collections.
+ * 
+ * Every hash table in this project uses a power of two capacity, so a slot index is taken
+ * from the low bits of a hash with a mask instead of an integer division. Because the low bits
+ * of many hashCode implementations are weak (for example, Integer keys that are multiples of 1024),
+ * hashes are first passed through a bit mixing finalizer that spreads every input bit across
+ * the whole output.
+ */
+public final class Hashing {
+
+    /** The largest power of two capacity a table array can have. */
+    public static final int MAX_CAPACITY = 1 << 30;
+
+    /** The smallest bucket size that is converted into a tree, whatever the load factor. */
+    public static final int MIN_TREEIFY_THRESHOLD = 8;
+
+    private Hashing() {}
+
+    /**
+     * Mixes the bits of a 32 bit hash using the MurmurHash3 fmix32 finalizer.
+     * 
+     * @param h The hash to mix.
+     * @return The mixed hash.
+     */
+    public static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Mixes the bits of a 64 bit value using the MurmurHash3 fmix64 finalizer.
+     * 
+     * @param h The value to mix.
+     * @return The mixed 64 bit hash.
+     */
+    public static long spread(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Computes the mixed hash of an object's hashCode.
+     * 
+     * @param key The object to hash, must not be null.
+     * @return The mixed hash of the key.
+     */
+    public static int hash(Object key) {
+        return spread(key.hashCode());
+    }
+
+    /**
+     * Returns the smallest power of two greater than or equal to the given capacity,
+     * clamped to the range [1, MAX_CAPACITY].
+     * 
+     * @param capacity The requested capacity.
+     * @return A power of two table size.
+     */
+    public static int tableSizeFor(int capacity) {
+        if (capacity <= 1) return 1;
+        if (capacity >= MAX_CAPACITY) return MAX_CAPACITY;
+        return Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    /**
+     * Returns the bucket size above which a chained hash table with the given load factor converts a
+     * bucket into a tree.
+     * 
+     * With well spread hashes the size of a bucket follows a Poisson distribution whose mean is at most
+     * the load factor, so the threshold sits about six standard deviations above that mean, where fewer
+     * than one bucket in a hundred million exceeds it. Only many keys sharing a hash treeify a bucket,
+     * while random keys never do. The threshold never drops below MIN_TREEIFY_THRESHOLD.
+     * 
+     * @param loadFactor The average number of entries per bucket above which the table resizes.
+     * @return The largest bucket size that is still kept as a list.
+     */
+    public static int treeifyThreshold(double loadFactor) {
+        double threshold = Math.ceil(loadFactor + 6 * Math.sqrt(loadFactor)) + 3;
+        return (int) Math.max(MIN_TREEIFY_THRESHOLD, Math.min(threshold, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Returns the tree size at or below which a treeified bucket is converted back into a list.
+     * It stays a quarter below the treeify threshold, so a bucket hovering around the threshold
+     * is not converted back and forth on every operation.
+     * 
+     * @param treeifyThreshold The threshold returned by treeifyThreshold.
+     * @return The largest tree size that is converted back into a list.
+     */
+    public static int untreeifyThreshold(int treeifyThreshold) {
+        return treeifyThreshold - treeifyThreshold / 4;
+    }
+
+    /**
+     * Returns the class of an object if it implements Comparable for exactly its own class,
+     * so that any two instances of that class can be ordered with compareTo, otherwise null.
+     * Hash tables use this to decide whether colliding keys can be kept in a search tree.
+     * 
+     * @param x The object to inspect.
+     * @return The class of x if its instances are mutually comparable, otherwise null.
+     */
+    public static Class<?> comparableClassFor(Object x) {
+        if (!(x instanceof Comparable)) return null;
+        Class<?> c = x.getClass();
+        if (c == String.class) return c;
+        for (Type type : c.getGenericInterfaces()) {
+            if (type instanceof ParameterizedType) {
+                ParameterizedType parameterized = (ParameterizedType) type;
+                Type[] arguments = parameterized.getActualTypeArguments();
+                if (parameterized.getRawType() == Comparable.class && arguments.length == 1 && arguments[0] == c) {
+                    return c;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compares two objects of the same class returned by comparableClassFor.
+     * 
+     * @param a The first object.
+     * @param b The second object, of the same class as a.
+     * @return The result of a.compareTo(b).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static int compareComparables(Object a, Object b) {
+        return ((Comparable) a).compareTo(b);
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.brendanddev.collections.core;
+
+/**
+ * A custom MemoryFootprint interface for data structures that can estimate their own heap usage.
+ * 
+ * Implementations compute the estimate from their own capacity and contents rather than by measuring
+ * the heap, so a footprint can be taken at any time while sizing containers or comparing implementations.
+ */
+public interface MemoryFootprint {
+
+    /**
+     * Estimates the heap memory used by this structure, excluding the elements stored in it.
+     * 
+     * @return The estimated Footprint.
+     */
+    Footprint footprint();
+
+}
@@ -4,6 +4,7 @@ import java.util.NoSuchElementException;
 
 import com.brendanddev.collections.core.CustomCollection;
 import com.brendanddev.collections.core.CustomIterator;
+import com.brendanddev.collections.core.Footprint;
 
 /**
  * A custom generic implementation of a Min-Heap backed by an array.
@@ -77,6 +78,18 @@ public class CustomHeap<T extends Comparable<T>> implements CustomCollection<T>
         return size == 0;
     }
 
+    /**
+     * Estimates the memory used by the heap, counting unused capacity at the end of the element array as slack.
+     * 
+     * @return The estimated Footprint of the heap.
+     */
+    @Override
+    public Footprint footprint() {
+        return new Footprint(Footprint.arrayBytes(elements.length, Footprint.REFERENCE_BYTES),
+                Footprint.objectBytes(1, Integer.BYTES),
+                (long) (elements.length - size) * Footprint.REFERENCE_BYTES);
+    }
+
     @Override
     public int size() {
         return size;
@@ -2,6 +2,7 @@ package com.brendanddev.collections.heap;
 
 import com.brendanddev.collections.core.CustomCollection;
 import com.brendanddev.collections.core.CustomIterator;
+import com.brendanddev.collections.core.Footprint;
 import com.brendanddev.collections.list.CustomArrayList;
 
 /**
@@ -88,6 +89,16 @@ public class CustomHeapList<T extends Comparable<T>> implements CustomCollection
         return false;
     }
 
+    /**
+     * Estimates the memory used by the heap, which is its backing CustomArrayList plus the heap object.
+     * 
+     * @return The estimated Footprint of the heap.
+     */
+    @Override
+    public Footprint footprint() {
+        return new Footprint(0, Footprint.objectBytes(1, 0), 0).plus(list.footprint());
+    }
+
     /**
      * Returns the number of elements in the heap.
      */
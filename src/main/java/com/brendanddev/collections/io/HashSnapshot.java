@@ -0,0 +1,372 @@
+package com.brendanddev.collections.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+
+import com.brendanddev.collections.core.CustomCodec;
+import com.brendanddev.collections.core.CustomIterator;
+import com.brendanddev.collections.map.CustomHashMap;
+import com.brendanddev.collections.map.MapCursor;
+import com.brendanddev.collections.set.CustomHashSet;
+
+/**
+ * A compact, versioned binary snapshot format for CustomHashMap and CustomHashSet.
+ * 
+ * A snapshot starts with a header holding a magic number, the format version, the kind of collection
+ * and the number of records as a varint. Every record is a key, followed by a value for maps, each
+ * written as a varint length and the bytes of its CustomCodec encoding. A trailing CRC32 of everything
+ * before it detects truncated or corrupted snapshots.
+ * 
+ * All reads and writes go through a single direct buffer owned by the HashSnapshot, which is reused
+ * across calls and only grows when a single record does not fit in it. Records are encoded straight
+ * into the buffer and written to the channel one buffer at a time, so no intermediate byte arrays or
+ * streams are allocated. Loading pre-sizes the table from the record count in the header, so the
+ * collection never resizes while it is filled. The header is only verified by the checksum at the end,
+ * so pre-sizing stops at MAX_PRESIZED_RECORDS and larger snapshots grow the table as they are read, and
+ * record lengths above MAX_RECORD_BYTES are rejected before any buffer is sized for them. A corrupt
+ * count or length then fails with an IOException instead of exhausting memory.
+ * 
+ * Time Complexity
+ * Save: O(n)
+ * Load: O(n)
+ * 
+ * Note: A HashSnapshot is not thread safe, since every call shares its buffer.
+ */
+public class HashSnapshot {
+
+    private static final int MAGIC = 0x4353534E;
+    private static final byte VERSION = 1;
+    private static final byte KIND_MAP = 1;
+    private static final byte KIND_SET = 2;
+    private static final int HEADER_BYTES = Integer.BYTES + 2 + 5;
+    private static final int MAX_VARINT_BYTES = 5;
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    public static final int MAX_PRESIZED_RECORDS = 1 << 20;
+    public static final int MAX_RECORD_BYTES = 1 << 26;
+
+    private ByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    // Position in the buffer up to which read bytes have been added to the checksum
+    private int checked;
+
+    /**
+     * Constructs a HashSnapshot with a buffer of the default size.
+     */
+    public HashSnapshot() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a HashSnapshot with a buffer of the given size.
+     * 
+     * @param bufferSize The number of bytes transferred to or from a channel at a time.
+     * @throws IllegalArgumentException if the buffer cannot hold a header.
+     */
+    public HashSnapshot(int bufferSize) {
+        if (bufferSize < HEADER_BYTES) throw new IllegalArgumentException("Buffer size must be at least " + HEADER_BYTES);
+        buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Writes a snapshot of a map to a channel.
+     * 
+     * @param map The map to save.
+     * @param keyCodec The codec used to encode the keys.
+     * @param valueCodec The codec used to encode the values.
+     * @param channel The channel to write to, which is left open.
+     * @throws IOException if writing to the channel fails.
+     */
+    public <K, V> void writeMap(CustomHashMap<K, V> map, CustomCodec<? super K> keyCodec,
+                                CustomCodec<? super V> valueCodec, WritableByteChannel channel) throws IOException {
+        startWrite(KIND_MAP, map.size());
+        MapCursor<K, V> cursor = map.cursor();
+        while (cursor.advance()) {
+            K key = cursor.key();
+            V value = cursor.value();
+            int keySize = keyCodec.encodedSize(key);
+            int valueSize = valueCodec.encodedSize(value);
+            reserve(varintSize(keySize) + keySize + varintSize(valueSize) + valueSize, channel);
+            putVarint(keySize);
+            keyCodec.encode(key, buffer);
+            putVarint(valueSize);
+            valueCodec.encode(value, buffer);
+        }
+        finishWrite(channel);
+    }
+
+    /**
+     * Reads a snapshot written by writeMap into a new map sized for its entries, up to MAX_PRESIZED_RECORDS.
+     * 
+     * @param channel The channel to read from, which is left open.
+     * @param keyCodec The codec used to decode the keys.
+     * @param valueCodec The codec used to decode the values.
+     * @return A new CustomHashMap holding the entries of the snapshot.
+     * @throws IOException if reading fails, or the snapshot is not a map, truncated or corrupt.
+     */
+    public <K, V> CustomHashMap<K, V> readMap(ReadableByteChannel channel, CustomCodec<K> keyCodec,
+                                              CustomCodec<V> valueCodec) throws IOException {
+        int count = startRead(KIND_MAP, channel);
+        CustomHashMap<K, V> map = new CustomHashMap<>(Math.min(count, MAX_PRESIZED_RECORDS));
+        for (int i = 0; i < count; i++) {
+            K key = readRecord(keyCodec, channel);
+            map.put(key, readRecord(valueCodec, channel));
+        }
+        finishRead(channel);
+        return map;
+    }
+
+    /**
+     * Writes a snapshot of a set to a channel.
+     * 
+     * @param set The set to save.
+     * @param codec The codec used to encode the elements.
+     * @param channel The channel to write to, which is left open.
+     * @throws IOException if writing to the channel fails.
+     */
+    public <T> void writeSet(CustomHashSet<T> set, CustomCodec<? super T> codec,
+                             WritableByteChannel channel) throws IOException {
+        startWrite(KIND_SET, set.size());
+        CustomIterator<T> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            T element = iterator.next();
+            int size = codec.encodedSize(element);
+            reserve(varintSize(size) + size, channel);
+            putVarint(size);
+            codec.encode(element, buffer);
+        }
+        finishWrite(channel);
+    }
+
+    /**
+     * Reads a snapshot written by writeSet into a new set sized for its elements, up to MAX_PRESIZED_RECORDS.
+     * 
+     * @param channel The channel to read from, which is left open.
+     * @param codec The codec used to decode the elements.
+     * @return A new CustomHashSet holding the elements of the snapshot.
+     * @throws IOException if reading fails, or the snapshot is not a set, truncated or corrupt.
+     */
+    public <T> CustomHashSet<T> readSet(ReadableByteChannel channel, CustomCodec<T> codec) throws IOException {
+        int count = startRead(KIND_SET, channel);
+        CustomHashSet<T> set = new CustomHashSet<>(Math.min(count, MAX_PRESIZED_RECORDS));
+        for (int i = 0; i < count; i++) {
+            set.add(readRecord(codec, channel));
+        }
+        finishRead(channel);
+        return set;
+    }
+
+    /**
+     * Returns the current size of the reusable buffer in bytes.
+     */
+    public int getBufferSize() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Helper to reset the checksum and put the header into the empty buffer.
+     * 
+     * @param kind The kind of collection being written.
+     * @param count The number of records that follow.
+     */
+    private void startWrite(byte kind, int count) {
+        crc.reset();
+        buffer.clear();
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.put(kind);
+        putVarint(count);
+    }
+
+    /**
+     * Helper to write the remaining records followed by the checksum trailer.
+     * 
+     * @param channel The channel to write to.
+     * @throws IOException if writing fails.
+     */
+    private void finishWrite(WritableByteChannel channel) throws IOException {
+        flush(channel);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Helper to make room for a record of the given size, writing out the buffer
+     * or growing it if the record is larger than the whole buffer.
+     * 
+     * @param bytes The number of bytes about to be put.
+     * @param channel The channel to write to.
+     * @throws IOException if writing fails.
+     */
+    private void reserve(int bytes, WritableByteChannel channel) throws IOException {
+        if (buffer.remaining() >= bytes) return;
+        flush(channel);
+        if (buffer.capacity() < bytes) buffer = ByteBuffer.allocateDirect(bytes);
+    }
+
+    /**
+     * Helper to add the buffered bytes to the checksum, write them to the channel and clear the buffer.
+     * 
+     * @param channel The channel to write to.
+     * @throws IOException if writing fails.
+     */
+    private void flush(WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Helper to read and validate the header of a snapshot.
+     * 
+     * @param kind The kind of collection expected.
+     * @param channel The channel to read from.
+     * @return The number of records in the snapshot.
+     * @throws IOException if reading fails or the header is invalid.
+     */
+    private int startRead(byte kind, ReadableByteChannel channel) throws IOException {
+        crc.reset();
+        buffer.clear().flip();
+        checked = 0;
+
+        require(Integer.BYTES + 2, channel);
+        if (buffer.getInt() != MAGIC) throw new IOException("Not a HashSnapshot stream");
+        if (buffer.get() != VERSION) throw new IOException("Unsupported snapshot version");
+        if (buffer.get() != kind) {
+            throw new IOException("Snapshot holds a " + (kind == KIND_MAP ? "set" : "map") + ", not a "
+                    + (kind == KIND_MAP ? "map" : "set"));
+        }
+        int count = readVarint(channel);
+        if (count < 0) throw new IOException("Corrupt record count");
+        return count;
+    }
+
+    /**
+     * Helper to verify the checksum trailer against the bytes read so far.
+     * 
+     * @param channel The channel to read from.
+     * @throws IOException if reading fails or the checksum does not match.
+     */
+    private void finishRead(ReadableByteChannel channel) throws IOException {
+        require(Integer.BYTES, channel);
+        updateChecksum();
+        if (buffer.getInt() != (int) crc.getValue()) throw new IOException("Snapshot checksum mismatch");
+    }
+
+    /**
+     * Helper to read one length prefixed record and decode it.
+     * 
+     * @param codec The codec used to decode the record.
+     * @param channel The channel to read from.
+     * @return The decoded record.
+     * @throws IOException if reading fails, or the record is truncated, too short to decode
+     *                     or longer than MAX_RECORD_BYTES.
+     */
+    private <T> T readRecord(CustomCodec<T> codec, ReadableByteChannel channel) throws IOException {
+        int length = readVarint(channel);
+        if (length < 0 || length > MAX_RECORD_BYTES) throw new IOException("Corrupt record length " + length);
+        require(length, channel);
+
+        // Limit the buffer to this record, since decode consumes all remaining bytes
+        int limit = buffer.limit();
+        int end = buffer.position() + length;
+        buffer.limit(end);
+        T value;
+        try {
+            value = codec.decode(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Record is shorter than its encoding", e);
+        }
+        buffer.limit(limit);
+        buffer.position(end);
+        return value;
+    }
+
+    /**
+     * Helper to make sure the buffer has at least the given number of unread bytes,
+     * compacting and refilling it from the channel, and growing it for oversized records.
+     * 
+     * @param bytes The number of bytes needed.
+     * @param channel The channel to read from.
+     * @throws IOException if reading fails or the channel ends first.
+     */
+    private void require(int bytes, ReadableByteChannel channel) throws IOException {
+        if (buffer.remaining() >= bytes) return;
+
+        updateChecksum();
+        if (buffer.capacity() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(bytes);
+            grown.put(buffer);
+            buffer = grown;
+        } else {
+            buffer.compact();
+        }
+        checked = 0;
+
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) throw new EOFException("Snapshot is truncated");
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Helper to add the bytes consumed since the last update to the checksum.
+     */
+    private void updateChecksum() {
+        ByteBuffer consumed = buffer.duplicate();
+        consumed.limit(buffer.position()).position(checked);
+        crc.update(consumed);
+        checked = buffer.position();
+    }
+
+    /**
+     * Helper to put a non negative int as a varint, seven bits per byte with the high bit
+     * marking that more bytes follow.
+     * 
+     * @param value The value to put.
+     */
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Helper to read a varint written by putVarint.
+     * 
+     * @param channel The channel to read from.
+     * @return The decoded value.
+     * @throws IOException if reading fails or the varint is too long.
+     */
+    private int readVarint(ReadableByteChannel channel) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < MAX_VARINT_BYTES * 7; shift += 7) {
+            require(1, channel);
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Corrupt varint");
+    }
+
+    /**
+     * Helper to return the number of bytes putVarint uses for a value.
+     * 
+     * @param value The value to measure.
+     * @return The encoded size in bytes, from 1 to 5.
+     */
+    private static int varintSize(int value) {
+        int bits = 32 - Integer.numberOfLeadingZeros(value | 1);
+        return (bits + 6) / 7;
+    }
+
+}
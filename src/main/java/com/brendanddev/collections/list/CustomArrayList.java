@@ -4,6 +4,7 @@ import java.util.NoSuchElementException;
 
 import com.brendanddev.collections.core.CustomCollection;
 import com.brendanddev.collections.core.CustomIterator;
+import com.brendanddev.collections.core.Footprint;
 
 /**
  * A custom generic array-backed list implementation.
@@ -150,6 +151,18 @@ public class CustomArrayList<T> implements CustomCollection<T> {
     }
 
 
+    /**
+     * Estimates the memory used by the list, counting unused capacity at the end of the array as slack.
+     * 
+     * @return The estimated Footprint of the list.
+     */
+    @Override
+    public Footprint footprint() {
+        return new Footprint(Footprint.arrayBytes(elements.length, Footprint.REFERENCE_BYTES),
+                Footprint.objectBytes(1, Integer.BYTES),
+                (long) (elements.length - size) * Footprint.REFERENCE_BYTES);
+    }
+
     /**
      * Returns the number of elements in the list.
      */
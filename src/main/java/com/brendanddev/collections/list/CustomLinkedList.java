@@ -2,6 +2,7 @@ package com.brendanddev.collections.list;
 
 import com.brendanddev.collections.core.CustomCollection;
 import com.brendanddev.collections.core.CustomIterator;
+import com.brendanddev.collections.core.Footprint;
 
 /**
  * A custom implementation of a generic doubly linked list.
@@ -181,6 +182,16 @@ public class CustomLinkedList<T> implements CustomCollection<T> {
         return removedValue;
     }
 
+    /**
+     * Estimates the memory used by the list, which is one node object per element.
+     * 
+     * @return The estimated Footprint of the list.
+     */
+    @Override
+    public Footprint footprint() {
+        return new Footprint(0, Footprint.objectBytes(2, Integer.BYTES) + size * Footprint.objectBytes(3, 0), 0);
+    }
+
     /**
      * Returns the number of elements in the list.
      */
@@ -0,0 +1,212 @@
+package com.brendanddev.collections.map;
+
+import java.util.function.BiConsumer;
+
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.MemoryFootprint;
+import com.brendanddev.collections.set.CustomBloomFilter;
+
+/**
+ * A CustomHashMap fronted by a CustomBloomFilter of its keys, acting as a negative cache.
+ * 
+ * Every key put into the map is also added to the filter, so a lookup for a key the filter has never
+ * seen returns at once, without hashing into the map or walking a bucket. Only lookups for present keys
+ * and the rare false positives reach the map. This pays off when most lookups are misses.
+ * 
+ * A Bloom filter cannot forget keys, so removed keys keep their bits set and slowly make the filter
+ * less selective. The filter is rebuilt from the current keys once removals outnumber the remaining
+ * keys, and doubled once the map outgrows the number of keys it was sized for.
+ * 
+ * Time Complexity
+ * Insert/Update: O(k) plus the map's O(1)
+ * Search (get/containsKey): O(k) for filtered misses, O(k) plus the map's O(1) otherwise
+ * Remove: O(1), plus an O(n) rebuild every so often
+ * 
+ * Note: Null keys are not allowed, since the filter cannot hash them.
+ */
+public class BloomFilteredHashMap<K, V> implements MemoryFootprint {
+
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    private static final int DEFAULT_EXPECTED_SIZE = 1024;
+
+    private final CustomHashMap<K, V> map;
+    private final double falsePositiveRate;
+    private final boolean blocked;
+    private CustomBloomFilter<K> filter;
+    private int filterCapacity;
+    private int removalsSinceRebuild = 0;
+    private long filteredLookups = 0;
+    private long falsePositiveLookups = 0;
+
+    /**
+     * Constructs an empty BloomFilteredHashMap with a default size and false positive rate.
+     */
+    public BloomFilteredHashMap() {
+        this(DEFAULT_EXPECTED_SIZE, DEFAULT_FALSE_POSITIVE_RATE, true);
+    }
+
+    /**
+     * Constructs an empty BloomFilteredHashMap sized for an expected number of keys.
+     * 
+     * @param expectedSize The number of keys the map is expected to hold.
+     * @param falsePositiveRate The target rate of misses that still reach the map.
+     * @param blocked true to use the cache line blocked filter variant.
+     * @throws IllegalArgumentException if expectedSize is negative or the rate is not strictly between 0 and 1.
+     */
+    public BloomFilteredHashMap(int expectedSize, double falsePositiveRate, boolean blocked) {
+        this.map = new CustomHashMap<>(expectedSize);
+        this.falsePositiveRate = falsePositiveRate;
+        this.blocked = blocked;
+        this.filterCapacity = Math.max(expectedSize, DEFAULT_EXPECTED_SIZE);
+        this.filter = new CustomBloomFilter<>(filterCapacity, falsePositiveRate, blocked);
+    }
+
+    /**
+     * Adds a key-value pair, replacing the value of an existing key.
+     * 
+     * @param key The key to add or update.
+     * @param value The value associated with the key.
+     * @return The old value associated with the key, or null if a new entry was added.
+     * @throws IllegalArgumentException if the key is null.
+     */
+    public V put(K key, V value) {
+        if (key == null) throw new IllegalArgumentException("Null keys not allowed");
+        filter.add(key);
+        V oldValue = map.put(key, value);
+        if (map.size() > filterCapacity) {
+            filterCapacity *= 2;
+            rebuildFilter();
+        }
+        return oldValue;
+    }
+
+    /**
+     * Retrieves the value associated with a key, skipping the map for keys the filter rules out.
+     * 
+     * @param key The key to lookup.
+     * @return The value for the key, or null if the key does not exist.
+     */
+    public V get(K key) {
+        if (!filter.mightContain(key)) {
+            filteredLookups++;
+            return null;
+        }
+        V value = map.get(key);
+        if (value == null && !map.containsKey(key)) falsePositiveLookups++;
+        return value;
+    }
+
+    /**
+     * Retrieves the value associated with a key, or a default value if the key does not exist.
+     * 
+     * @param key The key to lookup.
+     * @param defaultValue The value to return if the key does not exist.
+     * @return The value for the key, or defaultValue if the key does not exist.
+     */
+    public V getOrDefault(K key, V defaultValue) {
+        if (!containsKey(key)) return defaultValue;
+        return map.get(key);
+    }
+
+    /**
+     * Checks if the map contains a given key, skipping the map for keys the filter rules out.
+     * 
+     * @param key The key to check.
+     * @return true if the key exists, otherwise false.
+     */
+    public boolean containsKey(K key) {
+        if (!filter.mightContain(key)) {
+            filteredLookups++;
+            return false;
+        }
+        boolean found = map.containsKey(key);
+        if (!found) falsePositiveLookups++;
+        return found;
+    }
+
+    /**
+     * Removes the key-value pair for a given key, rebuilding the filter once removed keys outnumber the rest.
+     * 
+     * @param key The key to remove.
+     * @return true if the key existed and was removed, otherwise false.
+     */
+    public boolean remove(K key) {
+        if (!filter.mightContain(key) || !map.remove(key)) return false;
+        if (++removalsSinceRebuild > map.size()) rebuildFilter();
+        return true;
+    }
+
+    /**
+     * Removes all key-value pairs and clears the filter.
+     */
+    public void clear() {
+        map.clear();
+        filter.clear();
+        removalsSinceRebuild = 0;
+    }
+
+    /**
+     * Performs an action for every key-value pair of the map.
+     * 
+     * @param action The action to perform.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        map.forEach(action);
+    }
+
+    /**
+     * Replaces the filter with a fresh one holding only the current keys.
+     */
+    public void rebuildFilter() {
+        CustomBloomFilter<K> rebuilt = new CustomBloomFilter<>(filterCapacity, falsePositiveRate, blocked);
+        map.forEach((key, value) -> rebuilt.add(key));
+        filter = rebuilt;
+        removalsSinceRebuild = 0;
+    }
+
+    /**
+     * Estimates the memory used by the map and its filter.
+     * 
+     * @return The estimated Footprint of the map and filter.
+     */
+    @Override
+    public Footprint footprint() {
+        return map.footprint().plus(filter.footprint()).plus(new Footprint(0, Footprint.objectBytes(2, Double.BYTES + Integer.BYTES * 2 + Long.BYTES * 2 + 1), 0));
+    }
+
+    /**
+     * Returns the number of key-value pairs currently stored in the map.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Checks whether the map contains any key-value pairs.
+     */
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    /**
+     * Returns the number of lookups answered by the filter alone.
+     */
+    public long getFilteredLookups() {
+        return filteredLookups;
+    }
+
+    /**
+     * Returns the number of lookups the filter let through for keys that were not in the map.
+     */
+    public long getFalsePositiveLookups() {
+        return falsePositiveLookups;
+    }
+
+    /**
+     * Returns the filter currently fronting the map.
+     */
+    public CustomBloomFilter<K> getFilter() {
+        return filter;
+    }
+
+}
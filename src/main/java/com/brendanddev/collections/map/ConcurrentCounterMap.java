@@ -0,0 +1,343 @@
+package com.brendanddev.collections.map;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.BiConsumer;
+
+import com.brendanddev.collections.core.Hashing;
+
+/**
+ * A thread safe map from keys to long counters, built for aggregating metrics from many threads.
+ * 
+ * Each key owns a striped counter in the style of java.util.concurrent.atomic.LongAdder. An
+ * uncontended counter is a single base value updated with compare-and-set. The first time two
+ * threads collide on it, the counter grows an array of cells and every thread from then on adds
+ * into the cell picked by its own probe value, so threads hammering the same hot key mostly touch
+ * different cache lines. A thread that still collides rehashes its probe, and the cell array
+ * doubles until it has as many cells as there are processors. Reading a count adds up the base
+ * and every cell, which makes reads slower than updates; that is the intended trade for metrics.
+ * 
+ * Keys are stored in a ConcurrentCustomHashMap, so finding the counter for an existing key
+ * takes no locks and no values are boxed on the update path.
+ * 
+ * Time Complexity
+ * Increment/Add: O(1) (average case, lock free for existing keys)
+ * Sum: O(c), where c is the number of cells of the key's counter
+ * Snapshot: O(n * c)
+ * 
+ * Note: Null keys are not allowed.
+ */
+public class ConcurrentCounterMap<K> {
+
+    private static final int MAX_CELLS = Hashing.tableSizeFor(Runtime.getRuntime().availableProcessors());
+
+    // Per thread probe used to pick a cell, rehashed whenever its cell is contended
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() ->
+            new int[] { (int) Hashing.spread(Thread.currentThread().getId()) | 1 });
+
+    private final ConcurrentCustomHashMap<K, Counter> counters;
+
+    /**
+     * Constructs an empty ConcurrentCounterMap.
+     */
+    public ConcurrentCounterMap() {
+        counters = new ConcurrentCustomHashMap<>();
+    }
+
+    /**
+     * Constructs an empty ConcurrentCounterMap sized for the given number of threads adding new keys.
+     * 
+     * @param concurrencyLevel The expected number of threads inserting keys at once.
+     * @throws IllegalArgumentException if the concurrency level is not positive.
+     */
+    public ConcurrentCounterMap(int concurrencyLevel) {
+        counters = new ConcurrentCustomHashMap<>(concurrencyLevel);
+    }
+
+    /**
+     * Adds one to the count of a key, creating the counter if needed.
+     * 
+     * @param key The key to count.
+     */
+    public void increment(K key) {
+        add(key, 1L);
+    }
+
+    /**
+     * Adds a delta to the count of a key, creating the counter if needed.
+     * 
+     * @param key The key to count.
+     * @param delta The amount to add, which may be negative.
+     * @throws IllegalArgumentException if the key is null.
+     */
+    public void add(K key, long delta) {
+        counterFor(key).add(delta);
+    }
+
+    /**
+     * Returns the current count of a key. While other threads are adding to the key,
+     * the result reflects the updates that completed before each cell was read.
+     * 
+     * @param key The key to read.
+     * @return The count of the key, or 0 if the key has never been counted.
+     */
+    public long sum(K key) {
+        Counter counter = counters.get(key);
+        return counter == null ? 0L : counter.sum();
+    }
+
+    /**
+     * Returns the current count of a key and resets it to zero. Every concurrent update is counted
+     * exactly once, either in the returned sum or in the count left behind.
+     * 
+     * @param key The key to read and reset.
+     * @return The count of the key before the reset, or 0 if the key has never been counted.
+     */
+    public long sumThenReset(K key) {
+        Counter counter = counters.get(key);
+        return counter == null ? 0L : counter.sumThenReset();
+    }
+
+    /**
+     * Returns the sum of the counts of all keys.
+     */
+    public long total() {
+        long[] total = new long[1];
+        counters.forEach((key, counter) -> total[0] += counter.sum());
+        return total[0];
+    }
+
+    /**
+     * Checks if a key has a counter in the map.
+     * 
+     * @param key The key to check.
+     * @return true if the key has been counted and not removed, otherwise false.
+     */
+    public boolean containsKey(K key) {
+        return counters.containsKey(key);
+    }
+
+    /**
+     * Removes the counter of a key. Updates racing with the removal may be lost.
+     * 
+     * @param key The key to remove.
+     * @return true if the key existed and was removed, otherwise false.
+     */
+    public boolean remove(K key) {
+        return counters.remove(key);
+    }
+
+    /**
+     * Performs an action with every key and its current count.
+     * 
+     * @param action The action to perform with each key and count.
+     */
+    public void forEach(BiConsumer<? super K, ? super Long> action) {
+        counters.forEach((key, counter) -> action.accept(key, counter.sum()));
+    }
+
+    /**
+     * Copies the current count of every key into a new CustomHashMap, sized for the number of keys.
+     * The copy is weakly consistent: counts are read one key at a time while other threads keep adding.
+     * 
+     * @return A new CustomHashMap from each key to its count.
+     */
+    public CustomHashMap<K, Long> snapshot() {
+        CustomHashMap<K, Long> snapshot = new CustomHashMap<>(counters.size());
+        counters.forEach((key, counter) -> snapshot.put(key, counter.sum()));
+        return snapshot;
+    }
+
+    /**
+     * Copies the count of every key into a new CustomHashMap and resets the counts to zero,
+     * for exporting metrics once per reporting interval without losing concurrent updates.
+     * 
+     * @return A new CustomHashMap from each key to its count before the reset.
+     */
+    public CustomHashMap<K, Long> snapshotThenReset() {
+        CustomHashMap<K, Long> snapshot = new CustomHashMap<>(counters.size());
+        counters.forEach((key, counter) -> snapshot.put(key, counter.sumThenReset()));
+        return snapshot;
+    }
+
+    /**
+     * Returns the number of keys in the map.
+     */
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Checks whether the map contains any keys.
+     */
+    public boolean isEmpty() {
+        return counters.isEmpty();
+    }
+
+    /**
+     * Removes every key and its counter.
+     */
+    public void clear() {
+        counters.clear();
+    }
+
+    /**
+     * Returns the number of cells the counter of a key has grown, or 0 if it was never contended.
+     * 
+     * @param key The key to inspect.
+     * @return The number of cells of the key's counter.
+     */
+    public int getNumberOfCells(K key) {
+        Counter counter = counters.get(key);
+        if (counter == null) return 0;
+        Cell[] cells = counter.cells;
+        return cells == null ? 0 : cells.length;
+    }
+
+    /**
+     * Helper to find or create the counter for a key.
+     * 
+     * @param key The key to look up.
+     * @return The counter of the key.
+     */
+    private Counter counterFor(K key) {
+        Counter counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, k -> new Counter());
+    }
+
+    /**
+     * Helper to move the calling thread's probe to another cell after a collision.
+     * 
+     * @param probe The thread's probe holder.
+     * @return The new probe value.
+     */
+    private static int advanceProbe(int[] probe) {
+        int p = probe[0];
+        // Xorshift never produces zero from a nonzero state
+        p ^= p << 13;
+        p ^= p >>> 17;
+        p ^= p << 5;
+        probe[0] = p;
+        return p;
+    }
+
+
+    /**
+     * A striped long counter: a base value plus a lazily created array of padded cells.
+     */
+    static final class Counter {
+        private static final AtomicLongFieldUpdater<Counter> BASE =
+                AtomicLongFieldUpdater.newUpdater(Counter.class, "base");
+
+        volatile long base;
+        volatile Cell[] cells;
+
+        /**
+         * Adds a delta, trying the base first and falling back to the thread's cell under contention.
+         * 
+         * @param delta The amount to add.
+         */
+        void add(long delta) {
+            Cell[] cs = cells;
+            if (cs == null) {
+                long b = base;
+                if (BASE.compareAndSet(this, b, b + delta)) return;
+                cs = grow(null);
+            }
+
+            int[] probe = PROBE.get();
+            int p = probe[0];
+            while (true) {
+                Cell cell = cs[p & (cs.length - 1)];
+                if (cell.tryAdd(delta)) return;
+
+                // Contended cell, double the cells if allowed and retry on another cell
+                if (cs.length < MAX_CELLS) cs = grow(cs);
+                else cs = cells;
+                p = advanceProbe(probe);
+            }
+        }
+
+        /**
+         * Doubles the cell array, unless another thread already replaced it.
+         * Existing cells are kept, so updates in flight on them are never lost.
+         * 
+         * @param expected The cell array the caller saw, or null if there were no cells.
+         * @return The current cell array after growing.
+         */
+        private synchronized Cell[] grow(Cell[] expected) {
+            Cell[] cs = cells;
+            if (cs != expected) return cs;
+
+            int newLength = cs == null ? 2 : cs.length * 2;
+            Cell[] grown = new Cell[newLength];
+            int copied = 0;
+            if (cs != null) {
+                System.arraycopy(cs, 0, grown, 0, cs.length);
+                copied = cs.length;
+            }
+            for (int i = copied; i < newLength; i++) {
+                grown[i] = new Cell();
+            }
+            cells = grown;
+            return grown;
+        }
+
+        /**
+         * Returns the base plus the value of every cell.
+         */
+        long sum() {
+            long total = base;
+            Cell[] cs = cells;
+            if (cs != null) {
+                for (Cell cell : cs) total += cell.value;
+            }
+            return total;
+        }
+
+        /**
+         * Takes the base and every cell value atomically one at a time, leaving zero behind in each.
+         */
+        long sumThenReset() {
+            long total = BASE.getAndSet(this, 0L);
+            Cell[] cs = cells;
+            if (cs != null) {
+                for (Cell cell : cs) total += cell.reset();
+            }
+            return total;
+        }
+    }
+
+
+    /**
+     * A single counter cell, padded on both sides so neighbouring cells never share a cache line.
+     */
+    static final class Cell {
+        private static final AtomicLongFieldUpdater<Cell> VALUE =
+                AtomicLongFieldUpdater.newUpdater(Cell.class, "value");
+
+        long p1, p2, p3, p4, p5, p6, p7;
+        volatile long value;
+        long q1, q2, q3, q4, q5, q6, q7;
+
+        /**
+         * Attempts a single compare-and-set of the cell value.
+         * 
+         * @param delta The amount to add.
+         * @return true if the add succeeded, false if another thread updated the cell first.
+         */
+        boolean tryAdd(long delta) {
+            long v = value;
+            return VALUE.compareAndSet(this, v, v + delta);
+        }
+
+        /**
+         * Atomically replaces the cell value with zero.
+         * 
+         * @return The value before the reset.
+         */
+        long reset() {
+            return VALUE.getAndSet(this, 0L);
+        }
+    }
+
+}
@@ -0,0 +1,522 @@
+package com.brendanddev.collections.map;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.brendanddev.collections.core.Hashing;
+
+/**
+ * A thread safe generic hash map using lock striping.
+ *
+ * The map is split into a fixed number of segments, each an independent chained hash table
+ * guarded by its own lock. The high bits of a key's hash select the segment and the low bits
+ * select the bin inside it, so writers to different segments never contend with each other.
+ *
+ * Reads take no locks at all. Chain nodes are immutable except for their volatile value, and
+ * a segment's bins are published through an AtomicReferenceArray, so a reader always walks a
+ * consistent chain. Writers never modify a node's next link: a removal copies the nodes in front
+ * of the removed one, and a resize builds a fresh table for its segment only. While one segment
+ * resizes, readers keep using its old table and writers to every other segment carry on.
+ *
+ * Time Complexity
+ * Insert/Update: O(1) (average case)
+ * Search (get/containsKey): O(1) (average case, lock free)
+ * Remove: O(1) (average case)
+ * Resize: O(n / segments) per segment, (but happens rarely)
+ *
+ * Note: Null keys and values are not allowed, since get returns null for an absent key.
+ */
+public class ConcurrentCustomHashMap<K, V> {
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+    private static final int MAX_SEGMENTS = 1 << 16;
+    private static final int DEFAULT_SEGMENT_CAPACITY = 2;
+    public static final double LOAD_FACTOR = 0.75;
+
+    private final Segment<K, V>[] segments;
+    private final int segmentShift;
+    private final int segmentMask;
+
+    /**
+     * Constructs an empty ConcurrentCustomHashMap with the default number of segments.
+     */
+    public ConcurrentCustomHashMap() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Constructs an empty ConcurrentCustomHashMap sized for the given number of concurrent writers.
+     *
+     * @param concurrencyLevel The expected number of threads updating the map at once,
+     *                         rounded up to a power of two to give the number of segments.
+     * @throws IllegalArgumentException if the concurrency level is not positive.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentCustomHashMap(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) throw new IllegalArgumentException("Concurrency level must be positive");
+        int segmentCount = Hashing.tableSizeFor(Math.min(concurrencyLevel, MAX_SEGMENTS));
+
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(DEFAULT_SEGMENT_CAPACITY);
+        }
+        segmentMask = segmentCount - 1;
+        segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    /**
+     * Selects the segment responsible for a hash using its high bits.
+     *
+     * @param hash The mixed hash of a key.
+     * @return The segment that stores the key.
+     */
+    private Segment<K, V> segmentFor(int hash) {
+        // A shift by 32 is a no op in Java, so a single segment is special cased
+        return segmentMask == 0 ? segments[0] : segments[(hash >>> segmentShift) & segmentMask];
+    }
+
+    /**
+     * Computes the mixed hash of a key, rejecting null keys.
+     *
+     * @param key The key to hash.
+     * @return The mixed hash of the key.
+     */
+    private static int hashOf(Object key) {
+        if (key == null) throw new IllegalArgumentException("Null keys not allowed");
+        return Hashing.hash(key);
+    }
+
+    /**
+     * Retrieves the value associated with a key without locking.
+     *
+     * @param key The key to lookup.
+     * @return The value for the key, or null if the key does not exist.
+     */
+    public V get(K key) {
+        int hash = hashOf(key);
+        Node<K, V> node = segmentFor(hash).find(hash, key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Checks if the map contains a given key without locking.
+     *
+     * @param key The key to check.
+     * @return true if the key exists, otherwise false.
+     */
+    public boolean containsKey(K key) {
+        int hash = hashOf(key);
+        return segmentFor(hash).find(hash, key) != null;
+    }
+
+    /**
+     * Adds a key-value pair to the map, replacing the value of an existing key.
+     *
+     * @param key The key to add or update in the map.
+     * @param value The value associated with the key.
+     * @return The old value associated with the key if it existed, or null if a new entry was added.
+     * @throws IllegalArgumentException if the key or value is null.
+     */
+    public V put(K key, V value) {
+        checkValue(value);
+        int hash = hashOf(key);
+        return segmentFor(hash).put(hash, key, value, false);
+    }
+
+    /**
+     * Atomically adds a key-value pair only if the key is not already present.
+     *
+     * @param key The key to add.
+     * @param value The value to associate with the key.
+     * @return The existing value if the key was present, or null if the entry was added.
+     * @throws IllegalArgumentException if the key or value is null.
+     */
+    public V putIfAbsent(K key, V value) {
+        checkValue(value);
+        int hash = hashOf(key);
+        return segmentFor(hash).put(hash, key, value, true);
+    }
+
+    /**
+     * Atomically computes and stores a value for a key that is not already present.
+     * The mapping function runs at most once, while the key's segment is locked,
+     * so it should be short and must not update this map.
+     *
+     * @param key The key to look up or add.
+     * @param mappingFunction The function computing a value for an absent key.
+     * @return The existing or newly computed value, or null if the function returned null.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        int hash = hashOf(key);
+        Segment<K, V> segment = segmentFor(hash);
+
+        // Fast path without locking when the key is already present
+        Node<K, V> node = segment.find(hash, key);
+        if (node != null) return node.value;
+        return segment.computeIfAbsent(hash, key, mappingFunction);
+    }
+
+    /**
+     * Atomically merges a value into the entry for a key.
+     *
+     * If the key is absent, the given value is stored. Otherwise the remapping function combines
+     * the old and given values, and the result replaces the old value, or removes the entry if null.
+     * The function runs while the key's segment is locked and must not update this map.
+     *
+     * @param key The key to merge into.
+     * @param value The value to store or combine with the existing value.
+     * @param remappingFunction The function combining the old and given values.
+     * @return The new value associated with the key, or null if the entry was removed.
+     * @throws IllegalArgumentException if the key or value is null.
+     */
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        checkValue(value);
+        int hash = hashOf(key);
+        return segmentFor(hash).merge(hash, key, value, remappingFunction);
+    }
+
+    /**
+     * Removes the key-value pair for a given key.
+     *
+     * @param key The key to remove.
+     * @return true if the key existed and was removed, otherwise false.
+     */
+    public boolean remove(K key) {
+        int hash = hashOf(key);
+        return segmentFor(hash).remove(hash, key);
+    }
+
+    /**
+     * Performs an action for every key-value pair without locking.
+     * The traversal is weakly consistent: it never fails because of concurrent writers, and it
+     * sees every entry present for its whole duration, but may miss or include concurrent changes.
+     *
+     * @param action The action to perform with each key and value.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Segment<K, V> segment : segments) {
+            AtomicReferenceArray<Node<K, V>> tab = segment.table;
+            for (int i = 0; i < tab.length(); i++) {
+                for (Node<K, V> e = tab.get(i); e != null; e = e.next) {
+                    action.accept(e.key, e.value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all key-value pairs, one segment at a time.
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Returns the number of key-value pairs in the map.
+     * While other threads are writing, the result is only an estimate.
+     */
+    public int size() {
+        long total = 0;
+        for (Segment<K, V> segment : segments) {
+            total += segment.count;
+        }
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Checks whether the map contains any key-value pairs.
+     */
+    public boolean isEmpty() {
+        for (Segment<K, V> segment : segments) {
+            if (segment.count != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of lock stripes (segments) in the map.
+     */
+    public int getNumberOfSegments() {
+        return segments.length;
+    }
+
+    /**
+     * Helper to reject null values.
+     *
+     * @param value The value to check.
+     */
+    private static void checkValue(Object value) {
+        if (value == null) throw new IllegalArgumentException("Null values not allowed");
+    }
+
+
+    /**
+     * An immutable chain node whose value alone may change after publication.
+     */
+    static final class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        final Node<K, V> next;
+
+        /**
+         * Constructs a Node linked in front of an existing chain.
+         *
+         * @param hash The mixed hash of the key.
+         * @param key The key for this node.
+         * @param value The value associated with the key.
+         * @param next The rest of the chain, or null.
+         */
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+
+    /**
+     * A lock stripe holding an independent chained hash table.
+     * All mutations happen while holding the segment's lock, reads never lock.
+     */
+    static final class Segment<K, V> extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        volatile AtomicReferenceArray<Node<K, V>> table;
+        volatile int count;
+        private int threshold;
+
+        /**
+         * Constructs a Segment with the given power of two number of bins.
+         *
+         * @param capacity The initial number of bins.
+         */
+        Segment(int capacity) {
+            setTable(new AtomicReferenceArray<>(capacity));
+        }
+
+        /**
+         * Publishes a new table and recomputes the resize threshold.
+         *
+         * @param newTable The table to publish.
+         */
+        private void setTable(AtomicReferenceArray<Node<K, V>> newTable) {
+            threshold = (int) (newTable.length() * LOAD_FACTOR);
+            table = newTable;
+        }
+
+        /**
+         * Finds the node for a key without locking.
+         *
+         * @param hash The mixed hash of the key.
+         * @param key The key to search for.
+         * @return The node holding the key, or null if absent.
+         */
+        Node<K, V> find(int hash, Object key) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            for (Node<K, V> e = tab.get(hash & (tab.length() - 1)); e != null; e = e.next) {
+                if (e.hash == hash && e.key.equals(key)) return e;
+            }
+            return null;
+        }
+
+        /**
+         * Inserts or updates a key while holding the lock.
+         *
+         * @param hash The mixed hash of the key.
+         * @param key The key to add.
+         * @param value The value to store.
+         * @param onlyIfAbsent If true, an existing value is left unchanged.
+         * @return The previous value, or null if the key was absent.
+         */
+        V put(int hash, K key, V value, boolean onlyIfAbsent) {
+            lock();
+            try {
+                Node<K, V> node = find(hash, key);
+                if (node != null) {
+                    V oldValue = node.value;
+                    if (!onlyIfAbsent) node.value = value;
+                    return oldValue;
+                }
+                insert(hash, key, value);
+                return null;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Computes and inserts a value for an absent key while holding the lock.
+         *
+         * @param hash The mixed hash of the key.
+         * @param key The key to add.
+         * @param mappingFunction The function computing the value.
+         * @return The existing or computed value, or null if nothing was stored.
+         */
+        V computeIfAbsent(int hash, K key, Function<? super K, ? extends V> mappingFunction) {
+            lock();
+            try {
+                // Another writer may have inserted the key before the lock was acquired
+                Node<K, V> node = find(hash, key);
+                if (node != null) return node.value;
+
+                V value = mappingFunction.apply(key);
+                if (value != null) insert(hash, key, value);
+                return value;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Merges a value into the entry for a key while holding the lock.
+         *
+         * @param hash The mixed hash of the key.
+         * @param key The key to merge into.
+         * @param value The value to store or combine.
+         * @param remappingFunction The function combining old and given values.
+         * @return The new value, or null if the entry was removed.
+         */
+        V merge(int hash, K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+            lock();
+            try {
+                Node<K, V> node = find(hash, key);
+                if (node == null) {
+                    insert(hash, key, value);
+                    return value;
+                }
+                V newValue = remappingFunction.apply(node.value, value);
+                if (newValue == null) {
+                    unlink(hash, key);
+                } else {
+                    node.value = newValue;
+                }
+                return newValue;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Removes a key while holding the lock.
+         *
+         * @param hash The mixed hash of the key.
+         * @param key The key to remove.
+         * @return true if the key was removed, otherwise false.
+         */
+        boolean remove(int hash, Object key) {
+            lock();
+            try {
+                return unlink(hash, key);
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Removes every entry of this segment.
+         */
+        void clear() {
+            lock();
+            try {
+                setTable(new AtomicReferenceArray<>(DEFAULT_SEGMENT_CAPACITY));
+                count = 0;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Links a new node at the head of its bin, resizing first if the segment is full.
+         * Must be called while holding the lock.
+         *
+         * @param hash The mixed hash of the key.
+         * @param key The key to add.
+         * @param value The value to store.
+         */
+        private void insert(int hash, K key, V value) {
+            if (count + 1 > threshold) rehash();
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            int index = hash & (tab.length() - 1);
+            tab.set(index, new Node<>(hash, key, value, tab.get(index)));
+            count = count + 1;
+        }
+
+        /**
+         * Unlinks the node for a key by copying the nodes in front of it.
+         * Must be called while holding the lock.
+         *
+         * @param hash The mixed hash of the key.
+         * @param key The key to remove.
+         * @return true if the key was removed, otherwise false.
+         */
+        private boolean unlink(int hash, Object key) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            int index = hash & (tab.length() - 1);
+            Node<K, V> first = tab.get(index);
+
+            Node<K, V> target = first;
+            while (target != null && !(target.hash == hash && target.key.equals(key))) {
+                target = target.next;
+            }
+            if (target == null) return false;
+
+            // Rebuild the prefix in front of the removed node so published nodes never change
+            Node<K, V> newFirst = target.next;
+            for (Node<K, V> p = first; p != target; p = p.next) {
+                newFirst = new Node<>(p.hash, p.key, p.value, newFirst);
+            }
+            tab.set(index, newFirst);
+            count = count - 1;
+            return true;
+        }
+
+        /**
+         * Doubles the number of bins in this segment. Must be called while holding the lock.
+         *
+         * Nodes are copied into a brand new table which is published in one volatile write,
+         * so concurrent readers see either the complete old table or the complete new one.
+         * The trailing run of each chain that maps to the same new bin is reused as is.
+         */
+        private void rehash() {
+            AtomicReferenceArray<Node<K, V>> oldTable = table;
+            int oldCapacity = oldTable.length();
+            if (oldCapacity >= Hashing.MAX_CAPACITY) return;
+
+            int newCapacity = oldCapacity * 2;
+            int newMask = newCapacity - 1;
+            AtomicReferenceArray<Node<K, V>> newTable = new AtomicReferenceArray<>(newCapacity);
+
+            for (int i = 0; i < oldCapacity; i++) {
+                Node<K, V> first = oldTable.get(i);
+                if (first == null) continue;
+
+                // Find the last run of nodes that all land in the same new bin
+                Node<K, V> lastRun = first;
+                int lastIndex = first.hash & newMask;
+                for (Node<K, V> p = first.next; p != null; p = p.next) {
+                    int index = p.hash & newMask;
+                    if (index != lastIndex) {
+                        lastIndex = index;
+                        lastRun = p;
+                    }
+                }
+                newTable.set(lastIndex, lastRun);
+
+                // Copy the nodes in front of the reusable run
+                for (Node<K, V> p = first; p != lastRun; p = p.next) {
+                    int index = p.hash & newMask;
+                    newTable.set(index, new Node<>(p.hash, p.key, p.value, newTable.get(index)));
+                }
+            }
+            setTable(newTable);
+        }
+    }
+
+}
@@ -1,46 +1,145 @@
 package com.brendanddev.collections.map;
 
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.Hashing;
+import com.brendanddev.collections.core.MemoryFootprint;
 import com.brendanddev.collections.list.CustomArrayList;
+import com.brendanddev.collections.tree.CustomAVLTree;
 
 /**
  * A custom generic hash based implementation of a Map using an array of buckets.
  * 
+ * Buckets are created lazily, so an empty bucket costs a single null slot in the bucket array.
+ * The load factor, the average number of entries per bucket that triggers a resize, defaults to
+ * AVERAGE_BUCKET_SIZE. When the number of entries is known in advance, the expected size constructors,
+ * ensureCapacity and putAll size the bucket array once instead of doubling it repeatedly.
+ * 
+ * By default the map resizes all at once: when the average number of entries per bucket exceeds
+ * the threshold, the bucket array is doubled and every entry is rehashed. In incremental resize mode
+ * the old bucket array is kept next to the new one instead, and every following operation migrates
+ * a bounded number of old buckets. Until the migration completes, lookups consult both arrays.
+ * This spreads the cost of a resize over many operations, so no single operation pays O(n).
+ * 
+ * The compute, computeIfAbsent, computeIfPresent and merge methods look a key up only once and
+ * update the entry they find in place, instead of the separate get and put of a read-modify-write.
+ * 
+ * A bucket that collects more than the treeify threshold of entries, which happens when many keys share
+ * a hash, is converted into a CustomAVLTree ordered by hash and then by the keys' compareTo, as long
+ * as the keys are mutually Comparable. Lookups in such a bucket take O(log n) instead of a linear
+ * scan, which bounds the damage of adversarial keys. A tree shrinking to the untreeify threshold,
+ * or receiving a key it cannot order, is converted back into a list. Both thresholds are derived from
+ * the load factor by Hashing.treeifyThreshold, so buckets of randomly hashed keys stay lists.
+ * 
  * Time Complexity
  * Insert/Update: O(1)
+ * Compute/Merge: O(1)
  * Search (get/containsKey): O(1)
  * Remove: O(1)
- * Resize: O(n) (but happens rarely)
+ * Resize: O(n) (but happens rarely), or O(1) per operation in incremental resize mode
  * 
- * Note: Worst-case time complexity can degrade to O(n) per operation if many keys collide.
+ * Note: Worst-case time complexity is O(log n) per operation when colliding keys are Comparable,
+ *       and can degrade to O(n) if many keys that are not Comparable collide.
  */
-public class CustomHashMap<K, V> {
+public class CustomHashMap<K, V> implements MemoryFootprint {
 
     private CustomArrayList<Entry<K, V>>[] buckets;
     private static final int DEFAULT_BUCKETS = 16;
     private int size = 0;
     public static final double AVERAGE_BUCKET_SIZE = 3;
+    private final double loadFactor;
+
+    // Incremental resize state, oldBuckets is only non null while a migration is in progress
+    private final boolean incrementalResize;
+    private CustomArrayList<Entry<K, V>>[] oldBuckets;
+    private int rehashIndex = 0;
+    public static final int REHASH_STEP = 4;
+    private static final int MAX_EMPTY_VISITS = REHASH_STEP * 10;
+
+    // Treeified buckets of the current bucket array, trees is only created once a bucket is treeified
+    private CustomAVLTree<Entry<K, V>>[] trees;
+    private final int treeifyThreshold;
+    private final int untreeifyThreshold;
 
     /**
      * Constructs an empty CustomHashMap with default number of buckets.
      */
-    @SuppressWarnings("unchecked")
     public CustomHashMap() {
+        this(false);
+    }
+
+    /**
+     * Constructs an empty CustomHashMap with default number of buckets,
+     * optionally using incremental resizing.
+     * 
+     * @param incrementalResize true to migrate buckets gradually after a resize,
+     *                          false to rehash every entry at once.
+     */
+    @SuppressWarnings("unchecked")
+    public CustomHashMap(boolean incrementalResize) {
+        this.incrementalResize = incrementalResize;
+        this.loadFactor = AVERAGE_BUCKET_SIZE;
+        this.treeifyThreshold = Hashing.treeifyThreshold(loadFactor);
+        this.untreeifyThreshold = Hashing.untreeifyThreshold(treeifyThreshold);
         buckets = new CustomArrayList[DEFAULT_BUCKETS];
-        for (int i = 0; i < DEFAULT_BUCKETS; i++) {
-            buckets[i] = new CustomArrayList<>();
-        }
     }
 
     /**
-     * Computes the bucket index for a given key.
+     * Constructs an empty CustomHashMap with enough buckets to hold the expected number of entries
+     * without resizing.
+     * 
+     * @param expectedSize The number of entries the map is expected to hold.
+     * @throws IllegalArgumentException if expectedSize is negative.
+     */
+    public CustomHashMap(int expectedSize) {
+        this(expectedSize, AVERAGE_BUCKET_SIZE, false);
+    }
+
+    /**
+     * Constructs an empty CustomHashMap for an expected number of entries and a custom load factor.
+     * 
+     * @param expectedSize The number of entries the map is expected to hold.
+     * @param loadFactor The average number of entries per bucket above which the map resizes.
+     * @param incrementalResize true to migrate buckets gradually after a resize,
+     *                          false to rehash every entry at once.
+     * @throws IllegalArgumentException if expectedSize is negative or loadFactor is not positive.
+     */
+    @SuppressWarnings("unchecked")
+    public CustomHashMap(int expectedSize, double loadFactor, boolean incrementalResize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Expected size must not be negative");
+        if (!(loadFactor > 0)) throw new IllegalArgumentException("Load factor must be positive");
+        this.incrementalResize = incrementalResize;
+        this.loadFactor = loadFactor;
+        this.treeifyThreshold = Hashing.treeifyThreshold(loadFactor);
+        this.untreeifyThreshold = Hashing.untreeifyThreshold(treeifyThreshold);
+        buckets = new CustomArrayList[bucketsFor(expectedSize)];
+    }
+
+    /**
+     * Computes the hash of a given key.
+     * The key's hash code is mixed with Hashing.spread, and the result is masked to the bucket count,
+     * which is always a power of two, so no division is needed to find a bucket.
      * 
-     * @param key The key for which to compute the bucket index.
-     * @param hashSize The total number of buckets in the map.
+     * @param key The key for which to compute the hash.
+     * @return The mixed hash of the key.
+     */
+    private static int hash(Object key) {
+        return Hashing.hash(key);
+    }
+
+    /**
+     * Computes the bucket index for a hash.
+     * 
+     * @param hash The mixed hash of a key.
+     * @param hashSize The total number of buckets (a power of two).
      * @return The index of the bucket where the key should be stored.
      */
-    private int getHash(K key, int hashSize) {
-        return Math.abs(key.hashCode() % hashSize);
+    private static int indexFor(int hash, int hashSize) {
+        return hash & (hashSize - 1);
     }
 
     /**
@@ -48,39 +147,28 @@ public class CustomHashMap<K, V> {
      * 
      * If the key already exists, updates its value and returns the old value.
      * If the key does not exist, inserts a new entry and returns null.
-     * Automatically resizes the buckets array if the average number of entries per bucket 
+     * Automatically resizes the buckets array if the average number of entries per bucket
      * exceeds the threshold to maintain performance.
      * 
      * @param key The key to add or update in the map.
      * @param value The value associated with the key.
-     * @return The old value associated with the key if it existed, 
+     * @return The old value associated with the key if it existed,
      *         or null if a new entry was added.
      */
     public V put(K key, V value) {
-        // Compute bucket index for this key using its hash code
-        int index = getHash(key, buckets.length);
-        CustomArrayList<Entry<K, V>> bucket = buckets[index];
-
-        // Iterate over existing entries in the bucket to see if the key already exists
-        for (int i = 0; i < bucket.size(); i++) {
-            Entry<K, V> entry = bucket.get(i);
-            if (entry.key.equals(key)) {
-                // Key exists, update its value and return old value
-                V oldValue = entry.value;
-                entry.value = value;
-                return oldValue;
-            }
-        }
+        int hash = hash(key);
+        if (oldBuckets != null) rehashStep();
 
-        // Key not found, add new entry
-        bucket.add(new Entry<>(key, value));
-        size++;
-
-        // Resize if necessary
-        if ((double) size / buckets.length > AVERAGE_BUCKET_SIZE) {
-            resize();
+        // Update the existing entry in place, wherever it currently lives
+        Entry<K, V> entry = findEntry(key, hash);
+        if (entry != null) {
+            V oldValue = entry.value;
+            entry.value = value;
+            return oldValue;
         }
 
+        // Key not found, add new entry to the current bucket array
+        insertEntry(hash, key, value);
         return null;
     }
 
@@ -91,20 +179,11 @@ public class CustomHashMap<K, V> {
      * @return The value for the key, or null if the key does not exist.
      */
     public V get(K key) {
-        // Compute bucket index for the key
-        int index = getHash(key, buckets.length);
-        CustomArrayList<Entry<K, V>> bucket = buckets[index];
+        int hash = hash(key);
+        if (oldBuckets != null) rehashStep();
 
-        // Iterate through the entries in this bucket
-        for (int i = 0; i < bucket.size(); i++) {
-            Entry<K, V> entry = bucket.get(i);
-            if (entry.key.equals(key)) {
-                // Key found, return value
-                return entry.value;
-            }
-        }
-        // Key not found
-        return null;
+        Entry<K, V> entry = findEntry(key, hash);
+        return entry == null ? null : entry.value;
     }
 
     /**
@@ -114,15 +193,12 @@ public class CustomHashMap<K, V> {
      * @return true if the key existed and was removed, otherwise false.
      */
     public boolean remove(K key) {
-        int index = getHash(key, buckets.length);
-        CustomArrayList<Entry<K, V>> bucket = buckets[index];
+        int hash = hash(key);
+        if (oldBuckets != null) rehashStep();
 
-        for (int i = 0; i < bucket.size(); i++) {
-            if (bucket.get(i).key.equals(key)) {
-                bucket.removeAt(i);
-                size--;
-                return true;
-            }
+        if (removeFrom(buckets, key, hash) || (oldBuckets != null && removeFrom(oldBuckets, key, hash))) {
+            size--;
+            return true;
         }
         return false;
     }
@@ -134,17 +210,254 @@ public class CustomHashMap<K, V> {
      * @return true if the key exists, otherwise false.
      */
     public boolean containsKey(K key) {
-        int index = getHash(key, buckets.length);
-        CustomArrayList<Entry<K, V>> bucket = buckets[index];
+        int hash = hash(key);
+        if (oldBuckets != null) rehashStep();
 
-        // Iterate through the entries in this bucket to find the key
-        for (int i = 0; i < bucket.size(); i++) {
-            Entry<K, V> entry = bucket.get(i);
-            if (entry.key.equals(key)) {
-                return true;
+        return findEntry(key, hash) != null;
+    }
+
+    /**
+     * Retrieves the value associated with a key, or a default value if the key does not exist.
+     * 
+     * @param key The key to lookup.
+     * @param defaultValue The value to return if the key does not exist.
+     * @return The value for the key, or defaultValue if the key does not exist.
+     */
+    public V getOrDefault(K key, V defaultValue) {
+        int hash = hash(key);
+        if (oldBuckets != null) rehashStep();
+
+        Entry<K, V> entry = findEntry(key, hash);
+        return entry == null ? defaultValue : entry.value;
+    }
+
+    /**
+     * Computes a new value for a key from its current value, with a single lookup.
+     * 
+     * The remapping function receives the current value, or null if the key does not exist.
+     * A non null result is stored in the existing entry or in a new one, and a null result
+     * removes the entry if it exists.
+     * 
+     * @param key The key to compute a value for.
+     * @param remappingFunction The function computing the new value.
+     * @return The new value associated with the key, or null if there is none.
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        int hash = hash(key);
+        if (oldBuckets != null) rehashStep();
+
+        Entry<K, V> entry = findEntry(key, hash);
+        V newValue = remappingFunction.apply(key, entry == null ? null : entry.value);
+        return storeResult(entry, hash, key, newValue);
+    }
+
+    /**
+     * Returns the value for a key, computing and storing it first if the key is absent or maps to null.
+     * The key is only looked up once, and the new entry is added directly to its bucket.
+     * 
+     * @param key The key to look up or add.
+     * @param mappingFunction The function computing a value for an absent key.
+     * @return The existing or newly computed value, or null if the function returned null.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        int hash = hash(key);
+        if (oldBuckets != null) rehashStep();
+
+        Entry<K, V> entry = findEntry(key, hash);
+        if (entry != null && entry.value != null) return entry.value;
+
+        V newValue = mappingFunction.apply(key);
+        if (newValue == null) return null;
+        if (entry != null) {
+            entry.value = newValue;
+        } else {
+            insertEntry(hash, key, newValue);
+        }
+        return newValue;
+    }
+
+    /**
+     * Computes a new value for a key only if it exists and maps to a non null value.
+     * A null result removes the entry.
+     * 
+     * @param key The key to compute a value for.
+     * @param remappingFunction The function computing the new value from the current one.
+     * @return The new value associated with the key, or null if there is none.
+     */
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        int hash = hash(key);
+        if (oldBuckets != null) rehashStep();
+
+        Entry<K, V> entry = findEntry(key, hash);
+        if (entry == null || entry.value == null) return null;
+        return storeResult(entry, hash, key, remappingFunction.apply(key, entry.value));
+    }
+
+    /**
+     * Merges a value into the entry for a key, with a single lookup.
+     * 
+     * If the key is absent or maps to null, the given value is stored. Otherwise the remapping
+     * function combines the old and given values, and the result replaces the old value in place,
+     * or removes the entry if null. This is the cheapest way to update counters and aggregates.
+     * 
+     * @param key The key to merge into.
+     * @param value The value to store or combine with the existing value.
+     * @param remappingFunction The function combining the old and given values.
+     * @return The new value associated with the key, or null if the entry was removed.
+     * @throws IllegalArgumentException if the value is null.
+     */
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (value == null) throw new IllegalArgumentException("Null values cannot be merged");
+        int hash = hash(key);
+        if (oldBuckets != null) rehashStep();
+
+        Entry<K, V> entry = findEntry(key, hash);
+        if (entry == null) {
+            insertEntry(hash, key, value);
+            return value;
+        }
+        V newValue = entry.value == null ? value : remappingFunction.apply(entry.value, value);
+        return storeResult(entry, hash, key, newValue);
+    }
+
+    /**
+     * Returns a cursor over the entries of the map, which allocates nothing per entry.
+     * A pending incremental resize is completed first, so the cursor only walks one bucket array.
+     * 
+     * @return A MapCursor positioned before the first entry.
+     */
+    public MapCursor<K, V> cursor() {
+        finishRehashing();
+        return new Cursor();
+    }
+
+    /**
+     * Performs an action for every entry, walking the buckets directly without allocating.
+     * 
+     * @param action The action to perform with each key and value.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        finishRehashing();
+        for (int b = 0; b < buckets.length; b++) {
+            if (trees != null && trees[b] != null) {
+                trees[b].forEach(entry -> action.accept(entry.key, entry.value));
+                continue;
+            }
+            CustomArrayList<Entry<K, V>> bucket = buckets[b];
+            if (bucket == null) continue;
+            for (int i = 0; i < bucket.size(); i++) {
+                Entry<K, V> entry = bucket.get(i);
+                action.accept(entry.key, entry.value);
             }
         }
-        return false;
+    }
+
+    /**
+     * Replaces the value of every entry with the result of a function, updating the entries in place.
+     * 
+     * @param function The function computing the new value from each key and current value.
+     */
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        finishRehashing();
+        for (int b = 0; b < buckets.length; b++) {
+            if (trees != null && trees[b] != null) {
+                trees[b].forEach(entry -> entry.value = function.apply(entry.key, entry.value));
+                continue;
+            }
+            CustomArrayList<Entry<K, V>> bucket = buckets[b];
+            if (bucket == null) continue;
+            for (int i = 0; i < bucket.size(); i++) {
+                Entry<K, V> entry = bucket.get(i);
+                entry.value = function.apply(entry.key, entry.value);
+            }
+        }
+    }
+
+    /**
+     * Adds every entry of another map, sizing the bucket array for the entries of both maps first,
+     * so the map resizes at most once however many entries it already holds.
+     * 
+     * @param other The map whose entries to add, replacing the values of existing keys.
+     */
+    public void putAll(CustomHashMap<? extends K, ? extends V> other) {
+        ensureCapacity((int) Math.min((long) size + other.size(), Integer.MAX_VALUE));
+        other.forEach(this::put);
+    }
+
+    /**
+     * Grows the bucket array, if needed, so the map can hold the given number of entries without resizing.
+     * 
+     * @param expectedSize The number of entries the map is expected to hold.
+     */
+    public void ensureCapacity(int expectedSize) {
+        int needed = bucketsFor(expectedSize);
+        if (needed > buckets.length) rehashTo(needed, false);
+    }
+
+    /**
+     * Shrinks the bucket array to the smallest size that holds the current entries within the load factor.
+     */
+    public void trimToSize() {
+        int needed = bucketsFor(size);
+        if (needed < buckets.length) rehashTo(needed, false);
+    }
+
+    /**
+     * Removes every entry, keeping the bucket array at its current size so a map that is refilled
+     * to the same size does not resize again. An incremental resize in progress is abandoned.
+     */
+    public void clear() {
+        Arrays.fill(buckets, null);
+        trees = null;
+        oldBuckets = null;
+        rehashIndex = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns the average number of entries per bucket above which the map resizes.
+     */
+    public double getLoadFactor() {
+        return loadFactor;
+    }
+
+    /**
+     * Returns the bucket size above which a bucket is converted into a tree, derived from the load factor.
+     */
+    public int getTreeifyThreshold() {
+        return treeifyThreshold;
+    }
+
+    /**
+     * Returns the tree size at or below which a treeified bucket is converted back into a list.
+     */
+    public int getUntreeifyThreshold() {
+        return untreeifyThreshold;
+    }
+
+    /**
+     * Estimates the memory used by the map: the bucket arrays, every bucket list and treeified bucket,
+     * one Entry object per key-value pair, and the map object. While an incremental resize is in
+     * progress, the old bucket array is included too. Empty bucket slots and unused capacity inside
+     * bucket lists count as slack.
+     * 
+     * @return The estimated Footprint of the map.
+     */
+    @Override
+    public Footprint footprint() {
+        long entryBytes = size * Footprint.objectBytes(2, Integer.BYTES);
+        Footprint footprint = new Footprint(0, Footprint.objectBytes(3, Integer.BYTES * 2 + Double.BYTES + 1) + entryBytes, 0)
+                .plus(bucketArrayFootprint(buckets));
+        if (oldBuckets != null) footprint = footprint.plus(bucketArrayFootprint(oldBuckets));
+        if (trees != null) {
+            long treeSlack = 0;
+            for (CustomAVLTree<Entry<K, V>> tree : trees) {
+                if (tree != null) footprint = footprint.plus(tree.footprint());
+                else treeSlack += Footprint.REFERENCE_BYTES;
+            }
+            footprint = footprint.plus(new Footprint(Footprint.arrayBytes(trees.length, Footprint.REFERENCE_BYTES), 0, treeSlack));
+        }
+        return footprint;
     }
 
     /**
@@ -162,66 +475,476 @@ public class CustomHashMap<K, V> {
     }
 
     /**
-     * Doubles the number of buckets in the map and rehashes all existing entries.
+     * Returns true if an incremental resize is still migrating buckets from the old bucket array.
+     */
+    public boolean isRehashing() {
+        return oldBuckets != null;
+    }
+
+    /**
+     * Returns the number of buckets in the current bucket array that are empty.
+     */
+    public int getNumberOfEmptyBuckets() {
+        int empty = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (bucketSize(i) == 0) empty++;
+        }
+        return empty;
+    }
+
+    /**
+     * Returns the number of entries in the largest bucket of the current bucket array.
+     */
+    public int getLargestBucketSize() {
+        int max = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            max = Math.max(max, bucketSize(i));
+        }
+        return max;
+    }
+
+    /**
+     * Returns the number of buckets in the current bucket array that have been converted into trees.
+     */
+    public int getNumberOfTreeBuckets() {
+        if (trees == null) return 0;
+        int count = 0;
+        for (CustomAVLTree<Entry<K, V>> tree : trees) {
+            if (tree != null) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total number of buckets in the map.
+     */
+    public int getNumberOfBuckets() {
+        return buckets.length;
+    }
+
+    /**
+     * Finds the entry for a key, looking in the old bucket array as well while a resize is in progress.
      * 
-     * This method is called when the average number of entries per bucket exceeds a threshold,
-     * in order to reduce collisions and maintain efficient access. Each entry is redistributed
-     * according to the new number of buckets.
+     * @param key The key to search for.
+     * @param hash The mixed hash of the key.
+     * @return The entry holding the key, or null if the key does not exist.
+     */
+    private Entry<K, V> findEntry(K key, int hash) {
+        Entry<K, V> entry = findIn(buckets, key, hash);
+        if (entry == null && oldBuckets != null) {
+            // Migrated old buckets are cleared, so only unmigrated ones are searched
+            entry = findIn(oldBuckets, key, hash);
+        }
+        return entry;
+    }
+
+    /**
+     * Finds the entry for a key in one bucket array.
+     * 
+     * @param table The bucket array to search.
+     * @param key The key to search for.
+     * @param hash The mixed hash of the key.
+     * @return The entry holding the key, or null if it is not in this bucket array.
+     */
+    private Entry<K, V> findIn(CustomArrayList<Entry<K, V>>[] table, K key, int hash) {
+        int index = indexFor(hash, table.length);
+        if (table == buckets && trees != null && trees[index] != null) {
+            Entry<K, V> entry = findInTree(trees[index], key, hash);
+            return entry != null && entry.key.equals(key) ? entry : null;
+        }
+
+        CustomArrayList<Entry<K, V>> bucket = table[index];
+        if (bucket == null) return null;
+
+        // Iterate through the entries in this bucket, comparing cached hashes before calling equals
+        for (int i = 0; i < bucket.size(); i++) {
+            Entry<K, V> entry = bucket.get(i);
+            if (entry.hash == hash && entry.key.equals(key)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the entry for a key from one bucket array.
+     * 
+     * @param table The bucket array to remove from.
+     * @param key The key to remove.
+     * @param hash The mixed hash of the key.
+     * @return true if the key was found and removed, otherwise false.
+     */
+    private boolean removeFrom(CustomArrayList<Entry<K, V>>[] table, K key, int hash) {
+        int index = indexFor(hash, table.length);
+        if (table == buckets && trees != null && trees[index] != null) {
+            CustomAVLTree<Entry<K, V>> tree = trees[index];
+            Entry<K, V> entry = findInTree(tree, key, hash);
+            if (entry == null || !entry.key.equals(key)) return false;
+            tree.remove(entry);
+            if (tree.size() <= untreeifyThreshold) untreeify(index);
+            return true;
+        }
+
+        CustomArrayList<Entry<K, V>> bucket = table[index];
+        if (bucket == null) return false;
+
+        for (int i = 0; i < bucket.size(); i++) {
+            Entry<K, V> entry = bucket.get(i);
+            if (entry.hash == hash && entry.key.equals(key)) {
+                bucket.removeAt(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a new entry for a key known to be absent, resizing if the buckets become too full.
+     * 
+     * @param hash The mixed hash of the key.
+     * @param key The key to add.
+     * @param value The value associated with the key.
+     */
+    private void insertEntry(int hash, K key, V value) {
+        addEntry(new Entry<>(hash, key, value));
+        size++;
+
+        // Resize if necessary
+        if ((double) size / buckets.length > loadFactor) {
+            resize();
+        }
+    }
+
+    /**
+     * Stores the result of a compute style function for an entry found by a single lookup.
+     * A non null value updates the entry in place or adds a new one, and a null value removes the entry.
+     * 
+     * @param entry The existing entry for the key, or null if the key does not exist.
+     * @param hash The mixed hash of the key.
+     * @param key The key the value was computed for.
+     * @param newValue The computed value.
+     * @return The new value associated with the key, or null if there is none.
+     */
+    private V storeResult(Entry<K, V> entry, int hash, K key, V newValue) {
+        if (newValue != null) {
+            if (entry != null) {
+                entry.value = newValue;
+            } else {
+                insertEntry(hash, key, newValue);
+            }
+        } else if (entry != null) {
+            // Removing rescans only the entry's own bucket
+            if (!removeFrom(buckets, key, hash)) removeFrom(oldBuckets, key, hash);
+            size--;
+        }
+        return newValue;
+    }
+
+    /**
+     * Appends an entry to its bucket in the current bucket array, creating the bucket if needed.
+     * A list bucket growing past the treeify threshold is converted into a tree.
+     * 
+     * @param entry The entry to add, whose key must not already be in the map.
+     */
+    private void addEntry(Entry<K, V> entry) {
+        int index = indexFor(entry.hash, buckets.length);
+        if (trees != null && trees[index] != null) {
+            CustomAVLTree<Entry<K, V>> tree = trees[index];
+            if (entry.key.getClass() == tree.min().key.getClass() && tree.insert(entry)) return;
+            // The key cannot be ordered among the others, so the bucket goes back to a list
+            untreeify(index);
+        }
+
+        CustomArrayList<Entry<K, V>> bucket = buckets[index];
+        if (bucket == null) {
+            bucket = new CustomArrayList<>();
+            buckets[index] = bucket;
+        }
+        bucket.add(entry);
+        if (bucket.size() > treeifyThreshold) treeify(index);
+    }
+
+    /**
+     * Searches a treeified bucket for the entry ordered at the position of a key.
+     * 
+     * @param tree The tree to search.
+     * @param key The key to search for.
+     * @param hash The mixed hash of the key.
+     * @return The entry comparing equal to the key, or null if there is none.
+     */
+    private Entry<K, V> findInTree(CustomAVLTree<Entry<K, V>> tree, K key, int hash) {
+        // Keys of another class cannot be ordered among the tree's keys, so they are never in it
+        if (key.getClass() != tree.min().key.getClass()) return null;
+        return tree.find(new Entry<>(hash, key, null));
+    }
+
+    /**
+     * Converts a list bucket of the current bucket array into a tree, if its keys are mutually Comparable.
+     * 
+     * @param index The index of the bucket.
      */
     @SuppressWarnings("unchecked")
+    private void treeify(int index) {
+        CustomArrayList<Entry<K, V>> bucket = buckets[index];
+        Class<?> keyClass = Hashing.comparableClassFor(bucket.get(0).key);
+        if (keyClass == null) return;
+
+        CustomAVLTree<Entry<K, V>> tree = new CustomAVLTree<>(CustomHashMap::compareEntries);
+        for (int i = 0; i < bucket.size(); i++) {
+            Entry<K, V> entry = bucket.get(i);
+            // Give up on mixed classes, or on distinct keys that compareTo considers equal
+            if (entry.key.getClass() != keyClass || !tree.insert(entry)) return;
+        }
+
+        if (trees == null) trees = new CustomAVLTree[buckets.length];
+        trees[index] = tree;
+        buckets[index] = null;
+    }
+
+    /**
+     * Converts a treeified bucket of the current bucket array back into a list.
+     * 
+     * @param index The index of the bucket.
+     */
+    private void untreeify(int index) {
+        buckets[index] = trees[index].traverseInOrder();
+        trees[index] = null;
+    }
+
+    /**
+     * Orders entries in a treeified bucket by hash, then by the natural order of their keys.
+     * 
+     * @param a The first entry.
+     * @param b The second entry.
+     * @return A negative, zero or positive integer as a orders before, with or after b.
+     */
+    private static <K, V> int compareEntries(Entry<K, V> a, Entry<K, V> b) {
+        int cmp = Integer.compare(a.hash, b.hash);
+        return cmp != 0 ? cmp : Hashing.compareComparables(a.key, b.key);
+    }
+
+    /**
+     * Helper to estimate the memory of a bucket array and its bucket lists, without the entries.
+     * 
+     * @param array The bucket array to measure.
+     * @return The Footprint of the array and its lists.
+     */
+    private static Footprint bucketArrayFootprint(CustomArrayList<?>[] array) {
+        Footprint footprint = new Footprint(0, 0, 0);
+        long emptySlots = 0;
+        for (CustomArrayList<?> bucket : array) {
+            if (bucket != null) footprint = footprint.plus(bucket.footprint());
+            else emptySlots++;
+        }
+        long arrayBytes = Footprint.arrayBytes(array.length, Footprint.REFERENCE_BYTES);
+        return footprint.plus(new Footprint(arrayBytes, 0, emptySlots * Footprint.REFERENCE_BYTES));
+    }
+
+    /**
+     * Returns the number of entries in a bucket of the current bucket array, whether a list or a tree.
+     * 
+     * @param index The index of the bucket.
+     * @return The number of entries in the bucket.
+     */
+    private int bucketSize(int index) {
+        if (trees != null && trees[index] != null) return trees[index].size();
+        return buckets[index] == null ? 0 : buckets[index].size();
+    }
+
+    /**
+     * Doubles the number of buckets in the map.
+     * 
+     * This method is called when the average number of entries per bucket exceeds a threshold,
+     * in order to reduce collisions and maintain efficient access. In the default mode every entry
+     * is redistributed immediately. In incremental resize mode the current bucket array is only
+     * set aside, and its entries are migrated by later calls to rehashStep.
+     */
     private void resize() {
-        // Calculate the new number of buckets
-        int newBucketCount = buckets.length * 2;
+        rehashTo(buckets.length * 2, incrementalResize);
+    }
+
+    /**
+     * Returns the power of two number of buckets that holds a number of entries within the load factor.
+     * 
+     * @param entries The number of entries to hold.
+     * @return The number of buckets needed.
+     */
+    private int bucketsFor(int entries) {
+        return Hashing.tableSizeFor((int) Math.min(Math.ceil(entries / loadFactor), Hashing.MAX_CAPACITY));
+    }
 
-        // Create a new array of buckets, initializing each as an empty ArrayList
+    /**
+     * Replaces the bucket array with one of a given size.
+     * 
+     * @param newBucketCount The new number of buckets, a power of two.
+     * @param incremental true to migrate the old buckets gradually, false to rehash every entry now.
+     */
+    @SuppressWarnings("unchecked")
+    private void rehashTo(int newBucketCount, boolean incremental) {
+        // A previous migration that has not finished yet is completed first
+        finishRehashing();
+
+        // Trees only live in the current bucket array, so they are flattened before it is replaced
+        if (trees != null) {
+            for (int i = 0; i < trees.length; i++) {
+                if (trees[i] != null) untreeify(i);
+            }
+            trees = null;
+        }
+
+        // Buckets themselves are created on demand
         CustomArrayList<Entry<K, V>>[] newBuckets = new CustomArrayList[newBucketCount];
-        for (int i = 0; i < newBucketCount; i++) {
-            newBuckets[i] = new CustomArrayList<>();
+        CustomArrayList<Entry<K, V>>[] previous = buckets;
+        buckets = newBuckets;
+
+        if (incremental) {
+            oldBuckets = previous;
+            rehashIndex = 0;
+            return;
         }
 
         // Rehash each existing entry into the appropriate new bucket
-        for (int b = 0; b < buckets.length; b++) {
-            CustomArrayList<Entry<K, V>> bucket = buckets[b];
+        for (CustomArrayList<Entry<K, V>> bucket : previous) {
+            if (bucket == null) continue;
             for (int i = 0; i < bucket.size(); i++) {
-                Entry<K, V> entry = bucket.get(i);
-                int newIndex = getHash(entry.key, newBucketCount);
-                newBuckets[newIndex].add(entry);
+                addEntry(bucket.get(i));
             }
         }
-        // Replace the old buckets array with the new, resized array
-        buckets = newBuckets;
+    }
+
+    /**
+     * Completes a pending incremental resize by migrating every remaining old bucket.
+     */
+    private void finishRehashing() {
+        while (oldBuckets != null) rehashStep();
+    }
+
+    /**
+     * Migrates up to REHASH_STEP non empty buckets from the old bucket array into the current one.
+     * 
+     * Like the incremental rehashing of Redis dictionaries, the number of empty buckets visited is
+     * bounded too, so one call never scans a long run of empty buckets. Once every old bucket has
+     * been migrated the old bucket array is released.
+     */
+    private void rehashStep() {
+        int moved = 0;
+        int emptyVisits = 0;
+        while (moved < REHASH_STEP && emptyVisits < MAX_EMPTY_VISITS && rehashIndex < oldBuckets.length) {
+            CustomArrayList<Entry<K, V>> bucket = oldBuckets[rehashIndex];
+            if (bucket == null) {
+                emptyVisits++;
+            } else {
+                for (int i = 0; i < bucket.size(); i++) {
+                    addEntry(bucket.get(i));
+                }
+                // Clear the migrated bucket so lookups stop searching it
+                oldBuckets[rehashIndex] = null;
+                moved++;
+            }
+            rehashIndex++;
+        }
+
+        if (rehashIndex == oldBuckets.length) {
+            oldBuckets = null;
+            rehashIndex = 0;
+        }
+    }
+
+
+    /**
+     * Private inner class that walks the bucket array as a MapCursor.
+     * Only the bucket index, the position within the bucket and the current entry are tracked.
+     */
+    private class Cursor implements MapCursor<K, V> {
+        private int bucketIndex = 0;
+        private int elementIndex = 0;
+        private CustomArrayList<Entry<K, V>> bucket;
+        private Entry<K, V> current;
+
+        /**
+         * Moves to the next entry, skipping empty and missing buckets.
+         * Treeified buckets are copied into a list when reached, which only happens under heavy collisions.
+         * 
+         * @return true if the cursor is now positioned on an entry, otherwise false.
+         */
+        @Override
+        public boolean advance() {
+            while (bucket == null || elementIndex >= bucket.size()) {
+                if (bucketIndex >= buckets.length) {
+                    current = null;
+                    return false;
+                }
+                bucket = trees != null && trees[bucketIndex] != null
+                        ? trees[bucketIndex].traverseInOrder()
+                        : buckets[bucketIndex];
+                bucketIndex++;
+                elementIndex = 0;
+            }
+            current = bucket.get(elementIndex++);
+            return true;
+        }
+
+        /** Returns the key of the current entry */
+        @Override
+        public K key() {
+            return currentEntry().key;
+        }
+
+        /** Returns the value of the current entry */
+        @Override
+        public V value() {
+            return currentEntry().value;
+        }
+
+        /**
+         * Replaces the value of the current entry.
+         * 
+         * @param value The new value.
+         * @return The previous value.
+         */
+        @Override
+        public V setValue(V value) {
+            Entry<K, V> entry = currentEntry();
+            V oldValue = entry.value;
+            entry.value = value;
+            return oldValue;
+        }
+
+        /**
+         * Helper to return the current entry or reject access when the cursor is not on one.
+         * 
+         * @return The entry the cursor is positioned on.
+         */
+        private Entry<K, V> currentEntry() {
+            if (current == null) throw new IllegalStateException("Cursor is not positioned on an entry");
+            return current;
+        }
     }
 
 
     /**
      * Represents a key-value pair stored in the CustomHashMap.
      * Each entry is stored in a bucket, and key equality determines uniqueness.
+     * The mixed hash of the key is cached so that resizing never calls hashCode again.
      */
     private static class Entry<K, V> {
+        final int hash;
         K key;
         V value;
 
         /**
-         * Constructs an Entry with both a key and value.
+         * Constructs an Entry with a cached hash, a key and a value.
          * 
+         * @param hash The mixed hash of the key.
          * @param key The key for the entry.
          * @param value The value associated with the key.
          */
-        Entry(K key, V value) {
+        Entry(int hash, K key, V value) {
+            this.hash = hash;
             this.key = key;
             this.value = value;
         }
 
-        /**
-         * Constructs an Entry with only a key.
-         * 
-         * @param key The key for this entry.
-         */
-        @SuppressWarnings("unused")
-        Entry(K key) {
-            this.key = key;
-        }
-
         /**
          * Checks if this Entry is equal to another object.
          * Two entries are considered equal if their keys are equal.
@@ -253,5 +976,5 @@ public class CustomHashMap<K, V> {
             return key + "=" + value;
         }
     }
-    
+
 }
@@ -0,0 +1,419 @@
+package com.brendanddev.collections.map;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+import com.brendanddev.collections.core.CustomCollection;
+import com.brendanddev.collections.core.CustomIterator;
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.MemoryFootprint;
+import com.brendanddev.collections.list.CustomArrayList;
+
+/**
+ * A custom generic multimap that associates each key with an ordered list of values,
+ * built on a CustomHashMap.
+ * 
+ * Most keys of a typical one-to-many index hold only one or two values, so the values are not kept
+ * in a CustomArrayList per key, which would allocate ten slots up front. A key with a single value
+ * stores that value directly in its map entry. The second value promotes the key to an array of
+ * exactly two slots, which then grows by half its length, and shrinks back to an inline value when
+ * all but one value is removed. The same value may be stored more than once under a key.
+ * 
+ * Time Complexity
+ * Put: O(1) (amortized)
+ * Get value count: O(1)
+ * Get values: O(v), where v is the number of values of the key
+ * Remove value: O(v)
+ * Remove all values of a key: O(v)
+ * 
+ * Note: Null values are not allowed, since a key without values is not stored.
+ */
+public class CustomMultimap<K, V> implements MemoryFootprint {
+
+    // Maps each key to either its only value or a Values array
+    private final CustomHashMap<K, Object> map;
+    private int size = 0;
+
+    /**
+     * Constructs an empty CustomMultimap.
+     */
+    public CustomMultimap() {
+        map = new CustomHashMap<>();
+    }
+
+    /**
+     * Constructs an empty CustomMultimap sized for an expected number of distinct keys.
+     * 
+     * @param expectedKeys The number of distinct keys the multimap is expected to hold.
+     * @throws IllegalArgumentException if expectedKeys is negative.
+     */
+    public CustomMultimap(int expectedKeys) {
+        map = new CustomHashMap<>(expectedKeys);
+    }
+
+    /**
+     * Adds a value to the values of a key.
+     * 
+     * @param key The key to add the value under.
+     * @param value The value to add.
+     * @throws IllegalArgumentException if the value is null.
+     */
+    public void put(K key, V value) {
+        checkValue(value);
+        map.compute(key, (k, current) -> append(current, value));
+        size++;
+    }
+
+    /**
+     * Adds every value of a collection to the values of a key, growing the key's storage only once.
+     * 
+     * @param key The key to add the values under.
+     * @param values The values to add.
+     * @return true if any value was added, otherwise false.
+     * @throws IllegalArgumentException if any of the values is null.
+     */
+    public boolean putAll(K key, CustomCollection<? extends V> values) {
+        if (values.isEmpty()) return false;
+        if (values.size() == 1) {
+            put(key, values.iterator().next());
+            return true;
+        }
+
+        // Reject null values before changing anything
+        CustomIterator<? extends V> check = values.iterator();
+        while (check.hasNext()) checkValue(check.next());
+
+        Object current = map.get(key);
+        Values merged;
+        if (current instanceof Values) {
+            merged = (Values) current;
+            merged.ensureCapacity(merged.size + values.size());
+        } else {
+            merged = new Values(values.size() + (current == null ? 0 : 1));
+            if (current != null) merged.add(current);
+            map.put(key, merged);
+        }
+
+        CustomIterator<? extends V> iterator = values.iterator();
+        while (iterator.hasNext()) {
+            merged.add(iterator.next());
+            size++;
+        }
+        return true;
+    }
+
+    /**
+     * Returns a copy of the values of a key, in insertion order.
+     * 
+     * @param key The key to look up.
+     * @return A new CustomArrayList of the key's values, empty if the key has none.
+     */
+    public CustomArrayList<V> get(K key) {
+        CustomArrayList<V> result = new CustomArrayList<>();
+        forEachValue(key, result::add);
+        return result;
+    }
+
+    /**
+     * Performs an action with every value of a key in insertion order, without copying them.
+     * 
+     * @param key The key to look up.
+     * @param action The action to perform with each value.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(K key, Consumer<? super V> action) {
+        Object current = map.get(key);
+        if (current == null) return;
+        if (current instanceof Values) {
+            Values values = (Values) current;
+            for (int i = 0; i < values.size; i++) {
+                action.accept((V) values.items[i]);
+            }
+        } else {
+            action.accept((V) current);
+        }
+    }
+
+    /**
+     * Returns the number of values stored under a key.
+     * 
+     * @param key The key to look up.
+     * @return The number of values of the key, or 0 if the key is absent.
+     */
+    public int valueCount(K key) {
+        return count(map.get(key));
+    }
+
+    /**
+     * Removes the first occurrence of a value from the values of a key.
+     * A key left with a single value stores it inline again, and a key left with none is removed.
+     * 
+     * @param key The key to remove the value from.
+     * @param value The value to remove.
+     * @return true if the value was found and removed, otherwise false.
+     */
+    public boolean remove(K key, V value) {
+        Object current = map.get(key);
+        if (current == null) return false;
+
+        if (!(current instanceof Values)) {
+            if (!current.equals(value)) return false;
+            map.remove(key);
+            size--;
+            return true;
+        }
+
+        Values values = (Values) current;
+        if (!values.remove(value)) return false;
+        if (values.size == 1) map.put(key, values.items[0]);
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes a key together with all of its values.
+     * 
+     * @param key The key to remove.
+     * @return A CustomArrayList of the removed values, empty if the key was absent.
+     */
+    public CustomArrayList<V> removeAll(K key) {
+        CustomArrayList<V> removed = get(key);
+        if (map.remove(key)) size -= removed.size();
+        return removed;
+    }
+
+    /**
+     * Checks if a key has at least one value.
+     * 
+     * @param key The key to check.
+     * @return true if the key exists, otherwise false.
+     */
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    /**
+     * Checks if a value is stored under a key.
+     * 
+     * @param key The key to check.
+     * @param value The value to search for.
+     * @return true if the key holds the value, otherwise false.
+     */
+    public boolean containsEntry(K key, V value) {
+        Object current = map.get(key);
+        if (current == null) return false;
+        if (!(current instanceof Values)) return current.equals(value);
+        return ((Values) current).indexOf(value) >= 0;
+    }
+
+    /**
+     * Performs an action with every key and value pair, visiting the values of each key in order.
+     * 
+     * @param action The action to perform with each key and value.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        map.forEach((key, current) -> {
+            if (current instanceof Values) {
+                Values values = (Values) current;
+                for (int i = 0; i < values.size; i++) {
+                    action.accept(key, (V) values.items[i]);
+                }
+            } else {
+                action.accept(key, (V) current);
+            }
+        });
+    }
+
+    /**
+     * Performs an action with every key and the number of values it holds, without visiting the values.
+     * 
+     * @param action The action to perform with each key and value count.
+     */
+    public void forEachValueCount(ObjIntConsumer<? super K> action) {
+        map.forEach((key, current) -> action.accept(key, count(current)));
+    }
+
+    /**
+     * Shrinks every value array to its exact length and the underlying map to its entries.
+     */
+    public void trimToSize() {
+        map.forEach((key, current) -> {
+            if (current instanceof Values) ((Values) current).trimToSize();
+        });
+        map.trimToSize();
+    }
+
+    /**
+     * Estimates the memory used by the multimap: the underlying CustomHashMap, one value array for
+     * every key with two or more values, and the multimap object. Inline values cost nothing extra.
+     * Unused capacity at the end of the value arrays counts as slack.
+     * 
+     * @return The estimated Footprint of the multimap.
+     */
+    @Override
+    public Footprint footprint() {
+        long[] arrays = new long[2];
+        int[] promotedKeys = new int[1];
+        map.forEach((key, current) -> {
+            if (current instanceof Values) {
+                Values values = (Values) current;
+                arrays[0] += Footprint.arrayBytes(values.items.length, Footprint.REFERENCE_BYTES);
+                arrays[1] += (long) (values.items.length - values.size) * Footprint.REFERENCE_BYTES;
+                promotedKeys[0]++;
+            }
+        });
+        long nodeBytes = Footprint.objectBytes(1, Integer.BYTES) + promotedKeys[0] * Footprint.objectBytes(1, Integer.BYTES);
+        return map.footprint().plus(new Footprint(arrays[0], nodeBytes, arrays[1]));
+    }
+
+    /**
+     * Returns the total number of values across all keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of distinct keys.
+     */
+    public int keyCount() {
+        return map.size();
+    }
+
+    /**
+     * Returns true if the multimap holds no values, otherwise false.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every key and value.
+     */
+    public void clear() {
+        map.clear();
+        size = 0;
+    }
+
+    /**
+     * Helper to add a value to the current storage of a key.
+     * 
+     * @param current The key's inline value, its Values array, or null if the key is absent.
+     * @param value The value to add.
+     * @return The storage to keep in the map entry.
+     */
+    private static Object append(Object current, Object value) {
+        if (current == null) return value;
+        if (current instanceof Values) {
+            ((Values) current).add(value);
+            return current;
+        }
+
+        // Promote an inline value to a right sized array on the second value
+        Values values = new Values(2);
+        values.add(current);
+        values.add(value);
+        return values;
+    }
+
+    /**
+     * Helper to count the values held by the storage of a key.
+     * 
+     * @param current The key's inline value, its Values array, or null if the key is absent.
+     * @return The number of values.
+     */
+    private static int count(Object current) {
+        if (current == null) return 0;
+        return current instanceof Values ? ((Values) current).size : 1;
+    }
+
+    /**
+     * Helper to reject null values.
+     * 
+     * @param value The value to check.
+     */
+    private static void checkValue(Object value) {
+        if (value == null) throw new IllegalArgumentException("Null values not allowed");
+    }
+
+
+    /**
+     * A growable array holding the values of a key with two or more values.
+     * The class is private, so a stored user value can never be mistaken for one.
+     */
+    private static final class Values {
+        Object[] items;
+        int size;
+
+        /**
+         * Constructs an empty Values array with the given number of slots.
+         * 
+         * @param capacity The initial number of slots.
+         */
+        Values(int capacity) {
+            items = new Object[capacity];
+        }
+
+        /**
+         * Appends a value, growing the array by half its length when full.
+         * 
+         * @param value The value to append.
+         */
+        void add(Object value) {
+            if (size == items.length) ensureCapacity(size + (size >> 1) + 1);
+            items[size++] = value;
+        }
+
+        /**
+         * Removes the first occurrence of a value, shifting later values down.
+         * 
+         * @param value The value to remove.
+         * @return true if the value was found and removed, otherwise false.
+         */
+        boolean remove(Object value) {
+            int index = indexOf(value);
+            if (index < 0) return false;
+            System.arraycopy(items, index + 1, items, index, size - index - 1);
+            items[--size] = null;
+            return true;
+        }
+
+        /**
+         * Finds the first occurrence of a value.
+         * 
+         * @param value The value to search for.
+         * @return The index of the value, or -1 if it is not present.
+         */
+        int indexOf(Object value) {
+            for (int i = 0; i < size; i++) {
+                if (items[i].equals(value)) return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Grows the array to at least the given number of slots.
+         * 
+         * @param capacity The number of slots needed.
+         */
+        void ensureCapacity(int capacity) {
+            if (capacity <= items.length) return;
+            Object[] grown = new Object[capacity];
+            System.arraycopy(items, 0, grown, 0, size);
+            items = grown;
+        }
+
+        /**
+         * Shrinks the array to exactly the number of values it holds.
+         */
+        void trimToSize() {
+            if (size == items.length) return;
+            Object[] trimmed = new Object[size];
+            System.arraycopy(items, 0, trimmed, 0, size);
+            items = trimmed;
+        }
+    }
+
+}
@@ -0,0 +1,270 @@
+package com.brendanddev.collections.map;
+
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.Hashing;
+import com.brendanddev.collections.core.MemoryFootprint;
+
+/**
+ * A custom generic hash based implementation of a Map using open addressing.
+ * 
+ * Unlike CustomHashMap, entries are not stored in per bucket lists. Keys and values live in two
+ * parallel arrays, and collisions are resolved with linear probing: a lookup walks consecutive
+ * slots of the keys array until it finds the key or reaches an empty slot. Removals use backward
+ * shift deletion, so no tombstones are left behind and probe sequences stay short.
+ * 
+ * Time Complexity
+ * Insert/Update: O(1) (average case)
+ * Search (get/containsKey): O(1) (average case)
+ * Remove: O(1) (average case)
+ * Resize: O(n) (but happens rarely)
+ * 
+ * Note: Null keys are not allowed, since an empty slot is marked by a null key.
+ */
+public class CustomOpenHashMap<K, V> implements MemoryFootprint {
+
+    private Object[] keys;
+    private Object[] values;
+    private int size = 0;
+    private int mask;
+    private int threshold;
+    private static final int DEFAULT_CAPACITY = 16;
+    public static final double MAX_LOAD_FACTOR = 0.7;
+
+    /**
+     * Constructs an empty CustomOpenHashMap with the default capacity.
+     */
+    public CustomOpenHashMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty CustomOpenHashMap sized to hold the expected number of entries without resizing.
+     * 
+     * @param expectedSize The number of entries the map is expected to hold.
+     * @throws IllegalArgumentException if expectedSize is negative.
+     */
+    public CustomOpenHashMap(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Expected size must not be negative");
+        allocate(Hashing.tableSizeFor((int) Math.ceil(expectedSize / MAX_LOAD_FACTOR) + 1));
+    }
+
+    /**
+     * Computes the home slot for a given key.
+     * The hash code is mixed with Hashing.spread so that keys with similar
+     * hash codes do not end up in the same run of slots.
+     * 
+     * @param key The key for which to compute the slot.
+     * @return The index of the slot where probing for the key starts.
+     */
+    private int getSlot(Object key) {
+        return Hashing.hash(key) & mask;
+    }
+
+    /**
+     * Finds the slot currently holding the given key.
+     * 
+     * @param key The key to search for.
+     * @return The index of the slot holding the key, or -1 if the key does not exist.
+     */
+    private int findSlot(Object key) {
+        int slot = getSlot(key);
+        Object current;
+        // Walk the probe sequence until an empty slot ends it
+        while ((current = keys[slot]) != null) {
+            if (current.equals(key)) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a key-value pair to the CustomOpenHashMap.
+     * 
+     * If the key already exists, updates its value and returns the old value.
+     * If the key does not exist, inserts it into the first empty slot of its probe
+     * sequence and returns null. The table is doubled once it exceeds the maximum load factor.
+     * 
+     * @param key The key to add or update in the map.
+     * @param value The value associated with the key.
+     * @return The old value associated with the key if it existed,
+     *         or null if a new entry was added.
+     * @throws IllegalArgumentException if the key is null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (key == null) throw new IllegalArgumentException("Null keys not allowed");
+
+        int slot = getSlot(key);
+        Object current;
+        while ((current = keys[slot]) != null) {
+            if (current.equals(key)) {
+                // Key exists, update its value and return old value
+                V oldValue = (V) values[slot];
+                values[slot] = value;
+                return oldValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Key not found, claim the empty slot that ended the probe sequence
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+
+        if (size > threshold) {
+            resize();
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the value associated with a key.
+     * 
+     * @param key The key to lookup.
+     * @return The value for the key, or null if the key does not exist.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        if (key == null) return null;
+        int slot = findSlot(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * Checks if the map contains a given key.
+     * 
+     * @param key The key to check.
+     * @return true if the key exists, otherwise false.
+     */
+    public boolean containsKey(K key) {
+        return key != null && findSlot(key) >= 0;
+    }
+
+    /**
+     * Removes the key-value pair for a given key.
+     * 
+     * The freed slot is refilled by shifting back any following entries whose probe sequence
+     * passes through it, so lookups never need to skip over deleted markers.
+     * 
+     * @param key The key to remove.
+     * @return true if the key existed and was removed, otherwise false.
+     */
+    public boolean remove(K key) {
+        if (key == null) return false;
+        int hole = findSlot(key);
+        if (hole < 0) return false;
+
+        int slot = (hole + 1) & mask;
+        Object current;
+        while ((current = keys[slot]) != null) {
+            int home = getSlot(current);
+            // The entry may move into the hole only if the hole lies between its home slot and its current slot
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = current;
+                values[hole] = values[slot];
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Clear references in the final hole for GC
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes all key-value pairs from the map, keeping the current capacity.
+     */
+    public void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = null;
+            values[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Estimates the memory used by the map, which is its two parallel arrays plus the map object.
+     * Every empty slot counts as slack.
+     * 
+     * @return The estimated Footprint of the map.
+     */
+    @Override
+    public Footprint footprint() {
+        long arrayBytes = Footprint.arrayBytes(keys.length, Footprint.REFERENCE_BYTES) + Footprint.arrayBytes(values.length, Footprint.REFERENCE_BYTES);
+        long slackBytes = (long) (keys.length - size) * (Footprint.REFERENCE_BYTES + Footprint.REFERENCE_BYTES);
+        return new Footprint(arrayBytes, Footprint.objectBytes(2, Integer.BYTES * 3), slackBytes);
+    }
+
+    /**
+     * Returns the number of key-value pairs currently stored in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the map contains any key-value pairs.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the total number of slots in the table.
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the length of the longest probe sequence, measured as the distance of an entry
+     * from its home slot plus one. This plays the role of the largest bucket size of a chained map.
+     */
+    public int getLongestProbeLength() {
+        int max = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) continue;
+            int distance = ((i - getSlot(keys[i])) & mask) + 1;
+            if (distance > max) max = distance;
+        }
+        return max;
+    }
+
+    /**
+     * Allocates empty key and value arrays with the given power of two capacity.
+     * 
+     * @param capacity The number of slots to allocate.
+     */
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Doubles the number of slots and reinserts all existing entries.
+     * Keys are known to be unique, so each entry is placed in the first empty slot
+     * of its new probe sequence without any equality checks.
+     */
+    private void resize() {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length * 2);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object key = oldKeys[i];
+            if (key == null) continue;
+            int slot = getSlot(key);
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+
+}
@@ -0,0 +1,256 @@
+package com.brendanddev.collections.map;
+
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.Hashing;
+import com.brendanddev.collections.core.MemoryFootprint;
+
+/**
+ * A hash map from primitive long keys to object values.
+ * 
+ * Keys are stored unboxed in a flat long array next to a parallel array of values, using open
+ * addressing with linear probing. A slot is empty when its key is 0; the key 0 itself is stored
+ * outside the table in a dedicated field.
+ * 
+ * Time Complexity
+ * Insert/Update: O(1) (average case)
+ * Search (get/containsKey): O(1) (average case)
+ * Remove: O(1) (average case)
+ * Resize: O(n) (but happens rarely)
+ */
+public class LongObjectHashMap<V> implements MemoryFootprint {
+
+    private static final long EMPTY = 0L;
+    private static final int DEFAULT_CAPACITY = 16;
+    public static final double MAX_LOAD_FACTOR = 0.7;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int threshold;
+    private int size = 0;
+
+    // The key 0 is the empty slot sentinel, so its entry is kept outside the table
+    private boolean hasZeroKey = false;
+    private V zeroValue;
+
+    /**
+     * Constructs an empty LongObjectHashMap with the default capacity.
+     */
+    public LongObjectHashMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty LongObjectHashMap sized to hold the expected number of entries without resizing.
+     * 
+     * @param expectedSize The number of entries the map is expected to hold.
+     * @throws IllegalArgumentException if expectedSize is negative.
+     */
+    public LongObjectHashMap(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Expected size must not be negative");
+        allocate(Hashing.tableSizeFor((int) Math.ceil(expectedSize / MAX_LOAD_FACTOR) + 1));
+    }
+
+    /**
+     * Computes the home slot for a given key.
+     * 
+     * @param key The key for which to compute the slot.
+     * @return The index of the slot where probing for the key starts.
+     */
+    private int getSlot(long key) {
+        return (int) Hashing.spread(key) & mask;
+    }
+
+    /**
+     * Finds the slot currently holding the given non zero key.
+     * 
+     * @param key The key to search for.
+     * @return The index of the slot holding the key, or -1 if the key does not exist.
+     */
+    private int findSlot(long key) {
+        int slot = getSlot(key);
+        long current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a key-value pair to the map, replacing the value of an existing key.
+     * 
+     * @param key The key to add or update in the map.
+     * @param value The value associated with the key.
+     * @return The old value associated with the key if it existed, or null if a new entry was added.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (key == EMPTY) {
+            V oldValue = zeroValue;
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return oldValue;
+        }
+
+        int slot = getSlot(key);
+        long current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == key) {
+                V oldValue = (V) values[slot];
+                values[slot] = value;
+                return oldValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        if (size > threshold) {
+            resize();
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the value associated with a key.
+     * 
+     * @param key The key to lookup.
+     * @return The value for the key, or null if the key does not exist.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == EMPTY) return zeroValue;
+        int slot = findSlot(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * Checks if the map contains a given key.
+     * 
+     * @param key The key to check.
+     * @return true if the key exists, otherwise false.
+     */
+    public boolean containsKey(long key) {
+        if (key == EMPTY) return hasZeroKey;
+        return findSlot(key) >= 0;
+    }
+
+    /**
+     * Removes the key-value pair for a given key.
+     * Following entries of the probe sequence are shifted back so no tombstones are needed.
+     * 
+     * @param key The key to remove.
+     * @return true if the key existed and was removed, otherwise false.
+     */
+    public boolean remove(long key) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) return false;
+            hasZeroKey = false;
+            zeroValue = null;
+            size--;
+            return true;
+        }
+
+        int hole = findSlot(key);
+        if (hole < 0) return false;
+
+        int slot = (hole + 1) & mask;
+        long current;
+        while ((current = keys[slot]) != EMPTY) {
+            int home = getSlot(current);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = current;
+                values[hole] = values[slot];
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes all key-value pairs from the map, keeping the current capacity.
+     */
+    public void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = EMPTY;
+            values[i] = null;
+        }
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * Estimates the memory used by the map, which is its two parallel arrays plus the map object.
+     * Every empty slot counts as slack.
+     * 
+     * @return The estimated Footprint of the map.
+     */
+    @Override
+    public Footprint footprint() {
+        long arrayBytes = Footprint.arrayBytes(keys.length, Long.BYTES) + Footprint.arrayBytes(values.length, Footprint.REFERENCE_BYTES);
+        long slackBytes = (long) (keys.length - (size - (hasZeroKey ? 1 : 0))) * (Long.BYTES + Footprint.REFERENCE_BYTES);
+        return new Footprint(arrayBytes, Footprint.objectBytes(3, Integer.BYTES * 3 + 1), slackBytes);
+    }
+
+    /**
+     * Returns the number of key-value pairs currently stored in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the map contains any key-value pairs.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the total number of slots in the table.
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Allocates empty key and value arrays with the given power of two capacity.
+     * 
+     * @param capacity The number of slots to allocate.
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Doubles the number of slots and reinserts all existing entries.
+     */
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length * 2);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == EMPTY) continue;
+            int slot = getSlot(key);
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+
+}
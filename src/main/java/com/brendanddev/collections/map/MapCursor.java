@@ -0,0 +1,46 @@
+package com.brendanddev.collections.map;
+
+/**
+ * Represents a cursor over the entries of a map.
+ * 
+ * Unlike an iterator of entry objects, a cursor is positioned on one entry at a time and exposes
+ * its key and value directly, so walking a map allocates nothing per entry. A new cursor is
+ * positioned before the first entry, and each call to advance moves it to the next one.
+ * 
+ * Note: The map must not be structurally modified while a cursor is in use, except through setValue.
+ */
+public interface MapCursor<K, V> {
+
+    /**
+     * Moves the cursor to the next entry.
+     * 
+     * @return true if the cursor is now positioned on an entry, false if there are no more entries.
+     */
+    boolean advance();
+
+    /**
+     * Returns the key of the current entry.
+     * 
+     * @return The key of the entry the cursor is positioned on.
+     * @throws IllegalStateException if the cursor is not positioned on an entry.
+     */
+    K key();
+
+    /**
+     * Returns the value of the current entry.
+     * 
+     * @return The value of the entry the cursor is positioned on.
+     * @throws IllegalStateException if the cursor is not positioned on an entry.
+     */
+    V value();
+
+    /**
+     * Replaces the value of the current entry in place.
+     * 
+     * @param value The new value for the entry.
+     * @return The previous value of the entry.
+     * @throws IllegalStateException if the cursor is not positioned on an entry.
+     */
+    V setValue(V value);
+
+}
@@ -0,0 +1,614 @@
+package com.brendanddev.collections.map;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import com.brendanddev.collections.core.Hashing;
+
+/**
+ * A persistent hash map from fixed width byte keys to fixed width byte values, stored in a memory mapped file.
+ *
+ * The whole open addressing table lives in the file, so opening an existing map only maps the file and
+ * lookups are served immediately, without reading or deserializing any entries. Keys and values are
+ * byte arrays whose widths are fixed when the file is created.
+ *
+ * File layout:
+ * Header (64 bytes): magic, format version, key width, value width, capacity, size, state flag, CRC32 of the header.
+ * Slots: capacity slots of (1 status byte + key bytes + value bytes), probed linearly.
+ *
+ * Crash safety: the header is marked dirty before the first modification after opening or flushing,
+ * and it is only marked clean again by flush or close. New entries are written before their status byte,
+ * so a half written entry is never visible. If a file is opened while still marked dirty, the previous
+ * process did not shut down cleanly, and the table is rebuilt from its used slots into a new file that
+ * replaces the original the same way growth does. This also repairs an interrupted backward shift
+ * deletion, and a crash during recovery leaves the dirty original to be recovered again.
+ *
+ * Growth: when the table exceeds its maximum load factor, the entries are copied into a new file of twice
+ * the capacity next to the original, which is forced to disk and then atomically renamed over the original.
+ * A crash during growth leaves the original file untouched.
+ *
+ * Time Complexity
+ * Insert/Update: O(1) (average case)
+ * Search (get/containsKey): O(1) (average case)
+ * Remove: O(1) (average case)
+ * Open: O(1) after a clean shutdown, O(capacity) after a crash, without loading the table onto the heap
+ *
+ * Note: A single mapping is limited to 2 GB, which bounds capacity * (1 + keyWidth + valueWidth).
+ *       Durability against power loss requires calling flush, which forces the mapping to disk.
+ */
+public class MappedHashMap implements Closeable {
+
+    private static final int MAGIC = 0x4346534D;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int CLEAN = 0;
+    private static final int DIRTY = 1;
+    private static final byte EMPTY = 0;
+    private static final byte USED = 1;
+    private static final int DEFAULT_CAPACITY = 1024;
+    public static final double MAX_LOAD_FACTOR = 0.7;
+
+    // Header field offsets
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int KEY_WIDTH_OFFSET = 8;
+    private static final int VALUE_WIDTH_OFFSET = 12;
+    private static final int CAPACITY_OFFSET = 16;
+    private static final int SIZE_OFFSET = 20;
+    private static final int STATE_OFFSET = 24;
+    private static final int CHECKSUM_OFFSET = 28;
+
+    private final Path path;
+    private final int keyWidth;
+    private final int valueWidth;
+    private final int slotSize;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int mask;
+    private int size;
+    private boolean dirty = false;
+    private boolean closed = false;
+
+    /**
+     * Constructs a MappedHashMap over an already validated, open file.
+     *
+     * @param path The path of the backing file.
+     * @param channel The open channel of the backing file.
+     * @param keyWidth The width of every key in bytes.
+     * @param valueWidth The width of every value in bytes.
+     */
+    private MappedHashMap(Path path, FileChannel channel, int keyWidth, int valueWidth) {
+        this.path = path;
+        this.channel = channel;
+        this.keyWidth = keyWidth;
+        this.valueWidth = valueWidth;
+        this.slotSize = 1 + keyWidth + valueWidth;
+    }
+
+    /**
+     * Creates a new empty map file, replacing any existing file at the path.
+     *
+     * @param path The path of the file to create.
+     * @param keyWidth The width of every key in bytes.
+     * @param valueWidth The width of every value in bytes.
+     * @return The open map.
+     * @throws IOException if the file cannot be created or mapped.
+     * @throws IllegalArgumentException if a width is not positive.
+     */
+    public static MappedHashMap create(Path path, int keyWidth, int valueWidth) throws IOException {
+        return create(path, keyWidth, valueWidth, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new empty map file with room for the given number of slots, replacing any existing file.
+     *
+     * @param path The path of the file to create.
+     * @param keyWidth The width of every key in bytes.
+     * @param valueWidth The width of every value in bytes.
+     * @param initialCapacity The initial number of slots, rounded up to a power of two.
+     * @return The open map.
+     * @throws IOException if the file cannot be created or mapped.
+     * @throws IllegalArgumentException if a width is not positive or the file would be too large.
+     */
+    public static MappedHashMap create(Path path, int keyWidth, int valueWidth, int initialCapacity) throws IOException {
+        if (keyWidth <= 0 || valueWidth <= 0) throw new IllegalArgumentException("Key and value widths must be positive");
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedHashMap map = new MappedHashMap(path, channel, keyWidth, valueWidth);
+        map.initialize(Hashing.tableSizeFor(initialCapacity));
+        return map;
+    }
+
+    /**
+     * Opens an existing map file, rebuilding its table first if it was not closed cleanly.
+     *
+     * @param path The path of the map file.
+     * @return The open map.
+     * @throws IOException if the file cannot be read, is not a map file, or its header is corrupt.
+     */
+    public static MappedHashMap open(Path path) throws IOException {
+        // A leftover growth file means a resize or recovery was interrupted before the rename, the original is still valid
+        Files.deleteIfExists(growthPath(path));
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC) throw new IOException("Not a MappedHashMap file: " + path);
+            if (header.getInt(VERSION_OFFSET) != VERSION) throw new IOException("Unsupported format version in " + path);
+            if (header.getInt(CHECKSUM_OFFSET) != headerChecksum(header)) throw new IOException("Corrupt header in " + path);
+
+            MappedHashMap map = new MappedHashMap(path, channel,
+                    header.getInt(KEY_WIDTH_OFFSET), header.getInt(VALUE_WIDTH_OFFSET));
+            boolean dirty = header.getInt(STATE_OFFSET) != CLEAN;
+            map.mapTable(header.getInt(CAPACITY_OFFSET));
+            map.size = header.getInt(SIZE_OFFSET);
+
+            if (dirty) map.recover();
+            return map;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves the value associated with a key.
+     *
+     * @param key The key to lookup, exactly keyWidth bytes long.
+     * @return A copy of the value for the key, or null if the key does not exist.
+     */
+    public byte[] get(byte[] key) {
+        byte[] value = new byte[valueWidth];
+        return get(key, value) ? value : null;
+    }
+
+    /**
+     * Copies the value associated with a key into a caller supplied array, without allocating.
+     *
+     * @param key The key to lookup, exactly keyWidth bytes long.
+     * @param valueOut The array receiving the value, at least valueWidth bytes long.
+     * @return true if the key exists and its value was copied, otherwise false.
+     */
+    public boolean get(byte[] key, byte[] valueOut) {
+        int slot = findSlot(key);
+        if (slot < 0) return false;
+        int offset = slotOffset(slot) + 1 + keyWidth;
+        for (int i = 0; i < valueWidth; i++) {
+            valueOut[i] = buffer.get(offset + i);
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the map contains a given key.
+     *
+     * @param key The key to check, exactly keyWidth bytes long.
+     * @return true if the key exists, otherwise false.
+     */
+    public boolean containsKey(byte[] key) {
+        return findSlot(key) >= 0;
+    }
+
+    /**
+     * Adds a key-value pair to the map, replacing the value of an existing key.
+     * The table grows into a new file once it exceeds the maximum load factor.
+     *
+     * @param key The key to add or update, exactly keyWidth bytes long.
+     * @param value The value to store, exactly valueWidth bytes long.
+     * @return true if a new entry was added, false if an existing value was replaced.
+     * @throws UncheckedIOException if growing the file fails.
+     */
+    public boolean put(byte[] key, byte[] value) {
+        checkOpen();
+        checkWidth(key, keyWidth, "Key");
+        checkWidth(value, valueWidth, "Value");
+        markDirty();
+
+        int slot = hashOf(key) & mask;
+        while (buffer.get(slotOffset(slot)) == USED) {
+            if (keyEquals(slot, key)) {
+                writeBytes(slotOffset(slot) + 1 + keyWidth, value);
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Write the key and value before marking the slot used, so a crash never exposes a partial entry
+        int offset = slotOffset(slot);
+        writeBytes(offset + 1, key);
+        writeBytes(offset + 1 + keyWidth, value);
+        buffer.put(offset, USED);
+        size++;
+
+        if (size > capacity * MAX_LOAD_FACTOR) {
+            try {
+                grow();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to grow " + path, e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the key-value pair for a given key, shifting back following entries of its probe sequence.
+     *
+     * @param key The key to remove, exactly keyWidth bytes long.
+     * @return true if the key existed and was removed, otherwise false.
+     */
+    public boolean remove(byte[] key) {
+        int hole = findSlot(key);
+        if (hole < 0) return false;
+        markDirty();
+
+        int slot = (hole + 1) & mask;
+        while (buffer.get(slotOffset(slot)) == USED) {
+            int home = hashAt(slot) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                copySlot(slot, hole);
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        buffer.put(slotOffset(hole), EMPTY);
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the number of key-value pairs currently stored in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the map contains any key-value pairs.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the total number of slots in the table.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the width of every key in bytes.
+     */
+    public int getKeyWidth() {
+        return keyWidth;
+    }
+
+    /**
+     * Returns the width of every value in bytes.
+     */
+    public int getValueWidth() {
+        return valueWidth;
+    }
+
+    /**
+     * Writes the current size, marks the file clean and forces the mapping to disk.
+     * The map stays open, and is marked dirty again by the next modification.
+     *
+     * @throws IOException if the mapping cannot be forced to disk.
+     */
+    public void flush() throws IOException {
+        checkOpen();
+        writeHeader(CLEAN);
+        buffer.force();
+        dirty = false;
+    }
+
+    /**
+     * Flushes the map, marks it clean and closes the backing file.
+     * The mapping itself is released once it is garbage collected.
+     *
+     * @throws IOException if the file cannot be forced to disk or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        writeHeader(CLEAN);
+        buffer.force();
+        channel.close();
+        buffer = null;
+        closed = true;
+    }
+
+    /**
+     * Sizes a new file for the given capacity, maps it and writes a fresh header.
+     *
+     * @param newCapacity The number of slots, a power of two.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private void initialize(int newCapacity) throws IOException {
+        mapTable(newCapacity);
+        size = 0;
+        writeHeader(DIRTY);
+        dirty = true;
+    }
+
+    /**
+     * Maps the header and slots of the backing file for the given capacity.
+     *
+     * @param newCapacity The number of slots, a power of two.
+     * @throws IOException if the file cannot be mapped.
+     * @throws IllegalArgumentException if the table would exceed a single 2 GB mapping.
+     */
+    private void mapTable(int newCapacity) throws IOException {
+        long length = HEADER_SIZE + (long) newCapacity * slotSize;
+        if (length > Integer.MAX_VALUE) throw new IllegalArgumentException("Table too large for a single mapping");
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        capacity = newCapacity;
+        mask = newCapacity - 1;
+    }
+
+    /**
+     * Marks the header dirty and forces it before the first modification since the file was last clean,
+     * so a crash before the next clean shutdown is detected.
+     */
+    private void markDirty() {
+        if (dirty) return;
+        writeHeader(DIRTY);
+        buffer.force();
+        dirty = true;
+    }
+
+    /**
+     * Writes every header field and the header checksum.
+     *
+     * @param state The CLEAN or DIRTY state flag.
+     */
+    private void writeHeader(int state) {
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(KEY_WIDTH_OFFSET, keyWidth);
+        buffer.putInt(VALUE_WIDTH_OFFSET, valueWidth);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(SIZE_OFFSET, size);
+        buffer.putInt(STATE_OFFSET, state);
+        buffer.putInt(CHECKSUM_OFFSET, headerChecksum(buffer));
+    }
+
+    /**
+     * Computes the CRC32 of the header fields in front of the checksum.
+     *
+     * @param header A buffer starting with the header.
+     * @return The checksum of the header.
+     */
+    private static int headerChecksum(java.nio.ByteBuffer header) {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < CHECKSUM_OFFSET; i++) {
+            crc.update(header.get(i));
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Rebuilds the table after an unclean shutdown.
+     *
+     * The used slots are copied into a new file, skipping duplicate keys that an interrupted backward
+     * shift may have left behind, and the new file replaces this one. The dirty original is not touched
+     * until the rename, so a crash during recovery only means recovering again on the next open.
+     *
+     * @throws IOException if the new file cannot be written, forced or renamed.
+     */
+    private void recover() throws IOException {
+        rebuild(capacity);
+    }
+
+    /**
+     * Doubles the capacity by copying every entry into a new file that atomically replaces this one.
+     *
+     * @throws IOException if the new file cannot be written, forced or renamed.
+     */
+    private void grow() throws IOException {
+        rebuild(capacity * 2);
+    }
+
+    /**
+     * Copies every distinct entry into a new file of the given capacity, which is forced to disk, closed
+     * clean and then atomically renamed over this file. Entries are streamed slot by slot, so no copy of
+     * the table is held on the heap.
+     *
+     * @param newCapacity The number of slots of the new table, a power of two.
+     * @throws IOException if the new file cannot be written, forced or renamed.
+     */
+    private void rebuild(int newCapacity) throws IOException {
+        Path rebuildPath = growthPath(path);
+        MappedHashMap rebuilt = create(rebuildPath, keyWidth, valueWidth, newCapacity);
+        try {
+            byte[] key = new byte[keyWidth];
+            byte[] value = new byte[valueWidth];
+            for (int slot = 0; slot < capacity; slot++) {
+                int offset = slotOffset(slot);
+                if (buffer.get(offset) != USED) continue;
+                readBytes(offset + 1, key);
+                readBytes(offset + 1 + keyWidth, value);
+                if (rebuilt.findSlot(key) < 0) rebuilt.insertUnique(key, value);
+            }
+            rebuilt.close();
+        } catch (IOException | RuntimeException e) {
+            rebuilt.close();
+            Files.deleteIfExists(rebuildPath);
+            throw e;
+        }
+
+        // Swap files, then map the new table in place of the old one, which is clean until the next write
+        channel.close();
+        Files.move(rebuildPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapTable(newCapacity);
+        size = rebuilt.size;
+        dirty = false;
+    }
+
+    /**
+     * Inserts an entry known not to be present, without checking the load factor.
+     *
+     * @param key The key to insert.
+     * @param value The value to insert.
+     */
+    private void insertUnique(byte[] key, byte[] value) {
+        int slot = hashOf(key) & mask;
+        while (buffer.get(slotOffset(slot)) == USED) {
+            slot = (slot + 1) & mask;
+        }
+        int offset = slotOffset(slot);
+        writeBytes(offset + 1, key);
+        writeBytes(offset + 1 + keyWidth, value);
+        buffer.put(offset, USED);
+        size++;
+    }
+
+    /**
+     * Finds the slot holding a key.
+     *
+     * @param key The key to search for.
+     * @return The index of the slot holding the key, or -1 if the key does not exist.
+     */
+    private int findSlot(byte[] key) {
+        checkOpen();
+        checkWidth(key, keyWidth, "Key");
+        int slot = hashOf(key) & mask;
+        while (buffer.get(slotOffset(slot)) == USED) {
+            if (keyEquals(slot, key)) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the key stored in a slot with a key array.
+     *
+     * @param slot The slot to compare.
+     * @param key The key to compare with.
+     * @return true if the stored key equals the given key, otherwise false.
+     */
+    private boolean keyEquals(int slot, byte[] key) {
+        int offset = slotOffset(slot) + 1;
+        for (int i = 0; i < keyWidth; i++) {
+            if (buffer.get(offset + i) != key[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Computes the hash of a key array.
+     *
+     * @param key The key to hash.
+     * @return The mixed hash of the key bytes.
+     */
+    private static int hashOf(byte[] key) {
+        int h = 1;
+        for (byte b : key) h = 31 * h + b;
+        return Hashing.spread(h);
+    }
+
+    /**
+     * Computes the hash of the key stored in a slot, matching hashOf for the same bytes.
+     *
+     * @param slot The slot holding the key.
+     * @return The mixed hash of the stored key.
+     */
+    private int hashAt(int slot) {
+        int offset = slotOffset(slot) + 1;
+        int h = 1;
+        for (int i = 0; i < keyWidth; i++) h = 31 * h + buffer.get(offset + i);
+        return Hashing.spread(h);
+    }
+
+    /**
+     * Copies the contents of one used slot over another.
+     *
+     * @param from The slot to copy from.
+     * @param to The slot to copy to.
+     */
+    private void copySlot(int from, int to) {
+        int fromOffset = slotOffset(from);
+        int toOffset = slotOffset(to);
+        for (int i = 1; i < slotSize; i++) {
+            buffer.put(toOffset + i, buffer.get(fromOffset + i));
+        }
+        buffer.put(toOffset, USED);
+    }
+
+    /**
+     * Returns the byte offset of a slot in the mapping.
+     *
+     * @param slot The slot index.
+     * @return The offset of the slot's status byte.
+     */
+    private int slotOffset(int slot) {
+        return HEADER_SIZE + slot * slotSize;
+    }
+
+    /**
+     * Writes an array into the mapping at an absolute offset.
+     *
+     * @param offset The offset to write at.
+     * @param bytes The bytes to write.
+     */
+    private void writeBytes(int offset, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            buffer.put(offset + i, bytes[i]);
+        }
+    }
+
+    /**
+     * Reads bytes from the mapping at an absolute offset into an array.
+     *
+     * @param offset The offset to read from.
+     * @param bytes The array to fill.
+     */
+    private void readBytes(int offset, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+    }
+
+    /**
+     * Helper to reject arrays of the wrong width.
+     *
+     * @param bytes The array to check.
+     * @param width The required width.
+     * @param name The name used in the error message.
+     */
+    private static void checkWidth(byte[] bytes, int width, String name) {
+        if (bytes == null || bytes.length != width) {
+            throw new IllegalArgumentException(name + " must be exactly " + width + " bytes");
+        }
+    }
+
+    /**
+     * Helper to reject operations on a closed map.
+     */
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("Map is closed");
+    }
+
+    /**
+     * Returns the path of the temporary file used while growing or recovering a map file.
+     *
+     * @param path The path of the map file.
+     * @return The path of its growth file.
+     */
+    private static Path growthPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".grow");
+    }
+
+}
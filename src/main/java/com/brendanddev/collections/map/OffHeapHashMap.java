@@ -0,0 +1,547 @@
+package com.brendanddev.collections.map;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+import com.brendanddev.collections.core.CustomCodec;
+import com.brendanddev.collections.core.Hashing;
+
+/**
+ * A hash map that stores its keys, values and table outside the Java heap, in direct ByteBuffers.
+ *
+ * Keys and values are serialized by a CustomCodec into records appended to fixed size data chunks,
+ * and an open addressing index maps each key to the address of its record. The index stores the
+ * full hash of every key, so probing and resizing compare hashes without touching the records.
+ * Since the garbage collector only sees a handful of buffer objects, heap occupancy and GC time
+ * stay flat no matter how many entries the map holds.
+ *
+ * Record layout: key length (int), value length (int), key bytes, value bytes.
+ * Index slot layout: record address + 1 (long, 0 marks an empty slot), key hash (int).
+ *
+ * Values whose encoding keeps the same size are overwritten in place. Otherwise the new record is
+ * appended and the old one becomes garbage, which is reclaimed by compacting the live records into
+ * fresh chunks once garbage outweighs live data.
+ *
+ * Time Complexity
+ * Insert/Update: O(1) (average case, plus encoding)
+ * Search (get/containsKey): O(1) (average case, plus decoding)
+ * Remove: O(1) (average case)
+ * Compaction: O(live bytes), amortized over the updates and removes that created the garbage
+ *
+ * Note: Native memory is released by close, after which the map must not be used. Keys are equal
+ *       when their encodings are equal. Null keys and values are not allowed. Not thread safe.
+ */
+public class OffHeapHashMap<K, V> implements Closeable {
+
+    private static final int SLOT_SIZE = 12;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 27;
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 24;
+    public static final double MAX_LOAD_FACTOR = 0.7;
+
+    private final CustomCodec<K> keyCodec;
+    private final CustomCodec<V> valueCodec;
+    private final int chunkSize;
+
+    private ByteBuffer index;
+    private int capacity;
+    private int mask;
+    private int size = 0;
+
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private int chunkCount = 0;
+    private int writeOffset = 0;
+    private long liveBytes = 0;
+    private long garbageBytes = 0;
+
+    // Reused heap buffer holding the encoding of the key being looked up
+    private ByteBuffer keyScratch = ByteBuffer.allocate(64);
+    private boolean closed = false;
+
+    /**
+     * Constructs an empty OffHeapHashMap with the default chunk size.
+     *
+     * @param keyCodec The codec serializing keys.
+     * @param valueCodec The codec serializing values.
+     */
+    public OffHeapHashMap(CustomCodec<K> keyCodec, CustomCodec<V> valueCodec) {
+        this(keyCodec, valueCodec, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs an empty OffHeapHashMap allocating data chunks of the given size.
+     *
+     * @param keyCodec The codec serializing keys.
+     * @param valueCodec The codec serializing values.
+     * @param chunkSize The size of each data chunk in bytes, which bounds the size of a single record.
+     * @throws IllegalArgumentException if a codec is null or the chunk size is too small.
+     */
+    public OffHeapHashMap(CustomCodec<K> keyCodec, CustomCodec<V> valueCodec, int chunkSize) {
+        if (keyCodec == null || valueCodec == null) throw new IllegalArgumentException("Codecs must not be null");
+        if (chunkSize <= RECORD_HEADER_SIZE) throw new IllegalArgumentException("Chunk size too small");
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.chunkSize = chunkSize;
+        allocateIndex(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Adds a key-value pair to the map, replacing the value of an existing key.
+     *
+     * @param key The key to add or update.
+     * @param value The value to store.
+     * @return The previous value for the key, or null if the key did not exist.
+     * @throws IllegalArgumentException if the key or value is null, or the record exceeds the chunk size.
+     */
+    public V put(K key, V value) {
+        if (key == null || value == null) throw new IllegalArgumentException("Null keys and values not allowed");
+        int hash = encodeKey(key);
+        int slot = findSlot(hash);
+
+        if (slot >= 0) {
+            long address = addressAt(slot);
+            V oldValue = readValue(address);
+            ByteBuffer chunk = chunkOf(address);
+            int offset = offsetOf(address);
+            int keyLength = chunk.getInt(offset);
+            int oldValueLength = chunk.getInt(offset + 4);
+
+            if (valueCodec.encodedSize(value) == oldValueLength) {
+                // Same sized encodings are overwritten in place
+                chunk.position(offset + RECORD_HEADER_SIZE + keyLength);
+                valueCodec.encode(value, chunk);
+            } else {
+                index.putLong(slot * SLOT_SIZE, appendRecord(value) + 1);
+                int oldSize = RECORD_HEADER_SIZE + keyLength + oldValueLength;
+                liveBytes -= oldSize;
+                garbageBytes += oldSize;
+                compactIfNeeded();
+            }
+            return oldValue;
+        }
+
+        slot = ~slot;
+        index.putLong(slot * SLOT_SIZE, appendRecord(value) + 1);
+        index.putInt(slot * SLOT_SIZE + 8, hash);
+        size++;
+        if (size > capacity * MAX_LOAD_FACTOR) {
+            allocateIndex(capacity * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the value associated with a key.
+     *
+     * @param key The key to lookup.
+     * @return A newly decoded value for the key, or null if the key does not exist.
+     */
+    public V get(K key) {
+        if (key == null) return null;
+        int slot = findSlot(encodeKey(key));
+        return slot >= 0 ? readValue(addressAt(slot)) : null;
+    }
+
+    /**
+     * Checks if the map contains a given key.
+     *
+     * @param key The key to check.
+     * @return true if the key exists, otherwise false.
+     */
+    public boolean containsKey(K key) {
+        return key != null && findSlot(encodeKey(key)) >= 0;
+    }
+
+    /**
+     * Removes the key-value pair for a given key, shifting back following entries of its probe sequence.
+     *
+     * @param key The key to remove.
+     * @return true if the key existed and was removed, otherwise false.
+     */
+    public boolean remove(K key) {
+        if (key == null) return false;
+        int hole = findSlot(encodeKey(key));
+        if (hole < 0) return false;
+
+        int recordSize = recordSize(addressAt(hole));
+        liveBytes -= recordSize;
+        garbageBytes += recordSize;
+
+        int slot = (hole + 1) & mask;
+        while (addressAt(slot) != -1) {
+            int home = index.getInt(slot * SLOT_SIZE + 8) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                index.putLong(hole * SLOT_SIZE, index.getLong(slot * SLOT_SIZE));
+                index.putInt(hole * SLOT_SIZE + 8, index.getInt(slot * SLOT_SIZE + 8));
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        index.putLong(hole * SLOT_SIZE, 0);
+        size--;
+        compactIfNeeded();
+        return true;
+    }
+
+    /**
+     * Removes every entry and releases the native memory of the data chunks.
+     */
+    public void clear() {
+        checkOpen();
+        releaseChunks();
+        release(index);
+
+        // The old index points into the released chunks, so it must not be rehashed into the new one
+        index = null;
+        capacity = 0;
+        allocateIndex(DEFAULT_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * Returns the number of key-value pairs currently stored in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the map contains any key-value pairs.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the total number of slots in the index.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of bytes of native memory held by the index and data chunks.
+     */
+    public long getOffHeapBytes() {
+        return (long) capacity * SLOT_SIZE + (long) chunkCount * chunkSize;
+    }
+
+    /**
+     * Returns the number of bytes held by records that were replaced or removed and not yet compacted.
+     */
+    public long getGarbageBytes() {
+        return garbageBytes;
+    }
+
+    /**
+     * Releases the native memory held by the map. The map must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        releaseChunks();
+        release(index);
+        index = null;
+        closed = true;
+    }
+
+    /**
+     * Serializes a key into the scratch buffer and hashes its encoding.
+     *
+     * @param key The key to encode.
+     * @return The mixed hash of the encoded key.
+     */
+    private int encodeKey(K key) {
+        checkOpen();
+        int length = keyCodec.encodedSize(key);
+        if (keyScratch.capacity() < length) {
+            keyScratch = ByteBuffer.allocate(Math.max(length, keyScratch.capacity() * 2));
+        }
+        keyScratch.clear();
+        keyCodec.encode(key, keyScratch);
+        keyScratch.flip();
+
+        byte[] bytes = keyScratch.array();
+        int h = 1;
+        for (int i = 0; i < length; i++) h = 31 * h + bytes[i];
+        return Hashing.spread(h);
+    }
+
+    /**
+     * Finds the slot holding the key currently in the scratch buffer.
+     *
+     * @param hash The hash of the encoded key.
+     * @return The slot holding the key, or the bitwise complement of the empty slot ending its probe sequence.
+     */
+    private int findSlot(int hash) {
+        int slot = hash & mask;
+        long address;
+        while ((address = addressAt(slot)) != -1) {
+            if (index.getInt(slot * SLOT_SIZE + 8) == hash && keyMatches(address)) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    /**
+     * Compares the key of a record with the key in the scratch buffer.
+     *
+     * @param address The address of the record.
+     * @return true if the encoded keys are equal, otherwise false.
+     */
+    private boolean keyMatches(long address) {
+        ByteBuffer chunk = chunkOf(address);
+        int offset = offsetOf(address);
+        int length = keyScratch.limit();
+        if (chunk.getInt(offset) != length) return false;
+
+        byte[] bytes = keyScratch.array();
+        offset += RECORD_HEADER_SIZE;
+        for (int i = 0; i < length; i++) {
+            if (chunk.get(offset + i) != bytes[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the value of a record.
+     *
+     * @param address The address of the record.
+     * @return The decoded value.
+     */
+    private V readValue(long address) {
+        ByteBuffer view = chunkOf(address).duplicate();
+        int offset = offsetOf(address);
+        int start = offset + RECORD_HEADER_SIZE + view.getInt(offset);
+        view.limit(start + view.getInt(offset + 4));
+        view.position(start);
+        return valueCodec.decode(view);
+    }
+
+    /**
+     * Appends a record made of the key in the scratch buffer and the given value.
+     *
+     * @param value The value of the record.
+     * @return The address of the new record.
+     * @throws IllegalArgumentException if the record does not fit in a chunk.
+     * @throws IllegalStateException if a codec writes a different size than it reported.
+     */
+    private long appendRecord(V value) {
+        int keyLength = keyScratch.limit();
+        int valueLength = valueCodec.encodedSize(value);
+        long recordSize = (long) RECORD_HEADER_SIZE + keyLength + valueLength;
+        if (recordSize > chunkSize) throw new IllegalArgumentException("Record larger than chunk size");
+
+        if (chunkCount == 0 || writeOffset + recordSize > chunkSize) {
+            addChunk();
+        }
+        ByteBuffer chunk = chunks[chunkCount - 1];
+        int offset = writeOffset;
+        chunk.putInt(offset, keyLength);
+        chunk.putInt(offset + 4, valueLength);
+        chunk.position(offset + RECORD_HEADER_SIZE);
+        chunk.put(keyScratch.array(), 0, keyLength);
+        valueCodec.encode(value, chunk);
+        if (chunk.position() != offset + recordSize) throw new IllegalStateException("Codec wrote an unexpected size");
+
+        writeOffset += (int) recordSize;
+        liveBytes += recordSize;
+        return ((long) (chunkCount - 1) << 32) | offset;
+    }
+
+    /**
+     * Allocates a new data chunk and makes it the chunk being appended to.
+     */
+    private void addChunk() {
+        if (chunkCount == chunks.length) {
+            ByteBuffer[] grown = new ByteBuffer[chunks.length * 2];
+            System.arraycopy(chunks, 0, grown, 0, chunkCount);
+            chunks = grown;
+        }
+        chunks[chunkCount++] = ByteBuffer.allocateDirect(chunkSize);
+        writeOffset = 0;
+    }
+
+    /**
+     * Copies every live record into fresh chunks once garbage outweighs live data,
+     * then releases the old chunks.
+     */
+    private void compactIfNeeded() {
+        if (garbageBytes <= liveBytes || garbageBytes < chunkSize) return;
+
+        ByteBuffer[] oldChunks = chunks;
+        int oldChunkCount = chunkCount;
+        chunks = new ByteBuffer[4];
+        chunkCount = 0;
+        liveBytes = 0;
+        garbageBytes = 0;
+
+        for (int slot = 0; slot < capacity; slot++) {
+            long address = addressAt(slot);
+            if (address == -1) continue;
+            int recordSize = recordSize(address, oldChunks);
+            if (chunkCount == 0 || writeOffset + recordSize > chunkSize) {
+                addChunk();
+            }
+
+            ByteBuffer source = oldChunks[(int) (address >>> 32)].duplicate();
+            source.limit(offsetOf(address) + recordSize);
+            source.position(offsetOf(address));
+            ByteBuffer chunk = chunks[chunkCount - 1];
+            chunk.position(writeOffset);
+            chunk.put(source);
+
+            index.putLong(slot * SLOT_SIZE, (((long) (chunkCount - 1) << 32) | writeOffset) + 1);
+            writeOffset += recordSize;
+            liveBytes += recordSize;
+        }
+
+        for (int i = 0; i < oldChunkCount; i++) release(oldChunks[i]);
+    }
+
+    /**
+     * Replaces the index with an empty one of the given capacity and reinserts every address.
+     * Records are not touched, since each slot carries the hash of its key.
+     *
+     * @param newCapacity The new number of slots, a power of two.
+     * @throws IllegalStateException if the index would exceed its maximum capacity.
+     */
+    private void allocateIndex(int newCapacity) {
+        if (newCapacity > MAX_CAPACITY) throw new IllegalStateException("Map exceeds maximum capacity");
+        ByteBuffer oldIndex = index;
+        int oldCapacity = capacity;
+
+        index = ByteBuffer.allocateDirect(newCapacity * SLOT_SIZE);
+        capacity = newCapacity;
+        mask = newCapacity - 1;
+        if (oldIndex == null) return;
+
+        for (int i = 0; i < oldCapacity; i++) {
+            long address = oldIndex.getLong(i * SLOT_SIZE);
+            if (address == 0) continue;
+            int hash = oldIndex.getInt(i * SLOT_SIZE + 8);
+            int slot = hash & mask;
+            while (index.getLong(slot * SLOT_SIZE) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index.putLong(slot * SLOT_SIZE, address);
+            index.putInt(slot * SLOT_SIZE + 8, hash);
+        }
+        release(oldIndex);
+    }
+
+    /**
+     * Returns the record address stored in a slot.
+     *
+     * @param slot The slot to read.
+     * @return The address of the slot's record, or -1 if the slot is empty.
+     */
+    private long addressAt(int slot) {
+        return index.getLong(slot * SLOT_SIZE) - 1;
+    }
+
+    /**
+     * Returns the total size of a record, including its header.
+     *
+     * @param address The address of the record.
+     * @return The size of the record in bytes.
+     */
+    private int recordSize(long address) {
+        return recordSize(address, chunks);
+    }
+
+    /**
+     * Returns the total size of a record in a given set of chunks, including its header.
+     *
+     * @param address The address of the record.
+     * @param chunks The chunks the address refers to.
+     * @return The size of the record in bytes.
+     */
+    private static int recordSize(long address, ByteBuffer[] chunks) {
+        ByteBuffer chunk = chunks[(int) (address >>> 32)];
+        int offset = offsetOf(address);
+        return RECORD_HEADER_SIZE + chunk.getInt(offset) + chunk.getInt(offset + 4);
+    }
+
+    /**
+     * Returns the chunk holding a record.
+     *
+     * @param address The address of the record.
+     * @return The chunk the address refers to.
+     */
+    private ByteBuffer chunkOf(long address) {
+        return chunks[(int) (address >>> 32)];
+    }
+
+    /**
+     * Returns the offset of a record within its chunk.
+     *
+     * @param address The address of the record.
+     * @return The offset the address refers to.
+     */
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    /**
+     * Releases every data chunk and resets the append position.
+     */
+    private void releaseChunks() {
+        for (int i = 0; i < chunkCount; i++) {
+            release(chunks[i]);
+            chunks[i] = null;
+        }
+        chunkCount = 0;
+        writeOffset = 0;
+        liveBytes = 0;
+        garbageBytes = 0;
+    }
+
+    /**
+     * Helper to reject operations on a closed map.
+     */
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("Map is closed");
+    }
+
+
+    // Frees direct buffers immediately where the runtime allows it, instead of waiting for the GC
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java 8 has no invokeCleaner, buffers are then freed when they are garbage collected
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    /**
+     * Frees the native memory of a direct buffer, or leaves it to the GC if that is not possible.
+     *
+     * @param buffer The direct buffer to free, which must not be used afterwards.
+     */
+    private static void release(ByteBuffer buffer) {
+        if (buffer == null || INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Fall back to collection by the GC
+        }
+    }
+
+}
@@ -0,0 +1,599 @@
+package com.brendanddev.collections.map;
+
+import java.util.function.BiConsumer;
+
+import com.brendanddev.collections.core.Hashing;
+
+/**
+ * An immutable generic hash map implemented as a Hash Array Mapped Trie (HAMT) with structural sharing.
+ * 
+ * The mixed hash of a key is consumed five bits at a time, each level of the trie selecting one of 32
+ * possible children. Nodes only store the children that exist: a 32 bit bitmap records which are
+ * present, and the position of a child in the compact array is the number of set bits below its own.
+ * Keys whose full hashes are equal end up together in a collision node.
+ * 
+ * assoc and dissoc never modify a map. They copy only the nodes on the path from the root to the
+ * changed entry, at most about seven for 32 bit hashes, and share every other node with the original.
+ * Every version is therefore an independent, consistent snapshot that readers can use without locks.
+ * 
+ * For bulk loads, asTransient returns a Transient view that updates the nodes it created itself in
+ * place instead of copying them, and persistent turns it back into an immutable map.
+ * 
+ * Time Complexity
+ * Search (get/containsKey): O(log32 n)
+ * assoc/dissoc: O(log32 n), copying O(log32 n) nodes
+ * Transient put/remove: O(log32 n), copying each node at most once per transient
+ * 
+ * Note: Null keys and values are not allowed, since get returns null for a missing key.
+ *       A map is safe to share between threads once its reference has been safely published.
+ */
+public final class PersistentHashMap<K, V> {
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(0, null);
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final int size;
+    private final Node root;
+
+    /**
+     * Constructs a PersistentHashMap over an existing trie.
+     * 
+     * @param size The number of entries in the trie.
+     * @param root The root node of the trie, or null for an empty map.
+     */
+    private PersistentHashMap(int size, Node root) {
+        this.size = size;
+        this.root = root;
+    }
+
+    /**
+     * Returns the empty PersistentHashMap.
+     * 
+     * @return An empty map, shared by all callers.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Retrieves the value associated with a key.
+     * 
+     * @param key The key to lookup.
+     * @return The value for the key, or null if the key does not exist.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        if (key == null || root == null) return null;
+        return (V) root.find(0, Hashing.hash(key), key);
+    }
+
+    /**
+     * Checks if the map contains a given key.
+     * 
+     * @param key The key to check.
+     * @return true if the key exists, otherwise false.
+     */
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns a map that also associates a key with a value, leaving this map unchanged.
+     * 
+     * @param key The key to add or update.
+     * @param value The value to associate with the key.
+     * @return The new map, or this map if the key already maps to the same value.
+     * @throws IllegalArgumentException if the key or value is null.
+     */
+    public PersistentHashMap<K, V> assoc(K key, V value) {
+        if (key == null || value == null) throw new IllegalArgumentException("Null keys and values not allowed");
+        Change change = new Change();
+        Node newRoot = (root == null ? BitmapNode.EMPTY : root).assoc(null, 0, Hashing.hash(key), key, value, change);
+        if (newRoot == root) return this;
+        return new PersistentHashMap<>(change.sizeChanged ? size + 1 : size, newRoot);
+    }
+
+    /**
+     * Returns a map without the entry for a key, leaving this map unchanged.
+     * 
+     * @param key The key to remove.
+     * @return The new map, or this map if the key does not exist.
+     */
+    public PersistentHashMap<K, V> dissoc(K key) {
+        if (key == null || root == null) return this;
+        Node newRoot = root.without(null, 0, Hashing.hash(key), key, new Change());
+        if (newRoot == root) return this;
+        return new PersistentHashMap<>(size - 1, newRoot);
+    }
+
+    /**
+     * Returns the number of key-value pairs in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the map contains any key-value pairs.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Performs an action for every entry of the map.
+     * 
+     * @param action The action to perform with each key and value.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null) root.forEach((BiConsumer<Object, Object>) action);
+    }
+
+    /**
+     * Returns a Transient map starting with the entries of this map, for efficient bulk updates.
+     * This map itself is never modified.
+     * 
+     * @return A new Transient holding the same entries.
+     */
+    public Transient<K, V> asTransient() {
+        return new Transient<>(this);
+    }
+
+
+    /**
+     * A mutable view of a PersistentHashMap, used to apply many updates without copying a path for each.
+     * 
+     * Nodes copied by a Transient are marked with its edit token, and later updates change those nodes
+     * in place. Nodes shared with the map it started from are still copied, so that map is never
+     * modified. Calling persistent ends the Transient, after which it can no longer be used.
+     * 
+     * Note: A Transient must only be used by one thread.
+     */
+    public static final class Transient<K, V> {
+        private Object edit = new Object();
+        private Node root;
+        private int size;
+        private final Change change = new Change();
+
+        /**
+         * Constructs a Transient starting from the entries of a persistent map.
+         * 
+         * @param map The map to start from.
+         */
+        private Transient(PersistentHashMap<K, V> map) {
+            this.root = map.root;
+            this.size = map.size;
+        }
+
+        /**
+         * Associates a key with a value in place.
+         * 
+         * @param key The key to add or update.
+         * @param value The value to associate with the key.
+         * @throws IllegalArgumentException if the key or value is null.
+         * @throws IllegalStateException if persistent has already been called.
+         */
+        public void put(K key, V value) {
+            ensureEditable();
+            if (key == null || value == null) throw new IllegalArgumentException("Null keys and values not allowed");
+            change.sizeChanged = false;
+            root = (root == null ? BitmapNode.EMPTY : root).assoc(edit, 0, Hashing.hash(key), key, value, change);
+            if (change.sizeChanged) size++;
+        }
+
+        /**
+         * Removes the entry for a key in place.
+         * 
+         * @param key The key to remove.
+         * @return true if the key existed and was removed, otherwise false.
+         * @throws IllegalStateException if persistent has already been called.
+         */
+        public boolean remove(K key) {
+            ensureEditable();
+            if (key == null || root == null) return false;
+            change.sizeChanged = false;
+            root = root.without(edit, 0, Hashing.hash(key), key, change);
+            if (change.sizeChanged) size--;
+            return change.sizeChanged;
+        }
+
+        /**
+         * Retrieves the value associated with a key.
+         * 
+         * @param key The key to lookup.
+         * @return The value for the key, or null if the key does not exist.
+         * @throws IllegalStateException if persistent has already been called.
+         */
+        @SuppressWarnings("unchecked")
+        public V get(K key) {
+            ensureEditable();
+            if (key == null || root == null) return null;
+            return (V) root.find(0, Hashing.hash(key), key);
+        }
+
+        /**
+         * Returns the number of key-value pairs in the Transient.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Ends the Transient and returns an immutable map of its entries.
+         * 
+         * @return A PersistentHashMap holding the entries of this Transient.
+         * @throws IllegalStateException if persistent has already been called.
+         */
+        public PersistentHashMap<K, V> persistent() {
+            ensureEditable();
+            // Dropping the edit token freezes every node it marked
+            edit = null;
+            return size == 0 ? PersistentHashMap.<K, V>empty() : new PersistentHashMap<>(size, root);
+        }
+
+        /**
+         * Helper to reject use of a Transient after persistent was called.
+         */
+        private void ensureEditable() {
+            if (edit == null) throw new IllegalStateException("Transient used after persistent() call");
+        }
+    }
+
+
+    /**
+     * Records whether an update added or removed an entry.
+     */
+    private static final class Change {
+        boolean sizeChanged;
+    }
+
+    /**
+     * Represents a node of the trie. Keys and values are stored untyped, the map casts them on the way out.
+     */
+    private abstract static class Node {
+
+        /**
+         * Finds the value of a key below this node.
+         * 
+         * @param shift The number of hash bits consumed by the levels above.
+         * @param hash The mixed hash of the key.
+         * @param key The key to search for.
+         * @return The value of the key, or null if it does not exist.
+         */
+        abstract Object find(int shift, int hash, Object key);
+
+        /**
+         * Associates a key with a value below this node.
+         * 
+         * @param edit The edit token of the calling Transient, or null for a persistent update.
+         * @param shift The number of hash bits consumed by the levels above.
+         * @param hash The mixed hash of the key.
+         * @param key The key to add or update.
+         * @param value The value to associate with the key.
+         * @param change Set if a new entry was added.
+         * @return The updated node, which is this node if nothing changed or it was updated in place.
+         */
+        abstract Node assoc(Object edit, int shift, int hash, Object key, Object value, Change change);
+
+        /**
+         * Removes the entry for a key below this node.
+         * 
+         * @param edit The edit token of the calling Transient, or null for a persistent update.
+         * @param shift The number of hash bits consumed by the levels above.
+         * @param hash The mixed hash of the key.
+         * @param key The key to remove.
+         * @param change Set if an entry was removed.
+         * @return The updated node, or null if the node became empty.
+         */
+        abstract Node without(Object edit, int shift, int hash, Object key, Change change);
+
+        /**
+         * Performs an action for every entry below this node.
+         * 
+         * @param action The action to perform with each key and value.
+         */
+        abstract void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /**
+     * A node storing up to 32 entries or child nodes, compressed by a bitmap.
+     * 
+     * The array holds a pair of slots per present bit: a key and its value, or null and a child node.
+     */
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+        final Object edit;
+        int bitmap;
+        Object[] array;
+
+        /**
+         * Constructs a BitmapNode.
+         * 
+         * @param edit The edit token of the Transient that owns this node, or null.
+         * @param bitmap The bitmap of present children.
+         * @param array The key-value and child slots, two per set bit.
+         */
+        BitmapNode(Object edit, int bitmap, Object[] array) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bitFor(hash, shift);
+            if ((bitmap & bit) == 0) return null;
+            int index = indexFor(bit);
+            Object keyOrNull = array[2 * index];
+            Object valueOrNode = array[2 * index + 1];
+            if (keyOrNull == null) return ((Node) valueOrNode).find(shift + BITS, hash, key);
+            return key.equals(keyOrNull) ? valueOrNode : null;
+        }
+
+        @Override
+        Node assoc(Object edit, int shift, int hash, Object key, Object value, Change change) {
+            int bit = bitFor(hash, shift);
+            int index = indexFor(bit);
+
+            if ((bitmap & bit) == 0) {
+                // Insert a new key-value pair at its position in the compact array
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, 2 * index);
+                newArray[2 * index] = key;
+                newArray[2 * index + 1] = value;
+                System.arraycopy(array, 2 * index, newArray, 2 * index + 2, array.length - 2 * index);
+                change.sizeChanged = true;
+                return withArray(edit, bitmap | bit, newArray);
+            }
+
+            Object keyOrNull = array[2 * index];
+            Object valueOrNode = array[2 * index + 1];
+            if (keyOrNull == null) {
+                // Descend into the child node
+                Node child = ((Node) valueOrNode).assoc(edit, shift + BITS, hash, key, value, change);
+                return child == valueOrNode ? this : set(edit, 2 * index + 1, child);
+            }
+            if (key.equals(keyOrNull)) {
+                return value == valueOrNode ? this : set(edit, 2 * index + 1, value);
+            }
+
+            // Two different keys share this slot, so they are pushed down into a new child node
+            change.sizeChanged = true;
+            Node child = createNode(edit, shift + BITS, keyOrNull, valueOrNode, hash, key, value);
+            BitmapNode node = editable(edit);
+            node.array[2 * index] = null;
+            node.array[2 * index + 1] = child;
+            return node;
+        }
+
+        @Override
+        Node without(Object edit, int shift, int hash, Object key, Change change) {
+            int bit = bitFor(hash, shift);
+            if ((bitmap & bit) == 0) return this;
+            int index = indexFor(bit);
+            Object keyOrNull = array[2 * index];
+            Object valueOrNode = array[2 * index + 1];
+
+            if (keyOrNull == null) {
+                Node child = ((Node) valueOrNode).without(edit, shift + BITS, hash, key, change);
+                if (child == valueOrNode) return this;
+                if (child != null) return set(edit, 2 * index + 1, child);
+            } else if (key.equals(keyOrNull)) {
+                change.sizeChanged = true;
+            } else {
+                return this;
+            }
+
+            // Remove the pair at this position
+            if (bitmap == bit) return null;
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, 2 * index);
+            System.arraycopy(array, 2 * index + 2, newArray, 2 * index, newArray.length - 2 * index);
+            return withArray(edit, bitmap ^ bit, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                } else {
+                    action.accept(array[i], array[i + 1]);
+                }
+            }
+        }
+
+        /**
+         * Returns this node if the Transient owns it, otherwise a copy owned by the Transient.
+         * A persistent update always copies.
+         * 
+         * @param edit The edit token of the calling Transient, or null.
+         * @return A node that may be modified.
+         */
+        private BitmapNode editable(Object edit) {
+            if (edit != null && this.edit == edit) return this;
+            return new BitmapNode(edit, bitmap, array.clone());
+        }
+
+        /**
+         * Returns this node with a new bitmap and array if the Transient owns it, otherwise a new node.
+         * 
+         * @param edit The edit token of the calling Transient, or null.
+         * @param newBitmap The bitmap the result should have.
+         * @param newArray The array the result should hold.
+         * @return A node with the given bitmap and array.
+         */
+        private BitmapNode withArray(Object edit, int newBitmap, Object[] newArray) {
+            if (edit != null && this.edit == edit) {
+                bitmap = newBitmap;
+                array = newArray;
+                return this;
+            }
+            return new BitmapNode(edit, newBitmap, newArray);
+        }
+
+        /**
+         * Sets one slot of an editable version of this node.
+         * 
+         * @param edit The edit token of the calling Transient, or null.
+         * @param slot The slot to set.
+         * @param value The new slot content.
+         * @return The modified node.
+         */
+        private BitmapNode set(Object edit, int slot, Object value) {
+            BitmapNode node = editable(edit);
+            node.array[slot] = value;
+            return node;
+        }
+
+        /**
+         * Helper to return the position of a present bit in the compact array.
+         * 
+         * @param bit The bit of a child.
+         * @return The number of children before it.
+         */
+        private int indexFor(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+    }
+
+    /**
+     * A node storing entries whose keys have exactly the same hash.
+     */
+    private static final class CollisionNode extends Node {
+        final Object edit;
+        final int hash;
+        Object[] array;
+
+        /**
+         * Constructs a CollisionNode.
+         * 
+         * @param edit The edit token of the Transient that owns this node, or null.
+         * @param hash The hash shared by every key.
+         * @param array The keys and values, stored as pairs.
+         */
+        CollisionNode(Object edit, int hash, Object[] array) {
+            this.edit = edit;
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            if (hash != this.hash) return null;
+            int index = indexOf(key);
+            return index >= 0 ? array[index + 1] : null;
+        }
+
+        @Override
+        Node assoc(Object edit, int shift, int hash, Object key, Object value, Change change) {
+            if (hash != this.hash) {
+                // Nest this node below a bitmap node that can also hold the new key
+                BitmapNode parent = new BitmapNode(edit, bitFor(this.hash, shift), new Object[] {null, this});
+                return parent.assoc(edit, shift, hash, key, value, change);
+            }
+
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (array[index + 1] == value) return this;
+                CollisionNode node = editable(edit, array.clone());
+                node.array[index + 1] = value;
+                return node;
+            }
+
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            change.sizeChanged = true;
+            return editable(edit, newArray);
+        }
+
+        @Override
+        Node without(Object edit, int shift, int hash, Object key, Change change) {
+            int index = hash == this.hash ? indexOf(key) : -1;
+            if (index < 0) return this;
+            change.sizeChanged = true;
+            if (array.length == 2) return null;
+
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, index);
+            System.arraycopy(array, index + 2, newArray, index, newArray.length - index);
+            return editable(edit, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+        }
+
+        /**
+         * Returns this node with a new array if the Transient owns it, otherwise a new node.
+         * 
+         * @param edit The edit token of the calling Transient, or null.
+         * @param newArray The array the result should hold.
+         * @return A node holding newArray.
+         */
+        private CollisionNode editable(Object edit, Object[] newArray) {
+            if (edit != null && this.edit == edit) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(edit, hash, newArray);
+        }
+
+        /**
+         * Helper to find the slot of a key.
+         * 
+         * @param key The key to search for.
+         * @return The slot of the key, or -1 if it is not in this node.
+         */
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) return i;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Creates the node holding two entries that collided at the level above.
+     * 
+     * @param edit The edit token of the calling Transient, or null.
+     * @param shift The number of hash bits consumed by the levels above the new node.
+     * @param key1 The key already in the trie.
+     * @param value1 The value of key1.
+     * @param hash2 The mixed hash of key2.
+     * @param key2 The key being added.
+     * @param value2 The value of key2.
+     * @return A collision node if the full hashes are equal, otherwise a bitmap node.
+     */
+    private static Node createNode(Object edit, int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+        int hash1 = Hashing.hash(key1);
+        if (hash1 == hash2) {
+            return new CollisionNode(edit, hash1, new Object[] {key1, value1, key2, value2});
+        }
+        Change ignored = new Change();
+        return BitmapNode.EMPTY
+                .assoc(edit, shift, hash1, key1, value1, ignored)
+                .assoc(edit, shift, hash2, key2, value2, ignored);
+    }
+
+    /**
+     * Helper to select the bit of a hash at the given level.
+     * 
+     * @param hash The mixed hash of a key.
+     * @param shift The number of hash bits consumed by the levels above.
+     * @return A single set bit for one of the 32 children.
+     */
+    private static int bitFor(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.brendanddev.collections.performance;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.function.Supplier;
 
 /**
@@ -12,6 +14,9 @@ public class Benchmark {
     private static final String GREEN = "\u001B[32m";
     private static final String YELLOW = "\u001B[33m";
 
+    // Keeps the structure being measured reachable while the heap is sampled
+    private static Object retained;
+
     /**
      * Measures the time taken to execute a runnable.
      * 
@@ -44,6 +49,59 @@ public class Benchmark {
         return result;
     }
 
+    /**
+     * Estimates how many bytes of heap the object built by a Supplier retains.
+     * 
+     * The used heap is sampled after forcing garbage collection before and after building the
+     * object, so the result is only an approximation and is best used with large structures.
+     * 
+     * @param builder The Supplier that builds the structure to measure.
+     * @return The approximate number of bytes retained by the built structure.
+     */
+    public static long measureRetainedBytes(Supplier<?> builder) {
+        long before = usedMemory();
+        retained = builder.get();
+        long after = usedMemory();
+        retained = null;
+        return Math.max(0, after - before);
+    }
+
+    /**
+     * Measures how many bytes of heap the current thread allocates while running a Supplier.
+     * Relies on the HotSpot thread allocation counters, which count every allocation whether or
+     * not it survives, so it shows the garbage an operation produces.
+     * 
+     * @param operation The Supplier function being executed.
+     * @return The number of bytes allocated, or -1 if the JVM does not support allocation counting.
+     */
+    public static long measureAllocatedBytes(Supplier<?> operation) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            operation.get();
+            return -1;
+        }
+        com.sun.management.ThreadMXBean counters = (com.sun.management.ThreadMXBean) threads;
+        long threadId = Thread.currentThread().getId();
+        long before = counters.getThreadAllocatedBytes(threadId);
+        retained = operation.get();
+        long after = counters.getThreadAllocatedBytes(threadId);
+        retained = null;
+        return after - before;
+    }
+
+    /**
+     * Helper to read the currently used heap after requesting garbage collection.
+     * 
+     * @return The number of bytes of heap currently in use.
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
     /**
      * Helper to get color code based on elapsed time.
      * 
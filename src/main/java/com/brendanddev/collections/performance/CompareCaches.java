@@ -0,0 +1,115 @@
+package com.brendanddev.collections.performance;
+
+import java.util.Random;
+
+import com.brendanddev.collections.cache.CustomLRUCache;
+import com.brendanddev.collections.cache.CustomTinyLfuCache;
+
+/**
+ * Provides trace replay benchmarks comparing the hit rate and throughput of the cache implementations.
+ * 
+ * Each trace is a sequence of integer keys. Replaying a trace performs a get for every key and
+ * a put whenever the get misses, the way a read-through cache is used.
+ */
+public class CompareCaches {
+
+    private static final int KEY_SPACE = 100_000;
+    private static final double ZIPF_EXPONENT = 0.9;
+
+    /**
+     * Benchmarks CustomLRUCache against CustomTinyLfuCache on a skewed trace and on the same trace
+     * interrupted by large scans of one-off keys.
+     * 
+     * @param n The number of requests in each trace.
+     */
+    public static void benchmarkCaches(int n) {
+        int capacity = KEY_SPACE / 100;
+        int[] zipf = generateZipfTrace(n, new Random(42));
+        int[] scans = generateScanTrace(n, capacity * 4, new Random(42));
+
+        replay("Zipf", zipf, capacity);
+        replay("Zipf with scans", scans, capacity);
+    }
+
+    /**
+     * Helper to replay a trace against both caches with the same capacity and print the results.
+     * 
+     * @param name The name of the trace.
+     * @param trace The keys to request.
+     * @param capacity The maximum number of entries in each cache.
+     */
+    private static void replay(String name, int[] trace, int capacity) {
+        CustomLRUCache<Integer, Integer> lru = new CustomLRUCache<>(capacity);
+        long lruNanos = System.nanoTime();
+        for (int key : trace) {
+            if (lru.get(key) == null) lru.put(key, key);
+        }
+        lruNanos = System.nanoTime() - lruNanos;
+
+        CustomTinyLfuCache<Integer, Integer> tinyLfu = new CustomTinyLfuCache<>(capacity);
+        long tinyLfuNanos = System.nanoTime();
+        for (int key : trace) {
+            if (tinyLfu.get(key) == null) tinyLfu.put(key, key);
+        }
+        tinyLfuNanos = System.nanoTime() - tinyLfuNanos;
+
+        System.out.printf("%s trace (%d requests, capacity %d): CustomLRUCache hit rate %.2f%% at %.2f Mops/s | "
+                + "CustomTinyLfuCache hit rate %.2f%% at %.2f Mops/s%n",
+                name, trace.length, capacity,
+                lru.getHitRate() * 100, trace.length * 1e3 / lruNanos,
+                tinyLfu.getHitRate() * 100, trace.length * 1e3 / tinyLfuNanos);
+    }
+
+    /**
+     * Helper to generate keys following a Zipf distribution over KEY_SPACE keys,
+     * sampled by binary search over the cumulative distribution.
+     * 
+     * @param n The number of keys to generate.
+     * @param random The source of randomness.
+     * @return The generated trace.
+     */
+    private static int[] generateZipfTrace(int n, Random random) {
+        double[] cumulative = new double[KEY_SPACE];
+        double sum = 0;
+        for (int i = 0; i < KEY_SPACE; i++) {
+            sum += 1.0 / Math.pow(i + 1, ZIPF_EXPONENT);
+            cumulative[i] = sum;
+        }
+
+        int[] trace = new int[n];
+        for (int i = 0; i < n; i++) {
+            double target = random.nextDouble() * sum;
+            int low = 0;
+            int high = KEY_SPACE - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < target) low = mid + 1;
+                else high = mid;
+            }
+            trace[i] = low;
+        }
+        return trace;
+    }
+
+    /**
+     * Helper to generate a Zipf trace where every tenth block of requests is replaced by a scan
+     * over keys that never repeat, like a batch job reading through cold data.
+     * 
+     * @param n The number of keys to generate.
+     * @param scanLength The number of requests in each scan.
+     * @param random The source of randomness.
+     * @return The generated trace.
+     */
+    private static int[] generateScanTrace(int n, int scanLength, Random random) {
+        int[] trace = generateZipfTrace(n, random);
+        int nextScanKey = KEY_SPACE;
+        for (int start = 0; start < n; start += scanLength * 10) {
+            int end = Math.min(n, start + scanLength);
+            for (int i = start; i < end; i++) {
+                trace[i] = nextScanKey++;
+            }
+        }
+        return trace;
+    }
+
+}
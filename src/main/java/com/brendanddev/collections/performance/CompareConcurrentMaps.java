@@ -0,0 +1,180 @@
+package com.brendanddev.collections.performance;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import com.brendanddev.collections.map.ConcurrentCounterMap;
+import com.brendanddev.collections.map.ConcurrentCustomHashMap;
+import com.brendanddev.collections.map.CustomHashMap;
+
+/**
+ * Provides multi-threaded throughput benchmarks for the concurrent map implementation.
+ *
+ * This class compares ConcurrentCustomHashMap against a CustomHashMap guarded by a single
+ * global lock and against Java's ConcurrentHashMap, using a mixed read/write workload
+ * at thread counts from 1 to 64, and ConcurrentCounterMap for counting hot keys.
+ */
+public class CompareConcurrentMaps {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+    private static final int KEY_RANGE = 1 << 16;
+    private static final int WRITE_PERCENT = 20;
+    private static final int HOT_KEYS = 16;
+
+    /**
+     * Benchmarks the concurrent maps with every configured thread count.
+     *
+     * @param opsPerThread The number of operations each thread performs per run.
+     */
+    public static void benchmarkConcurrentMaps(int opsPerThread) {
+        for (int threads : THREAD_COUNTS) {
+            CustomHashMap<Integer, Integer> lockedMap = new CustomHashMap<>();
+            Object lock = new Object();
+            long lockedNanos = runThreads(threads, opsPerThread, (key, write) -> {
+                synchronized (lock) {
+                    if (write) lockedMap.put(key, key);
+                    else lockedMap.get(key);
+                }
+            });
+
+            ConcurrentCustomHashMap<Integer, Integer> customMap = new ConcurrentCustomHashMap<>(64);
+            long customNanos = runThreads(threads, opsPerThread, (key, write) -> {
+                if (write) customMap.put(key, key);
+                else customMap.get(key);
+            });
+
+            ConcurrentHashMap<Integer, Integer> javaMap = new ConcurrentHashMap<>();
+            long javaNanos = runThreads(threads, opsPerThread, (key, write) -> {
+                if (write) javaMap.put(key, key);
+                else javaMap.get(key);
+            });
+
+            long totalOps = (long) threads * opsPerThread;
+            System.out.printf("%2d threads: synchronized CustomHashMap %s | ConcurrentCustomHashMap %s | Java ConcurrentHashMap %s%n",
+                    threads, formatThroughput(totalOps, lockedNanos),
+                    formatThroughput(totalOps, customNanos), formatThroughput(totalOps, javaNanos));
+        }
+    }
+
+    /**
+     * Benchmarks the atomic merge operation used for counting from many threads.
+     *
+     * @param opsPerThread The number of increments each thread performs per run.
+     */
+    public static void benchmarkConcurrentMerge(int opsPerThread) {
+        for (int threads : THREAD_COUNTS) {
+            ConcurrentCustomHashMap<Integer, Integer> customMap = new ConcurrentCustomHashMap<>(64);
+            long customNanos = runThreads(threads, opsPerThread, (key, write) -> customMap.merge(key & 1023, 1, Integer::sum));
+
+            ConcurrentHashMap<Integer, Integer> javaMap = new ConcurrentHashMap<>();
+            long javaNanos = runThreads(threads, opsPerThread, (key, write) -> javaMap.merge(key & 1023, 1, Integer::sum));
+
+            long totalOps = (long) threads * opsPerThread;
+            System.out.printf("%2d threads: ConcurrentCustomHashMap merge %s | Java ConcurrentHashMap merge %s%n",
+                    threads, formatThroughput(totalOps, customNanos), formatThroughput(totalOps, javaNanos));
+        }
+    }
+
+    /**
+     * Benchmarks counting a handful of hot String keys from many threads, comparing a locked
+     * CustomHashMap of boxed Integers, merge on ConcurrentCustomHashMap and ConcurrentCounterMap.
+     *
+     * @param opsPerThread The number of increments each thread performs per run.
+     */
+    public static void benchmarkHotKeyCounters(int opsPerThread) {
+        String[] hotKeys = new String[HOT_KEYS];
+        for (int i = 0; i < HOT_KEYS; i++) {
+            hotKeys[i] = "metric-" + i;
+        }
+
+        for (int threads : THREAD_COUNTS) {
+            CustomHashMap<String, Integer> lockedMap = new CustomHashMap<>();
+            Object lock = new Object();
+            long lockedNanos = runThreads(threads, opsPerThread, (key, write) -> {
+                synchronized (lock) {
+                    lockedMap.merge(hotKeys[key & (HOT_KEYS - 1)], 1, Integer::sum);
+                }
+            });
+
+            ConcurrentCustomHashMap<String, Integer> mergeMap = new ConcurrentCustomHashMap<>(64);
+            long mergeNanos = runThreads(threads, opsPerThread,
+                    (key, write) -> mergeMap.merge(hotKeys[key & (HOT_KEYS - 1)], 1, Integer::sum));
+
+            ConcurrentCounterMap<String> counterMap = new ConcurrentCounterMap<>(64);
+            long counterNanos = runThreads(threads, opsPerThread,
+                    (key, write) -> counterMap.increment(hotKeys[key & (HOT_KEYS - 1)]));
+
+            long totalOps = (long) threads * opsPerThread;
+            System.out.printf("%2d threads: synchronized CustomHashMap merge %s | ConcurrentCustomHashMap merge %s | ConcurrentCounterMap increment %s%n",
+                    threads, formatThroughput(totalOps, lockedNanos),
+                    formatThroughput(totalOps, mergeNanos), formatThroughput(totalOps, counterNanos));
+        }
+    }
+
+    /**
+     * Helper to run the same operation on several threads that start together.
+     * Each thread draws pseudo random keys from its own generator and performs a write
+     * for WRITE_PERCENT percent of its operations.
+     *
+     * @param threads The number of threads to start.
+     * @param opsPerThread The number of operations each thread performs.
+     * @param operation The operation to perform for each key.
+     * @return The elapsed wall clock time in nanoseconds.
+     */
+    private static long runThreads(int threads, int opsPerThread, MapOperation operation) {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            final int seed = t + 1;
+            Thread worker = new Thread(() -> {
+                int state = seed * 0x9E3779B9;
+                try {
+                    start.await();
+                    for (int i = 0; i < opsPerThread; i++) {
+                        // Xorshift keeps key generation cheap and free of shared state
+                        state ^= state << 13;
+                        state ^= state >>> 17;
+                        state ^= state << 5;
+                        int key = state & (KEY_RANGE - 1);
+                        operation.apply(key, (state >>> 8) % 100 < WRITE_PERCENT);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return System.nanoTime() - begin;
+    }
+
+    /**
+     * Helper to format a throughput in millions of operations per second.
+     *
+     * @param ops The number of operations performed.
+     * @param nanos The elapsed time in nanoseconds.
+     * @return The formatted throughput.
+     */
+    private static String formatThroughput(long ops, long nanos) {
+        return String.format("%.2f Mops/s", ops * 1e3 / nanos);
+    }
+
+    /**
+     * A single map operation performed by a benchmark thread.
+     */
+    @FunctionalInterface
+    private interface MapOperation {
+        void apply(int key, boolean write);
+    }
+
+}
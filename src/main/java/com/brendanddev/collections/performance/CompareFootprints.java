@@ -0,0 +1,140 @@
+package com.brendanddev.collections.performance;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import com.brendanddev.collections.core.MemoryFootprint;
+import com.brendanddev.collections.heap.CustomHeap;
+import com.brendanddev.collections.list.CustomArrayList;
+import com.brendanddev.collections.list.CustomLinkedList;
+import com.brendanddev.collections.map.CustomHashMap;
+import com.brendanddev.collections.map.CustomOpenHashMap;
+import com.brendanddev.collections.map.IntIntHashMap;
+import com.brendanddev.collections.set.CustomHashSet;
+import com.brendanddev.collections.tree.CustomAVLTree;
+
+/**
+ * Provides memory footprint comparisons between the custom collections and their
+ * Java Collections Framework counterparts.
+ * 
+ * For every size from 10^3 up to the requested maximum, each custom structure prints the Footprint
+ * it estimates for itself next to the heap actually retained while building it, and each Java
+ * structure prints its retained heap. The elements are boxed before any measurement, so the figures
+ * cover the structures only, which is also what a Footprint estimates.
+ */
+public class CompareFootprints {
+
+    /**
+     * Benchmarks the memory footprint of every structure at sizes 10^3, 10^4, ... up to maxN.
+     * 
+     * @param maxN The largest number of elements to measure, at least 1000.
+     */
+    public static void benchmarkFootprints(int maxN) {
+        for (int n = 1000; n <= maxN; n *= 10) {
+            // Box every element up front, outside the Integer cache, so boxes are never counted
+            Integer[] elements = new Integer[n];
+            for (int i = 0; i < n; i++) elements[i] = (1 << 20) + i;
+            final int size = n;
+
+            System.out.println("n = " + n);
+            printCustom("CustomArrayList", () -> {
+                CustomArrayList<Integer> list = new CustomArrayList<>();
+                for (Integer e : elements) list.add(e);
+                return list;
+            });
+            printJava("Java ArrayList", () -> {
+                ArrayList<Integer> list = new ArrayList<>();
+                for (Integer e : elements) list.add(e);
+                return list;
+            });
+            printCustom("CustomLinkedList", () -> {
+                CustomLinkedList<Integer> list = new CustomLinkedList<>();
+                for (Integer e : elements) list.add(e);
+                return list;
+            });
+            printJava("Java LinkedList", () -> {
+                LinkedList<Integer> list = new LinkedList<>();
+                for (Integer e : elements) list.add(e);
+                return list;
+            });
+            printCustom("CustomHashSet", () -> {
+                CustomHashSet<Integer> set = new CustomHashSet<>();
+                for (Integer e : elements) set.add(e);
+                return set;
+            });
+            printJava("Java HashSet", () -> {
+                HashSet<Integer> set = new HashSet<>();
+                for (Integer e : elements) set.add(e);
+                return set;
+            });
+            printCustom("CustomHashMap", () -> {
+                CustomHashMap<Integer, Integer> map = new CustomHashMap<>();
+                for (Integer e : elements) map.put(e, e);
+                return map;
+            });
+            printCustom("CustomOpenHashMap", () -> {
+                CustomOpenHashMap<Integer, Integer> map = new CustomOpenHashMap<>();
+                for (Integer e : elements) map.put(e, e);
+                return map;
+            });
+            printCustom("IntIntHashMap", () -> {
+                IntIntHashMap map = new IntIntHashMap();
+                for (int i = 0; i < size; i++) map.put(elements[i], i);
+                return map;
+            });
+            printJava("Java HashMap", () -> {
+                HashMap<Integer, Integer> map = new HashMap<>();
+                for (Integer e : elements) map.put(e, e);
+                return map;
+            });
+            printCustom("CustomHeap", () -> {
+                CustomHeap<Integer> heap = new CustomHeap<>();
+                for (Integer e : elements) heap.add(e);
+                return heap;
+            });
+            printJava("Java PriorityQueue", () -> {
+                PriorityQueue<Integer> heap = new PriorityQueue<>();
+                for (Integer e : elements) heap.add(e);
+                return heap;
+            });
+            printCustom("CustomAVLTree", () -> {
+                CustomAVLTree<Integer> tree = new CustomAVLTree<>(Integer::compare);
+                for (Integer e : elements) tree.insert(e);
+                return tree;
+            });
+            printJava("Java TreeSet", () -> {
+                TreeSet<Integer> tree = new TreeSet<>();
+                for (Integer e : elements) tree.add(e);
+                return tree;
+            });
+        }
+    }
+
+    /**
+     * Helper to print the estimated Footprint of a custom structure next to its measured retained heap.
+     * 
+     * @param name The name of the structure.
+     * @param builder The Supplier that builds the structure.
+     */
+    private static void printCustom(String name, Supplier<? extends MemoryFootprint> builder) {
+        MemoryFootprint[] built = new MemoryFootprint[1];
+        long measured = Benchmark.measureRetainedBytes(() -> built[0] = builder.get());
+        System.out.printf("  %-20s estimated %s | measured ~%d bytes%n", name, built[0].footprint(), measured);
+    }
+
+    /**
+     * Helper to print the measured retained heap of a Java structure.
+     * 
+     * @param name The name of the structure.
+     * @param builder The Supplier that builds the structure.
+     */
+    private static void printJava(String name, Supplier<?> builder) {
+        System.out.printf("  %-20s measured ~%d bytes%n", name, Benchmark.measureRetainedBytes(builder));
+    }
+
+}
@@ -1,10 +1,27 @@
 package com.brendanddev.collections.performance;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
+import com.brendanddev.collections.core.CustomCodec;
+import com.brendanddev.collections.list.CustomArrayList;
+import com.brendanddev.collections.map.BloomFilteredHashMap;
 import com.brendanddev.collections.map.CustomHashMap;
+import com.brendanddev.collections.map.CustomMultimap;
+import com.brendanddev.collections.map.CustomOpenHashMap;
+import com.brendanddev.collections.map.IntIntHashMap;
+import com.brendanddev.collections.map.IntObjectHashMap;
+import com.brendanddev.collections.map.LongObjectHashMap;
+import com.brendanddev.collections.map.MapCursor;
+import com.brendanddev.collections.map.OffHeapHashMap;
+import com.brendanddev.collections.map.PersistentHashMap;
+import com.brendanddev.collections.set.CustomBloomFilter;
 
 /**
  * Provides performance comparison benchmarks between custom map implementations
@@ -67,5 +84,681 @@ public class CompareMaps {
         });
     }
 
+    /**
+     * Benchmarks counting word occurrences with CustomHashMap, comparing the get then put pattern,
+     * which looks every word up twice, against the single lookup merge and compute methods.
+     * 
+     * @param n The number of words to count.
+     */
+    public static void benchmarkWordCount(int n) {
+        // Draw words from a vocabulary with a skewed distribution, so most updates hit existing keys
+        int vocabularySize = Math.max(1, n / 10);
+        String[] vocabulary = new String[vocabularySize];
+        for (int i = 0; i < vocabularySize; i++) vocabulary[i] = "word" + i;
+        Random random = new Random(42);
+        String[] words = new String[n];
+        for (int i = 0; i < n; i++) {
+            double u = random.nextDouble();
+            words[i] = vocabulary[(int) (u * u * vocabularySize)];
+        }
+
+        Benchmark.measureWithResults("CustomHashMap get/put count " + n + " words", () -> {
+            CustomHashMap<String, Integer> counts = new CustomHashMap<>();
+            for (String word : words) {
+                Integer count = counts.get(word);
+                counts.put(word, count == null ? 1 : count + 1);
+            }
+            return counts.size();
+        });
+        Benchmark.measureWithResults("CustomHashMap merge count " + n + " words", () -> {
+            CustomHashMap<String, Integer> counts = new CustomHashMap<>();
+            for (String word : words) counts.merge(word, 1, Integer::sum);
+            return counts.size();
+        });
+        Benchmark.measureWithResults("CustomHashMap compute count " + n + " words", () -> {
+            CustomHashMap<String, Integer> counts = new CustomHashMap<>();
+            for (String word : words) counts.compute(word, (key, count) -> count == null ? 1 : count + 1);
+            return counts.size();
+        });
+        Benchmark.measureWithResults("Java HashMap merge count " + n + " words", () -> {
+            HashMap<String, Integer> counts = new HashMap<>();
+            for (String word : words) counts.merge(word, 1, Integer::sum);
+            return counts.size();
+        });
+    }
+
+    /**
+     * Benchmarks full map scans, comparing CustomHashMap's cursor and forEach against
+     * iterating the entry set of Java's HashMap, and prints the bytes each scan allocates.
+     * 
+     * @param n The number of entries to scan.
+     */
+    public static void benchmarkIteration(int n) {
+        CustomHashMap<Integer, Integer> customHashMap = new CustomHashMap<>();
+        HashMap<Integer, Integer> javaHashMap = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            customHashMap.put(i, i);
+            javaHashMap.put(i, i);
+        }
+
+        Benchmark.measureWithResults("CustomHashMap cursor scan " + n + " entries", () -> scanWithCursor(customHashMap));
+        Benchmark.measureWithResults("CustomHashMap forEach scan " + n + " entries", () -> scanWithForEach(customHashMap));
+        Benchmark.measureWithResults("Java HashMap entrySet scan " + n + " entries", () -> scanEntrySet(javaHashMap));
+        Benchmark.measureWithResults("CustomHashMap replaceAll " + n + " entries", () -> {
+            customHashMap.replaceAll((key, value) -> value);
+            return null;
+        });
+
+        // Compare the garbage produced by each kind of scan
+        System.out.println("CustomHashMap cursor scan allocated " 
+                + Benchmark.measureAllocatedBytes(() -> scanWithCursor(customHashMap)) + " bytes");
+        System.out.println("CustomHashMap forEach scan allocated " 
+                + Benchmark.measureAllocatedBytes(() -> scanWithForEach(customHashMap)) + " bytes");
+        System.out.println("Java HashMap entrySet scan allocated " 
+                + Benchmark.measureAllocatedBytes(() -> scanEntrySet(javaHashMap)) + " bytes");
+    }
+
+    /**
+     * Helper to sum every key and value of a CustomHashMap through a cursor.
+     * 
+     * @param map The map to scan.
+     * @return The sum of all keys and values.
+     */
+    private static long scanWithCursor(CustomHashMap<Integer, Integer> map) {
+        long sum = 0;
+        MapCursor<Integer, Integer> cursor = map.cursor();
+        while (cursor.advance()) {
+            sum += cursor.key() + cursor.value();
+        }
+        return sum;
+    }
+
+    /**
+     * Helper to sum every key and value of a CustomHashMap through forEach.
+     * 
+     * @param map The map to scan.
+     * @return The sum of all keys and values.
+     */
+    private static long scanWithForEach(CustomHashMap<Integer, Integer> map) {
+        long[] sum = new long[1];
+        map.forEach((key, value) -> sum[0] += key + value);
+        return sum[0];
+    }
+
+    /**
+     * Helper to sum every key and value of a Java HashMap through its entry set.
+     * 
+     * @param map The map to scan.
+     * @return The sum of all keys and values.
+     */
+    private static long scanEntrySet(HashMap<Integer, Integer> map) {
+        long sum = 0;
+        for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
+            sum += entry.getKey() + entry.getValue();
+        }
+        return sum;
+    }
+
+    /**
+     * Benchmarks CustomHashMap against Java's HashMap when every key has the same hash code,
+     * as with adversarial request keys. Strings built from the blocks "Aa" and "BB" all collide,
+     * so both maps rely on their treeified buckets.
+     * 
+     * @param n The maximum number of colliding keys to insert and look up.
+     */
+    public static void benchmarkCollisions(int n) {
+        int blocks = 31 - Integer.numberOfLeadingZeros(Math.max(2, Math.min(n, 1 << 14)));
+        String[] keys = new String[1 << blocks];
+        for (int i = 0; i < keys.length; i++) {
+            StringBuilder builder = new StringBuilder();
+            for (int b = 0; b < blocks; b++) {
+                builder.append(((i >>> b) & 1) == 0 ? "Aa" : "BB");
+            }
+            keys[i] = builder.toString();
+        }
+        int m = keys.length;
+        CustomHashMap<String, Integer> customHashMap = new CustomHashMap<>();
+        HashMap<String, Integer> javaHashMap = new HashMap<>();
+
+        Benchmark.measureWithResults("CustomHashMap put " + m + " colliding keys", () -> {
+            for (int i = 0; i < m; i++) customHashMap.put(keys[i], i);
+            return null;
+        });
+        Benchmark.measureWithResults("Java HashMap put " + m + " colliding keys", () -> {
+            for (int i = 0; i < m; i++) javaHashMap.put(keys[i], i);
+            return null;
+        });
+        Benchmark.measureWithResults("CustomHashMap get " + m + " colliding keys", () -> {
+            long sum = 0;
+            for (int i = 0; i < m; i++) sum += customHashMap.get(keys[i]);
+            return sum;
+        });
+        Benchmark.measureWithResults("Java HashMap get " + m + " colliding keys", () -> {
+            long sum = 0;
+            for (int i = 0; i < m; i++) sum += javaHashMap.get(keys[i]);
+            return sum;
+        });
+        System.out.println("CustomHashMap largest bucket: " + customHashMap.getLargestBucketSize()
+                + " entries in " + customHashMap.getNumberOfTreeBuckets() + " tree bucket(s)");
+    }
+
+    /**
+     * Benchmarks PersistentHashMap for publishing snapshots. Building with assoc is compared against
+     * building through a Transient, and publishing a series of single changes with assoc is compared
+     * against copying a full CustomHashMap for every change.
+     * 
+     * @param n The number of entries in the map.
+     */
+    public static void benchmarkPersistentMap(int n) {
+        int changes = 20;
+
+        PersistentHashMap<Integer, Integer> persistent = Benchmark.measureWithResults(
+                "PersistentHashMap assoc " + n + " entries", () -> {
+            PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+            for (int i = 0; i < n; i++) map = map.assoc(i, i);
+            return map;
+        });
+        Benchmark.measureWithResults("PersistentHashMap transient put " + n + " entries", () -> {
+            PersistentHashMap.Transient<Integer, Integer> builder = PersistentHashMap.<Integer, Integer>empty().asTransient();
+            for (int i = 0; i < n; i++) builder.put(i, i);
+            return builder.persistent();
+        });
+        CustomHashMap<Integer, Integer> customHashMap = new CustomHashMap<>();
+        for (int i = 0; i < n; i++) customHashMap.put(i, i);
+
+        // Each change must produce a new snapshot while the previous one stays valid for readers
+        Benchmark.measureWithResults("PersistentHashMap publish " + changes + " snapshots of " + n + " entries", () -> {
+            PersistentHashMap<Integer, Integer> snapshot = persistent;
+            for (int i = 0; i < changes; i++) snapshot = snapshot.assoc(i, -i);
+            return snapshot;
+        });
+        Benchmark.measureWithResults("CustomHashMap copy " + changes + " snapshots of " + n + " entries", () -> {
+            CustomHashMap<Integer, Integer> snapshot = customHashMap;
+            for (int i = 0; i < changes; i++) {
+                CustomHashMap<Integer, Integer> copy = new CustomHashMap<>();
+                snapshot.forEach(copy::put);
+                copy.put(i, -i);
+                snapshot = copy;
+            }
+            return snapshot;
+        });
+
+        // Compare lookups
+        Benchmark.measureWithResults("PersistentHashMap get " + n + " entries", () -> {
+            long sum = 0;
+            for (int i = 0; i < n; i++) sum += persistent.get(i);
+            return sum;
+        });
+        Benchmark.measureWithResults("CustomHashMap get " + n + " entries", () -> {
+            long sum = 0;
+            for (int i = 0; i < n; i++) sum += customHashMap.get(i);
+            return sum;
+        });
+    }
+
+    /**
+     * Benchmarks bulk loading CustomHashMap with and without sizing the bucket array up front,
+     * against Java's HashMap with and without an initial capacity.
+     * 
+     * @param n The number of entries to load.
+     */
+    public static void benchmarkBulkLoad(int n) {
+        CustomHashMap<Integer, Integer> source = new CustomHashMap<>(n);
+        for (int i = 0; i < n; i++) source.put(i, i);
+
+        Benchmark.measureWithResults("CustomHashMap load " + n + " entries (growing)", () -> {
+            CustomHashMap<Integer, Integer> map = new CustomHashMap<>();
+            for (int i = 0; i < n; i++) map.put(i, i);
+            return map;
+        });
+        Benchmark.measureWithResults("CustomHashMap load " + n + " entries (pre-sized)", () -> {
+            CustomHashMap<Integer, Integer> map = new CustomHashMap<>(n);
+            for (int i = 0; i < n; i++) map.put(i, i);
+            return map;
+        });
+        Benchmark.measureWithResults("CustomHashMap putAll " + n + " entries", () -> {
+            CustomHashMap<Integer, Integer> map = new CustomHashMap<>();
+            map.putAll(source);
+            return map;
+        });
+        Benchmark.measureWithResults("Java HashMap load " + n + " entries (growing)", () -> {
+            HashMap<Integer, Integer> map = new HashMap<>();
+            for (int i = 0; i < n; i++) map.put(i, i);
+            return map;
+        });
+        Benchmark.measureWithResults("Java HashMap load " + n + " entries (pre-sized)", () -> {
+            HashMap<Integer, Integer> map = new HashMap<>((int) (n / 0.75f) + 1);
+            for (int i = 0; i < n; i++) map.put(i, i);
+            return map;
+        });
+    }
+
+    /**
+     * Benchmarks a one-to-many index with skewed cardinalities, where most keys hold one or two values,
+     * built as a CustomHashMap of CustomArrayLists and as a CustomMultimap.
+     * The time to build each index and the heap it retains are printed.
+     * 
+     * @param n The number of distinct keys in the index.
+     */
+    public static void benchmarkMultimap(int n) {
+        // 60% of keys hold one value, 30% hold two and 10% hold ten
+        int[] cardinalities = new int[n];
+        Random random = new Random(42);
+        int totalValues = 0;
+        for (int i = 0; i < n; i++) {
+            int roll = random.nextInt(10);
+            cardinalities[i] = roll < 6 ? 1 : roll < 9 ? 2 : 10;
+            totalValues += cardinalities[i];
+        }
+        int offset = 1 << 20;
+
+        Benchmark.measureWithResults("CustomHashMap<K, CustomArrayList<V>> index " + totalValues + " values",
+                () -> buildListIndex(cardinalities, offset));
+        Benchmark.measureWithResults("CustomMultimap index " + totalValues + " values",
+                () -> buildMultimapIndex(cardinalities, offset));
+
+        printBytesPerEntry("CustomHashMap<Integer, CustomArrayList<Integer>>", n,
+                Benchmark.measureRetainedBytes(() -> buildListIndex(cardinalities, offset)));
+        printBytesPerEntry("CustomMultimap<Integer, Integer>", n,
+                Benchmark.measureRetainedBytes(() -> buildMultimapIndex(cardinalities, offset)));
+    }
+
+    /**
+     * Helper to build a one-to-many index as a CustomHashMap of CustomArrayLists.
+     * 
+     * @param cardinalities The number of values of each key.
+     * @param offset The first key, chosen outside the Integer cache so boxes are counted.
+     * @return The built index.
+     */
+    private static CustomHashMap<Integer, CustomArrayList<Integer>> buildListIndex(int[] cardinalities, int offset) {
+        CustomHashMap<Integer, CustomArrayList<Integer>> index = new CustomHashMap<>();
+        for (int i = 0; i < cardinalities.length; i++) {
+            for (int v = 0; v < cardinalities[i]; v++) {
+                index.computeIfAbsent(offset + i, k -> new CustomArrayList<>()).add(offset + v);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Helper to build a one-to-many index as a CustomMultimap.
+     * 
+     * @param cardinalities The number of values of each key.
+     * @param offset The first key, chosen outside the Integer cache so boxes are counted.
+     * @return The built index.
+     */
+    private static CustomMultimap<Integer, Integer> buildMultimapIndex(int[] cardinalities, int offset) {
+        CustomMultimap<Integer, Integer> index = new CustomMultimap<>();
+        for (int i = 0; i < cardinalities.length; i++) {
+            for (int v = 0; v < cardinalities[i]; v++) {
+                index.put(offset + i, offset + v);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Benchmarks the open addressing CustomOpenHashMap against the bucket based CustomHashMap
+     * and Java's HashMap.
+     * 
+     * @param n The number of entries to insert, look up, and remove.
+     */
+    public static void benchmarkOpenHashMap(int n) {
+        CustomHashMap<Integer, String> customHashMap = new CustomHashMap<>();
+        CustomOpenHashMap<Integer, String> customOpenHashMap = new CustomOpenHashMap<>();
+        HashMap<Integer, String> javaHashMap = new HashMap<>();
+
+        List<Integer> keysToAdd = new ArrayList<>();
+        for (int i = 0; i < n; i++) keysToAdd.add(i);
+
+        // Compare adding n entries
+        Benchmark.measureWithResults("CustomHashMap add " + n + " entries", () -> {
+            for (int key : keysToAdd) customHashMap.put(key, "Value" + key);
+            return null;
+        });
+        Benchmark.measureWithResults("CustomOpenHashMap add " + n + " entries", () -> {
+            for (int key : keysToAdd) customOpenHashMap.put(key, "Value" + key);
+            return null;
+        });
+        Benchmark.measureWithResults("Java HashMap add " + n + " entries", () -> {
+            for (int key : keysToAdd) javaHashMap.put(key, "Value" + key);
+            return null;
+        });
+
+        // Compare getting n entries
+        Benchmark.measureWithResults("CustomHashMap get " + n + " entries", () -> {
+            for (int key : keysToAdd) customHashMap.get(key);
+            return null;
+        });
+        Benchmark.measureWithResults("CustomOpenHashMap get " + n + " entries", () -> {
+            for (int key : keysToAdd) customOpenHashMap.get(key);
+            return null;
+        });
+        Benchmark.measureWithResults("Java HashMap get " + n + " entries", () -> {
+            for (int key : keysToAdd) javaHashMap.get(key);
+            return null;
+        });
+
+        // Compare looking up n missing keys, which walk a full probe sequence or bucket
+        Benchmark.measureWithResults("CustomHashMap containsKey " + n + " missing keys", () -> {
+            for (int key : keysToAdd) customHashMap.containsKey(key + n);
+            return null;
+        });
+        Benchmark.measureWithResults("CustomOpenHashMap containsKey " + n + " missing keys", () -> {
+            for (int key : keysToAdd) customOpenHashMap.containsKey(key + n);
+            return null;
+        });
+        Benchmark.measureWithResults("Java HashMap containsKey " + n + " missing keys", () -> {
+            for (int key : keysToAdd) javaHashMap.containsKey(key + n);
+            return null;
+        });
+
+        // Compare removing n entries
+        Benchmark.measureWithResults("CustomHashMap remove " + n + " entries", () -> {
+            for (int key : keysToAdd) customHashMap.remove(key);
+            return null;
+        });
+        Benchmark.measureWithResults("CustomOpenHashMap remove " + n + " entries", () -> {
+            for (int key : keysToAdd) customOpenHashMap.remove(key);
+            return null;
+        });
+        Benchmark.measureWithResults("Java HashMap remove " + n + " entries", () -> {
+            for (int key : keysToAdd) javaHashMap.remove(key);
+            return null;
+        });
+    }
+
+    /**
+     * Benchmarks the primitive specialized maps against Java's HashMap with boxed keys.
+     * Compares throughput of put, get and remove, followed by the approximate heap
+     * retained per entry by each map.
+     * 
+     * @param n The number of entries to insert, look up, and remove.
+     */
+    public static void benchmarkPrimitiveMaps(int n) {
+        IntIntHashMap intIntMap = new IntIntHashMap();
+        IntObjectHashMap<String> intObjectMap = new IntObjectHashMap<>();
+        LongObjectHashMap<String> longObjectMap = new LongObjectHashMap<>();
+        HashMap<Integer, Integer> javaIntMap = new HashMap<>();
+        HashMap<Integer, String> javaObjectMap = new HashMap<>();
+        HashMap<Long, String> javaLongMap = new HashMap<>();
+        String value = "Value";
+
+        // Compare adding n entries
+        Benchmark.measureWithResults("IntIntHashMap put " + n + " entries", () -> {
+            for (int i = 0; i < n; i++) intIntMap.put(i, i);
+            return null;
+        });
+        Benchmark.measureWithResults("Java HashMap<Integer, Integer> put " + n + " entries", () -> {
+            for (int i = 0; i < n; i++) javaIntMap.put(i, i);
+            return null;
+        });
+        Benchmark.measureWithResults("IntObjectHashMap put " + n + " entries", () -> {
+            for (int i = 0; i < n; i++) intObjectMap.put(i, value);
+            return null;
+        });
+        Benchmark.measureWithResults("Java HashMap<Integer, String> put " + n + " entries", () -> {
+            for (int i = 0; i < n; i++) javaObjectMap.put(i, value);
+            return null;
+        });
+        Benchmark.measureWithResults("LongObjectHashMap put " + n + " entries", () -> {
+            for (long i = 0; i < n; i++) longObjectMap.put(i, value);
+            return null;
+        });
+        Benchmark.measureWithResults("Java HashMap<Long, String> put " + n + " entries", () -> {
+            for (long i = 0; i < n; i++) javaLongMap.put(i, value);
+            return null;
+        });
+
+        // Compare getting n entries
+        Benchmark.measureWithResults("IntIntHashMap get " + n + " entries", () -> {
+            long sum = 0;
+            for (int i = 0; i < n; i++) sum += intIntMap.get(i);
+            return sum;
+        });
+        Benchmark.measureWithResults("Java HashMap<Integer, Integer> get " + n + " entries", () -> {
+            long sum = 0;
+            for (int i = 0; i < n; i++) sum += javaIntMap.get(i);
+            return sum;
+        });
+        Benchmark.measureWithResults("IntObjectHashMap get " + n + " entries", () -> {
+            for (int i = 0; i < n; i++) intObjectMap.get(i);
+            return null;
+        });
+        Benchmark.measureWithResults("Java HashMap<Integer, String> get " + n + " entries", () -> {
+            for (int i = 0; i < n; i++) javaObjectMap.get(i);
+            return null;
+        });
+        Benchmark.measureWithResults("LongObjectHashMap get " + n + " entries", () -> {
+            for (long i = 0; i < n; i++) longObjectMap.get(i);
+            return null;
+        });
+        Benchmark.measureWithResults("Java HashMap<Long, String> get " + n + " entries", () -> {
+            for (long i = 0; i < n; i++) javaLongMap.get(i);
+            return null;
+        });
+
+        // Compare removing n entries
+        Benchmark.measureWithResults("IntIntHashMap remove " + n + " entries", () -> {
+            for (int i = 0; i < n; i++) intIntMap.remove(i);
+            return null;
+        });
+        Benchmark.measureWithResults("Java HashMap<Integer, Integer> remove " + n + " entries", () -> {
+            for (int i = 0; i < n; i++) javaIntMap.remove(i);
+            return null;
+        });
+        Benchmark.measureWithResults("IntObjectHashMap remove " + n + " entries", () -> {
+            for (int i = 0; i < n; i++) intObjectMap.remove(i);
+            return null;
+        });
+        Benchmark.measureWithResults("Java HashMap<Integer, String> remove " + n + " entries", () -> {
+            for (int i = 0; i < n; i++) javaObjectMap.remove(i);
+            return null;
+        });
+        Benchmark.measureWithResults("LongObjectHashMap remove " + n + " entries", () -> {
+            for (long i = 0; i < n; i++) longObjectMap.remove(i);
+            return null;
+        });
+        Benchmark.measureWithResults("Java HashMap<Long, String> remove " + n + " entries", () -> {
+            for (long i = 0; i < n; i++) javaLongMap.remove(i);
+            return null;
+        });
+
+        // Compare the heap retained per entry, using keys outside the Integer cache so boxes are counted
+        int offset = 1 << 20;
+        printBytesPerEntry("IntIntHashMap", n, Benchmark.measureRetainedBytes(() -> {
+            IntIntHashMap map = new IntIntHashMap();
+            for (int i = 0; i < n; i++) map.put(offset + i, i);
+            return map;
+        }));
+        printBytesPerEntry("Java HashMap<Integer, Integer>", n, Benchmark.measureRetainedBytes(() -> {
+            HashMap<Integer, Integer> map = new HashMap<>();
+            for (int i = 0; i < n; i++) map.put(offset + i, offset + i);
+            return map;
+        }));
+        printBytesPerEntry("IntObjectHashMap", n, Benchmark.measureRetainedBytes(() -> {
+            IntObjectHashMap<String> map = new IntObjectHashMap<>();
+            for (int i = 0; i < n; i++) map.put(offset + i, value);
+            return map;
+        }));
+        printBytesPerEntry("Java HashMap<Integer, String>", n, Benchmark.measureRetainedBytes(() -> {
+            HashMap<Integer, String> map = new HashMap<>();
+            for (int i = 0; i < n; i++) map.put(offset + i, value);
+            return map;
+        }));
+        printBytesPerEntry("LongObjectHashMap", n, Benchmark.measureRetainedBytes(() -> {
+            LongObjectHashMap<String> map = new LongObjectHashMap<>();
+            for (long i = 0; i < n; i++) map.put(offset + i, value);
+            return map;
+        }));
+        printBytesPerEntry("Java HashMap<Long, String>", n, Benchmark.measureRetainedBytes(() -> {
+            HashMap<Long, String> map = new HashMap<>();
+            for (long i = 0; i < n; i++) map.put(offset + i, value);
+            return map;
+        }));
+    }
+
+    /**
+     * Benchmarks OffHeapHashMap against CustomHashMap, comparing put and get times,
+     * the heap each map retains, and the GC time spent while building it.
+     * 
+     * @param n The number of entries to insert and look up.
+     */
+    public static void benchmarkOffHeapMap(int n) {
+        CustomHashMap<Integer, String> customHashMap = new CustomHashMap<>();
+        OffHeapHashMap<Integer, String> offHeapMap = new OffHeapHashMap<>(CustomCodec.INTEGER, CustomCodec.STRING);
+
+        // Compare adding n entries, including the GC time each build causes
+        long gcBefore = totalGcMillis();
+        Benchmark.measureWithResults("CustomHashMap put " + n + " entries", () -> {
+            for (int i = 0; i < n; i++) customHashMap.put(i, "Value" + i);
+            return null;
+        });
+        System.out.println("CustomHashMap GC time during put: " + (totalGcMillis() - gcBefore) + " ms");
+        gcBefore = totalGcMillis();
+        Benchmark.measureWithResults("OffHeapHashMap put " + n + " entries", () -> {
+            for (int i = 0; i < n; i++) offHeapMap.put(i, "Value" + i);
+            return null;
+        });
+        System.out.println("OffHeapHashMap GC time during put: " + (totalGcMillis() - gcBefore) + " ms");
+
+        // Compare getting n entries
+        Benchmark.measureWithResults("CustomHashMap get " + n + " entries", () -> {
+            for (int i = 0; i < n; i++) customHashMap.get(i);
+            return null;
+        });
+        Benchmark.measureWithResults("OffHeapHashMap get " + n + " entries", () -> {
+            for (int i = 0; i < n; i++) offHeapMap.get(i);
+            return null;
+        });
+        offHeapMap.close();
+
+        // Compare the heap retained by each map
+        printBytesPerEntry("CustomHashMap<Integer, String>", n, Benchmark.measureRetainedBytes(() -> {
+            CustomHashMap<Integer, String> map = new CustomHashMap<>();
+            for (int i = 0; i < n; i++) map.put(i, "Value" + i);
+            return map;
+        }));
+        OffHeapHashMap<Integer, String> measured = new OffHeapHashMap<>(CustomCodec.INTEGER, CustomCodec.STRING);
+        printBytesPerEntry("OffHeapHashMap<Integer, String>", n, Benchmark.measureRetainedBytes(() -> {
+            for (int i = 0; i < n; i++) measured.put(i, "Value" + i);
+            return measured;
+        }));
+        System.out.printf("OffHeapHashMap native memory: %d bytes%n", measured.getOffHeapBytes());
+        measured.close();
+    }
+
+    /**
+     * Helper to read the total time spent in garbage collection so far.
+     * 
+     * @return The accumulated collection time of every collector in milliseconds.
+     */
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Helper to print the approximate heap retained per entry by a map.
+     * 
+     * @param name The name of the map.
+     * @param n The number of entries in the map.
+     * @param bytes The approximate number of bytes retained by the map.
+     */
+    private static void printBytesPerEntry(String name, int n, long bytes) {
+        System.out.printf("%s retains ~%d bytes (%.1f bytes per entry)%n", name, bytes, (double) bytes / n);
+    }
+
+    /**
+     * Compares per operation put latency of CustomHashMap with all at once and incremental resizing.
+     * Every put is timed individually, and the median, 99.9th percentile and worst latencies are printed.
+     * 
+     * @param n The number of entries to insert.
+     */
+    public static void benchmarkResizeLatency(int n) {
+        printPutLatencies("CustomHashMap", new CustomHashMap<>(false), n);
+        printPutLatencies("CustomHashMap (incremental resize)", new CustomHashMap<>(true), n);
+    }
+
+    /**
+     * Helper to time each put into a map and print latency percentiles.
+     * 
+     * @param name The name of the map configuration.
+     * @param map The empty map to insert into.
+     * @param n The number of entries to insert.
+     */
+    private static void printPutLatencies(String name, CustomHashMap<Integer, Integer> map, int n) {
+        long[] latencies = new long[n];
+        for (int i = 0; i < n; i++) {
+            long start = System.nanoTime();
+            map.put(i, i);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("%s put latency over %d entries: p50 %.3f us | p99.9 %.3f us | max %.3f ms%n",
+                name, n, latencies[n / 2] / 1e3, latencies[(int) (n * 0.999)] / 1e3, latencies[n - 1] / 1e6);
+    }
+
+    /**
+     * Benchmarks lookups that mostly miss, against a CustomHashMap alone and fronted by a plain and a
+     * blocked CustomBloomFilter, then times mightContain on both filter variants by themselves.
+     * Nine of every ten lookups are for keys that were never added.
+     * 
+     * @param n The number of entries in the map.
+     */
+    public static void benchmarkNegativeCache(int n) {
+        CustomHashMap<Integer, Integer> map = new CustomHashMap<>(n);
+        BloomFilteredHashMap<Integer, Integer> plain = new BloomFilteredHashMap<>(n, 0.01, false);
+        BloomFilteredHashMap<Integer, Integer> blocked = new BloomFilteredHashMap<>(n, 0.01, true);
+        for (int i = 0; i < n; i++) {
+            map.put(i, i);
+            plain.put(i, i);
+            blocked.put(i, i);
+        }
+
+        // Every tenth probe is a present key, the rest lie past the end of the key range
+        int[] probes = new int[n];
+        Random random = new Random(42);
+        for (int i = 0; i < n; i++) probes[i] = i % 10 == 0 ? random.nextInt(n) : n + random.nextInt(Integer.MAX_VALUE - n);
+
+        Benchmark.measureWithResults("CustomHashMap " + n + " mostly-miss lookups", () -> {
+            int hits = 0;
+            for (int probe : probes) if (map.containsKey(probe)) hits++;
+            return hits;
+        });
+        Benchmark.measureWithResults("BloomFilteredHashMap " + n + " mostly-miss lookups", () -> {
+            int hits = 0;
+            for (int probe : probes) if (plain.containsKey(probe)) hits++;
+            return hits;
+        });
+        Benchmark.measureWithResults("BloomFilteredHashMap (blocked) " + n + " mostly-miss lookups", () -> {
+            int hits = 0;
+            for (int probe : probes) if (blocked.containsKey(probe)) hits++;
+            return hits;
+        });
+
+        CustomBloomFilter<Integer> plainFilter = plain.getFilter();
+        CustomBloomFilter<Integer> blockedFilter = blocked.getFilter();
+        Benchmark.measureWithResults("CustomBloomFilter " + n + " mightContain", () -> {
+            int hits = 0;
+            for (int probe : probes) if (plainFilter.mightContain(probe)) hits++;
+            return hits;
+        });
+        Benchmark.measureWithResults("CustomBloomFilter (blocked) " + n + " mightContain", () -> {
+            int hits = 0;
+            for (int probe : probes) if (blockedFilter.mightContain(probe)) hits++;
+            return hits;
+        });
+
+        System.out.printf("False positive lookups: plain %d, blocked %d of %d misses%n",
+                plain.getFalsePositiveLookups(), blocked.getFalsePositiveLookups(), plain.getFilteredLookups() + plain.getFalsePositiveLookups());
+        System.out.println("CustomHashMap footprint: " + map.footprint());
+        System.out.println("CustomBloomFilter footprint: " + plainFilter.footprint());
+        System.out.println("CustomBloomFilter (blocked) footprint: " + blockedFilter.footprint());
+    }
 
 }
@@ -4,8 +4,19 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
+import com.brendanddev.collections.core.CustomIntIterator;
+import com.brendanddev.collections.core.CustomIterator;
+import com.brendanddev.collections.core.Hashing;
+import com.brendanddev.collections.list.CustomArrayList;
+import com.brendanddev.collections.set.CuckooFilter;
 import com.brendanddev.collections.set.CustomHashSet;
+import com.brendanddev.collections.set.CustomSwissHashSet;
+import com.brendanddev.collections.set.IntHashSet;
+import com.brendanddev.collections.set.LongHashSet;
+import com.brendanddev.collections.set.RoaringBitmap;
 
 /**
  * Provides performance comparison benchmarks between custom set implementations
@@ -62,5 +73,537 @@ public class CompareSets {
         });
     }
 
-    
+    /**
+     * Reports how evenly CustomHashSet spreads different key patterns across its buckets.
+     * 
+     * For each pattern the sets own getNumberOfEmptyBuckets and getLargestBucketSize diagnostics
+     * are printed next to the same figures for plain modulo indexing (the hash code taken modulo
+     * the bucket count without any bit mixing), computed over the same bucket count.
+     * 
+     * @param n The number of keys to insert for each pattern.
+     */
+    public static void benchmarkCollisionDistribution(int n) {
+        reportDistribution("Sequential integers", n, 1);
+        reportDistribution("Multiples of 16", n, 16);
+        reportDistribution("Multiples of 1024", n, 1024);
+        reportDistribution("Multiples of 4096", n, 4096);
+
+        CustomHashSet<String> strings = new CustomHashSet<>();
+        int[] hashes = new int[n];
+        for (int i = 0; i < n; i++) {
+            String key = "key-" + i;
+            strings.add(key);
+            hashes[i] = key.hashCode();
+        }
+        printDistribution("Strings \"key-i\"", strings.getNumberOfBuckets(),
+                strings.getNumberOfEmptyBuckets(), strings.getLargestBucketSize(), hashes);
+    }
+
+    /**
+     * Helper to insert n integer keys spaced by the given stride and print their distribution.
+     * 
+     * @param label The name of the key pattern.
+     * @param n The number of keys to insert.
+     * @param stride The distance between consecutive keys.
+     */
+    private static void reportDistribution(String label, int n, int stride) {
+        CustomHashSet<Integer> set = new CustomHashSet<>();
+        int[] hashes = new int[n];
+        for (int i = 0; i < n; i++) {
+            int key = i * stride;
+            set.add(key);
+            hashes[i] = Integer.hashCode(key);
+        }
+        printDistribution(label, set.getNumberOfBuckets(), set.getNumberOfEmptyBuckets(),
+                set.getLargestBucketSize(), hashes);
+    }
+
+    /**
+     * Helper to print the distribution of a set next to the distribution plain modulo indexing
+     * would produce for the same hash codes and bucket count.
+     * 
+     * @param label The name of the key pattern.
+     * @param buckets The number of buckets in the set.
+     * @param emptyBuckets The number of empty buckets reported by the set.
+     * @param largestBucket The largest bucket size reported by the set.
+     * @param hashes The raw hash codes of the inserted keys.
+     */
+    private static void printDistribution(String label, int buckets, int emptyBuckets, int largestBucket, int[] hashes) {
+        int[] counts = new int[buckets];
+        for (int h : hashes) counts[Math.abs(h % buckets)]++;
+
+        int moduloEmpty = 0;
+        int moduloLargest = 0;
+        for (int count : counts) {
+            if (count == 0) moduloEmpty++;
+            if (count > moduloLargest) moduloLargest = count;
+        }
+
+        System.out.printf("%s (%d buckets): spread empty=%d largest=%d | modulo empty=%d largest=%d%n",
+                label, buckets, emptyBuckets, largestBucket, moduloEmpty, moduloLargest);
+    }
+
+    /**
+     * Measures the cost of computing bucket indices with plain modulo against Hashing.spread and a mask.
+     * 
+     * @param n The number of hashes to compute.
+     */
+    public static void benchmarkBucketIndexing(int n) {
+        int buckets = Hashing.tableSizeFor(n);
+
+        Benchmark.measureWithResults("Modulo indexing " + n + " hashes", () -> {
+            int sink = 0;
+            for (int i = 0; i < n; i++) sink += Math.abs(i % buckets);
+            return sink;
+        });
+        Benchmark.measureWithResults("Spread and mask indexing " + n + " hashes", () -> {
+            int sink = 0;
+            for (int i = 0; i < n; i++) sink += Hashing.spread(i) & (buckets - 1);
+            return sink;
+        });
+    }
+
+    /**
+     * Benchmarks bulk loading CustomHashSet with and without sizing the bucket array up front,
+     * against Java's HashSet with and without an initial capacity.
+     * 
+     * @param n The number of elements to load.
+     */
+    public static void benchmarkBulkLoad(int n) {
+        CustomArrayList<Integer> source = new CustomArrayList<>();
+        for (int i = 0; i < n; i++) source.add(i);
+
+        Benchmark.measureWithResults("CustomHashSet load " + n + " elements (growing)", () -> {
+            CustomHashSet<Integer> set = new CustomHashSet<>();
+            for (int i = 0; i < n; i++) set.add(i);
+            return set;
+        });
+        Benchmark.measureWithResults("CustomHashSet load " + n + " elements (pre-sized)", () -> {
+            CustomHashSet<Integer> set = new CustomHashSet<>(n);
+            for (int i = 0; i < n; i++) set.add(i);
+            return set;
+        });
+        Benchmark.measureWithResults("CustomHashSet addAll " + n + " elements", () -> {
+            CustomHashSet<Integer> set = new CustomHashSet<>();
+            set.addAll(source);
+            return set;
+        });
+        Benchmark.measureWithResults("Java HashSet load " + n + " elements (growing)", () -> {
+            HashSet<Integer> set = new HashSet<>();
+            for (int i = 0; i < n; i++) set.add(i);
+            return set;
+        });
+        Benchmark.measureWithResults("Java HashSet load " + n + " elements (pre-sized)", () -> {
+            HashSet<Integer> set = new HashSet<>((int) (n / 0.75f) + 1);
+            for (int i = 0; i < n; i++) set.add(i);
+            return set;
+        });
+    }
+
+    /**
+     * Benchmarks deduplicating primitive ids with IntHashSet and LongHashSet against CustomHashSet
+     * and Java's HashSet of boxed values, then compares the heap each set retains per element.
+     * 
+     * The ids are scattered across the whole int range, so boxes are never served from the Integer cache.
+     * 
+     * @param n The number of ids to add, look up and iterate.
+     */
+    public static void benchmarkPrimitiveSets(int n) {
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) ids[i] = Hashing.spread(i);
+
+        IntHashSet intHashSet = Benchmark.measureWithResults("IntHashSet add " + n + " ids", () -> {
+            IntHashSet set = new IntHashSet();
+            for (int id : ids) set.add(id);
+            return set;
+        });
+        CustomHashSet<Integer> customHashSet = Benchmark.measureWithResults("CustomHashSet<Integer> add " + n + " ids", () -> {
+            CustomHashSet<Integer> set = new CustomHashSet<>();
+            for (int id : ids) set.add(id);
+            return set;
+        });
+        HashSet<Integer> javaHashSet = Benchmark.measureWithResults("Java HashSet<Integer> add " + n + " ids", () -> {
+            HashSet<Integer> set = new HashSet<>();
+            for (int id : ids) set.add(id);
+            return set;
+        });
+        LongHashSet longHashSet = Benchmark.measureWithResults("LongHashSet add " + n + " ids", () -> {
+            LongHashSet set = new LongHashSet();
+            for (int id : ids) set.add((long) id << 16);
+            return set;
+        });
+        HashSet<Long> javaLongHashSet = Benchmark.measureWithResults("Java HashSet<Long> add " + n + " ids", () -> {
+            HashSet<Long> set = new HashSet<>();
+            for (int id : ids) set.add((long) id << 16);
+            return set;
+        });
+
+        Benchmark.measureWithResults("IntHashSet contains " + n + " ids", () -> {
+            int found = 0;
+            for (int id : ids) if (intHashSet.contains(id)) found++;
+            return found;
+        });
+        Benchmark.measureWithResults("CustomHashSet<Integer> contains " + n + " ids", () -> {
+            int found = 0;
+            for (int id : ids) if (customHashSet.contains(id)) found++;
+            return found;
+        });
+        Benchmark.measureWithResults("Java HashSet<Integer> contains " + n + " ids", () -> {
+            int found = 0;
+            for (int id : ids) if (javaHashSet.contains(id)) found++;
+            return found;
+        });
+        Benchmark.measureWithResults("LongHashSet contains " + n + " ids", () -> {
+            int found = 0;
+            for (int id : ids) if (longHashSet.contains((long) id << 16)) found++;
+            return found;
+        });
+        Benchmark.measureWithResults("Java HashSet<Long> contains " + n + " ids", () -> {
+            int found = 0;
+            for (int id : ids) if (javaLongHashSet.contains((long) id << 16)) found++;
+            return found;
+        });
+
+        Benchmark.measureWithResults("IntHashSet iterate " + n + " ids", () -> {
+            long sum = 0;
+            CustomIntIterator iterator = intHashSet.iterator();
+            while (iterator.hasNext()) sum += iterator.nextInt();
+            return sum;
+        });
+        Benchmark.measureWithResults("Java HashSet<Integer> iterate " + n + " ids", () -> {
+            long sum = 0;
+            for (int id : javaHashSet) sum += id;
+            return sum;
+        });
+
+        // Retained heap including the boxes, which is what deduplicating raw ids really costs
+        printBytesPerElement("IntHashSet", n, () -> {
+            IntHashSet set = new IntHashSet();
+            for (int id : ids) set.add(id);
+            return set;
+        });
+        printBytesPerElement("CustomHashSet<Integer>", n, () -> {
+            CustomHashSet<Integer> set = new CustomHashSet<>();
+            for (int id : ids) set.add(id);
+            return set;
+        });
+        printBytesPerElement("Java HashSet<Integer>", n, () -> {
+            HashSet<Integer> set = new HashSet<>();
+            for (int id : ids) set.add(id);
+            return set;
+        });
+        printBytesPerElement("LongHashSet", n, () -> {
+            LongHashSet set = new LongHashSet();
+            for (int id : ids) set.add((long) id << 16);
+            return set;
+        });
+        printBytesPerElement("Java HashSet<Long>", n, () -> {
+            HashSet<Long> set = new HashSet<>();
+            for (int id : ids) set.add((long) id << 16);
+            return set;
+        });
+    }
+
+    /**
+     * Benchmarks set algebra on RoaringBitmap against CustomHashSet and Java's HashSet of boxed ids,
+     * then compares the heap each representation retains.
+     * 
+     * Both sets draw about half of the ids in [0, 2n), which is how user id sets with a shared id
+     * space look. The hash sets intersect by probing the other set with every element of one, and
+     * unite by copying one set and adding the other.
+     * 
+     * @param n The approximate number of ids in each set.
+     */
+    public static void benchmarkRoaringBitmap(int n) {
+        Random ids = new Random(7);
+        RoaringBitmap bitmapA = new RoaringBitmap();
+        RoaringBitmap bitmapB = new RoaringBitmap();
+        CustomHashSet<Integer> customA = new CustomHashSet<>(n);
+        CustomHashSet<Integer> customB = new CustomHashSet<>(n);
+        HashSet<Integer> javaA = new HashSet<>((int) (n / 0.75f) + 1);
+        HashSet<Integer> javaB = new HashSet<>((int) (n / 0.75f) + 1);
+        for (int id = 0; id < 2 * n; id++) {
+            if (ids.nextBoolean()) {
+                bitmapA.add(id);
+                customA.add(id);
+                javaA.add(id);
+            }
+            if (ids.nextBoolean()) {
+                bitmapB.add(id);
+                customB.add(id);
+                javaB.add(id);
+            }
+        }
+
+        Benchmark.measureWithResults("RoaringBitmap and of " + n + " ids", () -> bitmapA.and(bitmapB).getCardinality());
+        Benchmark.measureWithResults("CustomHashSet intersection of " + n + " ids", () -> {
+            CustomHashSet<Integer> result = new CustomHashSet<>();
+            CustomIterator<Integer> iterator = customA.iterator();
+            while (iterator.hasNext()) {
+                Integer id = iterator.next();
+                if (customB.contains(id)) result.add(id);
+            }
+            return result.size();
+        });
+        Benchmark.measureWithResults("Java HashSet retainAll of " + n + " ids", () -> {
+            HashSet<Integer> result = new HashSet<>(javaA);
+            result.retainAll(javaB);
+            return result.size();
+        });
+
+        Benchmark.measureWithResults("RoaringBitmap or of " + n + " ids", () -> bitmapA.or(bitmapB).getCardinality());
+        Benchmark.measureWithResults("CustomHashSet union of " + n + " ids", () -> {
+            CustomHashSet<Integer> result = new CustomHashSet<>(2 * n);
+            result.addAll(customA);
+            result.addAll(customB);
+            return result.size();
+        });
+        Benchmark.measureWithResults("Java HashSet addAll of " + n + " ids", () -> {
+            HashSet<Integer> result = new HashSet<>(javaA);
+            result.addAll(javaB);
+            return result.size();
+        });
+
+        Benchmark.measureWithResults("RoaringBitmap andNot of " + n + " ids", () -> bitmapA.andNot(bitmapB).getCardinality());
+        Benchmark.measureWithResults("RoaringBitmap xor of " + n + " ids", () -> bitmapA.xor(bitmapB).getCardinality());
+        Benchmark.measureWithResults("RoaringBitmap rank of " + n + " ids", () -> {
+            long sum = 0;
+            for (int id = 0; id < 2 * n; id += 1024) sum += bitmapA.rank(id);
+            return sum;
+        });
+
+        System.out.println("RoaringBitmap footprint: " + bitmapA.footprint());
+        printBytesPerElement("RoaringBitmap", n, () -> {
+            RoaringBitmap bitmap = new RoaringBitmap();
+            CustomIntIterator iterator = bitmapA.iterator();
+            while (iterator.hasNext()) bitmap.add(iterator.nextInt());
+            return bitmap;
+        });
+        printBytesPerElement("CustomHashSet<Integer>", n, () -> {
+            CustomHashSet<Integer> set = new CustomHashSet<>();
+            CustomIntIterator iterator = bitmapA.iterator();
+            while (iterator.hasNext()) set.add(iterator.nextInt());
+            return set;
+        });
+    }
+
+    /**
+     * Benchmarks the bulk set algebra of CustomHashSet against probing one element at a time through
+     * its iterator, and against the bulk operations of Java's HashSet.
+     * 
+     * The first set holds n elements and the second n / 2 elements, half of which are shared.
+     * 
+     * @param n The number of elements in the larger set.
+     */
+    public static void benchmarkBulkSetAlgebra(int n) {
+        CustomHashSet<Integer> customA = new CustomHashSet<>();
+        CustomHashSet<Integer> customB = new CustomHashSet<>();
+        HashSet<Integer> javaA = new HashSet<>();
+        HashSet<Integer> javaB = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            customA.add(i);
+            javaA.add(i);
+        }
+        for (int i = 0; i < n / 2; i++) {
+            int value = n - n / 4 + i;
+            customB.add(value);
+            javaB.add(value);
+        }
+
+        Benchmark.measureWithResults("CustomHashSet iterate and probe intersection of " + n + " elements", () -> {
+            CustomHashSet<Integer> result = new CustomHashSet<>();
+            CustomIterator<Integer> iterator = customA.iterator();
+            while (iterator.hasNext()) {
+                Integer element = iterator.next();
+                if (customB.contains(element)) result.add(element);
+            }
+            return result.size();
+        });
+        Benchmark.measureWithResults("CustomHashSet intersect of " + n + " elements", () -> CustomHashSet.intersect(customA, customB).size());
+        Benchmark.measureWithResults("CustomHashSet parallelIntersect of " + n + " elements", () -> CustomHashSet.parallelIntersect(customA, customB).size());
+        Benchmark.measureWithResults("Java HashSet retainAll of " + n + " elements", () -> {
+            HashSet<Integer> result = new HashSet<>(javaA);
+            result.retainAll(javaB);
+            return result.size();
+        });
+
+        Benchmark.measureWithResults("CustomHashSet unionInto of " + n + " elements", () -> {
+            CustomHashSet<Integer> result = new CustomHashSet<>();
+            customA.unionInto(result);
+            customB.unionInto(result);
+            return result.size();
+        });
+        Benchmark.measureWithResults("Java HashSet addAll of " + n + " elements", () -> {
+            HashSet<Integer> result = new HashSet<>(javaA);
+            result.addAll(javaB);
+            return result.size();
+        });
+
+        Benchmark.measureWithResults("CustomHashSet removeAll of " + n + " elements", () -> {
+            CustomHashSet<Integer> result = new CustomHashSet<>();
+            customA.unionInto(result);
+            result.removeAll(customB);
+            return result.size();
+        });
+        Benchmark.measureWithResults("Java HashSet removeAll of " + n + " elements", () -> {
+            HashSet<Integer> result = new HashSet<>(javaA);
+            result.removeAll(javaB);
+            return result.size();
+        });
+    }
+
+    /**
+     * Benchmarks a sliding window deduplication on CuckooFilter against CustomHashSet.
+     * 
+     * A stream of n ids, half of them repeats of recent ids, is filtered against the last n / 4
+     * accepted ids. An id is accepted if the window does not already hold it, and the oldest accepted
+     * id is deleted once the window is full. The cuckoo filter may wrongly drop a new id as a false
+     * positive, so the number of accepted ids is printed for both, next to the memory per windowed id.
+     * 
+     * @param n The number of ids in the stream.
+     */
+    public static void benchmarkCuckooFilter(int n) {
+        int window = Math.max(1, n / 4);
+        int[] stream = new int[n];
+        for (int i = 0; i < n; i++) {
+            // Half the ids repeat one seen shortly before, the rest are fresh
+            stream[i] = i > 0 && random.nextBoolean() ? stream[i - 1 - random.nextInt(Math.min(i, window))] : random.nextInt();
+        }
+
+        // Accepted id counts of the filter and the set
+        int[] accepted = new int[2];
+        CuckooFilter<Integer> filter = Benchmark.measureWithResults("CuckooFilter dedup of " + n + " ids over a window of " + window, () -> {
+            CuckooFilter<Integer> seen = new CuckooFilter<>(window, 0.01);
+            int[] ring = new int[window];
+            int count = 0;
+            for (int id : stream) {
+                if (seen.mightContain(id)) continue;
+                if (count >= window) seen.delete(ring[count % window]);
+                seen.add(id);
+                ring[count++ % window] = id;
+            }
+            accepted[0] = count;
+            return seen;
+        });
+        CustomHashSet<Integer> set = Benchmark.measureWithResults("CustomHashSet dedup of " + n + " ids over a window of " + window, () -> {
+            CustomHashSet<Integer> seen = new CustomHashSet<>();
+            int[] ring = new int[window];
+            int count = 0;
+            for (int id : stream) {
+                if (seen.contains(id)) continue;
+                if (count >= window) seen.remove(ring[count % window]);
+                seen.add(id);
+                ring[count++ % window] = id;
+            }
+            accepted[1] = count;
+            return seen;
+        });
+
+        System.out.printf("Accepted ids: CuckooFilter %d, CustomHashSet %d%n", accepted[0], accepted[1]);
+        System.out.printf("CuckooFilter: %d fingerprint bits, load %.2f, stash %d, %.1f bits per windowed id%n",
+                filter.getFingerprintBits(), filter.getLoadFactor(), filter.getStashSize(),
+                filter.footprint().retainedBytes() * 8.0 / filter.size());
+        System.out.printf("CustomHashSet: %.1f bits per windowed id, not counting the boxed ids%n",
+                set.footprint().retainedBytes() * 8.0 / set.size());
+    }
+
+    /**
+     * Helper to print the heap a set retains per element.
+     * 
+     * @param name The name of the set.
+     * @param n The number of elements the set holds.
+     * @param builder The Supplier that builds the set.
+     */
+    private static void printBytesPerElement(String name, int n, Supplier<?> builder) {
+        long bytes = Benchmark.measureRetainedBytes(builder);
+        System.out.printf("%s retains ~%d bytes (%.1f bytes per element)%n", name, bytes, (double) bytes / n);
+    }
+
+    /**
+     * Benchmarks membership tests on CustomSwissHashSet against CustomHashSet and Java's HashSet,
+     * for elements that are present and elements that are missing.
+     * 
+     * The elements count their own equals calls, so the number of full key comparisons per lookup
+     * is printed next to the timings. The Swiss table filters candidate slots by their control
+     * bytes first, so it should compare close to one key per hit and almost none per miss.
+     * 
+     * @param n The number of elements to insert and look up.
+     */
+    public static void benchmarkSwissSet(int n) {
+        CountingKey[] present = new CountingKey[n];
+        CountingKey[] missing = new CountingKey[n];
+        for (int i = 0; i < n; i++) {
+            present[i] = new CountingKey(i);
+            missing[i] = new CountingKey(n + i);
+        }
+
+        CustomHashSet<CountingKey> customHashSet = new CustomHashSet<>(n);
+        CustomSwissHashSet<CountingKey> swissHashSet = new CustomSwissHashSet<>(n);
+        HashSet<CountingKey> javaHashSet = new HashSet<>((int) (n / 0.75f) + 1);
+        for (CountingKey key : present) {
+            customHashSet.add(key);
+            swissHashSet.add(key);
+            javaHashSet.add(key);
+        }
+
+        measureLookups("CustomHashSet", present, missing, customHashSet::contains);
+        measureLookups("CustomSwissHashSet", present, missing, swissHashSet::contains);
+        measureLookups("Java HashSet", present, missing, javaHashSet::contains);
+        System.out.println("CustomHashSet footprint: " + customHashSet.footprint());
+        System.out.println("CustomSwissHashSet footprint: " + swissHashSet.footprint());
+    }
+
+    /**
+     * Helper to time hit and miss lookups on one set and print the equals calls each lookup made.
+     * 
+     * @param name The name of the set.
+     * @param present Elements stored in the set.
+     * @param missing Elements not stored in the set.
+     * @param contains The membership test of the set.
+     */
+    private static void measureLookups(String name, CountingKey[] present, CountingKey[] missing, Predicate<CountingKey> contains) {
+        CountingKey.equalsCalls = 0;
+        Benchmark.measureWithResults(name + " contains " + present.length + " present elements", () -> {
+            int found = 0;
+            for (CountingKey key : present) if (contains.test(key)) found++;
+            return found;
+        });
+        long hitCalls = CountingKey.equalsCalls;
+
+        CountingKey.equalsCalls = 0;
+        Benchmark.measureWithResults(name + " contains " + missing.length + " missing elements", () -> {
+            int found = 0;
+            for (CountingKey key : missing) if (contains.test(key)) found++;
+            return found;
+        });
+        long missCalls = CountingKey.equalsCalls;
+
+        System.out.printf("%s equals calls per lookup: hit %.3f, miss %.3f%n",
+                name, (double) hitCalls / present.length, (double) missCalls / missing.length);
+    }
+
+    /**
+     * An integer key that counts how often equals is called on any instance.
+     * The count is only read after a single threaded benchmark, so a plain static field is enough.
+     */
+    private static final class CountingKey {
+        static long equalsCalls;
+        private final int value;
+
+        CountingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            equalsCalls++;
+            return other instanceof CountingKey && ((CountingKey) other).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+    }
+
 }
@@ -0,0 +1,117 @@
+package com.brendanddev.collections.performance;
+
+import java.util.Random;
+
+import com.brendanddev.collections.map.CustomHashMap;
+import com.brendanddev.collections.set.CustomHashSet;
+import com.brendanddev.collections.sketch.CountMinSketch;
+import com.brendanddev.collections.sketch.HyperLogLog;
+
+/**
+ * Provides accuracy and throughput benchmarks comparing the streaming sketches against exact counting
+ * with CustomHashSet and CustomHashMap.
+ * 
+ * Each benchmark replays the same stream into the exact structure and into the sketch, then prints the
+ * time taken, the error of the sketch and the memory each one retains.
+ */
+public class CompareSketches {
+
+    private static final Random random = new Random(42);
+
+    /**
+     * Benchmarks counting distinct values with HyperLogLog against the size of a CustomHashSet, on a
+     * stream where every value occurs about twice, and on the union of two such streams merged from shards.
+     * 
+     * @param n The number of values in the stream.
+     */
+    public static void benchmarkCardinality(int n) {
+        long[] stream = new long[n];
+        for (int i = 0; i < n; i++) stream[i] = random.nextInt(Math.max(1, n / 2)) * 0x9E3779B97F4A7C15L;
+
+        CustomHashSet<Long> exact = Benchmark.measureWithResults("CustomHashSet distinct count of " + n + " values", () -> {
+            CustomHashSet<Long> set = new CustomHashSet<>();
+            for (long value : stream) set.add(value);
+            return set;
+        });
+        HyperLogLog sketch = Benchmark.measureWithResults("HyperLogLog distinct count of " + n + " values", () -> {
+            HyperLogLog hll = new HyperLogLog();
+            for (long value : stream) hll.addLong(value);
+            return hll;
+        });
+        printCardinalityError("HyperLogLog", exact.size(), sketch.cardinality());
+        System.out.println("CustomHashSet footprint: " + exact.footprint() + ", not counting the boxed values");
+        System.out.println("HyperLogLog footprint: " + sketch.footprint());
+
+        // Two shards of fresh values, sketched apart and merged
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        for (long value : stream) left.addLong(value);
+        for (long value : stream) right.addLong(~value);
+        left.merge(right);
+        printCardinalityError("HyperLogLog merged shards", 2L * exact.size(), left.cardinality());
+    }
+
+    /**
+     * Benchmarks counting how often each key occurs with CountMinSketch, with and without conservative
+     * update, against exact counts in a CustomHashMap, on a skewed stream where a few keys dominate.
+     * 
+     * @param n The number of keys in the stream.
+     */
+    public static void benchmarkFrequency(int n) {
+        int keySpace = Math.max(1, n / 10);
+        int[] stream = new int[n];
+        // Cubing a uniform value skews the keys heavily towards 0
+        for (int i = 0; i < n; i++) stream[i] = (int) (Math.pow(random.nextDouble(), 3) * keySpace);
+
+        CustomHashMap<Integer, Integer> exact = Benchmark.measureWithResults("CustomHashMap frequency count of " + n + " keys", () -> {
+            CustomHashMap<Integer, Integer> counts = new CustomHashMap<>();
+            for (int key : stream) counts.merge(key, 1, Integer::sum);
+            return counts;
+        });
+        CountMinSketch<Integer> plain = Benchmark.measureWithResults("CountMinSketch frequency count of " + n + " keys", () -> {
+            CountMinSketch<Integer> sketch = new CountMinSketch<>(0.001, 0.01, false);
+            for (int key : stream) sketch.addInt(key);
+            return sketch;
+        });
+        CountMinSketch<Integer> conservative = Benchmark.measureWithResults("CountMinSketch (conservative) frequency count of " + n + " keys", () -> {
+            CountMinSketch<Integer> sketch = new CountMinSketch<>(0.001, 0.01);
+            for (int key : stream) sketch.addInt(key);
+            return sketch;
+        });
+
+        printFrequencyError("CountMinSketch", exact, plain);
+        printFrequencyError("CountMinSketch (conservative)", exact, conservative);
+        System.out.println("CustomHashMap footprint: " + exact.footprint() + ", not counting the boxed keys and counts");
+        System.out.println("CountMinSketch footprint: " + conservative.footprint());
+    }
+
+    /**
+     * Helper to print a cardinality estimate next to the exact count.
+     * 
+     * @param name The name of the sketch.
+     * @param exact The exact number of distinct values.
+     * @param estimate The estimated number of distinct values.
+     */
+    private static void printCardinalityError(String name, long exact, long estimate) {
+        System.out.printf("%s estimate %d vs exact %d (%.2f%% error)%n", name, estimate, exact, 100.0 * (estimate - exact) / exact);
+    }
+
+    /**
+     * Helper to print the mean overestimate of a sketch over every distinct key, and over the 10 heaviest keys.
+     * 
+     * @param name The name of the sketch.
+     * @param exact The exact counts.
+     * @param sketch The sketch to check.
+     */
+    private static void printFrequencyError(String name, CustomHashMap<Integer, Integer> exact, CountMinSketch<Integer> sketch) {
+        long[] error = new long[2];
+        exact.forEach((key, count) -> {
+            long overestimate = sketch.estimateCountInt(key) - count;
+            error[0] += overestimate;
+            if (key < 10) error[1] += overestimate;
+        });
+        System.out.printf("%s mean overestimate %.2f over %d keys, %.2f over the 10 heaviest keys%n",
+                name, (double) error[0] / exact.size(), exact.size(), error[1] / 10.0);
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.brendanddev.collections.performance;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+import com.brendanddev.collections.core.CustomCodec;
+import com.brendanddev.collections.io.HashSnapshot;
+import com.brendanddev.collections.map.CustomHashMap;
+
+/**
+ * Provides benchmarks for saving and loading hash maps to disk.
+ *
+ * This class compares the binary HashSnapshot format against Java serialization of a HashMap,
+ * printing the time of each save and load, the file sizes and the resulting throughput.
+ */
+public class CompareSnapshots {
+
+    /**
+     * Benchmarks saving and loading a map of Integer keys and String values through a temporary file.
+     *
+     * @param n The number of entries to save and load.
+     */
+    public static void benchmarkSnapshots(int n) {
+        CustomHashMap<Integer, String> customHashMap = new CustomHashMap<>(n);
+        HashMap<Integer, String> javaHashMap = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            customHashMap.put(i, "Value" + i);
+            javaHashMap.put(i, "Value" + i);
+        }
+
+        Path snapshotFile = null;
+        Path serializedFile = null;
+        try {
+            snapshotFile = Files.createTempFile("snapshot", ".bin");
+            serializedFile = Files.createTempFile("serialized", ".bin");
+            Path snapshotPath = snapshotFile;
+            Path serializedPath = serializedFile;
+            HashSnapshot snapshot = new HashSnapshot();
+
+            // Compare saving n entries
+            long start = System.nanoTime();
+            Benchmark.measureWithResults("HashSnapshot save " + n + " entries", () -> {
+                try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    snapshot.writeMap(customHashMap, CustomCodec.INTEGER, CustomCodec.STRING, channel);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+            printThroughput("HashSnapshot save", Files.size(snapshotPath), System.nanoTime() - start);
+            start = System.nanoTime();
+            Benchmark.measureWithResults("Java serialization save " + n + " entries", () -> {
+                try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(serializedPath)))) {
+                    out.writeObject(javaHashMap);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+            printThroughput("Java serialization save", Files.size(serializedPath), System.nanoTime() - start);
+
+            // Compare loading n entries
+            start = System.nanoTime();
+            Benchmark.measureWithResults("HashSnapshot load " + n + " entries", () -> {
+                try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+                    return snapshot.readMap(channel, CustomCodec.INTEGER, CustomCodec.STRING);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            printThroughput("HashSnapshot load", Files.size(snapshotPath), System.nanoTime() - start);
+            start = System.nanoTime();
+            Benchmark.measureWithResults("Java serialization load " + n + " entries", () -> {
+                try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(serializedPath)))) {
+                    return in.readObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            printThroughput("Java serialization load", Files.size(serializedPath), System.nanoTime() - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(snapshotFile);
+            deleteQuietly(serializedFile);
+        }
+    }
+
+    /**
+     * Helper to print the size of a file and the rate at which it was written or read.
+     *
+     * @param name The name of the operation.
+     * @param bytes The size of the file in bytes.
+     * @param nanos The elapsed time in nanoseconds.
+     */
+    private static void printThroughput(String name, long bytes, long nanos) {
+        System.out.printf("%s: %.1f MB file at %.1f MB/s%n", name, bytes / 1e6, bytes * 1e3 / nanos);
+    }
+
+    /**
+     * Helper to delete a temporary file, ignoring failures.
+     *
+     * @param path The file to delete, or null.
+     */
+    private static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Nothing useful to do for a leftover temporary file
+        }
+    }
+
+}
@@ -0,0 +1,386 @@
+package com.brendanddev.collections.set;
+
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.Hashing;
+import com.brendanddev.collections.core.MemoryFootprint;
+
+/**
+ * A custom generic cuckoo filter, a compact probabilistic set like a Bloom filter that also supports
+ * deleting elements.
+ * 
+ * The filter stores a short fingerprint of each element in one of two candidate buckets of four slots.
+ * The second bucket is derived from the first and the fingerprint alone (partial-key cuckoo hashing),
+ * so a stored fingerprint can be moved to its other bucket without knowing the original element. When
+ * both buckets are full, a random fingerprint is evicted and moved to its other bucket, up to a bounded
+ * number of relocations. A fingerprint that is still homeless afterwards goes into a small stash.
+ * 
+ * Fingerprints are packed end to end in a long array, using only as many bits as the target false
+ * positive rate needs: 10 bits for 1%, which comes to about 11 bits per element at the default load.
+ * 
+ * Time Complexity
+ * Add: O(1) (average case), bounded by MAX_RELOCATIONS in the worst case
+ * Query (mightContain): O(1)
+ * Delete: O(1)
+ * 
+ * Note: Only delete elements that were added. Deleting an element that was never added can remove the
+ *       fingerprint of a different element that happens to match. Adding an element twice stores two
+ *       fingerprints, which then take two deletes to remove. Null elements are not allowed.
+ */
+public class CuckooFilter<T> implements MemoryFootprint {
+
+    public static final int SLOTS_PER_BUCKET = 4;
+    public static final int MAX_RELOCATIONS = 500;
+    public static final int STASH_SIZE = 8;
+    private static final double TARGET_LOAD_FACTOR = 0.9;
+    private static final int EMPTY = 0;
+
+    private final long[] bits;
+    private final int fingerprintBits;
+    private final int fingerprintMask;
+    private final int numberOfBuckets;
+    private int size = 0;
+
+    // Fingerprints that found no slot, each with one of its two buckets
+    private final int[] stashFingerprints = new int[STASH_SIZE];
+    private final int[] stashBuckets = new int[STASH_SIZE];
+    private int stashSize = 0;
+
+    // State of the xorshift generator that picks eviction victims
+    private int randomState = 0x2545F491;
+
+    /**
+     * Constructs an empty CuckooFilter sized for an expected number of elements and a target
+     * false positive probability.
+     * 
+     * @param expectedInsertions The number of elements the filter is expected to hold at once.
+     * @param falsePositiveRate The target probability that mightContain returns true for an absent element.
+     * @throws IllegalArgumentException if expectedInsertions is negative or the rate is not strictly between 0 and 1.
+     */
+    public CuckooFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 0) throw new IllegalArgumentException("Expected insertions must not be negative");
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+
+        // A lookup compares against 2 buckets of b slots, so f bits give a rate of about 2b / 2^f
+        int f = (int) Math.ceil(Math.log(2.0 * SLOTS_PER_BUCKET / falsePositiveRate) / Math.log(2));
+        this.fingerprintBits = Math.max(4, Math.min(f, 30));
+        this.fingerprintMask = (1 << fingerprintBits) - 1;
+
+        long buckets = Math.max(1, (long) Math.ceil(expectedInsertions / (SLOTS_PER_BUCKET * TARGET_LOAD_FACTOR)));
+        long words = (buckets * SLOTS_PER_BUCKET * fingerprintBits + Long.SIZE - 1) / Long.SIZE;
+        if (words > Hashing.MAX_CAPACITY) throw new IllegalArgumentException("Expected insertions too large");
+        this.numberOfBuckets = (int) buckets;
+        this.bits = new long[(int) words];
+    }
+
+    /**
+     * Adds an element to the filter, relocating other fingerprints if both of its buckets are full.
+     * 
+     * @param element The element to add.
+     * @return true if the element was added, false if the filter is full.
+     * @throws IllegalArgumentException if the element is null.
+     */
+    public boolean add(T element) {
+        if (element == null) throw new IllegalArgumentException("Null elements not allowed");
+        long hash = Hashing.spread((long) element.hashCode());
+        int fingerprint = fingerprintOf(hash);
+        int bucket = bucketOf(hash);
+
+        if (insertIntoBucket(bucket, fingerprint) || insertIntoBucket(alternateBucket(bucket, fingerprint), fingerprint)) {
+            size++;
+            return true;
+        }
+        // Without stash room the last evicted fingerprint would be lost, so refuse before moving anything
+        if (stashSize == STASH_SIZE) return false;
+
+        for (int relocation = 0; relocation < MAX_RELOCATIONS; relocation++) {
+            // Swap the homeless fingerprint with a random victim and move the victim to its other bucket
+            int slot = bucket * SLOTS_PER_BUCKET + nextRandom(SLOTS_PER_BUCKET);
+            int victim = getFingerprint(slot);
+            setFingerprint(slot, fingerprint);
+            fingerprint = victim;
+            bucket = alternateBucket(bucket, fingerprint);
+            if (insertIntoBucket(bucket, fingerprint)) {
+                size++;
+                return true;
+            }
+        }
+        stashFingerprints[stashSize] = fingerprint;
+        stashBuckets[stashSize] = bucket;
+        stashSize++;
+        size++;
+        return true;
+    }
+
+    /**
+     * Checks whether an element might be in the filter.
+     * 
+     * @param element The element to check.
+     * @return false if the element is definitely not in the filter, true if it probably is.
+     */
+    public boolean mightContain(T element) {
+        if (element == null) return false;
+        long hash = Hashing.spread((long) element.hashCode());
+        int fingerprint = fingerprintOf(hash);
+        int bucket = bucketOf(hash);
+        int alternate = alternateBucket(bucket, fingerprint);
+        return bucketContains(bucket, fingerprint) || bucketContains(alternate, fingerprint)
+                || findInStash(bucket, alternate, fingerprint) >= 0;
+    }
+
+    /**
+     * Deletes one copy of an element's fingerprint from the filter.
+     * A freed slot is offered to the stash, so stashed fingerprints move back into the table.
+     * 
+     * @param element The element to delete, which should have been added before.
+     * @return true if a matching fingerprint was found and removed, otherwise false.
+     */
+    public boolean delete(T element) {
+        if (element == null) return false;
+        long hash = Hashing.spread((long) element.hashCode());
+        int fingerprint = fingerprintOf(hash);
+        int bucket = bucketOf(hash);
+        int alternate = alternateBucket(bucket, fingerprint);
+
+        if (deleteFromBucket(bucket, fingerprint) || deleteFromBucket(alternate, fingerprint)) {
+            size--;
+            drainStash();
+            return true;
+        }
+        int index = findInStash(bucket, alternate, fingerprint);
+        if (index < 0) return false;
+        stashSize--;
+        stashFingerprints[index] = stashFingerprints[stashSize];
+        stashBuckets[index] = stashBuckets[stashSize];
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes every fingerprint, emptying the filter.
+     */
+    public void clear() {
+        for (int i = 0; i < bits.length; i++) bits[i] = 0;
+        stashSize = 0;
+        size = 0;
+    }
+
+    /**
+     * Estimates the memory used by the filter, which is its packed fingerprint array, the stash and the
+     * filter object. Empty slots count as slack.
+     * 
+     * @return The estimated Footprint of the filter.
+     */
+    @Override
+    public Footprint footprint() {
+        long stashBytes = 2 * Footprint.arrayBytes(STASH_SIZE, Integer.BYTES);
+        long slackBytes = ((long) getCapacity() - (size - stashSize)) * fingerprintBits / Byte.SIZE;
+        return new Footprint(Footprint.arrayBytes(bits.length, Long.BYTES) + stashBytes, Footprint.objectBytes(3, Integer.BYTES * 6), slackBytes);
+    }
+
+    /**
+     * Returns the number of fingerprints currently stored, including stashed ones.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the filter holds no fingerprints, otherwise false.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the total number of fingerprint slots in the table, not counting the stash.
+     */
+    public int getCapacity() {
+        return numberOfBuckets * SLOTS_PER_BUCKET;
+    }
+
+    /**
+     * Returns the fraction of table slots currently holding a fingerprint.
+     */
+    public double getLoadFactor() {
+        return (double) (size - stashSize) / getCapacity();
+    }
+
+    /**
+     * Returns the number of bits in each fingerprint.
+     */
+    public int getFingerprintBits() {
+        return fingerprintBits;
+    }
+
+    /**
+     * Returns the number of fingerprints currently waiting in the stash.
+     */
+    public int getStashSize() {
+        return stashSize;
+    }
+
+    /**
+     * Derives a non zero fingerprint from the top half of the hash, so it is independent of the bucket.
+     * 
+     * @param hash The element's 64 bit hash.
+     * @return A fingerprint in [1, 2^fingerprintBits).
+     */
+    private int fingerprintOf(long hash) {
+        int fingerprint = (int) (hash >>> 32) & fingerprintMask;
+        return fingerprint == EMPTY ? 1 : fingerprint;
+    }
+
+    /**
+     * Maps the bottom half of the hash onto a bucket by multiplying instead of taking a modulo.
+     * 
+     * @param hash The element's 64 bit hash.
+     * @return A bucket index in [0, numberOfBuckets).
+     */
+    private int bucketOf(long hash) {
+        return (int) (((hash & 0xFFFFFFFFL) * numberOfBuckets) >>> 32);
+    }
+
+    /**
+     * Computes the other bucket of a fingerprint. The mapping is its own inverse, since
+     * (h - (h - i)) mod n = i, so it works for any bucket count, not only powers of two.
+     * 
+     * @param bucket One bucket of the fingerprint.
+     * @param fingerprint The fingerprint.
+     * @return The other bucket of the fingerprint.
+     */
+    private int alternateBucket(int bucket, int fingerprint) {
+        int offset = (int) (((Hashing.spread(fingerprint) & 0xFFFFFFFFL) * numberOfBuckets) >>> 32);
+        int alternate = offset - bucket;
+        return alternate < 0 ? alternate + numberOfBuckets : alternate;
+    }
+
+    /**
+     * Stores a fingerprint in the first empty slot of a bucket.
+     * 
+     * @param bucket The bucket to insert into.
+     * @param fingerprint The fingerprint to store.
+     * @return true if the bucket had an empty slot, otherwise false.
+     */
+    private boolean insertIntoBucket(int bucket, int fingerprint) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+            if (getFingerprint(slot) == EMPTY) {
+                setFingerprint(slot, fingerprint);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a bucket holds a fingerprint.
+     * 
+     * @param bucket The bucket to search.
+     * @param fingerprint The fingerprint to look for.
+     * @return true if any slot of the bucket holds the fingerprint, otherwise false.
+     */
+    private boolean bucketContains(int bucket, int fingerprint) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+            if (getFingerprint(slot) == fingerprint) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Empties the first slot of a bucket holding a fingerprint.
+     * 
+     * @param bucket The bucket to search.
+     * @param fingerprint The fingerprint to remove.
+     * @return true if a slot was emptied, otherwise false.
+     */
+    private boolean deleteFromBucket(int bucket, int fingerprint) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+            if (getFingerprint(slot) == fingerprint) {
+                setFingerprint(slot, EMPTY);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds a fingerprint in the stash that belongs to either of two buckets.
+     * 
+     * @param bucket The first bucket of the fingerprint.
+     * @param alternate The second bucket of the fingerprint.
+     * @param fingerprint The fingerprint to look for.
+     * @return The stash index of the fingerprint, or -1 if it is not stashed.
+     */
+    private int findInStash(int bucket, int alternate, int fingerprint) {
+        for (int i = 0; i < stashSize; i++) {
+            if (stashFingerprints[i] == fingerprint && (stashBuckets[i] == bucket || stashBuckets[i] == alternate)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Moves stashed fingerprints back into the table where either of their buckets has room.
+     */
+    private void drainStash() {
+        for (int i = stashSize - 1; i >= 0; i--) {
+            int fingerprint = stashFingerprints[i];
+            int bucket = stashBuckets[i];
+            if (insertIntoBucket(bucket, fingerprint) || insertIntoBucket(alternateBucket(bucket, fingerprint), fingerprint)) {
+                stashSize--;
+                stashFingerprints[i] = stashFingerprints[stashSize];
+                stashBuckets[i] = stashBuckets[stashSize];
+            }
+        }
+    }
+
+    /**
+     * Reads the fingerprint packed in a slot, which may straddle two words.
+     * 
+     * @param slot The index of the slot.
+     * @return The fingerprint, or EMPTY if the slot is empty.
+     */
+    private int getFingerprint(int slot) {
+        long position = (long) slot * fingerprintBits;
+        int word = (int) (position >>> 6);
+        int shift = (int) (position & 63);
+        long value = bits[word] >>> shift;
+        if (shift + fingerprintBits > Long.SIZE) value |= bits[word + 1] << (Long.SIZE - shift);
+        return (int) value & fingerprintMask;
+    }
+
+    /**
+     * Writes a fingerprint into a slot, which may straddle two words.
+     * 
+     * @param slot The index of the slot.
+     * @param fingerprint The fingerprint to write, or EMPTY to clear the slot.
+     */
+    private void setFingerprint(int slot, int fingerprint) {
+        long position = (long) slot * fingerprintBits;
+        int word = (int) (position >>> 6);
+        int shift = (int) (position & 63);
+        long mask = fingerprintMask;
+        bits[word] = (bits[word] & ~(mask << shift)) | ((long) fingerprint << shift);
+        if (shift + fingerprintBits > Long.SIZE) {
+            int written = Long.SIZE - shift;
+            bits[word + 1] = (bits[word + 1] & ~(mask >>> written)) | ((long) fingerprint >>> written);
+        }
+    }
+
+    /**
+     * Helper to pick a random slot for eviction with an xorshift generator.
+     * 
+     * @param bound The exclusive upper bound.
+     * @return A pseudo random int in [0, bound).
+     */
+    private int nextRandom(int bound) {
+        int x = randomState;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        randomState = x;
+        return (int) (((x & 0xFFFFFFFFL) * bound) >>> 32);
+    }
+
+}
@@ -0,0 +1,341 @@
+package com.brendanddev.collections.set;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import com.brendanddev.collections.core.CustomCollection;
+import com.brendanddev.collections.core.CustomIterator;
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.Hashing;
+import com.brendanddev.collections.core.MemoryFootprint;
+
+/**
+ * A custom generic Bloom filter, a compact probabilistic set that answers membership queries with
+ * no false negatives and a configurable rate of false positives.
+ * 
+ * Adding an element sets k bits of a bit array, and mightContain reports an element as possibly
+ * present only if all of its k bits are set. The bit array size and k are derived from the expected
+ * number of insertions and the target false positive probability. The k bit positions come from
+ * two halves of one 64 bit hash (double hashing), so an element is only hashed once.
+ * 
+ * The blocked variant confines all k bits of an element to one 512 bit block, the size of a cache
+ * line, so a query touches a single line of memory instead of up to k. This costs a slightly higher
+ * false positive rate for the same number of bits, which the blocked variant offsets with more bits.
+ * 
+ * Time Complexity
+ * Add: O(k)
+ * Query (mightContain): O(k)
+ * Bulk Add: O(n * k)
+ * 
+ * Note: Elements cannot be removed, and null elements are not allowed. Elements are hashed through
+ *       their hashCode, so equal elements always map to the same bits.
+ */
+public class CustomBloomFilter<T> implements MemoryFootprint {
+
+    private static final int MAGIC = 0x43424C4D;
+    private static final int VERSION = 1;
+
+    /** The number of bits in one block of the blocked variant, one 64 byte cache line. */
+    public static final int BLOCK_BITS = 512;
+    private static final int BLOCK_WORDS = BLOCK_BITS / Long.SIZE;
+    private static final int MAX_WORDS = 1 << 26;
+    // The number of words readFrom allocates before any of them have been read
+    private static final int READ_CHUNK_WORDS = 1 << 13;
+
+    // Extra bits given to the blocked variant to make up for its uneven load across blocks
+    private static final double BLOCKED_BITS_FACTOR = 1.25;
+
+    private final long[] words;
+    private final int numberOfHashFunctions;
+    private final boolean blocked;
+    private final long numberOfBits;
+    private final int numberOfBlocks;
+
+    /**
+     * Constructs an empty CustomBloomFilter sized for an expected number of insertions and a target
+     * false positive probability.
+     * 
+     * @param expectedInsertions The number of distinct elements the filter is expected to hold.
+     * @param falsePositiveRate The target probability that mightContain returns true for an absent element.
+     * @throws IllegalArgumentException if expectedInsertions is negative or the rate is not strictly between 0 and 1.
+     */
+    public CustomBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        this(expectedInsertions, falsePositiveRate, false);
+    }
+
+    /**
+     * Constructs an empty CustomBloomFilter, optionally with cache line blocked bits.
+     * 
+     * @param expectedInsertions The number of distinct elements the filter is expected to hold.
+     * @param falsePositiveRate The target probability that mightContain returns true for an absent element.
+     * @param blocked true to keep the bits of each element within one BLOCK_BITS block.
+     * @throws IllegalArgumentException if expectedInsertions is negative or the rate is not strictly between 0 and 1.
+     */
+    public CustomBloomFilter(int expectedInsertions, double falsePositiveRate, boolean blocked) {
+        if (expectedInsertions < 0) throw new IllegalArgumentException("Expected insertions must not be negative");
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+
+        // m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hash functions minimize the false positive rate
+        int n = Math.max(1, expectedInsertions);
+        double optimalBits = -n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        int k = Math.max(1, (int) Math.round(optimalBits / n * Math.log(2)));
+        if (blocked) optimalBits *= BLOCKED_BITS_FACTOR;
+
+        long words = Math.max(BLOCK_WORDS, (long) Math.ceil(optimalBits / Long.SIZE));
+        if (blocked) words = (words + BLOCK_WORDS - 1) / BLOCK_WORDS * BLOCK_WORDS;
+        // A 32 bit hash can address at most 2^32 bits
+        if (words > MAX_WORDS) throw new IllegalArgumentException("Filter would need more than 2^32 bits");
+
+        this.words = new long[(int) words];
+        this.numberOfHashFunctions = Math.min(k, 30);
+        this.blocked = blocked;
+        this.numberOfBits = words * Long.SIZE;
+        this.numberOfBlocks = (int) (words / BLOCK_WORDS);
+    }
+
+    /**
+     * Constructs a CustomBloomFilter over existing bits, used when reading a serialized filter.
+     * 
+     * @param words The bit array.
+     * @param numberOfHashFunctions The number of bits set per element.
+     * @param blocked true if the bits are blocked.
+     */
+    private CustomBloomFilter(long[] words, int numberOfHashFunctions, boolean blocked) {
+        this.words = words;
+        this.numberOfHashFunctions = numberOfHashFunctions;
+        this.blocked = blocked;
+        this.numberOfBits = (long) words.length * Long.SIZE;
+        this.numberOfBlocks = words.length / BLOCK_WORDS;
+    }
+
+    /**
+     * Adds an element to the filter.
+     * 
+     * @param element The element to add.
+     * @return true if any bit changed, which means the element was definitely not added before.
+     * @throws IllegalArgumentException if the element is null.
+     */
+    public boolean add(T element) {
+        if (element == null) throw new IllegalArgumentException("Null elements not allowed");
+        long hash = Hashing.spread((long) element.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        boolean changed = false;
+
+        if (blocked) {
+            int base = blockOf(h1) * BLOCK_WORDS;
+            int step = blockStep(h1);
+            for (int i = 1; i <= numberOfHashFunctions; i++) {
+                // The top 9 bits of each combined hash pick a bit within the block
+                int bit = (h2 + i * step) >>> 23;
+                long mask = 1L << bit;
+                int word = base + (bit >>> 6);
+                changed |= (words[word] & mask) == 0;
+                words[word] |= mask;
+            }
+        } else {
+            for (int i = 1; i <= numberOfHashFunctions; i++) {
+                long bit = bitOf(h1 + i * h2);
+                long mask = 1L << bit;
+                int word = (int) (bit >>> 6);
+                changed |= (words[word] & mask) == 0;
+                words[word] |= mask;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Checks whether an element might be in the filter.
+     * 
+     * @param element The element to check.
+     * @return false if the element was definitely never added, true if it probably was.
+     */
+    public boolean mightContain(T element) {
+        if (element == null) return false;
+        long hash = Hashing.spread((long) element.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        if (blocked) {
+            int base = blockOf(h1) * BLOCK_WORDS;
+            int step = blockStep(h1);
+            for (int i = 1; i <= numberOfHashFunctions; i++) {
+                int bit = (h2 + i * step) >>> 23;
+                if ((words[base + (bit >>> 6)] & (1L << bit)) == 0) return false;
+            }
+        } else {
+            for (int i = 1; i <= numberOfHashFunctions; i++) {
+                long bit = bitOf(h1 + i * h2);
+                if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds every element of a collection to the filter.
+     * 
+     * @param elements The elements to add.
+     * @return true if any bit changed, otherwise false.
+     * @throws IllegalArgumentException if any element is null.
+     */
+    public boolean addAll(CustomCollection<? extends T> elements) {
+        boolean changed = false;
+        CustomIterator<? extends T> iterator = elements.iterator();
+        while (iterator.hasNext()) {
+            changed |= add(iterator.next());
+        }
+        return changed;
+    }
+
+    /**
+     * Estimates the current false positive probability from the fraction of bits that are set.
+     * 
+     * @return The estimated probability that mightContain returns true for an absent element.
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) getNumberOfSetBits() / numberOfBits, numberOfHashFunctions);
+    }
+
+    /**
+     * Estimates the number of distinct elements added, from the fraction of bits that are set.
+     * 
+     * @return The estimated number of distinct elements.
+     */
+    public long approximateElementCount() {
+        double fractionSet = (double) getNumberOfSetBits() / numberOfBits;
+        return Math.round(-Math.log1p(-fractionSet) * numberOfBits / numberOfHashFunctions);
+    }
+
+    /**
+     * Clears every bit, emptying the filter.
+     */
+    public void clear() {
+        for (int i = 0; i < words.length; i++) words[i] = 0;
+    }
+
+    /**
+     * Writes the filter to a stream, as a header followed by its bit array.
+     * 
+     * @param out The stream to write to.
+     * @throws IOException if writing fails.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeBoolean(blocked);
+        data.writeByte(numberOfHashFunctions);
+        data.writeInt(words.length);
+        for (long word : words) data.writeLong(word);
+        data.flush();
+    }
+
+    /**
+     * Reads a filter written by writeTo.
+     * The length in the header is not trusted for allocation: the bit array starts at a bounded size
+     * and doubles only as words actually arrive, so a corrupt length fails on the end of the stream
+     * instead of allocating the whole array up front.
+     * 
+     * @param in The stream to read from.
+     * @return The filter, holding the same bits as the one written.
+     * @throws IOException if reading fails or the stream does not hold a valid filter.
+     */
+    public static <T> CustomBloomFilter<T> readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) throw new IOException("Not a Bloom filter");
+        int version = data.readByte();
+        if (version != VERSION) throw new IOException("Unsupported Bloom filter version " + version);
+        boolean blocked = data.readBoolean();
+        int numberOfHashFunctions = data.readByte();
+        int length = data.readInt();
+        if (numberOfHashFunctions < 1 || length < BLOCK_WORDS || length > MAX_WORDS || (blocked && length % BLOCK_WORDS != 0)) {
+            throw new IOException("Corrupt Bloom filter header");
+        }
+        long[] words = new long[Math.min(length, READ_CHUNK_WORDS)];
+        for (int i = 0; i < length; i++) {
+            if (i == words.length) words = Arrays.copyOf(words, (int) Math.min(2L * words.length, length));
+            words[i] = data.readLong();
+        }
+        return new CustomBloomFilter<>(words, numberOfHashFunctions, blocked);
+    }
+
+    /**
+     * Estimates the memory used by the filter, which is its bit array plus the filter object.
+     * Bits are the payload of a filter, so none of them count as slack.
+     * 
+     * @return The estimated Footprint of the filter.
+     */
+    @Override
+    public Footprint footprint() {
+        return new Footprint(Footprint.arrayBytes(words.length, Long.BYTES), Footprint.objectBytes(1, Integer.BYTES * 2 + Long.BYTES + 1), 0);
+    }
+
+    /**
+     * Returns the total number of bits in the filter.
+     */
+    public long getNumberOfBits() {
+        return numberOfBits;
+    }
+
+    /**
+     * Returns the number of bits currently set.
+     */
+    public long getNumberOfSetBits() {
+        long count = 0;
+        for (long word : words) count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * Returns the number of bits set for each element.
+     */
+    public int getNumberOfHashFunctions() {
+        return numberOfHashFunctions;
+    }
+
+    /**
+     * Returns true if the bits of each element are confined to one cache line sized block.
+     */
+    public boolean isBlocked() {
+        return blocked;
+    }
+
+    /**
+     * Maps a 32 bit hash onto a bit of the whole array by multiplying instead of taking a modulo.
+     * 
+     * @param hash The combined hash.
+     * @return A bit index in [0, numberOfBits).
+     */
+    private long bitOf(int hash) {
+        return ((hash & 0xFFFFFFFFL) * numberOfBits) >>> 32;
+    }
+
+    /**
+     * Maps a 32 bit hash onto a block of the blocked variant by multiplying instead of taking a modulo.
+     * 
+     * @param hash The first half of the element's hash.
+     * @return A block index in [0, numberOfBlocks).
+     */
+    private int blockOf(int hash) {
+        return (int) (((hash & 0xFFFFFFFFL) * numberOfBlocks) >>> 32);
+    }
+
+    /**
+     * Derives the step between the bits of an element within its block. The block is picked by the
+     * top bits of the hash, so the step is remixed from all of its bits; otherwise every element of a
+     * block would step by nearly the same amount and set nearly the same pattern of bits.
+     * 
+     * @param hash The first half of the element's hash.
+     * @return An odd step.
+     */
+    private static int blockStep(int hash) {
+        return (hash * 0x9E3779B9) | 1;
+    }
+
+}
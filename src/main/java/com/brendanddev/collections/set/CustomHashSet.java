@@ -1,21 +1,41 @@
 package com.brendanddev.collections.set;
 
 import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import com.brendanddev.collections.core.CustomCollection;
 import com.brendanddev.collections.core.CustomIterator;
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.Hashing;
 import com.brendanddev.collections.list.CustomArrayList;
+import com.brendanddev.collections.tree.CustomAVLTree;
 
 
 /**
  * A generic hash based implementation of a Set using an array of buckets.
  * Each bucket is an ArrayList that stores elements with the same hash index.
  * 
+ * A bucket that collects more than the treeify threshold of elements is converted into a CustomAVLTree
+ * ordered by hash and then by compareTo, as long as the elements are mutually Comparable, so heavily
+ * colliding elements are searched in O(log n). It turns back into a list at the untreeify threshold.
+ * Both thresholds are derived from the load factor by Hashing.treeifyThreshold, so buckets of randomly
+ * hashed elements stay lists.
+ * 
+ * The load factor, the average number of elements per bucket that triggers a resize, defaults to
+ * AVERAGE_BUCKET_SIZE. The expected size constructors, ensureCapacity and addAll size the bucket
+ * array once when the number of elements is known in advance.
+ * 
+ * Bulk operations (addAll, retainAll, removeAll, intersect, unionInto) work bucket by bucket between
+ * sets and iterate the smaller side, and parallelIntersect splits large intersections across threads.
+ * 
  *  Time Complexity
  *  Insert	O(1) (average case)
  *  Search	O(1) (average case)
  *  Remove	O(1) (average case)
  *  Resize	O(n) (but happens rarely)
+ *  Intersect	O(min(n, m)) (average case)
+ *  Union/Difference	O(n + m) (average case)
  */
 public class CustomHashSet<T> implements CustomCollection<T> {
 
@@ -23,31 +43,80 @@ public class CustomHashSet<T> implements CustomCollection<T> {
     private static final int DEFAULT_BUCKETS = 16;
     private int size = 0;
     public static final double AVERAGE_BUCKET_SIZE = 3;
+    private final double loadFactor;
+
+    // Treeified buckets, trees is only created once a bucket is treeified
+    private CustomAVLTree<T>[] trees;
+    private final int treeifyThreshold;
+    private final int untreeifyThreshold;
+
+    // The smallest set parallelIntersect splits across threads
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
 
 
     /**
      * Constructs a new empty CustomHashSet with a default number of buckets.
      * Initializes each bucket as an empty ArrayList.
      */
-    @SuppressWarnings("unchecked")
     public CustomHashSet() {
-        buckets = new CustomArrayList[DEFAULT_BUCKETS];
-        for (int i = 0; i < DEFAULT_BUCKETS; i++) {
-            buckets[i] = new CustomArrayList<T>();
-        }
+        this.loadFactor = AVERAGE_BUCKET_SIZE;
+        this.treeifyThreshold = Hashing.treeifyThreshold(loadFactor);
+        this.untreeifyThreshold = Hashing.untreeifyThreshold(treeifyThreshold);
+        buckets = newBuckets(DEFAULT_BUCKETS);
     }
 
     /**
-     * Computes the has bucket index for a given element.
-     * The index is calculated using the elements hash code modulo the total number of buckets,
-     * and adjusted to ensure a non negative result.
+     * Constructs a new empty CustomHashSet with enough buckets to hold the expected number of
+     * elements without resizing.
+     * 
+     * @param expectedSize The number of elements the set is expected to hold.
+     * @throws IllegalArgumentException if expectedSize is negative.
+     */
+    public CustomHashSet(int expectedSize) {
+        this(expectedSize, AVERAGE_BUCKET_SIZE);
+    }
+
+    /**
+     * Constructs a new empty CustomHashSet for an expected number of elements and a custom load factor.
+     * 
+     * @param expectedSize The number of elements the set is expected to hold.
+     * @param loadFactor The average number of elements per bucket above which the set resizes.
+     * @throws IllegalArgumentException if expectedSize is negative or loadFactor is not positive.
+     */
+    public CustomHashSet(int expectedSize, double loadFactor) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Expected size must not be negative");
+        if (!(loadFactor > 0)) throw new IllegalArgumentException("Load factor must be positive");
+        this.loadFactor = loadFactor;
+        this.treeifyThreshold = Hashing.treeifyThreshold(loadFactor);
+        this.untreeifyThreshold = Hashing.untreeifyThreshold(treeifyThreshold);
+        buckets = newBuckets(bucketsFor(expectedSize));
+    }
+
+    /**
+     * Constructs an empty CustomHashSet over a prepared bucket array.
+     * 
+     * @param loadFactor The average number of elements per bucket above which the set resizes.
+     * @param buckets The bucket array, a power of two in length.
+     */
+    private CustomHashSet(double loadFactor, CustomArrayList<T>[] buckets) {
+        this.loadFactor = loadFactor;
+        this.treeifyThreshold = Hashing.treeifyThreshold(loadFactor);
+        this.untreeifyThreshold = Hashing.untreeifyThreshold(treeifyThreshold);
+        this.buckets = buckets;
+    }
+
+    /**
+     * Computes the hash bucket index for a given element.
+     * The elements hash code is mixed with Hashing.spread so that every bit of it affects the
+     * result, then masked to the total number of buckets. The bucket count is always a power of two,
+     * so the mask is always non negative and replaces a modulo.
      * 
      * @param x The element for which to compute the bucket index.
-     * @param hashSize The total number of buckets.
+     * @param hashSize The total number of buckets (a power of two).
      * @return The index of the bucket in which the element should be placed.
      */
     public int getHash(T x, int hashSize) {
-        return Math.abs(x.hashCode() % hashSize);
+        return Hashing.hash(x) & (hashSize - 1);
     }
 
     /**
@@ -60,19 +129,18 @@ public class CustomHashSet<T> implements CustomCollection<T> {
     public boolean add(T element) {
         // Compute the bucket index for this element based on its hash code
         int index = getHash(element, buckets.length);
-        CustomArrayList<T> bucket = buckets[index];
 
         // Prevent duplicates
-        if (bucket.contains(element)) {
+        if (bucketContains(index, element)) {
             return false;
         }
 
         // Add element to the bucket and increment total size
-        bucket.add(element);
+        addToBucket(index, element);
         size++;
 
         // Check if resize is needed
-        if ((double) size / buckets.length > AVERAGE_BUCKET_SIZE) {
+        if ((double) size / buckets.length > loadFactor) {
             resize();
         }
 
@@ -87,10 +155,28 @@ public class CustomHashSet<T> implements CustomCollection<T> {
      */
     @Override
     public boolean remove(T element) {
-        int index = getHash(element, buckets.length);
-        CustomArrayList<T> bucket = buckets[index];
+        return removeFromBucket(getHash(element, buckets.length), element);
+    }
+
+    /**
+     * Removes an element from the bucket it belongs to, if present.
+     * A treeified bucket shrinking to the untreeify threshold is converted back into a list.
+     * 
+     * @param index The index of the element's bucket.
+     * @param element The element to remove.
+     * @return true if the element was found and removed, otherwise false.
+     */
+    private boolean removeFromBucket(int index, T element) {
+        if (trees != null && trees[index] != null) {
+            CustomAVLTree<T> tree = trees[index];
+            if (!bucketContains(index, element)) return false;
+            tree.remove(element);
+            if (tree.size() <= untreeifyThreshold) untreeify(index);
+            size--;
+            return true;
+        }
 
-        if (bucket.remove(element)) {
+        if (buckets[index].remove(element)) {
             size--;
             return true;
         }
@@ -107,8 +193,31 @@ public class CustomHashSet<T> implements CustomCollection<T> {
     public boolean contains(T element) {
         // Compute which bucket this element belongs to based on its hash code
         int index = getHash(element, buckets.length);
-        CustomArrayList<T> bucket = buckets[index];
-        return bucket.contains(element);
+        return bucketContains(index, element);
+    }
+
+    /**
+     * Estimates the memory used by the set: the bucket array, every bucket list and treeified bucket,
+     * and the set object. Empty bucket slots and unused capacity inside bucket lists count as slack.
+     * 
+     * @return The estimated Footprint of the set.
+     */
+    @Override
+    public Footprint footprint() {
+        Footprint footprint = new Footprint(0, Footprint.objectBytes(2, Integer.BYTES + Double.BYTES), 0);
+        long emptySlots = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] != null) footprint = footprint.plus(buckets[i].footprint());
+            else emptySlots++;
+            if (trees != null && trees[i] != null) footprint = footprint.plus(trees[i].footprint());
+        }
+        if (trees != null) {
+            // The tree array is sparse, so every slot without a tree is slack
+            long treeSlack = (long) (trees.length - getNumberOfTreeBuckets()) * Footprint.REFERENCE_BYTES;
+            footprint = footprint.plus(new Footprint(Footprint.arrayBytes(trees.length, Footprint.REFERENCE_BYTES), 0, treeSlack));
+        }
+        long bucketArrayBytes = Footprint.arrayBytes(buckets.length, Footprint.REFERENCE_BYTES);
+        return footprint.plus(new Footprint(bucketArrayBytes, 0, emptySlots * Footprint.REFERENCE_BYTES));
     }
 
     /**
@@ -134,29 +243,378 @@ public class CustomHashSet<T> implements CustomCollection<T> {
      * threshold, to reduce collisions and maintain efficient access. Each element is rehashed 
      * according to the new bucket array size.
      */
-    @SuppressWarnings("unchecked")
     private void resize() {
-        // Calculate new bucket count
-        int newBucketCount = buckets.length * 2;
+        rehashTo(buckets.length * 2);
+    }
 
-        // Create a new array of buckets, initializing each bucket as an empty list
-        CustomArrayList<T>[] newBuckets = new CustomArrayList[newBucketCount];
-        for (int i = 0; i < newBucketCount; i++) {
-            newBuckets[i] = new CustomArrayList<T>();
+    /**
+     * Adds every element of another collection, sizing the bucket array for the elements of both first,
+     * so the set resizes at most once however many elements it already holds.
+     * 
+     * When the other collection is a CustomHashSet, its buckets are copied bucket by bucket. An element's
+     * bucket in the smaller of the two tables is the low bits of its bucket in the larger one, so elements
+     * are only rehashed when they move into a larger table.
+     * 
+     * @param other The collection whose elements to add.
+     * @return true if the set changed, otherwise false.
+     */
+    @SuppressWarnings("unchecked")
+    public boolean addAll(CustomCollection<? extends T> other) {
+        ensureCapacity((int) Math.min((long) size + other.size(), Integer.MAX_VALUE));
+        if (other instanceof CustomHashSet) return addAllBuckets((CustomHashSet<? extends T>) other);
+
+        boolean changed = false;
+        CustomIterator<? extends T> iterator = other.iterator();
+        while (iterator.hasNext()) {
+            changed |= add(iterator.next());
         }
+        return changed;
+    }
+
+    /**
+     * Adds every element of this set to another set, bucket by bucket.
+     * 
+     * @param destination The set to add the elements to.
+     * @return true if the destination changed, otherwise false.
+     */
+    public boolean unionInto(CustomHashSet<? super T> destination) {
+        return destination.addAll(this);
+    }
 
-        // Rehash each element from the old buckets into new buckets
+    /**
+     * Keeps only the elements that are also in another collection.
+     * 
+     * When the other collection is a smaller CustomHashSet, the surviving elements are found by probing
+     * this set with the other's elements instead, and then replace the contents of this set.
+     * 
+     * @param other The collection of elements to keep.
+     * @return true if the set changed, otherwise false.
+     */
+    public boolean retainAll(CustomCollection<T> other) {
+        if (other instanceof CustomHashSet && other.size() < size) {
+            CustomHashSet<T> kept = intersect((CustomHashSet<T>) other, this, loadFactor);
+            if (kept.size == size) return false;
+            buckets = kept.buckets;
+            trees = kept.trees;
+            size = kept.size;
+            return true;
+        }
+        return filterBuckets(other, true);
+    }
+
+    /**
+     * Removes every element that is also in another collection.
+     * 
+     * When the other collection is a smaller CustomHashSet, each of its elements is removed from this set
+     * directly, otherwise the buckets of this set are filtered in place.
+     * 
+     * @param other The collection of elements to remove.
+     * @return true if the set changed, otherwise false.
+     */
+    public boolean removeAll(CustomCollection<T> other) {
+        if (other instanceof CustomHashSet && other.size() < size) {
+            CustomHashSet<T> smaller = (CustomHashSet<T>) other;
+            int before = size;
+            for (int b = 0; b < smaller.buckets.length; b++) {
+                CustomArrayList<T> bucket = smaller.bucketList(b);
+                for (int i = 0; i < bucket.size(); i++) {
+                    T element = bucket.get(i);
+                    removeFromBucket(mapIndex(element, b, smaller.buckets.length, buckets.length), element);
+                }
+            }
+            return size != before;
+        }
+        return filterBuckets(other, false);
+    }
+
+    /**
+     * Computes the intersection of two sets into a new set.
+     * 
+     * The smaller set is iterated bucket by bucket and only its elements are probed in the larger set.
+     * The result is sized for the smaller set up front and uses the load factor of the first set.
+     * 
+     * @param a The first set.
+     * @param b The second set.
+     * @return A new CustomHashSet holding the elements present in both sets.
+     */
+    public static <T> CustomHashSet<T> intersect(CustomHashSet<T> a, CustomHashSet<T> b) {
+        return intersect(a, b, a.loadFactor);
+    }
+
+    /**
+     * Computes the intersection of two sets into a new set, splitting the work across the common
+     * ForkJoinPool when the smaller set holds at least PARALLEL_THRESHOLD elements.
+     * 
+     * The result has as many buckets as the smaller set, so every task fills its own range of result
+     * buckets and no synchronization is needed. Neither set may be modified while the call runs.
+     * 
+     * @param a The first set.
+     * @param b The second set.
+     * @return A new CustomHashSet holding the elements present in both sets.
+     */
+    public static <T> CustomHashSet<T> parallelIntersect(CustomHashSet<T> a, CustomHashSet<T> b) {
+        CustomHashSet<T> smaller = a.size <= b.size ? a : b;
+        CustomHashSet<T> larger = smaller == a ? b : a;
+        if (smaller.size < PARALLEL_THRESHOLD) return intersect(a, b);
+
+        CustomHashSet<T> result = new CustomHashSet<>(a.loadFactor, newBuckets(smaller.buckets.length));
+        result.size = ForkJoinPool.commonPool().invoke(new IntersectTask<>(smaller, larger, result, 0, smaller.buckets.length));
+
+        // Tasks only append to lists, so overflowing buckets are treeified afterwards on one thread
+        for (int i = 0; i < result.buckets.length; i++) {
+            if (result.buckets[i].size() > result.treeifyThreshold) result.treeify(i);
+        }
+        return result;
+    }
+
+    /**
+     * Helper to intersect two sets into a new set with a given load factor.
+     * 
+     * @param a The first set.
+     * @param b The second set.
+     * @param loadFactor The load factor of the result.
+     * @return A new CustomHashSet holding the elements present in both sets.
+     */
+    private static <T> CustomHashSet<T> intersect(CustomHashSet<T> a, CustomHashSet<T> b, double loadFactor) {
+        CustomHashSet<T> smaller = a.size <= b.size ? a : b;
+        CustomHashSet<T> larger = smaller == a ? b : a;
+        CustomHashSet<T> result = new CustomHashSet<>(smaller.size, loadFactor);
+        for (int bucket = 0; bucket < smaller.buckets.length; bucket++) {
+            result.size += intersectBucket(smaller, larger, result, bucket);
+        }
+        return result;
+    }
+
+    /**
+     * Helper to add the elements of one bucket of the smaller set that are also in the larger set to the result.
+     * The result never needs to grow, since it was sized for every element of the smaller set.
+     * 
+     * @param smaller The set whose bucket is iterated.
+     * @param larger The set that is probed.
+     * @param result The set receiving the common elements, which must not hold any of them yet.
+     * @param bucket The index of the bucket of the smaller set.
+     * @return The number of elements added to the result.
+     */
+    private static <T> int intersectBucket(CustomHashSet<T> smaller, CustomHashSet<T> larger, CustomHashSet<T> result, int bucket) {
+        CustomArrayList<T> elements = smaller.bucketList(bucket);
+        int added = 0;
+        for (int i = 0; i < elements.size(); i++) {
+            T element = elements.get(i);
+            if (larger.bucketContains(mapIndex(element, bucket, smaller.buckets.length, larger.buckets.length), element)) {
+                result.addToBucket(mapIndex(element, bucket, smaller.buckets.length, result.buckets.length), element);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Fork/join task that intersects a range of buckets of the smaller set into the same range of result buckets.
+     * Ranges are halved until they hold at most BUCKETS_PER_TASK buckets.
+     */
+    private static final class IntersectTask<T> extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        private static final int BUCKETS_PER_TASK = 1 << 12;
+        private final CustomHashSet<T> smaller;
+        private final CustomHashSet<T> larger;
+        private final CustomHashSet<T> result;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructs a task over the bucket range [from, to).
+         * 
+         * @param smaller The set whose buckets are iterated.
+         * @param larger The set that is probed.
+         * @param result The set receiving the common elements, with as many buckets as the smaller set.
+         * @param from The first bucket of the range.
+         * @param to The bucket after the last one of the range.
+         */
+        IntersectTask(CustomHashSet<T> smaller, CustomHashSet<T> larger, CustomHashSet<T> result, int from, int to) {
+            this.smaller = smaller;
+            this.larger = larger;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Intersects the range directly or splits it in two.
+         * 
+         * @return The number of common elements found in the range.
+         */
+        @Override
+        protected Integer compute() {
+            if (to - from <= BUCKETS_PER_TASK) {
+                int added = 0;
+                for (int bucket = from; bucket < to; bucket++) {
+                    CustomArrayList<T> elements = smaller.bucketList(bucket);
+                    CustomArrayList<T> target = result.buckets[bucket];
+                    for (int i = 0; i < elements.size(); i++) {
+                        T element = elements.get(i);
+                        if (larger.bucketContains(mapIndex(element, bucket, smaller.buckets.length, larger.buckets.length), element)) {
+                            target.add(element);
+                            added++;
+                        }
+                    }
+                }
+                return added;
+            }
+            int mid = (from + to) >>> 1;
+            IntersectTask<T> left = new IntersectTask<>(smaller, larger, result, from, mid);
+            left.fork();
+            int right = new IntersectTask<>(smaller, larger, result, mid, to).compute();
+            return left.join() + right;
+        }
+    }
+
+    /**
+     * Helper to add the elements of another set bucket by bucket, skipping the per element load check since addAll has already sized the bucket array.
+     * 
+     * @param other The set whose elements to add.
+     * @return true if the set changed, otherwise false.
+     */
+    private boolean addAllBuckets(CustomHashSet<? extends T> other) {
+        int before = size;
+        for (int b = 0; b < other.buckets.length; b++) {
+            CustomArrayList<? extends T> bucket = other.bucketList(b);
+            for (int i = 0; i < bucket.size(); i++) {
+                T element = bucket.get(i);
+                int index = mapIndex(element, b, other.buckets.length, buckets.length);
+                if (!bucketContains(index, element)) {
+                    addToBucket(index, element);
+                    size++;
+                }
+            }
+        }
+        return size != before;
+    }
+
+    /**
+     * Helper to keep, in place, only the elements whose membership in another collection matches.
+     * Probes into another CustomHashSet go straight to the mapped bucket.
+     * 
+     * @param other The collection to probe.
+     * @param keepContained true to keep elements found in other, false to keep elements missing from it.
+     * @return true if any element was removed, otherwise false.
+     */
+    private boolean filterBuckets(CustomCollection<T> other, boolean keepContained) {
+        CustomHashSet<T> otherSet = other instanceof CustomHashSet ? (CustomHashSet<T>) other : null;
+        int before = size;
         for (int b = 0; b < buckets.length; b++) {
-            CustomArrayList<T> bucket = buckets[b];
+            boolean treeBucket = trees != null && trees[b] != null;
+            CustomArrayList<T> bucket = bucketList(b);
+            int kept = 0;
             for (int i = 0; i < bucket.size(); i++) {
                 T element = bucket.get(i);
-                int index = getHash(element, newBucketCount);
-                newBuckets[index].add(element);
+                boolean contained = otherSet != null
+                        ? otherSet.bucketContains(mapIndex(element, b, buckets.length, otherSet.buckets.length), element)
+                        : other.contains(element);
+                if (contained == keepContained) bucket.set(kept++, element);
             }
+            if (kept == bucket.size()) continue;
+
+            // Compact the bucket by dropping its tail, which is O(1) per removed element
+            size -= bucket.size() - kept;
+            while (bucket.size() > kept) bucket.removeAt(bucket.size() - 1);
+            if (treeBucket) {
+                // The list is a copy of the tree, so it replaces the tree and is treeified again if still large
+                trees[b] = null;
+                buckets[b] = bucket;
+                if (bucket.size() > untreeifyThreshold) treeify(b);
+            }
+        }
+        return size != before;
+    }
+
+    /**
+     * Grows the bucket array, if needed, so the set can hold the given number of elements without resizing.
+     * 
+     * @param expectedSize The number of elements the set is expected to hold.
+     */
+    public void ensureCapacity(int expectedSize) {
+        int needed = bucketsFor(expectedSize);
+        if (needed > buckets.length) rehashTo(needed);
+    }
+
+    /**
+     * Shrinks the bucket array to the smallest size that holds the current elements within the load factor.
+     */
+    public void trimToSize() {
+        int needed = bucketsFor(size);
+        if (needed < buckets.length) rehashTo(needed);
+    }
+
+    /**
+     * Returns the average number of elements per bucket above which the set resizes.
+     */
+    public double getLoadFactor() {
+        return loadFactor;
+    }
+
+    /**
+     * Returns the bucket size above which a bucket is converted into a tree, derived from the load factor.
+     */
+    public int getTreeifyThreshold() {
+        return treeifyThreshold;
+    }
+
+    /**
+     * Returns the tree size at or below which a treeified bucket is converted back into a list.
+     */
+    public int getUntreeifyThreshold() {
+        return untreeifyThreshold;
+    }
+
+    /**
+     * Returns the power of two number of buckets that holds a number of elements within the load factor.
+     * 
+     * @param elements The number of elements to hold.
+     * @return The number of buckets needed.
+     */
+    private int bucketsFor(int elements) {
+        return Hashing.tableSizeFor((int) Math.min(Math.ceil(elements / loadFactor), Hashing.MAX_CAPACITY));
+    }
+
+    /**
+     * Creates a bucket array, initializing each bucket as an empty list.
+     * 
+     * @param count The number of buckets.
+     * @return The new bucket array.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> CustomArrayList<T>[] newBuckets(int count) {
+        CustomArrayList<T>[] result = new CustomArrayList[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = new CustomArrayList<T>();
+        }
+        return result;
+    }
+
+    /**
+     * Replaces the bucket array with one of a given size and redistributes every element.
+     * 
+     * @param newBucketCount The new number of buckets, a power of two.
+     */
+    private void rehashTo(int newBucketCount) {
+        // Trees are flattened first, and rebuilt by addToBucket where buckets still overflow
+        if (trees != null) {
+            for (int i = 0; i < trees.length; i++) {
+                if (trees[i] != null) untreeify(i);
+            }
+            trees = null;
+        }
 
+        // Replace old buckets with the new resized bucket array, then rehash each element into it
+        CustomArrayList<T>[] oldBuckets = buckets;
+        buckets = newBuckets(newBucketCount);
+        for (int b = 0; b < oldBuckets.length; b++) {
+            CustomArrayList<T> bucket = oldBuckets[b];
+            for (int i = 0; i < bucket.size(); i++) {
+                T element = bucket.get(i);
+                addToBucket(getHash(element, newBucketCount), element);
+            }
         }
-        // Replace old buckets with new resized bucket array
-        buckets = newBuckets;
     }
 
     /**
@@ -164,8 +622,8 @@ public class CustomHashSet<T> implements CustomCollection<T> {
      */
     public int getNumberOfEmptyBuckets() {
         int empty = 0;
-        for (CustomArrayList<T> bucket : buckets) {
-            if (bucket.isEmpty()) empty++;
+        for (int i = 0; i < buckets.length; i++) {
+            if (bucketSize(i) == 0) empty++;
         }
         return empty;
     }
@@ -175,12 +633,144 @@ public class CustomHashSet<T> implements CustomCollection<T> {
      */
     public int getLargestBucketSize() {
         int max = 0;
-        for (CustomArrayList<T> bucket : buckets) {
-            if (bucket.size() > max) max = bucket.size();
+        for (int i = 0; i < buckets.length; i++) {
+            max = Math.max(max, bucketSize(i));
         }
         return max;
     }
 
+    /**
+     * Returns the number of buckets that have been converted into trees.
+     */
+    public int getNumberOfTreeBuckets() {
+        if (trees == null) return 0;
+        int count = 0;
+        for (CustomAVLTree<T> tree : trees) {
+            if (tree != null) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether a bucket, either a list or a tree, contains an element.
+     * 
+     * @param index The index of the bucket.
+     * @param element The element to search for.
+     * @return true if the bucket contains the element, otherwise false.
+     */
+    private boolean bucketContains(int index, T element) {
+        if (trees != null && trees[index] != null) {
+            CustomAVLTree<T> tree = trees[index];
+            // Elements of another class cannot be ordered among the tree's elements, so they are never in it
+            if (element.getClass() != tree.min().getClass()) return false;
+            T found = tree.find(element);
+            return found != null && found.equals(element);
+        }
+        return buckets[index].contains(element);
+    }
+
+    /**
+     * Adds an element that is not yet in the set to a bucket.
+     * A list bucket growing past the treeify threshold is converted into a tree.
+     * 
+     * @param index The index of the bucket.
+     * @param element The element to add.
+     */
+    private void addToBucket(int index, T element) {
+        if (trees != null && trees[index] != null) {
+            CustomAVLTree<T> tree = trees[index];
+            if (element.getClass() == tree.min().getClass() && tree.insert(element)) return;
+            // The element cannot be ordered among the others, so the bucket goes back to a list
+            untreeify(index);
+        }
+
+        CustomArrayList<T> bucket = buckets[index];
+        bucket.add(element);
+        if (bucket.size() > treeifyThreshold) treeify(index);
+    }
+
+    /**
+     * Converts a list bucket into a tree, if its elements are mutually Comparable.
+     * 
+     * @param index The index of the bucket.
+     */
+    @SuppressWarnings("unchecked")
+    private void treeify(int index) {
+        CustomArrayList<T> bucket = buckets[index];
+        Class<?> elementClass = Hashing.comparableClassFor(bucket.get(0));
+        if (elementClass == null) return;
+
+        CustomAVLTree<T> tree = new CustomAVLTree<>(CustomHashSet::compareElements);
+        for (int i = 0; i < bucket.size(); i++) {
+            T element = bucket.get(i);
+            // Give up on mixed classes, or on distinct elements that compareTo considers equal
+            if (element.getClass() != elementClass || !tree.insert(element)) return;
+        }
+
+        if (trees == null) trees = new CustomAVLTree[buckets.length];
+        trees[index] = tree;
+        buckets[index] = new CustomArrayList<T>();
+    }
+
+    /**
+     * Converts a treeified bucket back into a list.
+     * 
+     * @param index The index of the bucket.
+     */
+    private void untreeify(int index) {
+        buckets[index] = trees[index].traverseInOrder();
+        trees[index] = null;
+    }
+
+    /**
+     * Orders elements in a treeified bucket by hash, then by their natural order.
+     * 
+     * @param a The first element.
+     * @param b The second element.
+     * @return A negative, zero or positive integer as a orders before, with or after b.
+     */
+    private static <T> int compareElements(T a, T b) {
+        int cmp = Integer.compare(Hashing.hash(a), Hashing.hash(b));
+        return cmp != 0 ? cmp : Hashing.compareComparables(a, b);
+    }
+
+    /**
+     * Maps the bucket of an element in one table to its bucket in another table.
+     * Both lengths are powers of two, so an element's bucket in the shorter table is the low bits of
+     * its bucket in the longer one, and the hash only has to be recomputed when moving to a longer table.
+     * 
+     * @param element The element.
+     * @param index The element's bucket in the source table.
+     * @param fromLength The number of buckets of the source table.
+     * @param toLength The number of buckets of the target table.
+     * @return The element's bucket in the target table.
+     */
+    private static <T> int mapIndex(T element, int index, int fromLength, int toLength) {
+        return toLength <= fromLength ? index & (toLength - 1) : Hashing.hash(element) & (toLength - 1);
+    }
+
+    /**
+     * Returns the elements of a bucket as a list, copying a treeified bucket in sorted order.
+     * 
+     * @param index The index of the bucket.
+     * @return The list of elements in the bucket.
+     */
+    private CustomArrayList<T> bucketList(int index) {
+        if (trees != null && trees[index] != null) return trees[index].traverseInOrder();
+        return buckets[index];
+    }
+
+    /**
+     * Returns the number of elements in a bucket, whether a list or a tree.
+     * 
+     * @param index The index of the bucket.
+     * @return The number of elements in the bucket.
+     */
+    private int bucketSize(int index) {
+        if (trees != null && trees[index] != null) return trees[index].size();
+        return buckets[index].size();
+    }
+
 
     /**
      * Returns the total number of buckets in the set.
@@ -207,6 +797,7 @@ public class CustomHashSet<T> implements CustomCollection<T> {
         // Track current bucket and index within current bucket
         private int bucketIndex = 0;
         private int elementIndex = 0;
+        private CustomArrayList<T> bucket = bucketList(0);
 
         /**
          * Checks whether there are more elements to iterate over in the set.
@@ -219,9 +810,10 @@ public class CustomHashSet<T> implements CustomCollection<T> {
         public boolean hasNext() {
 
             // Skip empty buckets
-            while (bucketIndex < buckets.length && elementIndex >= buckets[bucketIndex].size()) {
+            while (bucketIndex < buckets.length && elementIndex >= bucket.size()) {
                 bucketIndex++;
                 elementIndex = 0;
+                if (bucketIndex < buckets.length) bucket = bucketList(bucketIndex);
             }
             return bucketIndex < buckets.length;
         }
@@ -238,7 +830,7 @@ public class CustomHashSet<T> implements CustomCollection<T> {
             if (!hasNext()) {
                 throw new NoSuchElementException("No more elements in iterator!");
             }
-            return buckets[bucketIndex].get(elementIndex++);
+            return bucket.get(elementIndex++);
         }
 
     }
@@ -0,0 +1,409 @@
+package com.brendanddev.collections.set;
+
+import java.util.NoSuchElementException;
+
+import com.brendanddev.collections.core.CustomCollection;
+import com.brendanddev.collections.core.CustomIterator;
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.Hashing;
+
+/**
+ * A custom generic hash based implementation of a Set using open addressing with a Swiss table layout.
+ * 
+ * Next to the array of elements, every slot owns one control byte. A full slot stores 7 bits of its
+ * element's hash (h2) in its control byte, while the remaining hash bits (h1) choose where probing
+ * starts. Slots are grouped by GROUP_WIDTH, and the control bytes of a group are packed into a
+ * single long, so one probe step compares the h2 of a key against all eight control bytes of a group
+ * at once with a few word wide bit operations (SWAR, SIMD within a register). Only slots whose
+ * control byte matches are loaded and compared with equals, which is rarely more than one per lookup,
+ * and a lookup ends at the first group that still has an empty slot.
+ * 
+ * Removed slots become tombstones unless their group still has an empty slot, since no probe sequence
+ * can pass through such a group. Tombstones are cleared whenever the table is rebuilt.
+ * 
+ * Time Complexity
+ * Insert: O(1) (average case)
+ * Search: O(1) (average case)
+ * Remove: O(1) (average case)
+ * Resize: O(n) (but happens rarely)
+ * 
+ * Note: Null elements are not allowed.
+ */
+public class CustomSwissHashSet<T> implements CustomCollection<T> {
+
+    public static final int GROUP_WIDTH = 8;
+    public static final double MAX_LOAD_FACTOR = 0.875;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Control byte values, a full slot holds its 7 bit h2 instead
+    private static final int EMPTY = 0x80;
+    private static final int DELETED = 0xFE;
+
+    // Repeating byte masks for the word wide operations
+    private static final long LSBS = 0x0101010101010101L;
+    private static final long MSBS = 0x8080808080808080L;
+
+    private Object[] slots;
+    private long[] control;
+    private int groupMask;
+    private int size = 0;
+    private int tombstones = 0;
+    private int threshold;
+
+    /**
+     * Constructs an empty CustomSwissHashSet with the default capacity.
+     */
+    public CustomSwissHashSet() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty CustomSwissHashSet sized to hold the expected number of elements without resizing.
+     * 
+     * @param expectedSize The number of elements the set is expected to hold.
+     * @throws IllegalArgumentException if expectedSize is negative.
+     */
+    public CustomSwissHashSet(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Expected size must not be negative");
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Adds the specified element to the set if not already present.
+     * 
+     * The element is stored in the first empty or deleted slot of its probe sequence. The table is
+     * rebuilt once full slots and tombstones together reach the maximum load factor.
+     * 
+     * @param element The element to add to the set.
+     * @return true if the element was added, otherwise false.
+     * @throws IllegalArgumentException if the element is null.
+     */
+    @Override
+    public boolean add(T element) {
+        if (element == null) throw new IllegalArgumentException("Null elements not allowed");
+        int hash = Hashing.hash(element);
+        if (find(element, hash) >= 0) return false;
+
+        int slot = findInsertSlot(hash);
+        if (controlAt(slot) == EMPTY && size + tombstones >= threshold) {
+            rehash();
+            slot = findInsertSlot(hash);
+        }
+        if (controlAt(slot) == DELETED) tombstones--;
+        setControl(slot, hash & 0x7F);
+        slots[slot] = element;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the specified element from the set if present.
+     * 
+     * @param element The element to remove.
+     * @return true if the element was removed, otherwise false.
+     */
+    @Override
+    public boolean remove(T element) {
+        if (element == null) return false;
+        int slot = find(element, Hashing.hash(element));
+        if (slot < 0) return false;
+
+        // A group with an empty slot ends every probe that reaches it, so the slot can be emptied outright
+        if (matchEmpty(control[slot >>> 3]) != 0) {
+            setControl(slot, EMPTY);
+        } else {
+            setControl(slot, DELETED);
+            tombstones++;
+        }
+        slots[slot] = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Checks if the set contains the specified element.
+     * 
+     * @param element The element to check for.
+     * @return true if the element is present, otherwise false.
+     */
+    @Override
+    public boolean contains(T element) {
+        return element != null && find(element, Hashing.hash(element)) >= 0;
+    }
+
+    /**
+     * Adds every element of another collection to this set, growing the table at most once.
+     * 
+     * @param other The collection whose elements are added.
+     * @return true if the set changed, otherwise false.
+     * @throws IllegalArgumentException if any element is null.
+     */
+    public boolean addAll(CustomCollection<? extends T> other) {
+        ensureCapacity(other.size());
+        boolean changed = false;
+        CustomIterator<? extends T> iterator = other.iterator();
+        while (iterator.hasNext()) {
+            changed |= add(iterator.next());
+        }
+        return changed;
+    }
+
+    /**
+     * Grows the table, if needed, so the set can hold the given number of elements without resizing.
+     * 
+     * @param expectedSize The number of elements the set is expected to hold.
+     */
+    public void ensureCapacity(int expectedSize) {
+        int needed = capacityFor(expectedSize);
+        if (needed > slots.length) rebuild(needed);
+    }
+
+    /**
+     * Removes all elements from the set, keeping the current capacity.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) slots[i] = null;
+        for (int g = 0; g < control.length; g++) control[g] = EMPTY * LSBS;
+        size = 0;
+        tombstones = 0;
+    }
+
+    /**
+     * Estimates the memory used by the set, which is its element and control arrays plus the set object.
+     * Every slot that does not hold an element counts as slack, including its control byte.
+     * 
+     * @return The estimated Footprint of the set.
+     */
+    @Override
+    public Footprint footprint() {
+        long arrayBytes = Footprint.arrayBytes(slots.length, Footprint.REFERENCE_BYTES) + Footprint.arrayBytes(control.length, Long.BYTES);
+        long slackBytes = (long) (slots.length - size) * (Footprint.REFERENCE_BYTES + 1);
+        return new Footprint(arrayBytes, Footprint.objectBytes(2, Integer.BYTES * 4), slackBytes);
+    }
+
+    /**
+     * Returns the number of elements currently stored in the set.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the set contains no elements, otherwise false.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the total number of slots in the table.
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Returns the number of slots currently marked as deleted.
+     */
+    public int getNumberOfTombstones() {
+        return tombstones;
+    }
+
+    /**
+     * Finds the slot holding an element, comparing it with equals only where the control byte matches.
+     * 
+     * @param element The element to search for.
+     * @param hash The mixed hash of the element.
+     * @return The index of the slot holding the element, or -1 if it is not present.
+     */
+    private int find(Object element, int hash) {
+        long pattern = (hash & 0x7F) * LSBS;
+        int group = (hash >>> 7) & groupMask;
+        for (int step = 1; ; step++) {
+            long word = control[group];
+            for (long matches = matchByte(word, pattern); matches != 0; matches &= matches - 1) {
+                int slot = (group << 3) + (Long.numberOfTrailingZeros(matches) >>> 3);
+                Object current = slots[slot];
+                if (current == element || (current != null && current.equals(element))) return slot;
+            }
+            if (matchEmpty(word) != 0) return -1;
+            // Triangular probing visits every group of a power of two table
+            group = (group + step) & groupMask;
+        }
+    }
+
+    /**
+     * Finds the first empty or deleted slot along the probe sequence of a hash.
+     * 
+     * @param hash The mixed hash of the element to insert.
+     * @return The index of the slot to insert into.
+     */
+    private int findInsertSlot(int hash) {
+        int group = (hash >>> 7) & groupMask;
+        for (int step = 1; ; step++) {
+            long free = matchEmptyOrDeleted(control[group]);
+            if (free != 0) return (group << 3) + (Long.numberOfTrailingZeros(free) >>> 3);
+            group = (group + step) & groupMask;
+        }
+    }
+
+    /**
+     * Marks the bytes of a control word equal to a repeated byte pattern by setting their high bit.
+     * May also mark a byte right above a true match, which the equals check then rejects.
+     * 
+     * @param word The control bytes of a group.
+     * @param pattern The h2 to look for, repeated in every byte.
+     * @return A mask with the high bit set in every matching byte.
+     */
+    private static long matchByte(long word, long pattern) {
+        long x = word ^ pattern;
+        return (x - LSBS) & ~x & MSBS;
+    }
+
+    /**
+     * Marks the empty bytes of a control word. Only EMPTY has its high bit set and its second bit clear.
+     * 
+     * @param word The control bytes of a group.
+     * @return A mask with the high bit set in every empty byte.
+     */
+    private static long matchEmpty(long word) {
+        return word & ~(word << 6) & MSBS;
+    }
+
+    /**
+     * Marks the empty and deleted bytes of a control word. Both have their high bit set and their low bit clear.
+     * 
+     * @param word The control bytes of a group.
+     * @return A mask with the high bit set in every empty or deleted byte.
+     */
+    private static long matchEmptyOrDeleted(long word) {
+        return word & ~(word << 7) & MSBS;
+    }
+
+    /**
+     * Returns the control byte of a slot.
+     * 
+     * @param slot The index of the slot.
+     * @return The control byte as an unsigned value.
+     */
+    private int controlAt(int slot) {
+        return (int) (control[slot >>> 3] >>> ((slot & 7) << 3)) & 0xFF;
+    }
+
+    /**
+     * Overwrites the control byte of a slot.
+     * 
+     * @param slot The index of the slot.
+     * @param value The new control byte.
+     */
+    private void setControl(int slot, int value) {
+        int shift = (slot & 7) << 3;
+        int group = slot >>> 3;
+        control[group] = (control[group] & ~(0xFFL << shift)) | ((long) value << shift);
+    }
+
+    /**
+     * Computes the power of two capacity that holds a number of elements within the maximum load factor.
+     * 
+     * @param expectedSize The number of elements to hold.
+     * @return The number of slots, at least one group.
+     */
+    private static int capacityFor(int expectedSize) {
+        return Math.max(GROUP_WIDTH, Hashing.tableSizeFor((int) Math.ceil(expectedSize / MAX_LOAD_FACTOR) + 1));
+    }
+
+    /**
+     * Allocates empty element and control arrays with the given power of two capacity.
+     * 
+     * @param capacity The number of slots to allocate, a multiple of GROUP_WIDTH.
+     */
+    private void allocate(int capacity) {
+        slots = new Object[capacity];
+        control = new long[capacity / GROUP_WIDTH];
+        for (int g = 0; g < control.length; g++) control[g] = EMPTY * LSBS;
+        groupMask = control.length - 1;
+        // Keeps at least one empty slot, so every probe sequence terminates
+        threshold = Math.min((int) (capacity * MAX_LOAD_FACTOR), capacity - 1);
+        tombstones = 0;
+    }
+
+    /**
+     * Rebuilds a table that ran out of empty slots. The table doubles when at least three quarters
+     * of its usable slots hold elements, otherwise it is rebuilt at the same capacity to clear its tombstones.
+     */
+    private void rehash() {
+        rebuild(size >= threshold - (threshold >> 2) ? slots.length * 2 : slots.length);
+    }
+
+    /**
+     * Reinserts every element into freshly allocated arrays of the given capacity.
+     * Elements are known to be unique, so each goes to the first free slot of its probe sequence.
+     * 
+     * @param capacity The new number of slots.
+     */
+    private void rebuild(int capacity) {
+        Object[] oldSlots = slots;
+        allocate(capacity);
+        for (Object element : oldSlots) {
+            if (element == null) continue;
+            int hash = Hashing.hash(element);
+            int slot = findInsertSlot(hash);
+            setControl(slot, hash & 0x7F);
+            slots[slot] = element;
+        }
+    }
+
+    /**
+     * Returns a CustomIterator over the elements in the set.
+     * 
+     * @return CustomIterator for iterating over the sets elements.
+     */
+    @Override
+    public CustomIterator<T> iterator() {
+        return new SwissIterator();
+    }
+
+    /**
+     * Private inner class that iterates over the full slots of the table.
+     */
+    private class SwissIterator implements CustomIterator<T> {
+        private int next = advance(0);
+
+        /**
+         * Finds the first full slot at or after an index.
+         * 
+         * @param from The index to start from.
+         * @return The index of the next full slot, or the capacity if there is none.
+         */
+        private int advance(int from) {
+            while (from < slots.length && slots[from] == null) from++;
+            return from;
+        }
+
+        /**
+         * Returns true if there are more elements to iterate over, otherwise false.
+         */
+        @Override
+        public boolean hasNext() {
+            return next < slots.length;
+        }
+
+        /**
+         * Returns the next element in the iteration.
+         * 
+         * @return The next element.
+         * @throws NoSuchElementException if there are no more elements.
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException("No more elements in iterator!");
+            T element = (T) slots[next];
+            next = advance(next + 1);
+            return element;
+        }
+    }
+
+}
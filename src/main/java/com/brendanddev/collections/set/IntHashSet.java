@@ -0,0 +1,316 @@
+package com.brendanddev.collections.set;
+
+import java.util.NoSuchElementException;
+
+import com.brendanddev.collections.core.CustomIntIterator;
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.Hashing;
+import com.brendanddev.collections.core.MemoryFootprint;
+
+/**
+ * A hash set of primitive int values.
+ * 
+ * Values are stored in one flat int array using open addressing with linear probing, so no value
+ * is ever boxed and nothing is allocated per element. A slot is empty when it holds 0; the value 0
+ * itself is tracked outside the table in a dedicated flag. Removals use backward shift deletion,
+ * so no tombstones are left behind.
+ * 
+ * Time Complexity
+ * Insert: O(1) (average case)
+ * Search: O(1) (average case)
+ * Remove: O(1) (average case)
+ * Resize: O(n) (but happens rarely)
+ */
+public class IntHashSet implements MemoryFootprint {
+
+    private static final int EMPTY = 0;
+    private static final int DEFAULT_CAPACITY = 16;
+    public static final double MAX_LOAD_FACTOR = 0.7;
+
+    private int[] values;
+    private int mask;
+    private int threshold;
+    private int size = 0;
+
+    // The value 0 is the empty slot sentinel, so its presence is kept outside the table
+    private boolean hasZero = false;
+
+    /**
+     * Constructs an empty IntHashSet with the default capacity.
+     */
+    public IntHashSet() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty IntHashSet sized to hold the expected number of values without resizing.
+     * 
+     * @param expectedSize The number of values the set is expected to hold.
+     * @throws IllegalArgumentException if expectedSize is negative.
+     */
+    public IntHashSet(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Expected size must not be negative");
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Computes the home slot for a given value.
+     * 
+     * @param value The value for which to compute the slot.
+     * @return The index of the slot where probing for the value starts.
+     */
+    private int getSlot(int value) {
+        return Hashing.spread(value) & mask;
+    }
+
+    /**
+     * Finds the slot currently holding the given non zero value.
+     * 
+     * @param value The value to search for.
+     * @return The index of the slot holding the value, or -1 if the value does not exist.
+     */
+    private int findSlot(int value) {
+        int slot = getSlot(value);
+        int current;
+        while ((current = values[slot]) != EMPTY) {
+            if (current == value) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a value to the set if not already present.
+     * 
+     * @param value The value to add.
+     * @return true if the value was added, otherwise false.
+     */
+    public boolean add(int value) {
+        if (value == EMPTY) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+
+        int slot = getSlot(value);
+        int current;
+        while ((current = values[slot]) != EMPTY) {
+            if (current == value) return false;
+            slot = (slot + 1) & mask;
+        }
+
+        values[slot] = value;
+        size++;
+        if (size > threshold) {
+            resize(values.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the set contains a given value.
+     * 
+     * @param value The value to check.
+     * @return true if the value is present, otherwise false.
+     */
+    public boolean contains(int value) {
+        if (value == EMPTY) return hasZero;
+        return findSlot(value) >= 0;
+    }
+
+    /**
+     * Removes a value from the set.
+     * Following values of the probe sequence are shifted back so no tombstones are needed.
+     * 
+     * @param value The value to remove.
+     * @return true if the value was present and removed, otherwise false.
+     */
+    public boolean remove(int value) {
+        if (value == EMPTY) {
+            if (!hasZero) return false;
+            hasZero = false;
+            size--;
+            return true;
+        }
+
+        int hole = findSlot(value);
+        if (hole < 0) return false;
+
+        int slot = (hole + 1) & mask;
+        int current;
+        while ((current = values[slot]) != EMPTY) {
+            int home = getSlot(current);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                values[hole] = current;
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        values[hole] = EMPTY;
+        size--;
+        return true;
+    }
+
+    /**
+     * Grows the table, if needed, so the set can hold the given number of values without resizing.
+     * 
+     * @param expectedSize The number of values the set is expected to hold.
+     */
+    public void ensureCapacity(int expectedSize) {
+        int needed = capacityFor(expectedSize);
+        if (needed > values.length) resize(needed);
+    }
+
+    /**
+     * Removes all values from the set, keeping the current capacity.
+     */
+    public void clear() {
+        for (int i = 0; i < values.length; i++) values[i] = EMPTY;
+        hasZero = false;
+        size = 0;
+    }
+
+    /**
+     * Copies the values of the set into a new array, in table order.
+     * 
+     * @return An array holding every value of the set.
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int index = 0;
+        if (hasZero) result[index++] = EMPTY;
+        for (int value : values) {
+            if (value != EMPTY) result[index++] = value;
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the memory used by the set, which is its value array plus the set object.
+     * Every empty slot counts as slack.
+     * 
+     * @return The estimated Footprint of the set.
+     */
+    @Override
+    public Footprint footprint() {
+        long slackBytes = (long) (values.length - (size - (hasZero ? 1 : 0))) * Integer.BYTES;
+        return new Footprint(Footprint.arrayBytes(values.length, Integer.BYTES), Footprint.objectBytes(1, Integer.BYTES * 3 + 1), slackBytes);
+    }
+
+    /**
+     * Returns the number of values currently stored in the set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the set contains no values, otherwise false.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the total number of slots in the table.
+     */
+    public int getCapacity() {
+        return values.length;
+    }
+
+    /**
+     * Computes the power of two capacity that holds a number of values within the maximum load factor.
+     * 
+     * @param expectedSize The number of values to hold.
+     * @return The number of slots.
+     */
+    private static int capacityFor(int expectedSize) {
+        return Hashing.tableSizeFor((int) Math.ceil(expectedSize / MAX_LOAD_FACTOR) + 1);
+    }
+
+    /**
+     * Allocates an empty value array with the given power of two capacity.
+     * 
+     * @param capacity The number of slots to allocate.
+     */
+    private void allocate(int capacity) {
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Moves every value into a new table with the given number of slots.
+     * 
+     * @param capacity The new power of two capacity.
+     */
+    private void resize(int capacity) {
+        int[] oldValues = values;
+        allocate(capacity);
+
+        for (int value : oldValues) {
+            if (value == EMPTY) continue;
+            int slot = getSlot(value);
+            while (values[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            values[slot] = value;
+        }
+    }
+
+    /**
+     * Returns a CustomIntIterator over the values in the set, starting with 0 if present.
+     * 
+     * @return CustomIntIterator for iterating over the sets values without boxing.
+     */
+    public CustomIntIterator iterator() {
+        return new IntHashSetIterator();
+    }
+
+    /**
+     * Private inner class that iterates over the zero flag and then the full slots of the table.
+     */
+    private class IntHashSetIterator implements CustomIntIterator {
+        private boolean zeroPending = hasZero;
+        private int next = advance(0);
+
+        /**
+         * Finds the first full slot at or after an index.
+         * 
+         * @param from The index to start from.
+         * @return The index of the next full slot, or the capacity if there is none.
+         */
+        private int advance(int from) {
+            while (from < values.length && values[from] == EMPTY) from++;
+            return from;
+        }
+
+        /**
+         * Returns true if there are more values to iterate over, otherwise false.
+         */
+        @Override
+        public boolean hasNext() {
+            return zeroPending || next < values.length;
+        }
+
+        /**
+         * Returns the next value in the iteration.
+         * 
+         * @return The next value.
+         * @throws NoSuchElementException if there are no more values.
+         */
+        @Override
+        public int nextInt() {
+            if (zeroPending) {
+                zeroPending = false;
+                return EMPTY;
+            }
+            if (next >= values.length) throw new NoSuchElementException("No more elements in iterator!");
+            int value = values[next];
+            next = advance(next + 1);
+            return value;
+        }
+    }
+
+}
@@ -0,0 +1,1151 @@
+package com.brendanddev.collections.set;
+
+import java.util.NoSuchElementException;
+
+import com.brendanddev.collections.core.CustomIntIterator;
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.MemoryFootprint;
+
+/**
+ * A compressed bitmap set of int values in the style of a Roaring bitmap.
+ * 
+ * Every value is split into a 16 bit high key and a 16 bit low part. Values that share a high key
+ * are kept together in one container covering a chunk of 65536 values, and the containers are kept
+ * in an array sorted by key. Each container picks the cheapest of three representations:
+ * - a sorted char array, for chunks holding at most ARRAY_MAX_SIZE values (2 bytes per value)
+ * - a bitmap of 1024 longs, for denser chunks (always 8 KB)
+ * - sorted runs of consecutive values, for chunks made of long stretches (4 bytes per run)
+ * Array and bitmap containers convert into each other as values are added and removed, and runOptimize
+ * turns any container that is cheaper as runs into a run container.
+ * 
+ * Set algebra works container by container, so chunks present in only one operand are copied or
+ * skipped without looking at their values. Matching bitmap chunks are combined 64 values per
+ * instruction, and array chunks are merged or probed, so and, or, andNot and xor take time
+ * proportional to the compressed size of the sets rather than to the number of values.
+ * 
+ * Time Complexity
+ * Insert/Remove: O(log c + k) where c is the number of containers and k the size of an array container
+ * Search: O(log c + log k)
+ * And/Or/AndNot/Xor: O(c + compressed size of both operands)
+ * Cardinality: O(c)
+ * Rank/Select: O(c + size of one container)
+ * 
+ * Note: Values are ordered as unsigned ints, so iteration, rank and select place negative values after
+ * all non negative ones.
+ */
+public class RoaringBitmap implements MemoryFootprint {
+
+    /** The largest number of values an array container holds before it turns into a bitmap. */
+    public static final int ARRAY_MAX_SIZE = 4096;
+
+    private static final int BITMAP_WORDS = 1024;
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size = 0;
+
+    /**
+     * Constructs an empty RoaringBitmap.
+     */
+    public RoaringBitmap() {
+        keys = new char[DEFAULT_CAPACITY];
+        containers = new Container[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Constructs a RoaringBitmap that takes ownership of the given containers.
+     * 
+     * @param keys The sorted high keys of the containers.
+     * @param containers The non empty containers, one per key.
+     * @param size The number of containers in use.
+     */
+    private RoaringBitmap(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    /**
+     * Creates a RoaringBitmap holding the given values.
+     * 
+     * @param values The values to add.
+     * @return A new RoaringBitmap holding every value.
+     */
+    public static RoaringBitmap of(int... values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value : values) bitmap.add(value);
+        return bitmap;
+    }
+
+    /**
+     * Adds a value to the set if not already present.
+     * 
+     * @param value The value to add.
+     * @return true if the value was added, otherwise false.
+     */
+    public boolean add(int value) {
+        char high = (char) (value >>> 16);
+        int index = search(keys, size, high);
+        if (index < 0) {
+            ArrayContainer container = new ArrayContainer(DEFAULT_CAPACITY);
+            container.add((char) value);
+            insertContainer(-index - 1, high, container);
+            return true;
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        containers[index] = container.add((char) value);
+        return containers[index].cardinality() > before;
+    }
+
+    /**
+     * Removes a value from the set. A container left empty is dropped.
+     * 
+     * @param value The value to remove.
+     * @return true if the value was present and removed, otherwise false.
+     */
+    public boolean remove(int value) {
+        int index = search(keys, size, (char) (value >>> 16));
+        if (index < 0) return false;
+        Container container = containers[index];
+        int before = container.cardinality();
+        Container updated = container.remove((char) value);
+        if (updated.cardinality() == before) return false;
+        if (updated.cardinality() == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        } else {
+            containers[index] = updated;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the set contains a given value.
+     * 
+     * @param value The value to check.
+     * @return true if the value is present, otherwise false.
+     */
+    public boolean contains(int value) {
+        int index = search(keys, size, (char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * Returns the number of values in the set, which can exceed the int range.
+     */
+    public long getCardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) cardinality += containers[i].cardinality();
+        return cardinality;
+    }
+
+    /**
+     * Returns true if the set contains no values, otherwise false.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Counts the values in the set that are less than or equal to a given value, in unsigned order.
+     * 
+     * @param value The value to rank.
+     * @return The number of values in the set that are at most value.
+     */
+    public long rank(int value) {
+        char high = (char) (value >>> 16);
+        long rank = 0;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] < high) {
+                rank += containers[i].cardinality();
+            } else {
+                if (keys[i] == high) rank += containers[i].rank((char) value);
+                break;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the value at a position of the set in unsigned order, so select(rank(x) - 1) == x for any x in the set.
+     * 
+     * @param index The zero based position of the value.
+     * @return The value at that position.
+     * @throws IndexOutOfBoundsException if the index is negative or not less than the cardinality.
+     */
+    public int select(long index) {
+        if (index >= 0) {
+            long remaining = index;
+            for (int i = 0; i < size; i++) {
+                int cardinality = containers[i].cardinality();
+                if (remaining < cardinality) return keys[i] << 16 | containers[i].select((int) remaining);
+                remaining -= cardinality;
+            }
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getCardinality());
+    }
+
+    /**
+     * Computes the intersection of this set and another.
+     * 
+     * @param other The other set.
+     * @return A new RoaringBitmap holding the values present in both sets.
+     */
+    public RoaringBitmap and(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap(new char[Math.min(size, other.size)], new Container[Math.min(size, other.size)], 0);
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], Container.and(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the union of this set and another.
+     * 
+     * @param other The other set.
+     * @return A new RoaringBitmap holding the values present in either set.
+     */
+    public RoaringBitmap or(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap(new char[size + other.size], new Container[size + other.size], 0);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.appendIfNotEmpty(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], Container.or(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the difference of this set and another.
+     * 
+     * @param other The set of values to leave out.
+     * @return A new RoaringBitmap holding the values of this set that are not in the other.
+     */
+    public RoaringBitmap andNot(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap(new char[size], new Container[size], 0);
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) j++;
+            if (j < other.size && other.keys[j] == keys[i]) {
+                result.appendIfNotEmpty(keys[i], Container.andNot(containers[i], other.containers[j]));
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the symmetric difference of this set and another.
+     * 
+     * @param other The other set.
+     * @return A new RoaringBitmap holding the values present in exactly one of the sets.
+     */
+    public RoaringBitmap xor(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap(new char[size + other.size], new Container[size + other.size], 0);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.appendIfNotEmpty(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], Container.xor(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converts every container that is smaller as a list of runs into a run container.
+     * 
+     * @return true if any container was converted, otherwise false.
+     */
+    public boolean runOptimize() {
+        boolean changed = false;
+        for (int i = 0; i < size; i++) {
+            Container optimized = containers[i].runOptimize();
+            changed |= optimized != containers[i];
+            containers[i] = optimized;
+        }
+        return changed;
+    }
+
+    /**
+     * Removes all values from the set.
+     */
+    public void clear() {
+        keys = new char[DEFAULT_CAPACITY];
+        containers = new Container[DEFAULT_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Copies the values of the set into a new array, in unsigned order.
+     * 
+     * @return An array holding every value of the set.
+     * @throws IllegalStateException if the set holds more values than an array can.
+     */
+    public int[] toArray() {
+        long cardinality = getCardinality();
+        if (cardinality > Integer.MAX_VALUE - 8) throw new IllegalStateException("Too many values for an array");
+        int[] result = new int[(int) cardinality];
+        int index = 0;
+        CustomIntIterator iterator = iterator();
+        while (iterator.hasNext()) result[index++] = iterator.nextInt();
+        return result;
+    }
+
+    /**
+     * Estimates the memory used by the set, which is its key and container arrays plus every container.
+     * Unused slots of the top level arrays and of array and run containers count as slack.
+     * 
+     * @return The estimated Footprint of the set.
+     */
+    @Override
+    public Footprint footprint() {
+        long arrayBytes = Footprint.arrayBytes(keys.length, Character.BYTES) + Footprint.arrayBytes(containers.length, Footprint.REFERENCE_BYTES);
+        long slackBytes = (long) (keys.length - size) * (Character.BYTES + Footprint.REFERENCE_BYTES);
+        Footprint footprint = new Footprint(arrayBytes, Footprint.objectBytes(2, Integer.BYTES), slackBytes);
+        for (int i = 0; i < size; i++) footprint = footprint.plus(containers[i].footprint());
+        return footprint;
+    }
+
+    /**
+     * Returns the number of containers, one per distinct high 16 bits among the values.
+     */
+    public int getNumberOfContainers() {
+        return size;
+    }
+
+    /**
+     * Returns the number of containers of each kind.
+     * 
+     * @return An array holding the number of array, bitmap and run containers, in that order.
+     */
+    public int[] getContainerCounts() {
+        int[] counts = new int[3];
+        for (int i = 0; i < size; i++) {
+            if (containers[i] instanceof ArrayContainer) counts[0]++;
+            else if (containers[i] instanceof BitmapContainer) counts[1]++;
+            else counts[2]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Returns a CustomIntIterator over the values in the set, in unsigned order.
+     * 
+     * @return CustomIntIterator for iterating over the sets values without boxing.
+     */
+    public CustomIntIterator iterator() {
+        return new RoaringIterator();
+    }
+
+    /**
+     * Helper to insert a container at a position of the sorted container array, growing it if needed.
+     * 
+     * @param index The position to insert at.
+     * @param key The high key of the container.
+     * @param container The container to insert.
+     */
+    private void insertContainer(int index, char key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(size * 2, DEFAULT_CAPACITY);
+            char[] grownKeys = new char[capacity];
+            Container[] grownContainers = new Container[capacity];
+            System.arraycopy(keys, 0, grownKeys, 0, size);
+            System.arraycopy(containers, 0, grownContainers, 0, size);
+            keys = grownKeys;
+            containers = grownContainers;
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    /**
+     * Helper used by the set algebra to append a result container, which is dropped when empty.
+     * The result arrays are sized for the largest possible output up front.
+     * 
+     * @param key The high key of the container, greater than every key appended before.
+     * @param container The container to append.
+     */
+    private void appendIfNotEmpty(char key, Container container) {
+        if (container.cardinality() == 0) return;
+        keys[size] = key;
+        containers[size] = container;
+        size++;
+    }
+
+    /**
+     * Binary searches the first size chars of a sorted array.
+     * 
+     * @param array The sorted array to search.
+     * @param size The number of chars in use.
+     * @param key The char to search for.
+     * @return The index of the key, or -(insertion point) - 1 if it is not present.
+     */
+    private static int search(char[] array, int size, char key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char current = array[mid];
+            if (current < key) low = mid + 1;
+            else if (current > key) high = mid - 1;
+            else return mid;
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Private inner class that walks the containers in key order and the values of each container in order.
+     */
+    private class RoaringIterator implements CustomIntIterator {
+        private int containerIndex = 0;
+        private int nextLow = size > 0 ? containers[0].nextValue(0) : -1;
+
+        /**
+         * Returns true if there are more values to iterate over, otherwise false.
+         */
+        @Override
+        public boolean hasNext() {
+            return nextLow >= 0;
+        }
+
+        /**
+         * Returns the next value in the iteration.
+         * 
+         * @return The next value.
+         * @throws NoSuchElementException if there are no more values.
+         */
+        @Override
+        public int nextInt() {
+            if (nextLow < 0) throw new NoSuchElementException("No more elements in iterator!");
+            int value = keys[containerIndex] << 16 | nextLow;
+            nextLow = nextLow < 0xFFFF ? containers[containerIndex].nextValue(nextLow + 1) : -1;
+            // Containers are never empty, so the next one always starts with a value
+            if (nextLow < 0 && ++containerIndex < size) nextLow = containers[containerIndex].nextValue(0);
+            return value;
+        }
+    }
+
+    /**
+     * The values of one 65536 value chunk, stored by their low 16 bits.
+     * Mutating operations return the container that now holds the chunk, which may be a
+     * container of another kind when the chunk crossed a size threshold.
+     */
+    private abstract static class Container {
+
+        /**
+         * Returns true if the container holds the given low 16 bits.
+         */
+        abstract boolean contains(char value);
+
+        /**
+         * Adds a value, returning the container that now holds the chunk.
+         */
+        abstract Container add(char value);
+
+        /**
+         * Removes a value, returning the container that now holds the chunk.
+         */
+        abstract Container remove(char value);
+
+        /**
+         * Returns the number of values in the container.
+         */
+        abstract int cardinality();
+
+        /**
+         * Counts the values in the container that are less than or equal to a given value.
+         */
+        abstract int rank(char value);
+
+        /**
+         * Returns the value at a zero based position, which must be less than the cardinality.
+         */
+        abstract int select(int index);
+
+        /**
+         * Returns the smallest value in the container that is at least from, or -1 if there is none.
+         */
+        abstract int nextValue(int from);
+
+        /**
+         * Returns a bitmap of the values as 1024 words, always a fresh array the caller may modify.
+         */
+        abstract long[] toWords();
+
+        /**
+         * Sets the bits of the values of this container in a 1024 word bitmap.
+         */
+        abstract void orInto(long[] words);
+
+        /**
+         * Clears the bits of the values of this container in a 1024 word bitmap.
+         */
+        abstract void andNotInto(long[] words);
+
+        /**
+         * Flips the bits of the values of this container in a 1024 word bitmap.
+         */
+        abstract void xorInto(long[] words);
+
+        /**
+         * Clears the bits of a 1024 word bitmap for every value that is not in this container.
+         */
+        void andInto(long[] words) {
+            long[] mine = toWords();
+            for (int i = 0; i < BITMAP_WORDS; i++) words[i] &= mine[i];
+        }
+
+        /**
+         * Returns an independent copy of the container.
+         */
+        abstract Container copy();
+
+        /**
+         * Estimates the memory used by the container object and its array.
+         */
+        abstract Footprint footprint();
+
+        /**
+         * Counts the runs of consecutive values in the container.
+         */
+        abstract int numberOfRuns();
+
+        /**
+         * Returns the number of bytes the values take in this representation.
+         */
+        abstract int serializedBytes();
+
+        /**
+         * Returns a run container holding the same values if that is smaller, otherwise this container.
+         */
+        Container runOptimize() {
+            int runs = numberOfRuns();
+            if (RunContainer.serializedBytes(runs) >= serializedBytes()) return this;
+            RunContainer result = new RunContainer(runs);
+            for (int start = nextValue(0); start >= 0; ) {
+                int end = start;
+                int next;
+                while (end < 0xFFFF && (next = nextValue(end + 1)) == end + 1) end = next;
+                result.appendRun(start, end);
+                start = end < 0xFFFF ? nextValue(end + 1) : -1;
+            }
+            return result;
+        }
+
+        /**
+         * Builds the smallest array or bitmap container holding the set bits of a 1024 word bitmap.
+         * 
+         * @param words The bitmap, owned by the result if it becomes a bitmap container.
+         * @return The container holding the values.
+         */
+        static Container fromWords(long[] words) {
+            int cardinality = 0;
+            for (long word : words) cardinality += Long.bitCount(word);
+            if (cardinality > ARRAY_MAX_SIZE) return new BitmapContainer(words, cardinality);
+
+            ArrayContainer array = new ArrayContainer(cardinality);
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    array.values[array.size++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+                }
+            }
+            return array;
+        }
+
+        /**
+         * Intersects two containers. Array containers are probed against the other operand.
+         */
+        static Container and(Container a, Container b) {
+            if (a instanceof ArrayContainer) return ((ArrayContainer) a).filter(b, true);
+            if (b instanceof ArrayContainer) return ((ArrayContainer) b).filter(a, true);
+            long[] words = a.toWords();
+            b.andInto(words);
+            return fromWords(words);
+        }
+
+        /**
+         * Unites two containers. Small array containers are merged without building a bitmap.
+         */
+        static Container or(Container a, Container b) {
+            if (a instanceof ArrayContainer && b instanceof ArrayContainer && a.cardinality() + b.cardinality() <= ARRAY_MAX_SIZE) {
+                return ArrayContainer.merge((ArrayContainer) a, (ArrayContainer) b, false);
+            }
+            long[] words = a.toWords();
+            b.orInto(words);
+            return fromWords(words);
+        }
+
+        /**
+         * Removes the values of one container from another. Array containers are probed against the other operand.
+         */
+        static Container andNot(Container a, Container b) {
+            if (a instanceof ArrayContainer) return ((ArrayContainer) a).filter(b, false);
+            long[] words = a.toWords();
+            b.andNotInto(words);
+            return fromWords(words);
+        }
+
+        /**
+         * Computes the symmetric difference of two containers. Small array containers are merged without building a bitmap.
+         */
+        static Container xor(Container a, Container b) {
+            if (a instanceof ArrayContainer && b instanceof ArrayContainer && a.cardinality() + b.cardinality() <= ARRAY_MAX_SIZE) {
+                return ArrayContainer.merge((ArrayContainer) a, (ArrayContainer) b, true);
+            }
+            long[] words = a.toWords();
+            b.xorInto(words);
+            return fromWords(words);
+        }
+
+        /**
+         * Sets, clears or flips the bits of a range of values in a 1024 word bitmap.
+         * 
+         * @param words The bitmap to modify.
+         * @param start The first value of the range.
+         * @param end The last value of the range, inclusive.
+         * @param operation 0 to set, 1 to clear, 2 to flip.
+         */
+        static void applyRange(long[] words, int start, int end, int operation) {
+            int first = start >>> 6;
+            int last = end >>> 6;
+            for (int i = first; i <= last; i++) {
+                long mask = -1L;
+                if (i == first) mask &= -1L << start;
+                if (i == last) mask &= -1L >>> (63 - (end & 63));
+                if (operation == 0) words[i] |= mask;
+                else if (operation == 1) words[i] &= ~mask;
+                else words[i] ^= mask;
+            }
+        }
+    }
+
+    /**
+     * A container holding up to ARRAY_MAX_SIZE values in a sorted char array.
+     */
+    private static final class ArrayContainer extends Container {
+        char[] values;
+        int size;
+
+        ArrayContainer(int capacity) {
+            values = new char[capacity];
+        }
+
+        @Override
+        boolean contains(char value) {
+            return search(values, size, value) >= 0;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = search(values, size, value);
+            if (index >= 0) return this;
+            if (size == ARRAY_MAX_SIZE) {
+                long[] words = toWords();
+                words[value >>> 6] |= 1L << value;
+                return new BitmapContainer(words, size + 1);
+            }
+            index = -index - 1;
+            if (size == values.length) {
+                char[] grown = new char[Math.min(Math.max(size * 2, DEFAULT_CAPACITY), ARRAY_MAX_SIZE)];
+                System.arraycopy(values, 0, grown, 0, size);
+                values = grown;
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = search(values, size, value);
+            if (index < 0) return this;
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        int rank(char value) {
+            int index = search(values, size, value);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        @Override
+        int select(int index) {
+            return values[index];
+        }
+
+        @Override
+        int nextValue(int from) {
+            int index = search(values, size, (char) from);
+            if (index < 0) index = -index - 1;
+            return index < size ? values[index] : -1;
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[BITMAP_WORDS];
+            orInto(words);
+            return words;
+        }
+
+        @Override
+        void orInto(long[] words) {
+            for (int i = 0; i < size; i++) words[values[i] >>> 6] |= 1L << values[i];
+        }
+
+        @Override
+        void andNotInto(long[] words) {
+            for (int i = 0; i < size; i++) words[values[i] >>> 6] &= ~(1L << values[i]);
+        }
+
+        @Override
+        void xorInto(long[] words) {
+            for (int i = 0; i < size; i++) words[values[i] >>> 6] ^= 1L << values[i];
+        }
+
+        /**
+         * Keeps the values that are, or are not, contained in another container.
+         * 
+         * @param other The container to probe.
+         * @param keepContained true to keep values found in other, false to keep values missing from it.
+         * @return A new array container with the kept values.
+         */
+        ArrayContainer filter(Container other, boolean keepContained) {
+            ArrayContainer result = new ArrayContainer(size);
+            for (int i = 0; i < size; i++) {
+                if (other.contains(values[i]) == keepContained) result.values[result.size++] = values[i];
+            }
+            return result;
+        }
+
+        /**
+         * Merges two sorted array containers into their union, or their symmetric difference.
+         * 
+         * @param a The first container.
+         * @param b The second container.
+         * @param exclusive true to drop values present in both, false to keep them once.
+         * @return A new array container with the merged values.
+         */
+        static ArrayContainer merge(ArrayContainer a, ArrayContainer b, boolean exclusive) {
+            ArrayContainer result = new ArrayContainer(a.size + b.size);
+            int i = 0;
+            int j = 0;
+            while (i < a.size && j < b.size) {
+                char x = a.values[i];
+                char y = b.values[j];
+                if (x < y) {
+                    result.values[result.size++] = x;
+                    i++;
+                } else if (x > y) {
+                    result.values[result.size++] = y;
+                    j++;
+                } else {
+                    if (!exclusive) result.values[result.size++] = x;
+                    i++;
+                    j++;
+                }
+            }
+            while (i < a.size) result.values[result.size++] = a.values[i++];
+            while (j < b.size) result.values[result.size++] = b.values[j++];
+            return result;
+        }
+
+        @Override
+        Container copy() {
+            ArrayContainer copy = new ArrayContainer(size);
+            System.arraycopy(values, 0, copy.values, 0, size);
+            copy.size = size;
+            return copy;
+        }
+
+        @Override
+        Footprint footprint() {
+            return new Footprint(Footprint.arrayBytes(values.length, Character.BYTES), Footprint.objectBytes(1, Integer.BYTES),
+                    (long) (values.length - size) * Character.BYTES);
+        }
+
+        @Override
+        int numberOfRuns() {
+            int runs = size > 0 ? 1 : 0;
+            for (int i = 1; i < size; i++) {
+                if (values[i] != values[i - 1] + 1) runs++;
+            }
+            return runs;
+        }
+
+        @Override
+        int serializedBytes() {
+            return size * Character.BYTES;
+        }
+    }
+
+    /**
+     * A container holding more than ARRAY_MAX_SIZE values as one bit per possible value.
+     */
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+        int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) return this;
+            words[value >>> 6] &= ~bit;
+            cardinality--;
+            // Back to an array once the values fit in fewer bytes than the bitmap
+            return cardinality <= ARRAY_MAX_SIZE ? fromWords(words) : this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int rank(char value) {
+            int word = value >>> 6;
+            int rank = 0;
+            for (int i = 0; i < word; i++) rank += Long.bitCount(words[i]);
+            return rank + Long.bitCount(words[word] & (-1L >>> (63 - (value & 63))));
+        }
+
+        @Override
+        int select(int index) {
+            int remaining = index;
+            for (int i = 0; ; i++) {
+                int count = Long.bitCount(words[i]);
+                if (remaining < count) {
+                    long word = words[i];
+                    for (int k = 0; k < remaining; k++) word &= word - 1;
+                    return i << 6 | Long.numberOfTrailingZeros(word);
+                }
+                remaining -= count;
+            }
+        }
+
+        @Override
+        int nextValue(int from) {
+            int i = from >>> 6;
+            long word = words[i] & (-1L << from);
+            while (word == 0) {
+                if (++i == BITMAP_WORDS) return -1;
+                word = words[i];
+            }
+            return i << 6 | Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        long[] toWords() {
+            return words.clone();
+        }
+
+        @Override
+        void orInto(long[] target) {
+            for (int i = 0; i < BITMAP_WORDS; i++) target[i] |= words[i];
+        }
+
+        @Override
+        void andInto(long[] target) {
+            for (int i = 0; i < BITMAP_WORDS; i++) target[i] &= words[i];
+        }
+
+        @Override
+        void andNotInto(long[] target) {
+            for (int i = 0; i < BITMAP_WORDS; i++) target[i] &= ~words[i];
+        }
+
+        @Override
+        void xorInto(long[] target) {
+            for (int i = 0; i < BITMAP_WORDS; i++) target[i] ^= words[i];
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        Footprint footprint() {
+            return new Footprint(Footprint.arrayBytes(BITMAP_WORDS, Long.BYTES), Footprint.objectBytes(1, Integer.BYTES), 0);
+        }
+
+        @Override
+        int numberOfRuns() {
+            // A run starts at every set bit whose lower neighbour is clear
+            int runs = 0;
+            long previous = 0;
+            for (long word : words) {
+                runs += Long.bitCount(word & ~(word << 1 | previous >>> 63));
+                previous = word;
+            }
+            return runs;
+        }
+
+        @Override
+        int serializedBytes() {
+            return BITMAP_WORDS * Long.BYTES;
+        }
+    }
+
+    /**
+     * A container holding its values as sorted, non touching runs of consecutive values.
+     * Runs are stored as pairs of their first value and their length minus one. Adding or removing a
+     * value at either end of a run, which extends, shrinks, merges or drops runs, updates them in place.
+     * Only a value that splits a run or creates a new one converts the container back to an array or bitmap.
+     */
+    private static final class RunContainer extends Container {
+        char[] runs;
+        int numberOfRuns;
+        int cardinality;
+
+        RunContainer(int capacity) {
+            runs = new char[capacity * 2];
+        }
+
+        /**
+         * Appends a run after every run appended before.
+         * 
+         * @param start The first value of the run.
+         * @param end The last value of the run, inclusive.
+         */
+        void appendRun(int start, int end) {
+            runs[2 * numberOfRuns] = (char) start;
+            runs[2 * numberOfRuns + 1] = (char) (end - start);
+            numberOfRuns++;
+            cardinality += end - start + 1;
+        }
+
+        /**
+         * Finds the last run starting at or before a value.
+         * 
+         * @param value The value to locate.
+         * @return The index of the run, or -1 if every run starts after the value.
+         */
+        int findRun(int value) {
+            int low = 0;
+            int high = numberOfRuns - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (runs[2 * mid] <= value) low = mid + 1;
+                else high = mid - 1;
+            }
+            return high;
+        }
+
+        @Override
+        boolean contains(char value) {
+            int run = findRun(value);
+            return run >= 0 && value <= runs[2 * run] + runs[2 * run + 1];
+        }
+
+        @Override
+        Container add(char value) {
+            if (contains(value)) return this;
+            int run = findRun(value);
+            boolean extendsPrevious = run >= 0 && value == runs[2 * run] + runs[2 * run + 1] + 1;
+            boolean extendsNext = run + 1 < numberOfRuns && value + 1 == runs[2 * (run + 1)];
+
+            if (extendsPrevious && extendsNext) {
+                // The value fills the gap between two runs, which merge into the first
+                runs[2 * run + 1] += runs[2 * (run + 1) + 1] + 2;
+                removeRun(run + 1);
+            } else if (extendsPrevious) {
+                runs[2 * run + 1]++;
+            } else if (extendsNext) {
+                runs[2 * (run + 1)]--;
+                runs[2 * (run + 1) + 1]++;
+            } else {
+                return fromWords(toWords()).add(value);
+            }
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            if (!contains(value)) return this;
+            int run = findRun(value);
+            int start = runs[2 * run];
+            int end = start + runs[2 * run + 1];
+
+            if (start == end) {
+                removeRun(run);
+            } else if (value == start) {
+                runs[2 * run]++;
+                runs[2 * run + 1]--;
+            } else if (value == end) {
+                runs[2 * run + 1]--;
+            } else {
+                return fromWords(toWords()).remove(value);
+            }
+            cardinality--;
+            return this;
+        }
+
+        /**
+         * Removes a run, shifting the following runs down.
+         * 
+         * @param run The index of the run to remove.
+         */
+        private void removeRun(int run) {
+            System.arraycopy(runs, 2 * (run + 1), runs, 2 * run, 2 * (numberOfRuns - run - 1));
+            numberOfRuns--;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int rank(char value) {
+            int rank = 0;
+            for (int i = 0; i < numberOfRuns; i++) {
+                int start = runs[2 * i];
+                if (start > value) break;
+                rank += Math.min(value, start + runs[2 * i + 1]) - start + 1;
+            }
+            return rank;
+        }
+
+        @Override
+        int select(int index) {
+            int remaining = index;
+            for (int i = 0; ; i++) {
+                int length = runs[2 * i + 1] + 1;
+                if (remaining < length) return runs[2 * i] + remaining;
+                remaining -= length;
+            }
+        }
+
+        @Override
+        int nextValue(int from) {
+            int run = findRun(from);
+            if (run >= 0 && from <= runs[2 * run] + runs[2 * run + 1]) return from;
+            return run + 1 < numberOfRuns ? runs[2 * (run + 1)] : -1;
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[BITMAP_WORDS];
+            orInto(words);
+            return words;
+        }
+
+        @Override
+        void orInto(long[] words) {
+            for (int i = 0; i < numberOfRuns; i++) applyRange(words, runs[2 * i], runs[2 * i] + runs[2 * i + 1], 0);
+        }
+
+        @Override
+        void andNotInto(long[] words) {
+            for (int i = 0; i < numberOfRuns; i++) applyRange(words, runs[2 * i], runs[2 * i] + runs[2 * i + 1], 1);
+        }
+
+        @Override
+        void xorInto(long[] words) {
+            for (int i = 0; i < numberOfRuns; i++) applyRange(words, runs[2 * i], runs[2 * i] + runs[2 * i + 1], 2);
+        }
+
+        @Override
+        Container copy() {
+            RunContainer copy = new RunContainer(numberOfRuns);
+            System.arraycopy(runs, 0, copy.runs, 0, 2 * numberOfRuns);
+            copy.numberOfRuns = numberOfRuns;
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        @Override
+        Footprint footprint() {
+            return new Footprint(Footprint.arrayBytes(runs.length, Character.BYTES), Footprint.objectBytes(1, Integer.BYTES * 2),
+                    (long) (runs.length - 2 * numberOfRuns) * Character.BYTES);
+        }
+
+        @Override
+        int numberOfRuns() {
+            return numberOfRuns;
+        }
+
+        @Override
+        int serializedBytes() {
+            return serializedBytes(numberOfRuns);
+        }
+
+        @Override
+        Container runOptimize() {
+            return this;
+        }
+
+        /**
+         * Returns the number of bytes a run container with the given number of runs takes.
+         */
+        static int serializedBytes(int runs) {
+            return Character.BYTES + runs * 2 * Character.BYTES;
+        }
+    }
+
+}
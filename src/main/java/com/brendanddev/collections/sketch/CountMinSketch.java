@@ -0,0 +1,287 @@
+package com.brendanddev.collections.sketch;
+
+import com.brendanddev.collections.core.CustomIntIterator;
+import com.brendanddev.collections.core.CustomIterator;
+import com.brendanddev.collections.core.CustomLongIterator;
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.Hashing;
+import com.brendanddev.collections.core.MemoryFootprint;
+
+/**
+ * A count-min sketch, estimating how often each value occurs in a stream in a fixed amount of memory.
+ * 
+ * The sketch is a table of d rows of w counters. Every value maps to one counter per row, through
+ * d hash functions derived from one 64 bit hash. Adding a value raises its counters, and the estimated
+ * count of a value is the smallest of its counters. Other values sharing a counter can only push it up,
+ * so the estimate never undercounts. With w = ceil(e / epsilon) and d = ceil(ln(1 / delta)), the estimate
+ * exceeds the true count by more than epsilon times the total count with probability at most delta.
+ * 
+ * With conservative update, an addition raises each counter only as far as the new estimate of the
+ * value requires, leaving counters that are already higher alone. Estimates stay upper bounds, but
+ * heavy values inflate the counters of light values far less, which cuts the overestimate considerably.
+ * Conservative update needs non negative counts and is on by default.
+ * 
+ * Time Complexity
+ * Add: O(d)
+ * Estimate: O(d)
+ * Merge: O(d * w)
+ * 
+ * Note: Objects are hashed through their 32 bit hashCode, so objects with equal hash codes share their
+ *       counts. addInt(x) and add(Integer.valueOf(x)) count the same value, but addLong and add(Long) do not.
+ */
+public class CountMinSketch<T> implements MemoryFootprint {
+
+    private final long[] counters;
+    private final int depth;
+    private final int width;
+    private final boolean conservative;
+    private long totalCount = 0;
+
+    /**
+     * Constructs an empty CountMinSketch with conservative update.
+     * 
+     * @param epsilon The error bound, as a fraction of the total count.
+     * @param delta The probability of an estimate exceeding the error bound.
+     * @throws IllegalArgumentException if epsilon or delta is not strictly between 0 and 1.
+     */
+    public CountMinSketch(double epsilon, double delta) {
+        this(epsilon, delta, true);
+    }
+
+    /**
+     * Constructs an empty CountMinSketch.
+     * 
+     * @param epsilon The error bound, as a fraction of the total count.
+     * @param delta The probability of an estimate exceeding the error bound.
+     * @param conservative true to raise counters only as far as needed on each addition.
+     * @throws IllegalArgumentException if epsilon or delta is not strictly between 0 and 1, or the table is too large.
+     */
+    public CountMinSketch(double epsilon, double delta, boolean conservative) {
+        if (!(epsilon > 0 && epsilon < 1)) throw new IllegalArgumentException("Epsilon must be between 0 and 1");
+        if (!(delta > 0 && delta < 1)) throw new IllegalArgumentException("Delta must be between 0 and 1");
+        long w = (long) Math.ceil(Math.E / epsilon);
+        int d = Math.max(1, (int) Math.ceil(Math.log(1 / delta)));
+        if (w * d > Hashing.MAX_CAPACITY) throw new IllegalArgumentException("Sketch would need more than 2^30 counters");
+
+        this.width = (int) w;
+        this.depth = d;
+        this.conservative = conservative;
+        this.counters = new long[width * depth];
+    }
+
+    /**
+     * Adds one occurrence of an object.
+     * 
+     * @param element The object to count.
+     * @throws IllegalArgumentException if the element is null.
+     */
+    public void add(T element) {
+        add(element, 1);
+    }
+
+    /**
+     * Adds a number of occurrences of an object.
+     * 
+     * @param element The object to count.
+     * @param count The number of occurrences to add.
+     * @throws IllegalArgumentException if the element is null or the count is negative.
+     */
+    public void add(T element, long count) {
+        if (element == null) throw new IllegalArgumentException("Null elements not allowed");
+        addHash(Hashing.spread((long) element.hashCode()), count);
+    }
+
+    /**
+     * Adds one occurrence of a primitive int value.
+     * 
+     * @param value The value to count.
+     */
+    public void addInt(int value) {
+        addHash(Hashing.spread((long) value), 1);
+    }
+
+    /**
+     * Adds one occurrence of a primitive long value, hashing all 64 bits.
+     * 
+     * @param value The value to count.
+     */
+    public void addLong(long value) {
+        addHash(Hashing.spread(value), 1);
+    }
+
+    /**
+     * Adds one occurrence of every remaining object of an iterator.
+     * 
+     * @param iterator The iterator to consume.
+     * @throws IllegalArgumentException if any element is null.
+     */
+    public void addAll(CustomIterator<? extends T> iterator) {
+        while (iterator.hasNext()) add(iterator.next(), 1);
+    }
+
+    /**
+     * Adds one occurrence of every remaining value of a primitive int iterator.
+     * 
+     * @param iterator The iterator to consume.
+     */
+    public void addAll(CustomIntIterator iterator) {
+        while (iterator.hasNext()) addInt(iterator.nextInt());
+    }
+
+    /**
+     * Adds one occurrence of every remaining value of a primitive long iterator.
+     * 
+     * @param iterator The iterator to consume.
+     */
+    public void addAll(CustomLongIterator iterator) {
+        while (iterator.hasNext()) addLong(iterator.nextLong());
+    }
+
+    /**
+     * Estimates how many times an object was added.
+     * 
+     * @param element The object to estimate.
+     * @return An estimate that is never below the true count.
+     */
+    public long estimateCount(T element) {
+        if (element == null) return 0;
+        return estimateHash(Hashing.spread((long) element.hashCode()));
+    }
+
+    /**
+     * Estimates how many times a primitive int value was added.
+     * 
+     * @param value The value to estimate.
+     * @return An estimate that is never below the true count.
+     */
+    public long estimateCountInt(int value) {
+        return estimateHash(Hashing.spread((long) value));
+    }
+
+    /**
+     * Estimates how many times a primitive long value was added.
+     * 
+     * @param value The value to estimate.
+     * @return An estimate that is never below the true count.
+     */
+    public long estimateCountLong(long value) {
+        return estimateHash(Hashing.spread(value));
+    }
+
+    /**
+     * Merges another sketch into this one by adding their counters, so this sketch counts both streams.
+     * Sums of conservatively updated counters are still upper bounds, so either kind can be merged.
+     * 
+     * @param other The sketch to merge in, which is left unchanged.
+     * @throws IllegalArgumentException if the sketches have different dimensions.
+     */
+    public void merge(CountMinSketch<? extends T> other) {
+        if (other.width != width || other.depth != depth) throw new IllegalArgumentException("Cannot merge sketches of different dimensions");
+        for (int i = 0; i < counters.length; i++) counters[i] += other.counters[i];
+        totalCount += other.totalCount;
+    }
+
+    /**
+     * Resets every counter to zero.
+     */
+    public void clear() {
+        for (int i = 0; i < counters.length; i++) counters[i] = 0;
+        totalCount = 0;
+    }
+
+    /**
+     * Estimates the memory used by the sketch, which is its counter table plus the sketch object.
+     * Counters are the payload of a sketch, so none of them count as slack.
+     * 
+     * @return The estimated Footprint of the sketch.
+     */
+    @Override
+    public Footprint footprint() {
+        return new Footprint(Footprint.arrayBytes(counters.length, Long.BYTES), Footprint.objectBytes(1, Integer.BYTES * 2 + Long.BYTES + 1), 0);
+    }
+
+    /**
+     * Returns the total number of occurrences added.
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the number of rows, one per hash function.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the number of counters in each row.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns true if the sketch uses conservative update.
+     */
+    public boolean isConservative() {
+        return conservative;
+    }
+
+    /**
+     * Adds occurrences of a hashed value to its counter in every row.
+     * 
+     * @param hash The 64 bit hash of the value.
+     * @param count The number of occurrences to add.
+     * @throws IllegalArgumentException if the count is negative.
+     */
+    private void addHash(long hash, long count) {
+        if (count < 0) throw new IllegalArgumentException("Count must not be negative");
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        totalCount += count;
+
+        if (!conservative) {
+            for (int row = 0; row < depth; row++) counters[counterOf(row, h1, h2)] += count;
+            return;
+        }
+        // Raise each counter only up to the new estimate, which is the old minimum plus the count
+        long target = estimateHash(hash) + count;
+        for (int row = 0; row < depth; row++) {
+            int index = counterOf(row, h1, h2);
+            if (counters[index] < target) counters[index] = target;
+        }
+    }
+
+    /**
+     * Finds the smallest counter of a hashed value across the rows.
+     * 
+     * @param hash The 64 bit hash of the value.
+     * @return The estimated count.
+     */
+    private long estimateHash(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long count = counters[counterOf(row, h1, h2)];
+            if (count < min) min = count;
+        }
+        return min;
+    }
+
+    /**
+     * Computes the counter of a value in one row, from two halves of its hash (double hashing).
+     * The combined hash is mapped onto the row by multiplying instead of taking a modulo.
+     * 
+     * @param row The row index.
+     * @param h1 The bottom half of the value's hash.
+     * @param h2 The top half of the value's hash.
+     * @return The index of the counter in the table.
+     */
+    private int counterOf(int row, int h1, int h2) {
+        int combined = Hashing.spread(h1 + row * h2);
+        return row * width + (int) (((combined & 0xFFFFFFFFL) * width) >>> 32);
+    }
+
+}
@@ -0,0 +1,315 @@
+package com.brendanddev.collections.sketch;
+
+import com.brendanddev.collections.core.CustomIntIterator;
+import com.brendanddev.collections.core.CustomIterator;
+import com.brendanddev.collections.core.CustomLongIterator;
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.Hashing;
+import com.brendanddev.collections.core.MemoryFootprint;
+
+/**
+ * A HyperLogLog sketch, estimating the number of distinct values in a stream in a small, fixed
+ * amount of memory.
+ * 
+ * Each value is hashed to 64 bits. The top p bits pick one of m = 2^p registers, and the register
+ * keeps the largest position of the first one bit seen in the remaining bits. Long runs of leading
+ * zeros are rare, so the registers together reveal roughly how many distinct hashes went by. The
+ * relative standard error of the estimate is about 1.04 / sqrt(m): 0.8% at the default precision of
+ * 14, which takes 16 KB no matter how many values are added. Small counts use linear counting over
+ * the empty registers instead, which is more accurate while most registers are still zero.
+ * 
+ * The sketch starts sparse: only the registers that were touched are kept, in a small open addressing
+ * table of (register, value) pairs packed into ints. Once that table would outgrow one byte per
+ * register, the sketch switches to the dense array of all m registers.
+ * 
+ * Two sketches with the same precision merge by taking the larger value of each register, which gives
+ * the sketch of the union of both streams. Sketches of shards can therefore be built apart and combined.
+ * 
+ * Time Complexity
+ * Add: O(1) (amortized, sparse table growth and the switch to dense are O(m))
+ * Cardinality: O(m) dense, O(sparse entries) sparse
+ * Merge: O(m)
+ * 
+ * Note: Objects are hashed through their 32 bit hashCode, so distinct objects with equal hash codes are
+ *       counted once. Use addLong for more than a few hundred million distinct long values. addInt(x) and
+ *       add(Integer.valueOf(x)) hash alike, but addLong and add(Long) do not, so do not mix the two for longs.
+ */
+public class HyperLogLog implements MemoryFootprint {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+    public static final int DEFAULT_PRECISION = 14;
+
+    // A sparse entry packs the register index above the 6 bits of its value
+    private static final int VALUE_BITS = 6;
+    private static final int VALUE_MASK = (1 << VALUE_BITS) - 1;
+    private static final int INITIAL_SPARSE_CAPACITY = 16;
+    private static final double SPARSE_LOAD_FACTOR = 0.5;
+
+    private final int precision;
+    private final int numberOfRegisters;
+    private byte[] registers;
+    private int[] sparse;
+    private int sparseSize = 0;
+
+    /**
+     * Constructs an empty HyperLogLog with the default precision.
+     */
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Constructs an empty HyperLogLog with 2^precision registers.
+     * 
+     * @param precision The number of hash bits used to pick a register, between MIN_PRECISION and MAX_PRECISION.
+     * @throws IllegalArgumentException if the precision is out of range.
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.numberOfRegisters = 1 << precision;
+        // Tiny sketches are smaller dense than sparse
+        if ((long) INITIAL_SPARSE_CAPACITY * Integer.BYTES < numberOfRegisters) sparse = new int[INITIAL_SPARSE_CAPACITY];
+        else registers = new byte[numberOfRegisters];
+    }
+
+    /**
+     * Adds an object to the sketch.
+     * 
+     * @param element The object to add.
+     * @throws IllegalArgumentException if the element is null.
+     */
+    public void add(Object element) {
+        if (element == null) throw new IllegalArgumentException("Null elements not allowed");
+        addHash(Hashing.spread((long) element.hashCode()));
+    }
+
+    /**
+     * Adds a primitive int value to the sketch.
+     * 
+     * @param value The value to add.
+     */
+    public void addInt(int value) {
+        addHash(Hashing.spread((long) value));
+    }
+
+    /**
+     * Adds a primitive long value to the sketch, hashing all 64 bits.
+     * 
+     * @param value The value to add.
+     */
+    public void addLong(long value) {
+        addHash(Hashing.spread(value));
+    }
+
+    /**
+     * Adds every remaining object of an iterator to the sketch.
+     * 
+     * @param iterator The iterator to consume.
+     * @throws IllegalArgumentException if any element is null.
+     */
+    public void addAll(CustomIterator<?> iterator) {
+        while (iterator.hasNext()) add(iterator.next());
+    }
+
+    /**
+     * Adds every remaining value of a primitive int iterator to the sketch.
+     * 
+     * @param iterator The iterator to consume.
+     */
+    public void addAll(CustomIntIterator iterator) {
+        while (iterator.hasNext()) addInt(iterator.nextInt());
+    }
+
+    /**
+     * Adds every remaining value of a primitive long iterator to the sketch.
+     * 
+     * @param iterator The iterator to consume.
+     */
+    public void addAll(CustomLongIterator iterator) {
+        while (iterator.hasNext()) addLong(iterator.nextLong());
+    }
+
+    /**
+     * Estimates the number of distinct values added.
+     * 
+     * @return The estimated cardinality.
+     */
+    public long cardinality() {
+        double sum;
+        int zeros;
+        if (registers == null) {
+            zeros = numberOfRegisters - sparseSize;
+            sum = zeros;
+            for (int entry : sparse) {
+                if (entry != 0) sum += Math.scalb(1.0, -(entry & VALUE_MASK));
+            }
+        } else {
+            zeros = 0;
+            sum = 0;
+            for (byte value : registers) {
+                if (value == 0) zeros++;
+                sum += Math.scalb(1.0, -value);
+            }
+        }
+
+        double m = numberOfRegisters;
+        double estimate = alpha() * m * m / sum;
+        // Linear counting is more accurate while many registers are empty
+        if (estimate <= 2.5 * m && zeros > 0) estimate = m * Math.log(m / zeros);
+        return Math.round(estimate);
+    }
+
+    /**
+     * Merges another sketch into this one, so this sketch estimates the union of both streams.
+     * 
+     * @param other The sketch to merge in, which is left unchanged.
+     * @throws IllegalArgumentException if the sketches have different precisions.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) throw new IllegalArgumentException("Cannot merge sketches of different precision");
+        if (other.registers == null) {
+            for (int entry : other.sparse) {
+                if (entry != 0) updateRegister(entry >>> VALUE_BITS, entry & VALUE_MASK);
+            }
+            return;
+        }
+        if (registers == null) toDense();
+        for (int i = 0; i < numberOfRegisters; i++) {
+            if (other.registers[i] > registers[i]) registers[i] = other.registers[i];
+        }
+    }
+
+    /**
+     * Removes every value, returning the sketch to its empty sparse state.
+     */
+    public void clear() {
+        if ((long) INITIAL_SPARSE_CAPACITY * Integer.BYTES < numberOfRegisters) {
+            sparse = new int[INITIAL_SPARSE_CAPACITY];
+            registers = null;
+        } else {
+            registers = new byte[numberOfRegisters];
+        }
+        sparseSize = 0;
+    }
+
+    /**
+     * Estimates the memory used by the sketch. In sparse form, empty slots of the sparse table count
+     * as slack; dense registers are all payload.
+     * 
+     * @return The estimated Footprint of the sketch.
+     */
+    @Override
+    public Footprint footprint() {
+        long nodeBytes = Footprint.objectBytes(2, Integer.BYTES * 3);
+        if (registers != null) return new Footprint(Footprint.arrayBytes(numberOfRegisters, Byte.BYTES), nodeBytes, 0);
+        long slackBytes = (long) (sparse.length - sparseSize) * Integer.BYTES;
+        return new Footprint(Footprint.arrayBytes(sparse.length, Integer.BYTES), nodeBytes, slackBytes);
+    }
+
+    /**
+     * Returns the relative standard error of the estimate, 1.04 / sqrt(m).
+     */
+    public double relativeStandardError() {
+        return 1.04 / Math.sqrt(numberOfRegisters);
+    }
+
+    /**
+     * Returns the number of hash bits used to pick a register.
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Returns true while the sketch keeps only its touched registers.
+     */
+    public boolean isSparse() {
+        return registers == null;
+    }
+
+    /**
+     * Splits a hash into a register and the position of the first one bit after the register bits.
+     * 
+     * @param hash The 64 bit hash of a value.
+     */
+    private void addHash(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        // A guard bit caps the count of leading zeros when every remaining bit is zero
+        int value = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        updateRegister(index, value);
+    }
+
+    /**
+     * Raises a register to a value if the value is larger, in whichever form the sketch is in.
+     * 
+     * @param index The register index.
+     * @param value The candidate value.
+     */
+    private void updateRegister(int index, int value) {
+        if (registers != null) {
+            if (value > registers[index]) registers[index] = (byte) value;
+            return;
+        }
+
+        int mask = sparse.length - 1;
+        int slot = Hashing.spread(index) & mask;
+        int entry;
+        while ((entry = sparse[slot]) != 0) {
+            if (entry >>> VALUE_BITS == index) {
+                if (value > (entry & VALUE_MASK)) sparse[slot] = (index << VALUE_BITS) | value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        sparse[slot] = (index << VALUE_BITS) | value;
+        if (++sparseSize > sparse.length * SPARSE_LOAD_FACTOR) {
+            // Switch once a doubled sparse table would take more bytes than the dense registers
+            if ((long) sparse.length * 2 * Integer.BYTES >= numberOfRegisters) toDense();
+            else growSparse();
+        }
+    }
+
+    /**
+     * Doubles the sparse table, reinserting every entry.
+     */
+    private void growSparse() {
+        int[] oldSparse = sparse;
+        sparse = new int[oldSparse.length * 2];
+        int mask = sparse.length - 1;
+        for (int entry : oldSparse) {
+            if (entry == 0) continue;
+            int slot = Hashing.spread(entry >>> VALUE_BITS) & mask;
+            while (sparse[slot] != 0) slot = (slot + 1) & mask;
+            sparse[slot] = entry;
+        }
+    }
+
+    /**
+     * Converts the sparse table into the dense register array.
+     */
+    private void toDense() {
+        registers = new byte[numberOfRegisters];
+        for (int entry : sparse) {
+            if (entry != 0) registers[entry >>> VALUE_BITS] = (byte) (entry & VALUE_MASK);
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    /**
+     * Returns the bias correction constant for the number of registers.
+     */
+    private double alpha() {
+        switch (numberOfRegisters) {
+            case 16: return 0.673;
+            case 32: return 0.697;
+            case 64: return 0.709;
+            default: return 0.7213 / (1 + 1.079 / numberOfRegisters);
+        }
+    }
+
+}
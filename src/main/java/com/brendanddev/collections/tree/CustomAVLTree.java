@@ -1,5 +1,337 @@
 package com.brendanddev.collections.tree;
 
-public class CustomAVLTree {
-    
+import java.util.function.Consumer;
+
+import com.brendanddev.collections.core.CustomComparator;
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.MemoryFootprint;
+import com.brendanddev.collections.list.CustomArrayList;
+
+/**
+ * A custom generic implementation of an AVL Tree.
+ * 
+ * An AVL tree is a self-balancing binary search tree: after every insertion or removal, the heights
+ * of the two subtrees of any node differ by at most one, which is restored with single or double
+ * rotations. The height of the tree therefore stays logarithmic no matter the insertion order,
+ * unlike CustomBinaryTree, which degrades to a linked list for sorted input.
+ * 
+ * Time Complexity
+ * Insert: O(log n)
+ * Search (contains/find): O(log n)
+ * Remove: O(log n)
+ * In-order traversal: O(n)
+ */
+public class CustomAVLTree<T> implements MemoryFootprint {
+
+    private Node<T> root;
+    private final CustomComparator<T> comparator;
+    private int size = 0;
+
+    /**
+     * Constructs an empty CustomAVLTree.
+     * 
+     * @param comparator The CustomComparator used for ordering the elements in the tree.
+     */
+    public CustomAVLTree(CustomComparator<T> comparator) {
+        this.root = null;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Inserts a new value into the tree, unless an equal value is already present.
+     * 
+     * @param value The value to insert into the tree.
+     * @return true if the value was inserted, false if the comparator found an equal value.
+     */
+    public boolean insert(T value) {
+        int sizeBefore = size;
+        root = insertRecursive(root, value);
+        return size != sizeBefore;
+    }
+
+    /**
+     * Helper to recursively insert a value into the subtree rooted at the given node,
+     * rebalancing every node on the way back up.
+     * 
+     * @param current The current node in the recursion.
+     * @param value The value to insert.
+     * @return The node that should be at this position in the tree after insertion.
+     */
+    private Node<T> insertRecursive(Node<T> current, T value) {
+        // Base case - Found the insertion point
+        if (current == null) {
+            size++;
+            return new Node<>(value);
+        }
+
+        int cmp = comparator.compare(value, current.value);
+        if (cmp < 0) {
+            current.left = insertRecursive(current.left, value);
+        } else if (cmp > 0) {
+            current.right = insertRecursive(current.right, value);
+        } else {
+            // Value already exists in the tree
+            return current;
+        }
+        return rebalance(current);
+    }
+
+    /**
+     * Checks if the tree contains a value equal to the specified value.
+     * 
+     * @param value The value to search for in the tree.
+     * @return true if the value is found, otherwise false.
+     */
+    public boolean contains(T value) {
+        return find(value) != null;
+    }
+
+    /**
+     * Finds the stored value that the comparator considers equal to the given value.
+     * Useful when the tree orders records by a part of them, such as the key of a map entry.
+     * 
+     * @param value The value to search for.
+     * @return The stored value, or null if no equal value exists.
+     */
+    public T find(T value) {
+        Node<T> current = root;
+        while (current != null) {
+            int cmp = comparator.compare(value, current.value);
+            if (cmp == 0) return current.value;
+            current = cmp < 0 ? current.left : current.right;
+        }
+        return null;
+    }
+
+    /**
+     * Removes a value from the tree, if it exists.
+     * 
+     * @param value The value to remove from the tree.
+     * @return true if the value was found and removed, otherwise false.
+     */
+    public boolean remove(T value) {
+        int sizeBefore = size;
+        root = removeRecursive(root, value);
+        return size != sizeBefore;
+    }
+
+    /**
+     * Helper to recursively remove a value from the subtree rooted at the given node,
+     * rebalancing every node on the way back up.
+     * 
+     * @param current The current node in the recursion.
+     * @param value The value to remove.
+     * @return The node that should occupy this position in the tree after removal.
+     */
+    private Node<T> removeRecursive(Node<T> current, T value) {
+        // Base case - Value is not found
+        if (current == null) {
+            return null;
+        }
+
+        int cmp = comparator.compare(value, current.value);
+        if (cmp < 0) {
+            current.left = removeRecursive(current.left, value);
+        } else if (cmp > 0) {
+            current.right = removeRecursive(current.right, value);
+        } else {
+            // Node with zero or one child is replaced by that child
+            if (current.left == null || current.right == null) {
+                size--;
+                return current.left != null ? current.left : current.right;
+            }
+
+            // Node with two children takes the minimum value of its right subtree
+            Node<T> successor = current.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            current.value = successor.value;
+            current.right = removeRecursive(current.right, successor.value);
+        }
+        return rebalance(current);
+    }
+
+    /**
+     * Returns the smallest value in the tree, or null if the tree is empty.
+     */
+    public T min() {
+        if (root == null) return null;
+        Node<T> current = root;
+        while (current.left != null) {
+            current = current.left;
+        }
+        return current.value;
+    }
+
+    /**
+     * Performs an action for every value in sorted order, without allocating.
+     * 
+     * @param action The action to perform with each value.
+     */
+    public void forEach(Consumer<? super T> action) {
+        forEachRecursive(root, action);
+    }
+
+    /**
+     * Helper to recursively visit the subtree rooted at the given node in order.
+     * 
+     * @param current The current node in the recursion.
+     * @param action The action to perform with each value.
+     */
+    private void forEachRecursive(Node<T> current, Consumer<? super T> action) {
+        if (current == null) return;
+        forEachRecursive(current.left, action);
+        action.accept(current.value);
+        forEachRecursive(current.right, action);
+    }
+
+    /**
+     * Performs an in-order traversal of the tree.
+     * 
+     * @return A CustomArrayList containing the elements of the tree in sorted order.
+     */
+    public CustomArrayList<T> traverseInOrder() {
+        CustomArrayList<T> result = new CustomArrayList<>();
+        forEach(result::add);
+        return result;
+    }
+
+    /**
+     * Estimates the memory used by the tree, which is one node object per element plus the tree object.
+     * 
+     * @return The estimated Footprint of the tree.
+     */
+    @Override
+    public Footprint footprint() {
+        return new Footprint(0, Footprint.objectBytes(2, Integer.BYTES) + size * Footprint.objectBytes(3, Integer.BYTES), 0);
+    }
+
+    /**
+     * Returns the number of elements in the tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the tree is empty, otherwise false.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the height of the tree, which is 0 for an empty tree.
+     */
+    public int getHeight() {
+        return height(root);
+    }
+
+    /**
+     * Clears all elements from the tree by resetting the root to null and size to zero.
+     */
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Restores the AVL balance of a node whose subtrees differ in height by at most two.
+     * 
+     * @param node The node to rebalance.
+     * @return The node that should occupy this position after rotations.
+     */
+    private Node<T> rebalance(Node<T> node) {
+        updateHeight(node);
+        int balance = height(node.left) - height(node.right);
+
+        if (balance > 1) {
+            // Left heavy, a left-right case first becomes a left-left case
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            // Right heavy, a right-left case first becomes a right-right case
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * Rotates a subtree to the right, lifting the left child into the root position.
+     * 
+     * @param node The root of the subtree.
+     * @return The new root of the subtree.
+     */
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    /**
+     * Rotates a subtree to the left, lifting the right child into the root position.
+     * 
+     * @param node The root of the subtree.
+     * @return The new root of the subtree.
+     */
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    /**
+     * Helper to recompute the height of a node from its children.
+     * 
+     * @param node The node to update.
+     */
+    private static void updateHeight(Node<?> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    /**
+     * Helper to return the height of a possibly empty subtree.
+     * 
+     * @param node The root of the subtree, or null.
+     * @return The height of the subtree.
+     */
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+
+    /**
+     * Represents a single Node in the AVL tree.
+     * Each Node contains a value, references to its children, and the height of its subtree.
+     */
+    private static class Node<T> {
+        T value;
+        Node<T> left;
+        Node<T> right;
+        int height = 1;
+
+        /**
+         * Constructs a tree node with the specified value.
+         * 
+         * @param value The value of the node.
+         */
+        Node(T value) {
+            this.value = value;
+        }
+
+    }
+
 }
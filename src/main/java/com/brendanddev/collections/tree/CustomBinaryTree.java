@@ -2,6 +2,8 @@ package com.brendanddev.collections.tree;
 
 
 import com.brendanddev.collections.core.CustomComparator;
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.core.MemoryFootprint;
 import com.brendanddev.collections.list.CustomArrayList;
 import com.brendanddev.collections.stack.CustomStack;
 
@@ -12,7 +14,7 @@ import com.brendanddev.collections.stack.CustomStack;
  * the left subtree of a node contains values less than the nodes value, and the right subtree of a node contains 
  * values greater than the nodes value.
  */
-public class CustomBinaryTree<T> {
+public class CustomBinaryTree<T> implements MemoryFootprint {
 
     private Node<T> root;
     private final CustomComparator<T> comparator;
@@ -217,6 +219,16 @@ public class CustomBinaryTree<T> {
     }
 
 
+    /**
+     * Estimates the memory used by the tree, which is one node object per element plus the tree object.
+     * 
+     * @return The estimated Footprint of the tree.
+     */
+    @Override
+    public Footprint footprint() {
+        return new Footprint(0, Footprint.objectBytes(2, Integer.BYTES) + size * Footprint.objectBytes(3, 0), 0);
+    }
+
     /** 
      * Returns the number of elements in the binary tree.
      */
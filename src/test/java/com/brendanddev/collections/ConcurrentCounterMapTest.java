@@ -0,0 +1,106 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.map.ConcurrentCounterMap;
+import com.brendanddev.collections.map.CustomHashMap;
+
+/**
+ * Unit tests for the ConcurrentCounterMap class.
+ * Tests counting from a single thread, snapshots, and that concurrent increments
+ * and resets never lose or double count an update.
+ */
+public class ConcurrentCounterMapTest {
+
+    /**
+     * Tests increment, add, sum, sumThenReset and remove from a single thread.
+     */
+    @Test
+    void testBasicOperations() {
+        ConcurrentCounterMap<String> counters = new ConcurrentCounterMap<>();
+        assertEquals(0, counters.sum("requests"));
+        assertFalse(counters.containsKey("requests"));
+
+        counters.increment("requests");
+        counters.increment("requests");
+        counters.add("bytes", 512);
+        counters.add("bytes", -12);
+
+        assertEquals(2, counters.sum("requests"));
+        assertEquals(500, counters.sum("bytes"));
+        assertEquals(502, counters.total());
+        assertEquals(2, counters.size());
+
+        assertEquals(2, counters.sumThenReset("requests"));
+        assertEquals(0, counters.sum("requests"));
+        assertTrue(counters.containsKey("requests"));
+
+        assertTrue(counters.remove("bytes"));
+        assertFalse(counters.remove("bytes"));
+        assertEquals(1, counters.size());
+        assertThrows(IllegalArgumentException.class, () -> counters.increment(null));
+    }
+
+    /**
+     * Tests that snapshots copy every count into a CustomHashMap, optionally resetting them.
+     */
+    @Test
+    void testSnapshot() {
+        ConcurrentCounterMap<Integer> counters = new ConcurrentCounterMap<>();
+        for (int i = 0; i < 100; i++) {
+            counters.add(i, i);
+        }
+
+        CustomHashMap<Integer, Long> snapshot = counters.snapshot();
+        assertEquals(100, snapshot.size());
+        assertEquals(42L, snapshot.get(42));
+
+        CustomHashMap<Integer, Long> drained = counters.snapshotThenReset();
+        assertEquals(99L, drained.get(99));
+        assertEquals(0, counters.total());
+        assertEquals(100, counters.size());
+    }
+
+    /**
+     * Tests that many threads incrementing the same hot keys, while another thread keeps
+     * draining them, count every increment exactly once.
+     */
+    @Test
+    void testConcurrentIncrements() throws InterruptedException {
+        ConcurrentCounterMap<String> counters = new ConcurrentCounterMap<>();
+        int threadCount = 8;
+        int increments = 20_000;
+        AtomicLong drained = new AtomicLong();
+
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < increments; i++) {
+                    counters.increment(i % 2 == 0 ? "even" : "odd");
+                }
+            });
+            threads[t].start();
+        }
+        Thread drainer = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                drained.addAndGet(counters.sumThenReset("even"));
+            }
+        });
+        drainer.start();
+
+        for (Thread thread : threads) thread.join();
+        drainer.join();
+
+        long even = drained.get() + counters.sum("even");
+        assertEquals((long) threadCount * increments / 2, even);
+        assertEquals((long) threadCount * increments / 2, counters.sum("odd"));
+    }
+
+}
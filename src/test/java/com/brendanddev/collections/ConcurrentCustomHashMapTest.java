@@ -0,0 +1,80 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.map.ConcurrentCustomHashMap;
+
+/**
+ * Unit tests for the ConcurrentCustomHashMap class.
+ * Tests the single threaded map operations and the atomicity of merge and
+ * computeIfAbsent when many threads update the same keys.
+ */
+public class ConcurrentCustomHashMapTest {
+
+    /**
+     * Tests put, get, putIfAbsent and remove from a single thread.
+     */
+    @Test
+    void testBasicOperations() {
+        ConcurrentCustomHashMap<String, Integer> map = new ConcurrentCustomHashMap<>();
+        assertNull(map.put("Brendan", 1));
+        assertEquals(1, map.put("Brendan", 2));
+        assertEquals(2, map.putIfAbsent("Brendan", 3));
+        assertNull(map.putIfAbsent("Alice", 4));
+
+        assertEquals(2, map.get("Brendan"));
+        assertEquals(4, map.get("Alice"));
+        assertEquals(2, map.size());
+
+        assertTrue(map.remove("Brendan"));
+        assertFalse(map.containsKey("Brendan"));
+        assertFalse(map.remove("Brendan"));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Tests that merge returning null removes the entry.
+     */
+    @Test
+    void testMergeRemovesOnNull() {
+        ConcurrentCustomHashMap<String, Integer> map = new ConcurrentCustomHashMap<>();
+        assertEquals(1, map.merge("Key", 1, Integer::sum));
+        assertEquals(3, map.merge("Key", 2, Integer::sum));
+        assertNull(map.merge("Key", 0, (a, b) -> null));
+        assertFalse(map.containsKey("Key"));
+    }
+
+    /**
+     * Tests that concurrent merges and inserts never lose an update, including while segments resize.
+     */
+    @Test
+    void testConcurrentUpdates() throws InterruptedException {
+        ConcurrentCustomHashMap<Integer, Integer> map = new ConcurrentCustomHashMap<>(4);
+        int threadCount = 8;
+        int keys = 5000;
+
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < keys; i++) {
+                    map.merge(i, 1, Integer::sum);
+                    map.computeIfAbsent(-i - 1, k -> k);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(keys * 2, map.size());
+        for (int i = 0; i < keys; i++) {
+            assertEquals(threadCount, map.get(i));
+            assertEquals(-i - 1, map.get(-i - 1));
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.list.CustomArrayList;
+import com.brendanddev.collections.set.IntHashSet;
+import com.brendanddev.collections.sketch.CountMinSketch;
+
+/**
+ * Unit tests for the CountMinSketch class.
+ * Tests that estimates never undercount and stay within the error bound, that conservative update
+ * overestimates less, merging, and the iterator entry points.
+ */
+public class CountMinSketchTest {
+
+    /**
+     * Tests estimates on a skewed stream against exact counts, with and without conservative update.
+     */
+    @Test
+    void testEstimatesWithinBound() {
+        Random random = new Random(7);
+        int[] exact = new int[10_000];
+        CountMinSketch<Integer> plain = new CountMinSketch<>(0.001, 0.01, false);
+        CountMinSketch<Integer> conservative = new CountMinSketch<>(0.001, 0.01);
+        for (int i = 0; i < 200_000; i++) {
+            int key = (int) (Math.pow(random.nextDouble(), 3) * exact.length);
+            exact[key]++;
+            plain.addInt(key);
+            conservative.add(key);
+        }
+        assertEquals(200_000, conservative.getTotalCount());
+
+        long plainError = 0;
+        long conservativeError = 0;
+        long bound = (long) (0.001 * 200_000);
+        for (int key = 0; key < exact.length; key++) {
+            long plainEstimate = plain.estimateCountInt(key);
+            long conservativeEstimate = conservative.estimateCount(key);
+            assertTrue(plainEstimate >= exact[key]);
+            assertTrue(conservativeEstimate >= exact[key]);
+            assertTrue(conservativeEstimate <= plainEstimate);
+            assertTrue(plainEstimate - exact[key] <= bound);
+            plainError += plainEstimate - exact[key];
+            conservativeError += conservativeEstimate - exact[key];
+        }
+        assertTrue(conservativeError < plainError);
+    }
+
+    /**
+     * Tests weighted additions, merging two sketches, clearing, and the argument checks.
+     */
+    @Test
+    void testMergeAndArguments() {
+        CountMinSketch<String> left = new CountMinSketch<>(0.01, 0.01);
+        CountMinSketch<String> right = new CountMinSketch<>(0.01, 0.01);
+        left.add("apple", 5);
+        right.add("apple", 3);
+        right.add("pear");
+        left.merge(right);
+        assertEquals(8, left.estimateCount("apple"));
+        assertEquals(1, left.estimateCount("pear"));
+        assertEquals(9, left.getTotalCount());
+        assertEquals(0, left.estimateCount(null));
+
+        left.clear();
+        assertEquals(0, left.estimateCount("apple"));
+
+        assertThrows(IllegalArgumentException.class, () -> left.merge(new CountMinSketch<>(0.1, 0.01)));
+        assertThrows(IllegalArgumentException.class, () -> left.add("apple", -1));
+        assertThrows(IllegalArgumentException.class, () -> left.add(null));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch<String>(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch<String>(0.01, 1));
+    }
+
+    /**
+     * Tests consuming object and primitive iterators.
+     */
+    @Test
+    void testAddAllIterators() {
+        CustomArrayList<String> events = new CustomArrayList<>();
+        IntHashSet ids = new IntHashSet();
+        for (int i = 0; i < 100; i++) {
+            events.add("click");
+            ids.add(i);
+        }
+
+        CountMinSketch<String> sketch = new CountMinSketch<>(0.01, 0.01);
+        sketch.addAll(events.iterator());
+        sketch.addAll(ids.iterator());
+        assertEquals(100, sketch.estimateCount("click"));
+        assertTrue(sketch.estimateCountInt(42) >= 1);
+        assertEquals(200, sketch.getTotalCount());
+    }
+
+}
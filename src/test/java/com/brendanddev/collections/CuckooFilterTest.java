@@ -0,0 +1,106 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.set.CuckooFilter;
+
+/**
+ * Unit tests for the CuckooFilter class.
+ * Tests that added elements are never reported absent, the false positive rate, deletion,
+ * filling the table until the stash overflows, and the memory used per element.
+ */
+public class CuckooFilterTest {
+
+    /**
+     * Tests that every added element is reported as possibly present and that the measured false
+     * positive rate stays near the target.
+     */
+    @Test
+    void testNoFalseNegativesAndFalsePositiveRate() {
+        CuckooFilter<Integer> filter = new CuckooFilter<>(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) assertTrue(filter.add(i));
+        assertEquals(100_000, filter.size());
+        for (int i = 0; i < 100_000; i++) assertTrue(filter.mightContain(i));
+
+        int falsePositives = 0;
+        for (int i = 100_000; i < 300_000; i++) {
+            if (filter.mightContain(i)) falsePositives++;
+        }
+        double rate = falsePositives / 200_000.0;
+        assertTrue(rate < 0.02, "False positive rate " + rate);
+        assertEquals(10, filter.getFingerprintBits());
+    }
+
+    /**
+     * Tests deleting elements, including elements added twice, and that deleted elements are
+     * reported absent again.
+     */
+    @Test
+    void testDelete() {
+        CuckooFilter<String> filter = new CuckooFilter<>(10_000, 0.001);
+        for (int i = 0; i < 10_000; i++) filter.add("id" + i);
+        for (int i = 0; i < 10_000; i += 2) assertTrue(filter.delete("id" + i));
+        assertEquals(5_000, filter.size());
+        for (int i = 1; i < 10_000; i += 2) assertTrue(filter.mightContain("id" + i));
+
+        int stillPresent = 0;
+        for (int i = 0; i < 10_000; i += 2) {
+            if (filter.mightContain("id" + i)) stillPresent++;
+        }
+        assertTrue(stillPresent < 50);
+
+        // A duplicate stores a second fingerprint, which takes a second delete
+        assertTrue(filter.add("twice"));
+        assertTrue(filter.add("twice"));
+        assertTrue(filter.delete("twice"));
+        assertTrue(filter.mightContain("twice"));
+        assertTrue(filter.delete("twice"));
+
+        filter.clear();
+        assertTrue(filter.isEmpty());
+        assertFalse(filter.mightContain("id1"));
+        assertFalse(filter.delete("id1"));
+    }
+
+    /**
+     * Tests that filling past capacity uses the stash, then reports the filter as full without
+     * losing any element that was accepted, and that freed slots take stashed fingerprints back.
+     */
+    @Test
+    void testStashAndFull() {
+        CuckooFilter<Integer> filter = new CuckooFilter<>(1_000, 0.01);
+        int added = 0;
+        while (filter.add(added)) added++;
+        assertEquals(CuckooFilter.STASH_SIZE, filter.getStashSize());
+        assertEquals(added, filter.size());
+        assertTrue(filter.getLoadFactor() > 0.9);
+        for (int i = 0; i < added; i++) assertTrue(filter.mightContain(i));
+
+        for (int i = 0; i < 100; i++) assertTrue(filter.delete(i));
+        assertTrue(filter.getStashSize() < CuckooFilter.STASH_SIZE);
+        for (int i = 100; i < added; i++) assertTrue(filter.mightContain(i));
+        assertTrue(filter.add(-1));
+    }
+
+    /**
+     * Tests that a full filter at a 1% target uses about 12 bits per element, and the argument checks.
+     */
+    @Test
+    void testBitsPerElementAndArguments() {
+        CuckooFilter<Integer> filter = new CuckooFilter<>(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) filter.add(i);
+        double bitsPerElement = filter.footprint().retainedBytes() * 8.0 / filter.size();
+        assertTrue(bitsPerElement < 12.5, "Bits per element " + bitsPerElement);
+
+        assertThrows(IllegalArgumentException.class, () -> filter.add(null));
+        assertFalse(filter.mightContain(null));
+        assertThrows(IllegalArgumentException.class, () -> new CuckooFilter<Integer>(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CuckooFilter<Integer>(-1, 0.01));
+    }
+
+}
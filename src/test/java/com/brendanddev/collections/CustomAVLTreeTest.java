@@ -0,0 +1,66 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.list.CustomArrayList;
+import com.brendanddev.collections.tree.CustomAVLTree;
+
+/**
+ * Unit tests for the CustomAVLTree class.
+ * Tests inserting, finding and removing values, and that the tree stays balanced for sorted input.
+ */
+public class CustomAVLTreeTest {
+
+    private CustomAVLTree<Integer> tree;
+
+    /**
+     * Initializes a new instance of CustomAVLTree before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        tree = new CustomAVLTree<>(Integer::compare);
+    }
+
+    /**
+     * Tests inserting, finding and removing values, including duplicates.
+     */
+    @Test
+    void testInsertFindAndRemove() {
+        assertTrue(tree.insert(5));
+        assertTrue(tree.insert(3));
+        assertFalse(tree.insert(5));
+        assertEquals(3, tree.find(3));
+        assertTrue(tree.contains(5));
+
+        assertTrue(tree.remove(5));
+        assertFalse(tree.remove(5));
+        assertEquals(1, tree.size());
+        assertEquals(3, tree.min());
+    }
+
+    /**
+     * Tests that sorted insertions and removals keep the height logarithmic and the order intact.
+     */
+    @Test
+    void testBalance() {
+        int n = 1 << 12;
+        for (int i = 0; i < n; i++) tree.insert(i);
+        // An AVL tree of n nodes is at most about 1.44 log2(n) high
+        assertTrue(tree.getHeight() <= 18);
+
+        for (int i = 0; i < n; i += 2) tree.remove(i);
+        assertEquals(n / 2, tree.size());
+        assertTrue(tree.getHeight() <= 17);
+
+        CustomArrayList<Integer> values = tree.traverseInOrder();
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(2 * i + 1, values.get(i));
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.map.BloomFilteredHashMap;
+import com.brendanddev.collections.set.CustomBloomFilter;
+import com.brendanddev.collections.set.CustomHashSet;
+
+/**
+ * Unit tests for the CustomBloomFilter class and the BloomFilteredHashMap built on it.
+ * Tests that added elements are never reported absent, that the measured false positive rate stays
+ * near the target for both variants, serialization, and the negative cache in front of a map.
+ */
+public class CustomBloomFilterTest {
+
+    /**
+     * Tests that every added element is reported as possibly present and that the measured false
+     * positive rate stays within twice the target, for the plain and the blocked variant.
+     */
+    @Test
+    void testNoFalseNegativesAndFalsePositiveRate() {
+        for (boolean blocked : new boolean[] {false, true}) {
+            CustomBloomFilter<Integer> filter = new CustomBloomFilter<>(100_000, 0.01, blocked);
+            for (int i = 0; i < 100_000; i++) filter.add(i);
+            for (int i = 0; i < 100_000; i++) assertTrue(filter.mightContain(i));
+
+            int falsePositives = 0;
+            for (int i = 100_000; i < 300_000; i++) {
+                if (filter.mightContain(i)) falsePositives++;
+            }
+            double rate = falsePositives / 200_000.0;
+            assertTrue(rate < 0.02, "False positive rate " + rate + " with blocked " + blocked);
+            assertTrue(Math.abs(filter.approximateElementCount() - 100_000) < 5_000);
+            assertEquals(blocked, filter.isBlocked());
+        }
+    }
+
+    /**
+     * Tests bulk adding a collection, clearing, and the argument checks.
+     */
+    @Test
+    void testAddAllAndClear() {
+        CustomHashSet<String> words = new CustomHashSet<>();
+        for (int i = 0; i < 1_000; i++) words.add("word" + i);
+
+        CustomBloomFilter<String> filter = new CustomBloomFilter<>(1_000, 0.001);
+        assertTrue(filter.addAll(words));
+        assertFalse(filter.add("word7"));
+        assertTrue(filter.mightContain("word999"));
+        assertFalse(filter.mightContain(null));
+
+        filter.clear();
+        assertEquals(0, filter.getNumberOfSetBits());
+        assertFalse(filter.mightContain("word7"));
+
+        assertThrows(IllegalArgumentException.class, () -> filter.add(null));
+        assertThrows(IllegalArgumentException.class, () -> new CustomBloomFilter<String>(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CustomBloomFilter<String>(10, 1));
+        assertThrows(IllegalArgumentException.class, () -> new CustomBloomFilter<String>(-1, 0.01));
+    }
+
+    /**
+     * Tests that a filter read back from its serialized form answers exactly like the original,
+     * and that a stream that does not hold a filter is rejected.
+     */
+    @Test
+    void testSerializationRoundTrip() throws IOException {
+        CustomBloomFilter<Integer> filter = new CustomBloomFilter<>(5_000, 0.01, true);
+        for (int i = 0; i < 5_000; i++) filter.add(i * 31);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        filter.writeTo(out);
+        CustomBloomFilter<Integer> copy = CustomBloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertTrue(copy.isBlocked());
+        assertEquals(filter.getNumberOfBits(), copy.getNumberOfBits());
+        assertEquals(filter.getNumberOfHashFunctions(), copy.getNumberOfHashFunctions());
+        for (int i = 0; i < 20_000; i++) assertEquals(filter.mightContain(i), copy.mightContain(i));
+
+        byte[] corrupt = out.toByteArray();
+        corrupt[0] ^= 1;
+        assertThrows(IOException.class, () -> CustomBloomFilter.readFrom(new ByteArrayInputStream(corrupt)));
+    }
+
+    /**
+     * Tests that a header claiming the largest bit array, followed by only a few words, is rejected
+     * as truncated rather than allocating the array it claims.
+     */
+    @Test
+    void testCorruptHeaderLength() throws IOException {
+        CustomBloomFilter<Integer> filter = new CustomBloomFilter<>(100, 0.01);
+        filter.add(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        filter.writeTo(out);
+
+        // The word count follows magic, version, blocked flag and number of hash functions
+        byte[] corrupt = out.toByteArray();
+        ByteBuffer.wrap(corrupt).putInt(Integer.BYTES + 3, 1 << 26);
+        assertThrows(EOFException.class, () -> CustomBloomFilter.readFrom(new ByteArrayInputStream(corrupt)));
+
+        ByteBuffer.wrap(corrupt).putInt(Integer.BYTES + 3, Integer.MAX_VALUE);
+        assertThrows(IOException.class, () -> CustomBloomFilter.readFrom(new ByteArrayInputStream(corrupt)));
+    }
+
+    /**
+     * Tests that the negative cache answers misses from the filter, stays correct across removals,
+     * rebuilds and growth past its expected size.
+     */
+    @Test
+    void testBloomFilteredHashMap() {
+        BloomFilteredHashMap<Integer, String> map = new BloomFilteredHashMap<>(1_000, 0.01, true);
+        for (int i = 0; i < 5_000; i++) map.put(i, "v" + i);
+        assertEquals(5_000, map.size());
+        assertEquals("v4999", map.get(4_999));
+        assertEquals("none", map.getOrDefault(-1, "none"));
+
+        for (int i = 5_000; i < 15_000; i++) assertNull(map.get(i));
+        assertTrue(map.getFilteredLookups() > 9_500);
+        assertEquals(10_000, map.getFilteredLookups() + map.getFalsePositiveLookups() - 1);
+
+        // Removing most keys rebuilds the filter so the removed keys are filtered again
+        for (int i = 0; i < 4_000; i++) assertTrue(map.remove(i));
+        assertFalse(map.remove(0));
+        assertEquals(1_000, map.size());
+        assertFalse(map.containsKey(10));
+        assertTrue(map.containsKey(4_000));
+        assertTrue(map.getFilter().approximateElementCount() < 2_000);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(4_000));
+        assertThrows(IllegalArgumentException.class, () -> map.put(null, "x"));
+    }
+
+}
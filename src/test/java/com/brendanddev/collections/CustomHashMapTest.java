@@ -0,0 +1,288 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.map.CustomHashMap;
+import com.brendanddev.collections.map.MapCursor;
+
+/**
+ * Unit tests for the CustomHashMap class.
+ * Tests basic functionality including adding, updating, looking up and removing entries,
+ * both with all at once and with incremental resizing.
+ */
+public class CustomHashMapTest {
+
+    private CustomHashMap<String, Integer> map;
+
+    /**
+     * Initializes a new instance of CustomHashMap before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        map = new CustomHashMap<>();
+    }
+
+    /**
+     * Tests adding entries and updating the value of an existing key.
+     */
+    @Test
+    void testPutAndGet() {
+        assertNull(map.put("Brendan", 1));
+        assertEquals(1, map.get("Brendan"));
+        assertNull(map.get("Alice"));
+
+        // Updating an existing key returns the old value
+        assertEquals(1, map.put("Brendan", 2));
+        assertEquals(2, map.get("Brendan"));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Tests removing entries from the map.
+     */
+    @Test
+    void testRemove() {
+        map.put("Brendan", 1);
+        map.put("Alice", 2);
+
+        assertTrue(map.remove("Brendan"));
+        assertFalse(map.containsKey("Brendan"));
+        // Key not in map
+        assertFalse(map.remove("NonExistent"));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Tests that the map resizes when the average bucket size exceeds the threshold
+     * and that every entry is still present afterwards.
+     */
+    @Test
+    void testResize() {
+        int entriesToAdd = (int) (CustomHashMap.AVERAGE_BUCKET_SIZE * 16) + 1;
+        for (int i = 0; i < entriesToAdd; i++) {
+            map.put("Key" + i, i);
+        }
+
+        assertTrue(map.getNumberOfBuckets() > 16);
+        for (int i = 0; i < entriesToAdd; i++) {
+            assertEquals(i, map.get("Key" + i));
+        }
+    }
+
+    /**
+     * Tests that lookups, updates and removals see every entry while an incremental resize
+     * is still migrating buckets, and that the migration eventually completes.
+     */
+    @Test
+    void testIncrementalResize() {
+        CustomHashMap<Integer, Integer> incremental = new CustomHashMap<>(true);
+        int entriesToAdd = (int) (CustomHashMap.AVERAGE_BUCKET_SIZE * 16) + 1;
+        for (int i = 0; i < entriesToAdd; i++) {
+            incremental.put(i, i);
+        }
+        assertTrue(incremental.isRehashing());
+
+        // Update and remove keys while the old bucket array is still in use
+        assertEquals(0, incremental.put(0, 100));
+        assertTrue(incremental.remove(1));
+        assertEquals(entriesToAdd - 1, incremental.size());
+
+        for (int i = 0; i < 1000; i++) {
+            incremental.put(entriesToAdd + i, i);
+        }
+        for (int i = 2; i < entriesToAdd; i++) {
+            assertEquals(i, incremental.get(i));
+        }
+        assertEquals(100, incremental.get(0));
+        assertFalse(incremental.containsKey(1));
+        assertEquals(entriesToAdd - 1 + 1000, incremental.size());
+    }
+
+    /**
+     * Tests the single lookup compute, computeIfAbsent, computeIfPresent, merge and getOrDefault methods.
+     */
+    @Test
+    void testComputeAndMerge() {
+        assertEquals(0, map.getOrDefault("Brendan", 0));
+        assertEquals(1, map.merge("Brendan", 1, Integer::sum));
+        assertEquals(3, map.merge("Brendan", 2, Integer::sum));
+        assertEquals(3, map.computeIfAbsent("Brendan", key -> 100));
+        assertEquals(5, map.computeIfAbsent("Alice", String::length));
+
+        assertEquals(6, map.computeIfPresent("Alice", (key, value) -> value + 1));
+        assertNull(map.computeIfPresent("Bob", (key, value) -> 1));
+        assertEquals(1, map.compute("Bob", (key, value) -> value == null ? 1 : value + 1));
+
+        // A null result removes the entry
+        assertNull(map.compute("Bob", (key, value) -> null));
+        assertNull(map.merge("Alice", 1, (a, b) -> null));
+        assertFalse(map.containsKey("Alice"));
+        assertEquals(1, map.size());
+
+        // Counting many keys through resizes
+        for (int i = 0; i < 1000; i++) map.merge("k" + (i % 100), 1, Integer::sum);
+        assertEquals(101, map.size());
+        assertEquals(10, map.get("k42"));
+    }
+
+    /**
+     * Tests walking every entry with a cursor, forEach and replaceAll, including during an incremental resize.
+     */
+    @Test
+    void testCursorAndBulkOperations() {
+        CustomHashMap<Integer, Integer> incremental = new CustomHashMap<>(true);
+        for (int i = 0; i < 1000; i++) incremental.put(i, i);
+
+        MapCursor<Integer, Integer> cursor = incremental.cursor();
+        assertThrows(IllegalStateException.class, cursor::key);
+        long keySum = 0;
+        int visited = 0;
+        while (cursor.advance()) {
+            keySum += cursor.key();
+            cursor.setValue(cursor.value() * 2);
+            visited++;
+        }
+        assertEquals(1000, visited);
+        assertEquals(999L * 1000 / 2, keySum);
+        assertEquals(84, incremental.get(42));
+
+        incremental.replaceAll((key, value) -> value + 1);
+        long[] valueSum = new long[1];
+        incremental.forEach((key, value) -> valueSum[0] += value);
+        assertEquals(999L * 1000 + 1000, valueSum[0]);
+    }
+
+    /**
+     * Tests that colliding keys are kept in a tree bucket that supports every map operation,
+     * across resizes and removals back below the untreeify threshold.
+     */
+    @Test
+    void testTreeifiedBucket() {
+        String[] colliding = CustomHashSetTest.collidingStrings(7);
+        for (int i = 0; i < colliding.length; i++) map.put(colliding[i], i);
+        for (int i = 0; i < 200; i++) map.put("Other" + i, i);
+
+        assertEquals(1, map.getNumberOfTreeBuckets());
+        assertTrue(map.getLargestBucketSize() >= colliding.length);
+        for (int i = 0; i < colliding.length; i++) assertEquals(i, map.get(colliding[i]));
+        assertEquals(100, map.merge(colliding[0], 100, Integer::sum));
+
+        long[] sum = new long[1];
+        map.forEach((key, value) -> sum[0]++);
+        assertEquals(colliding.length + 200, sum[0]);
+
+        // A few unrelated keys may share the bucket, so it is shrunk well below the threshold
+        for (int i = 0; i < colliding.length - 2; i++) {
+            assertTrue(map.remove(colliding[i]));
+        }
+        assertEquals(0, map.getNumberOfTreeBuckets());
+        assertEquals(colliding.length - 1, map.get(colliding[colliding.length - 1]));
+    }
+
+    /**
+     * Tests that randomly hashed keys never treeify a bucket, at the default and a larger load factor,
+     * even though their fullest buckets hold more than the fixed threshold of eight entries.
+     */
+    @Test
+    void testRandomKeysNeverTreeify() {
+        Random random = new Random(12);
+        for (double loadFactor : new double[] {CustomHashMap.AVERAGE_BUCKET_SIZE, 8}) {
+            CustomHashMap<Long, Long> randomKeys = new CustomHashMap<>(0, loadFactor, false);
+            for (int i = 0; i < 200_000; i++) {
+                randomKeys.put(random.nextLong(), (long) i);
+                assertEquals(0, randomKeys.getNumberOfTreeBuckets());
+            }
+            assertTrue(randomKeys.getLargestBucketSize() > 8);
+            assertTrue(randomKeys.getLargestBucketSize() <= randomKeys.getTreeifyThreshold());
+        }
+    }
+
+    /**
+     * Tests that clearing a map removes every entry, including tree buckets, while keeping
+     * its bucket array for the next fill.
+     */
+    @Test
+    void testClear() {
+        String[] colliding = CustomHashSetTest.collidingStrings(6);
+        for (int i = 0; i < colliding.length; i++) map.put(colliding[i], i);
+        for (int i = 0; i < 10_000; i++) map.put("Key" + i, i);
+        int buckets = map.getNumberOfBuckets();
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.getNumberOfTreeBuckets());
+        assertNull(map.get("Key1"));
+        assertNull(map.get(colliding[0]));
+        assertEquals(buckets, map.getNumberOfBuckets());
+
+        for (int i = 0; i < 10_000; i++) map.put("Key" + i, -i);
+        assertEquals(buckets, map.getNumberOfBuckets());
+        assertEquals(-42, map.get("Key42"));
+    }
+
+    /**
+     * Tests pre-sizing, ensureCapacity, trimToSize and putAll.
+     */
+    @Test
+    void testCapacityManagement() {
+        CustomHashMap<String, Integer> presized = new CustomHashMap<>(1000);
+        int buckets = presized.getNumberOfBuckets();
+        for (int i = 0; i < 1000; i++) presized.put("Key" + i, i);
+        assertEquals(buckets, presized.getNumberOfBuckets());
+
+        map.ensureCapacity(5000);
+        assertTrue(map.getNumberOfBuckets() * map.getLoadFactor() >= 5000);
+        map.putAll(presized);
+        assertEquals(1000, map.size());
+        assertEquals(42, map.get("Key42"));
+
+        map.trimToSize();
+        assertTrue(map.getNumberOfBuckets() < 5000 / CustomHashMap.AVERAGE_BUCKET_SIZE);
+        assertEquals(999, map.get("Key999"));
+        assertThrows(IllegalArgumentException.class, () -> new CustomHashMap<>(10, 0, false));
+    }
+
+    /**
+     * Tests that bulk loading into a map that already holds entries sizes the bucket array for both
+     * maps up front, so the bucket count changes at most once.
+     */
+    @Test
+    void testPutAllIntoFilledMapResizesOnce() {
+        CustomHashMap<Integer, Integer> filled = new CustomHashMap<>();
+        for (int i = 0; i < 3000; i++) filled.put(i, i);
+        int before = filled.getNumberOfBuckets();
+
+        // Records the bucket count of the filled map before every entry that putAll adds
+        int[] changes = new int[2];
+        changes[1] = before;
+        CustomHashMap<Integer, Integer> bulk = new CustomHashMap<Integer, Integer>() {
+            @Override
+            public void forEach(BiConsumer<? super Integer, ? super Integer> action) {
+                super.forEach((key, value) -> {
+                    if (filled.getNumberOfBuckets() != changes[1]) changes[0]++;
+                    changes[1] = filled.getNumberOfBuckets();
+                    action.accept(key, value);
+                });
+            }
+        };
+        for (int i = 3000; i < 13_000; i++) bulk.put(i, i);
+
+        filled.putAll(bulk);
+        if (filled.getNumberOfBuckets() != changes[1]) changes[0]++;
+        assertEquals(13_000, filled.size());
+        assertEquals(1, changes[0]);
+        assertTrue(filled.getNumberOfBuckets() > before);
+        assertEquals(12_999, filled.get(12_999));
+    }
+
+}
@@ -5,10 +5,13 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.brendanddev.collections.core.CustomIterator;
+import com.brendanddev.collections.list.CustomArrayList;
 import com.brendanddev.collections.set.CustomHashSet;
 
 /**
@@ -111,5 +114,201 @@ public class CustomHashSetTest {
             assertTrue(set.contains("Element" + i));
         }
     }
-    
+
+    /**
+     * Tests that a bucket of colliding strings is treeified, stays searchable, and becomes a list again.
+     * Strings built from the blocks "Aa" and "BB" all share one hash code.
+     */
+    @Test
+    void testTreeifiedBucket() {
+        String[] colliding = collidingStrings(6);
+        for (String element : colliding) assertTrue(set.add(element));
+        assertFalse(set.add(colliding[0]));
+
+        assertEquals(1, set.getNumberOfTreeBuckets());
+        assertEquals(colliding.length, set.getLargestBucketSize());
+        for (String element : colliding) assertTrue(set.contains(element));
+        assertFalse(set.contains("AaAaAaAaAaAa" + "x"));
+
+        // The iterator visits every element of the tree
+        int count = 0;
+        CustomIterator<String> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        assertEquals(colliding.length, count);
+
+        // Shrinking the bucket converts it back into a list
+        for (int i = 0; i < colliding.length - set.getUntreeifyThreshold(); i++) {
+            assertTrue(set.remove(colliding[i]));
+        }
+        assertEquals(0, set.getNumberOfTreeBuckets());
+        assertTrue(set.contains(colliding[colliding.length - 1]));
+    }
+
+    /**
+     * Helper to build every string made of the given number of "Aa" and "BB" blocks.
+     * 
+     * @param blocks The number of blocks in each string.
+     * @return 2^blocks distinct strings with the same hash code.
+     */
+    static String[] collidingStrings(int blocks) {
+        String[] result = new String[1 << blocks];
+        for (int i = 0; i < result.length; i++) {
+            StringBuilder builder = new StringBuilder();
+            for (int b = 0; b < blocks; b++) {
+                builder.append(((i >>> b) & 1) == 0 ? "Aa" : "BB");
+            }
+            result[i] = builder.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Tests that randomly hashed elements never treeify a bucket, although the fullest buckets of a set
+     * with the default load factor hold more than the fixed threshold of eight elements.
+     */
+    @Test
+    void testRandomElementsNeverTreeify() {
+        Random random = new Random(12);
+        CustomHashSet<Long> randomElements = new CustomHashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            randomElements.add(random.nextLong());
+            assertEquals(0, randomElements.getNumberOfTreeBuckets());
+        }
+        assertTrue(randomElements.getLargestBucketSize() > 8);
+        assertTrue(randomElements.getLargestBucketSize() <= randomElements.getTreeifyThreshold());
+    }
+
+    /**
+     * Tests pre-sizing, addAll, ensureCapacity and trimToSize.
+     */
+    @Test
+    void testCapacityManagement() {
+        CustomHashSet<String> presized = new CustomHashSet<>(1000, 1.0);
+        int buckets = presized.getNumberOfBuckets();
+        CustomArrayList<String> source = new CustomArrayList<>();
+        for (int i = 0; i < 1000; i++) source.add("Element" + i);
+        assertTrue(presized.addAll(source));
+        assertEquals(buckets, presized.getNumberOfBuckets());
+        assertFalse(presized.addAll(source));
+        assertEquals(1000, presized.size());
+
+        set.ensureCapacity(3000);
+        int grown = set.getNumberOfBuckets();
+        set.add("Brendan");
+        set.trimToSize();
+        assertTrue(set.getNumberOfBuckets() < grown);
+        assertTrue(set.contains("Brendan"));
+    }
+
+    /**
+     * Tests bulk set algebra between sets with different bucket counts, including treeified buckets.
+     */
+    @Test
+    void testBulkSetAlgebra() {
+        // Different expected sizes give the two sets different bucket counts
+        CustomHashSet<Integer> a = new CustomHashSet<>(10);
+        CustomHashSet<Integer> b = new CustomHashSet<>(100_000);
+        for (int i = 0; i < 30_000; i++) a.add(i);
+        for (int i = 20_000; i < 25_000; i++) b.add(i);
+        assertNotEquals(a.getNumberOfBuckets(), b.getNumberOfBuckets());
+
+        CustomHashSet<Integer> both = CustomHashSet.intersect(a, b);
+        assertEquals(5_000, both.size());
+        assertTrue(both.contains(20_000));
+        assertFalse(both.contains(19_999));
+        assertEquals(both.size(), CustomHashSet.intersect(b, a).size());
+
+        CustomHashSet<Integer> union = new CustomHashSet<>();
+        assertTrue(b.unionInto(union));
+        assertTrue(a.unionInto(union));
+        assertFalse(b.unionInto(union));
+        assertEquals(30_000, union.size());
+
+        assertTrue(a.removeAll(b));
+        assertEquals(25_000, a.size());
+        assertFalse(a.contains(22_000));
+        assertTrue(union.retainAll(b));
+        assertEquals(5_000, union.size());
+        assertFalse(union.retainAll(b));
+
+        // Filtering through a plain collection and through treeified buckets
+        String[] colliding = collidingStrings(6);
+        CustomHashSet<String> strings = new CustomHashSet<>();
+        CustomArrayList<String> keep = new CustomArrayList<>();
+        for (int i = 0; i < colliding.length; i++) {
+            strings.add(colliding[i]);
+            if (i % 4 == 0) keep.add(colliding[i]);
+        }
+        assertTrue(strings.getNumberOfTreeBuckets() > 0);
+        assertTrue(strings.retainAll(keep));
+        assertEquals(keep.size(), strings.size());
+        for (int i = 0; i < colliding.length; i++) assertEquals(i % 4 == 0, strings.contains(colliding[i]));
+    }
+
+    /**
+     * Tests that the parallel intersection agrees with the sequential one on sets large enough to split.
+     */
+    @Test
+    void testParallelIntersect() {
+        CustomHashSet<Integer> a = new CustomHashSet<>();
+        CustomHashSet<Integer> b = new CustomHashSet<>();
+        for (int i = 0; i < 3 * CustomHashSet.PARALLEL_THRESHOLD; i++) a.add(i);
+        for (int i = 0; i < 6 * CustomHashSet.PARALLEL_THRESHOLD; i += 2) b.add(i);
+
+        CustomHashSet<Integer> parallel = CustomHashSet.parallelIntersect(a, b);
+        CustomHashSet<Integer> sequential = CustomHashSet.intersect(a, b);
+        assertEquals(sequential.size(), parallel.size());
+        assertEquals(3 * CustomHashSet.PARALLEL_THRESHOLD / 2, parallel.size());
+        CustomIterator<Integer> iterator = parallel.iterator();
+        while (iterator.hasNext()) {
+            int value = iterator.next();
+            assertTrue(value % 2 == 0 && sequential.contains(value));
+        }
+    }
+
+    /**
+     * Tests that bulk loading into a set that already holds elements sizes the bucket array for both
+     * up front, so the bucket count changes at most once.
+     */
+    @Test
+    void testAddAllIntoFilledSetResizesOnce() {
+        CustomHashSet<Integer> filled = new CustomHashSet<>();
+        for (int i = 0; i < 3000; i++) filled.add(i);
+        int before = filled.getNumberOfBuckets();
+
+        // Records the bucket count of the filled set before every element that addAll adds
+        int[] changes = new int[2];
+        changes[1] = before;
+        CustomArrayList<Integer> bulk = new CustomArrayList<Integer>() {
+            @Override
+            public CustomIterator<Integer> iterator() {
+                CustomIterator<Integer> elements = super.iterator();
+                return new CustomIterator<Integer>() {
+                    @Override
+                    public boolean hasNext() {
+                        return elements.hasNext();
+                    }
+
+                    @Override
+                    public Integer next() {
+                        if (filled.getNumberOfBuckets() != changes[1]) changes[0]++;
+                        changes[1] = filled.getNumberOfBuckets();
+                        return elements.next();
+                    }
+                };
+            }
+        };
+        for (int i = 3000; i < 13_000; i++) bulk.add(i);
+
+        assertTrue(filled.addAll(bulk));
+        if (filled.getNumberOfBuckets() != changes[1]) changes[0]++;
+        assertEquals(13_000, filled.size());
+        assertEquals(1, changes[0]);
+        assertTrue(filled.getNumberOfBuckets() > before);
+        assertTrue(filled.contains(12_999));
+    }
+
 }
@@ -0,0 +1,78 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.cache.CustomLRUCache;
+
+/**
+ * Unit tests for the CustomLRUCache class.
+ * Tests eviction order for entry and weight bounded caches, and the hit, miss and eviction counters.
+ */
+public class CustomLRUCacheTest {
+
+    /**
+     * Tests that the least recently used entry is evicted once the cache is full.
+     */
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        CustomLRUCache<String, Integer> cache = new CustomLRUCache<>(2);
+        cache.put("A", 1);
+        cache.put("B", 2);
+
+        // Reading A makes B the least recently used entry
+        assertEquals(1, cache.get("A"));
+        cache.put("C", 3);
+
+        assertFalse(cache.containsKey("B"));
+        assertTrue(cache.containsKey("A"));
+        assertTrue(cache.containsKey("C"));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    /**
+     * Tests that a weight bounded cache evicts until the total weight fits.
+     */
+    @Test
+    void testWeightBound() {
+        CustomLRUCache<String, String> cache = new CustomLRUCache<>(10, (key, value) -> value.length());
+        cache.put("A", "aaaa");
+        cache.put("B", "bbbb");
+        cache.put("C", "cccccc");
+
+        // Evicting A alone brings the total weight back to the bound
+        assertFalse(cache.containsKey("A"));
+        assertTrue(cache.containsKey("B"));
+        assertEquals(10, cache.weightedSize());
+
+        // Replacing a value updates the total weight
+        cache.put("C", "cc");
+        assertEquals(6, cache.weightedSize());
+    }
+
+    /**
+     * Tests the hit and miss counters and that remove does not count as an eviction.
+     */
+    @Test
+    void testCounters() {
+        CustomLRUCache<String, Integer> cache = new CustomLRUCache<>(4);
+        cache.put("A", 1);
+        cache.get("A");
+        cache.get("A");
+        assertNull(cache.get("B"));
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2.0 / 3, cache.getHitRate(), 1e-9);
+
+        assertTrue(cache.remove("A"));
+        assertTrue(cache.isEmpty());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.list.CustomArrayList;
+import com.brendanddev.collections.map.CustomMultimap;
+
+/**
+ * Unit tests for the CustomMultimap class.
+ * Tests adding values under keys, including the promotion from an inline value to an array
+ * and back, bulk adds, removals and iteration.
+ */
+public class CustomMultimapTest {
+
+    private CustomMultimap<String, Integer> multimap;
+
+    @BeforeEach
+    void setUp() {
+        multimap = new CustomMultimap<>();
+    }
+
+    /**
+     * Tests that values are kept in insertion order across the promotion to an array,
+     * and that removing values demotes the key again.
+     */
+    @Test
+    void testPutGetAndRemove() {
+        multimap.put("a", 1);
+        assertEquals(1, multimap.valueCount("a"));
+        multimap.put("a", 2);
+        multimap.put("a", 3);
+        multimap.put("b", 4);
+
+        CustomArrayList<Integer> values = multimap.get("a");
+        assertEquals(3, values.size());
+        assertEquals(1, values.get(0));
+        assertEquals(3, values.get(2));
+        assertEquals(4, multimap.size());
+        assertEquals(2, multimap.keyCount());
+        assertTrue(multimap.containsEntry("a", 2));
+        assertFalse(multimap.containsEntry("b", 2));
+
+        assertTrue(multimap.remove("a", 2));
+        assertTrue(multimap.remove("a", 1));
+        assertFalse(multimap.remove("a", 1));
+        assertEquals(1, multimap.valueCount("a"));
+        assertEquals(3, multimap.get("a").get(0));
+
+        assertTrue(multimap.remove("a", 3));
+        assertFalse(multimap.containsKey("a"));
+        assertEquals(0, multimap.get("a").size());
+        assertEquals(1, multimap.size());
+        assertThrows(IllegalArgumentException.class, () -> multimap.put("a", null));
+    }
+
+    /**
+     * Tests putAll onto absent, inline and promoted keys, and removeAll.
+     */
+    @Test
+    void testPutAllAndRemoveAll() {
+        CustomArrayList<Integer> values = new CustomArrayList<>();
+        for (int i = 0; i < 5; i++) values.add(i);
+
+        assertTrue(multimap.putAll("new", values));
+        multimap.put("inline", 10);
+        assertTrue(multimap.putAll("inline", values));
+        assertFalse(multimap.putAll("new", new CustomArrayList<>()));
+        assertTrue(multimap.putAll("new", values));
+
+        assertEquals(10, multimap.valueCount("new"));
+        assertEquals(6, multimap.valueCount("inline"));
+        assertEquals(10, multimap.get("inline").get(0));
+        assertEquals(16, multimap.size());
+
+        CustomArrayList<Integer> removed = multimap.removeAll("new");
+        assertEquals(10, removed.size());
+        assertEquals(6, multimap.size());
+        assertEquals(0, multimap.removeAll("new").size());
+    }
+
+    /**
+     * Tests iteration over every value and over the value count of every key.
+     */
+    @Test
+    void testIteration() {
+        for (int i = 0; i < 100; i++) {
+            for (int v = 0; v <= i % 3; v++) {
+                multimap.put("key" + i, v);
+            }
+        }
+        multimap.trimToSize();
+
+        long[] sum = new long[1];
+        int[] pairs = new int[1];
+        multimap.forEach((key, value) -> {
+            sum[0] += value;
+            pairs[0]++;
+        });
+        assertEquals(multimap.size(), pairs[0]);
+        assertEquals(132, sum[0]);
+
+        int[] counted = new int[1];
+        multimap.forEachValueCount((key, count) -> {
+            assertEquals(multimap.valueCount(key), count);
+            counted[0] += count;
+        });
+        assertEquals(multimap.size(), counted[0]);
+
+        multimap.clear();
+        assertTrue(multimap.isEmpty());
+        assertEquals(0, multimap.keyCount());
+    }
+
+}
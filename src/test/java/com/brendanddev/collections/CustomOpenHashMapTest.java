@@ -0,0 +1,117 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.map.CustomOpenHashMap;
+
+/**
+ * Unit tests for the CustomOpenHashMap class.
+ * Tests inserting, updating, looking up and removing entries, including removals
+ * that have to shift colliding entries back along their probe sequence.
+ */
+public class CustomOpenHashMapTest {
+
+    private CustomOpenHashMap<String, Integer> map;
+
+    /**
+     * Initializes a new instance of CustomOpenHashMap before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        map = new CustomOpenHashMap<>();
+    }
+
+    /**
+     * Tests adding entries and updating the value of an existing key.
+     */
+    @Test
+    void testPutAndGet() {
+        assertNull(map.put("Brendan", 1));
+        assertEquals(1, map.get("Brendan"));
+        assertNull(map.get("Alice"));
+
+        // Updating an existing key returns the old value
+        assertEquals(1, map.put("Brendan", 2));
+        assertEquals(2, map.get("Brendan"));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Tests removing entries from the map.
+     */
+    @Test
+    void testRemove() {
+        map.put("Brendan", 1);
+        map.put("Alice", 2);
+
+        assertTrue(map.remove("Brendan"));
+        assertFalse(map.containsKey("Brendan"));
+        assertTrue(map.containsKey("Alice"));
+        // Key not in map
+        assertFalse(map.remove("NonExistent"));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Tests that entries remain reachable after removing keys from the middle of colliding runs.
+     * Keys with equal hash codes share a probe sequence, so every removal must shift the rest back.
+     */
+    @Test
+    void testRemoveWithCollisions() {
+        CustomOpenHashMap<CollidingKey, Integer> colliding = new CustomOpenHashMap<>();
+        for (int i = 0; i < 20; i++) colliding.put(new CollidingKey(i), i);
+
+        for (int i = 0; i < 20; i += 2) {
+            assertTrue(colliding.remove(new CollidingKey(i)));
+        }
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i % 2 == 1, colliding.containsKey(new CollidingKey(i)));
+        }
+        assertEquals(10, colliding.size());
+    }
+
+    /**
+     * Tests that the map grows past its default capacity and keeps every entry.
+     */
+    @Test
+    void testResize() {
+        int entriesToAdd = 1000;
+        for (int i = 0; i < entriesToAdd; i++) {
+            map.put("Key" + i, i);
+        }
+
+        assertTrue(map.getCapacity() > 16);
+        assertEquals(entriesToAdd, map.size());
+        for (int i = 0; i < entriesToAdd; i++) {
+            assertEquals(i, map.get("Key" + i));
+        }
+    }
+
+    /**
+     * A key type whose instances all share the same hash code.
+     */
+    private static class CollidingKey {
+        private final int id;
+
+        CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.core.CustomIterator;
+import com.brendanddev.collections.set.CustomSwissHashSet;
+
+/**
+ * Unit tests for the CustomSwissHashSet class.
+ * Tests adding, finding and removing elements, tombstone handling, growth, and keys whose
+ * hashes collide on the control bytes.
+ */
+public class CustomSwissHashSetTest {
+
+    private CustomSwissHashSet<String> set;
+
+    /**
+     * Initializes a new instance of CustomSwissHashSet before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        set = new CustomSwissHashSet<>();
+    }
+
+    /**
+     * Tests adding, finding and removing elements, and rejecting null and duplicate elements.
+     */
+    @Test
+    void testAddContainsRemove() {
+        assertTrue(set.add("Brendan"));
+        assertTrue(set.add("Alice"));
+        assertFalse(set.add("Brendan"));
+        assertEquals(2, set.size());
+
+        assertTrue(set.contains("Alice"));
+        assertFalse(set.contains("Bob"));
+        assertFalse(set.contains(null));
+        assertThrows(IllegalArgumentException.class, () -> set.add(null));
+
+        assertTrue(set.remove("Brendan"));
+        assertFalse(set.remove("Brendan"));
+        assertFalse(set.contains("Brendan"));
+        assertEquals(1, set.size());
+    }
+
+    /**
+     * Tests that the set grows past many groups and agrees with Java's HashSet under random operations.
+     */
+    @Test
+    void testAgainstJavaHashSet() {
+        CustomSwissHashSet<Integer> swiss = new CustomSwissHashSet<>();
+        HashSet<Integer> expected = new HashSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            int value = random.nextInt(20_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), swiss.remove(value));
+            } else {
+                assertEquals(expected.add(value), swiss.add(value));
+            }
+        }
+        assertEquals(expected.size(), swiss.size());
+        for (int i = 0; i < 20_000; i++) {
+            assertEquals(expected.contains(i), swiss.contains(i));
+        }
+
+        int iterated = 0;
+        CustomIterator<Integer> iterator = swiss.iterator();
+        while (iterator.hasNext()) {
+            assertTrue(expected.contains(iterator.next()));
+            iterated++;
+        }
+        assertEquals(expected.size(), iterated);
+    }
+
+    /**
+     * Tests that removals from full groups leave tombstones that are reused and later cleared.
+     */
+    @Test
+    void testTombstones() {
+        CustomSwissHashSet<Integer> swiss = new CustomSwissHashSet<>(1000);
+        int capacity = swiss.getCapacity();
+        for (int i = 0; i < 1000; i++) swiss.add(i);
+
+        // Churn the contents at a constant size, which must not grow the table
+        for (int i = 1000; i < 100_000; i++) {
+            swiss.remove(i - 1000);
+            swiss.add(i);
+        }
+        assertEquals(1000, swiss.size());
+        assertEquals(capacity, swiss.getCapacity());
+        assertTrue(swiss.getNumberOfTombstones() < capacity);
+        for (int i = 99_000; i < 100_000; i++) assertTrue(swiss.contains(i));
+        assertFalse(swiss.contains(0));
+    }
+
+    /**
+     * Tests elements that share their hash code, and so their control bytes and probe sequence.
+     */
+    @Test
+    void testCollidingHashes() {
+        CustomSwissHashSet<CollidingKey> swiss = new CustomSwissHashSet<>();
+        for (int i = 0; i < 100; i++) assertTrue(swiss.add(new CollidingKey(i)));
+        for (int i = 0; i < 100; i++) assertTrue(swiss.contains(new CollidingKey(i)));
+        for (int i = 0; i < 100; i += 2) assertTrue(swiss.remove(new CollidingKey(i)));
+        for (int i = 0; i < 100; i++) assertEquals(i % 2 == 1, swiss.contains(new CollidingKey(i)));
+        assertEquals(50, swiss.size());
+
+        swiss.clear();
+        assertTrue(swiss.isEmpty());
+        assertFalse(swiss.contains(new CollidingKey(1)));
+    }
+
+    /**
+     * A key whose instances all share one hash code.
+     */
+    private static final class CollidingKey {
+        private final int value;
+
+        CollidingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof CollidingKey && ((CollidingKey) other).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+}
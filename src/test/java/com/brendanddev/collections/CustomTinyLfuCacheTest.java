@@ -0,0 +1,144 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.cache.CustomTinyLfuCache;
+import com.brendanddev.collections.cache.FrequencySketch;
+
+/**
+ * Unit tests for the CustomTinyLfuCache class.
+ * Tests that the cache stays within its bound, that frequently used entries survive a scan
+ * of one-off keys, that the frequency sketch is sized by entries rather than weight, and that
+ * entries expire after write and after access.
+ */
+public class CustomTinyLfuCacheTest {
+
+    /**
+     * Tests that the number of entries never exceeds the maximum.
+     */
+    @Test
+    void testBound() {
+        CustomTinyLfuCache<Integer, Integer> cache = new CustomTinyLfuCache<>(100);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+            assertTrue(cache.size() <= 100);
+        }
+        assertEquals(100, cache.size());
+    }
+
+    /**
+     * Tests that popular entries are not displaced by a scan over keys requested only once.
+     */
+    @Test
+    void testScanResistance() {
+        CustomTinyLfuCache<Integer, Integer> cache = new CustomTinyLfuCache<>(100);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.get(i) == null) cache.put(i, i);
+            }
+        }
+
+        for (int i = 1000; i < 1500; i++) {
+            if (cache.get(i) == null) cache.put(i, i);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(cache.containsKey(i));
+        }
+    }
+
+    /**
+     * Tests that updating entries of the main region to a larger weight evicts main region
+     * entries until the cache is back within its weight bound.
+     */
+    @Test
+    void testWeightGrowsOnUpdate() {
+        CustomTinyLfuCache<Integer, Integer> cache = new CustomTinyLfuCache<>(1000L, (k, v) -> v);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, 10);
+            cache.get(i);
+        }
+        assertTrue(cache.weightedSize() <= cache.getMaxWeight());
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, 500);
+            assertTrue(cache.weightedSize() <= cache.getMaxWeight(), "Weighted size " + cache.weightedSize());
+        }
+        assertTrue(cache.getEvictionCount() > 0);
+        assertTrue(cache.size() <= 2);
+    }
+
+    /**
+     * Tests that a cache bounded by a large weight, such as a number of bytes, sizes its sketch by the
+     * number of entries it actually holds, and still keeps popular entries through a scan.
+     */
+    @Test
+    void testLargeWeightBound() {
+        CustomTinyLfuCache<Integer, byte[]> cache = new CustomTinyLfuCache<>(1L << 40, (k, v) -> v.length);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.get(i) == null) cache.put(i, new byte[1024]);
+            }
+        }
+        for (int i = 1000; i < 3000; i++) {
+            if (cache.get(i) == null) cache.put(i, new byte[1024]);
+        }
+        assertEquals(2050, cache.size());
+        assertEquals(2050L * 1024, cache.weightedSize());
+        for (int i = 0; i < 50; i++) assertTrue(cache.containsKey(i));
+    }
+
+    /**
+     * Tests that growing a FrequencySketch keeps every estimate, and that it ages once the
+     * sample period of its new size is complete.
+     */
+    @Test
+    void testSketchGrowth() {
+        FrequencySketch<Integer> sketch = new FrequencySketch<>(16);
+        for (int i = 0; i < 5; i++) sketch.increment(42);
+        int before = sketch.frequency(7);
+
+        sketch.ensureCapacity(1000);
+        assertEquals(1024, sketch.getTableLength());
+        assertEquals(5, sketch.frequency(42));
+        assertEquals(before, sketch.frequency(7));
+        sketch.ensureCapacity(10);
+        assertEquals(1024, sketch.getTableLength());
+
+        for (int i = 0; i < 20_000; i++) sketch.increment(i);
+        assertTrue(sketch.getResetCount() > 0);
+        assertTrue(sketch.frequency(42) < 5);
+    }
+
+    /**
+     * Tests expiration after write and after access using a manual ticker.
+     */
+    @Test
+    void testExpiration() {
+        long[] time = {0};
+        CustomTinyLfuCache<String, String> writeExpiring = new CustomTinyLfuCache<>(10, (k, v) -> 1, 100, 0, () -> time[0]);
+        CustomTinyLfuCache<String, String> accessExpiring = new CustomTinyLfuCache<>(10, (k, v) -> 1, 0, 100, () -> time[0]);
+        writeExpiring.put("A", "a");
+        accessExpiring.put("A", "a");
+
+        // Reading keeps an access expiring entry alive but not a write expiring one
+        time[0] = 60;
+        assertEquals("a", writeExpiring.get("A"));
+        assertEquals("a", accessExpiring.get("A"));
+        time[0] = 120;
+        assertNull(writeExpiring.get("A"));
+        assertEquals("a", accessExpiring.get("A"));
+
+        time[0] = 300;
+        accessExpiring.cleanUp();
+        assertFalse(accessExpiring.containsKey("A"));
+        assertEquals(0, accessExpiring.size());
+        assertEquals(1, writeExpiring.getExpirationCount());
+    }
+
+}
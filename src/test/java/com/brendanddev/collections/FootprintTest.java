@@ -0,0 +1,98 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.core.Footprint;
+import com.brendanddev.collections.list.CustomArrayList;
+import com.brendanddev.collections.list.CustomLinkedList;
+import com.brendanddev.collections.map.CustomHashMap;
+import com.brendanddev.collections.map.CustomMultimap;
+import com.brendanddev.collections.map.IntIntHashMap;
+import com.brendanddev.collections.set.CustomHashSet;
+
+/**
+ * Unit tests for the Footprint class and the MemoryFootprint estimates of the collections.
+ * Tests the object layout arithmetic, and that estimates track capacity, nodes and slack.
+ */
+public class FootprintTest {
+
+    /**
+     * Tests the aligned object and array size estimates and the validation of a Footprint.
+     */
+    @Test
+    void testLayoutArithmetic() {
+        assertEquals(16, Footprint.objectBytes(0, 0));
+        assertEquals(24, Footprint.objectBytes(3, 0));
+        assertEquals(16, Footprint.arrayBytes(0, Footprint.REFERENCE_BYTES));
+        assertEquals(56, Footprint.arrayBytes(10, Footprint.REFERENCE_BYTES));
+
+        Footprint sum = new Footprint(100, 20, 40).plus(new Footprint(10, 5, 0));
+        assertEquals(135, sum.retainedBytes());
+        assertEquals(40, sum.slackBytes());
+        assertThrows(IllegalArgumentException.class, () -> new Footprint(10, 0, 20));
+        assertThrows(IllegalArgumentException.class, () -> new Footprint(-1, 0, 0));
+    }
+
+    /**
+     * Tests that list estimates separate array capacity from slack, and count one node per linked element.
+     */
+    @Test
+    void testListFootprints() {
+        CustomArrayList<Integer> arrayList = new CustomArrayList<>();
+        for (int i = 0; i < 3; i++) arrayList.add(i);
+        Footprint footprint = arrayList.footprint();
+        assertEquals(Footprint.arrayBytes(10, Footprint.REFERENCE_BYTES), footprint.arrayBytes());
+        assertEquals(7 * Footprint.REFERENCE_BYTES, footprint.slackBytes());
+
+        CustomLinkedList<Integer> linkedList = new CustomLinkedList<>();
+        long empty = linkedList.footprint().nodeBytes();
+        for (int i = 0; i < 5; i++) linkedList.add(i);
+        assertEquals(empty + 5 * Footprint.objectBytes(3, 0), linkedList.footprint().nodeBytes());
+        assertEquals(0, linkedList.footprint().arrayBytes());
+    }
+
+    /**
+     * Tests that hash structure estimates grow with their contents and shrink their slack when trimmed.
+     */
+    @Test
+    void testHashFootprints() {
+        CustomHashMap<Integer, Integer> map = new CustomHashMap<>();
+        long emptyMap = map.footprint().retainedBytes();
+        for (int i = 0; i < 1000; i++) map.put(i, i);
+        assertTrue(map.footprint().nodeBytes() >= 1000 * Footprint.objectBytes(2, Integer.BYTES));
+        assertTrue(map.footprint().retainedBytes() > emptyMap);
+
+        CustomHashSet<Integer> set = new CustomHashSet<>(10_000);
+        for (int i = 0; i < 100; i++) set.add(i);
+        long slackBefore = set.footprint().slackBytes();
+        set.trimToSize();
+        assertTrue(set.footprint().slackBytes() < slackBefore);
+
+        IntIntHashMap primitive = new IntIntHashMap();
+        Footprint before = primitive.footprint();
+        assertEquals(before.arrayBytes() - 2 * Footprint.ARRAY_HEADER_BYTES, before.slackBytes());
+        primitive.put(0, 1);
+        primitive.put(7, 1);
+        assertEquals(before.slackBytes() - 2 * Integer.BYTES, primitive.footprint().slackBytes());
+    }
+
+    /**
+     * Tests that a multimap only pays for a value array once a key holds a second value.
+     */
+    @Test
+    void testMultimapFootprint() {
+        CustomMultimap<String, Integer> multimap = new CustomMultimap<>();
+        multimap.put("key", 1);
+        multimap.put("other", 1);
+        long arraysBefore = multimap.footprint().arrayBytes();
+        long nodesBefore = multimap.footprint().nodeBytes();
+        multimap.put("key", 2);
+        assertEquals(nodesBefore + Footprint.objectBytes(1, Integer.BYTES), multimap.footprint().nodeBytes());
+        assertEquals(arraysBefore + Footprint.arrayBytes(2, Footprint.REFERENCE_BYTES), multimap.footprint().arrayBytes());
+    }
+
+}
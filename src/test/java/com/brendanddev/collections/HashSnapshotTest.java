@@ -0,0 +1,169 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.brendanddev.collections.core.CustomCodec;
+import com.brendanddev.collections.io.HashSnapshot;
+import com.brendanddev.collections.map.CustomHashMap;
+import com.brendanddev.collections.set.CustomHashSet;
+
+/**
+ * Unit tests for the HashSnapshot class.
+ * Tests saving and loading maps and sets through file channels, with buffers small enough
+ * to force refills and growth, and the detection of corrupt snapshots.
+ */
+public class HashSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that a map survives a save and load, including multi byte and oversized values.
+     */
+    @Test
+    void testMapRoundTrip() throws IOException {
+        CustomHashMap<Integer, String> map = new CustomHashMap<>();
+        for (int i = 0; i < 5000; i++) map.put(i, "Value" + i);
+        map.put(-1, "h\u00e9llo \u4e16\u754c \ud83d\ude00");
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 1000; i++) large.append("large");
+        map.put(-2, large.toString());
+
+        // A tiny buffer forces refills on every few records and growth for the large value
+        HashSnapshot snapshot = new HashSnapshot(64);
+        Path file = tempDir.resolve("map.bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            snapshot.writeMap(map, CustomCodec.INTEGER, CustomCodec.STRING, channel);
+        }
+        assertTrue(snapshot.getBufferSize() > 64);
+
+        CustomHashMap<Integer, String> loaded;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            loaded = new HashSnapshot(64).readMap(channel, CustomCodec.INTEGER, CustomCodec.STRING);
+        }
+        assertEquals(map.size(), loaded.size());
+        for (int i = -2; i < 5000; i++) {
+            assertEquals(map.get(i), loaded.get(i));
+        }
+    }
+
+    /**
+     * Tests that a set survives a save and load, and that loading a set snapshot as a map fails.
+     */
+    @Test
+    void testSetRoundTrip() throws IOException {
+        CustomHashSet<Long> set = new CustomHashSet<>();
+        for (long i = 0; i < 3000; i++) set.add(i * 1_000_003L);
+
+        HashSnapshot snapshot = new HashSnapshot();
+        Path file = tempDir.resolve("set.bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            snapshot.writeSet(set, CustomCodec.LONG, channel);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CustomHashSet<Long> loaded = snapshot.readSet(channel, CustomCodec.LONG);
+            assertEquals(set.size(), loaded.size());
+            for (long i = 0; i < 3000; i++) assertTrue(loaded.contains(i * 1_000_003L));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertThrows(IOException.class, () -> snapshot.readMap(channel, CustomCodec.LONG, CustomCodec.LONG));
+        }
+    }
+
+    /**
+     * Tests that corrupted and truncated snapshots are rejected.
+     */
+    @Test
+    void testCorruptSnapshot() throws IOException {
+        CustomHashMap<String, String> map = new CustomHashMap<>();
+        for (int i = 0; i < 100; i++) map.put("key" + i, "value" + i);
+
+        HashSnapshot snapshot = new HashSnapshot();
+        Path file = tempDir.resolve("corrupt.bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            snapshot.writeMap(map, CustomCodec.STRING, CustomCodec.STRING, channel);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+
+        // Flip a bit inside a value, which keeps the structure intact but breaks the checksum
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertThrows(IOException.class, () -> snapshot.readMap(channel, CustomCodec.STRING, CustomCodec.STRING));
+        }
+
+        // Drop the last bytes of the snapshot
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertThrows(IOException.class, () -> snapshot.readMap(channel, CustomCodec.STRING, CustomCodec.STRING));
+        }
+    }
+
+    /**
+     * Tests that a corrupt record count or record length in front of the checksum is rejected with an
+     * IOException, rather than pre-sizing a table or a buffer for it.
+     */
+    @Test
+    void testCorruptCountAndLength() throws IOException {
+        CustomHashSet<Long> set = new CustomHashSet<>();
+        for (long i = 0; i < 100; i++) set.add(i);
+
+        HashSnapshot snapshot = new HashSnapshot();
+        Path file = tempDir.resolve("header.bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            snapshot.writeSet(set, CustomCodec.LONG, channel);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        byte[] huge = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+        // The one byte count after magic, version and kind claims Integer.MAX_VALUE records
+        Files.write(file, splice(bytes, 6, huge));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertThrows(IOException.class, () -> snapshot.readSet(channel, CustomCodec.LONG));
+        }
+
+        // The one byte length of the first record claims Integer.MAX_VALUE bytes
+        Files.write(file, splice(bytes, 7, huge));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertThrows(IOException.class, () -> snapshot.readSet(channel, CustomCodec.LONG));
+        }
+    }
+
+    /**
+     * Tests that the String codec measures the same number of bytes it encodes.
+     */
+    @Test
+    void testStringEncodedSize() {
+        String[] samples = {"", "ascii", "h\u00e9llo", "\u4e16\u754c", "\ud83d\ude00", "broken \ud83d pair", "\ude00"};
+        for (String sample : samples) {
+            assertEquals(sample.getBytes(StandardCharsets.UTF_8).length, CustomCodec.STRING.encodedSize(sample));
+        }
+    }
+
+    /**
+     * Helper to replace the byte at an index with a sequence of bytes.
+     */
+    private static byte[] splice(byte[] bytes, int index, byte[] replacement) {
+        byte[] result = new byte[bytes.length - 1 + replacement.length];
+        System.arraycopy(bytes, 0, result, 0, index);
+        System.arraycopy(replacement, 0, result, index, replacement.length);
+        System.arraycopy(bytes, index + 1, result, index + replacement.length, bytes.length - index - 1);
+        return result;
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.set.CustomHashSet;
+import com.brendanddev.collections.set.LongHashSet;
+import com.brendanddev.collections.sketch.HyperLogLog;
+
+/**
+ * Unit tests for the HyperLogLog class.
+ * Tests estimates against exact counts in the sparse and dense forms, merging, and the
+ * iterator entry points.
+ */
+public class HyperLogLogTest {
+
+    /**
+     * Tests that small cardinalities are counted almost exactly while the sketch is still sparse,
+     * and that the sketch turns dense once the sparse table would outgrow the registers.
+     */
+    @Test
+    void testSparseToDense() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        assertTrue(sketch.isSparse());
+        assertEquals(0, sketch.cardinality());
+
+        for (int i = 0; i < 100; i++) {
+            sketch.addInt(i);
+            sketch.addInt(i);
+        }
+        assertTrue(sketch.isSparse());
+        assertEquals(100, sketch.cardinality());
+        assertTrue(sketch.footprint().retainedBytes() < 2_000);
+
+        for (int i = 100; i < 10_000; i++) sketch.addInt(i);
+        assertFalse(sketch.isSparse());
+        assertEquals(10_000, sketch.cardinality(), 10_000 * 3 * sketch.relativeStandardError());
+
+        sketch.clear();
+        assertTrue(sketch.isSparse());
+        assertEquals(0, sketch.cardinality());
+    }
+
+    /**
+     * Tests that large cardinalities stay within three standard errors of the exact count.
+     */
+    @Test
+    void testAccuracy() {
+        for (int precision : new int[] {10, 14}) {
+            HyperLogLog sketch = new HyperLogLog(precision);
+            for (long i = 0; i < 1_000_000; i++) sketch.addLong(i * 0x9E3779B97F4A7C15L);
+            double error = Math.abs(sketch.cardinality() - 1_000_000) / 1_000_000.0;
+            assertTrue(error < 3 * sketch.relativeStandardError(), "Error " + error + " at precision " + precision);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(HyperLogLog.MIN_PRECISION - 1));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(HyperLogLog.MAX_PRECISION + 1));
+    }
+
+    /**
+     * Tests that merging sketches of overlapping shards, in any mix of sparse and dense forms,
+     * estimates the union.
+     */
+    @Test
+    void testMerge() {
+        HyperLogLog dense = new HyperLogLog();
+        HyperLogLog overlap = new HyperLogLog();
+        HyperLogLog sparse = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) dense.addInt(i);
+        for (int i = 25_000; i < 75_000; i++) overlap.addInt(i);
+        for (int i = 100_000; i < 100_050; i++) sparse.addInt(i);
+
+        dense.merge(overlap);
+        double error = Math.abs(dense.cardinality() - 75_000) / 75_000.0;
+        assertTrue(error < 3 * dense.relativeStandardError());
+
+        HyperLogLog union = new HyperLogLog();
+        union.merge(sparse);
+        assertTrue(union.isSparse());
+        assertEquals(50, union.cardinality());
+        union.merge(dense);
+        assertFalse(union.isSparse());
+        error = Math.abs(union.cardinality() - 75_050) / 75_050.0;
+        assertTrue(error < 3 * union.relativeStandardError());
+
+        assertThrows(IllegalArgumentException.class, () -> union.merge(new HyperLogLog(12)));
+    }
+
+    /**
+     * Tests consuming object and primitive iterators.
+     */
+    @Test
+    void testAddAllIterators() {
+        CustomHashSet<String> words = new CustomHashSet<>();
+        LongHashSet ids = new LongHashSet();
+        for (int i = 0; i < 500; i++) {
+            words.add("word" + i);
+            ids.add(i * 1_000_003L);
+        }
+
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.addAll(words.iterator());
+        assertEquals(500, sketch.cardinality(), 10);
+        sketch.addAll(ids.iterator());
+        assertEquals(1_000, sketch.cardinality(), 20);
+        assertThrows(IllegalArgumentException.class, () -> sketch.add(null));
+    }
+
+}
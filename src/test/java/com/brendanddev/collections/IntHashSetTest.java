@@ -0,0 +1,119 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.core.CustomIntIterator;
+import com.brendanddev.collections.set.IntHashSet;
+
+/**
+ * Unit tests for the IntHashSet class.
+ * Tests adding, finding and removing values, including the value 0 that marks empty slots,
+ * growth, and iterating without boxing.
+ */
+public class IntHashSetTest {
+
+    private IntHashSet set;
+
+    /**
+     * Initializes a new instance of IntHashSet before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        set = new IntHashSet();
+    }
+
+    /**
+     * Tests adding, finding and removing values, including 0 and negative values.
+     */
+    @Test
+    void testAddContainsRemove() {
+        assertTrue(set.add(0));
+        assertTrue(set.add(-5));
+        assertTrue(set.add(42));
+        assertFalse(set.add(0));
+        assertFalse(set.add(42));
+        assertEquals(3, set.size());
+
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(-5));
+        assertFalse(set.contains(7));
+
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertFalse(set.contains(0));
+        assertTrue(set.remove(42));
+        assertEquals(1, set.size());
+    }
+
+    /**
+     * Tests that the set grows and agrees with Java's HashSet under random adds and removes.
+     */
+    @Test
+    void testAgainstJavaHashSet() {
+        HashSet<Integer> expected = new HashSet<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt(10_000) - 5_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        for (int value = -5_000; value < 5_000; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+
+        int[] sorted = set.toArray();
+        Arrays.sort(sorted);
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).sorted().toArray(), sorted);
+    }
+
+    /**
+     * Tests that the iterator visits every value once, 0 included, and fails past the end.
+     */
+    @Test
+    void testIterator() {
+        for (int i = 0; i < 100; i++) set.add(i);
+        long sum = 0;
+        int count = 0;
+        CustomIntIterator iterator = set.iterator();
+        while (iterator.hasNext()) {
+            sum += iterator.nextInt();
+            count++;
+        }
+        assertEquals(100, count);
+        assertEquals(4950, sum);
+        assertThrows(NoSuchElementException.class, iterator::nextInt);
+    }
+
+    /**
+     * Tests that a pre-sized set never resizes and that clear keeps the capacity.
+     */
+    @Test
+    void testPreSizedAndClear() {
+        IntHashSet sized = new IntHashSet(1000);
+        int capacity = sized.getCapacity();
+        for (int i = 1; i <= 1000; i++) sized.add(i * 1024);
+        assertEquals(capacity, sized.getCapacity());
+
+        sized.clear();
+        assertTrue(sized.isEmpty());
+        assertFalse(sized.contains(1024));
+        assertEquals(capacity, sized.getCapacity());
+    }
+
+}
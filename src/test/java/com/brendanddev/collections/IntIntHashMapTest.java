@@ -0,0 +1,76 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.map.IntIntHashMap;
+
+/**
+ * Unit tests for the IntIntHashMap class.
+ * Tests basic functionality including the zero key, which is stored outside the table,
+ * and removals followed by lookups after the table has grown.
+ */
+public class IntIntHashMapTest {
+
+    private IntIntHashMap map;
+
+    /**
+     * Initializes a new instance of IntIntHashMap before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        map = new IntIntHashMap();
+    }
+
+    /**
+     * Tests adding, updating and reading entries.
+     */
+    @Test
+    void testPutAndGet() {
+        assertEquals(IntIntHashMap.NO_VALUE, map.put(7, 70));
+        assertEquals(70, map.get(7));
+        assertEquals(70, map.put(7, 71));
+        assertEquals(71, map.get(7));
+        assertEquals(-1, map.getOrDefault(8, -1));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Tests that the empty slot sentinel 0 can still be used as a key.
+     */
+    @Test
+    void testZeroKey() {
+        assertFalse(map.containsKey(0));
+        map.put(0, 5);
+        assertTrue(map.containsKey(0));
+        assertEquals(5, map.get(0));
+        assertEquals(1, map.size());
+
+        assertTrue(map.remove(0));
+        assertFalse(map.containsKey(0));
+        assertTrue(map.isEmpty());
+    }
+
+    /**
+     * Tests removing half of a large map and checking the remaining entries.
+     */
+    @Test
+    void testRemoveAfterResize() {
+        int entriesToAdd = 10_000;
+        for (int i = 1; i <= entriesToAdd; i++) map.put(i * 1024, i);
+
+        for (int i = 1; i <= entriesToAdd; i += 2) {
+            assertTrue(map.remove(i * 1024));
+        }
+        assertEquals(entriesToAdd / 2, map.size());
+        for (int i = 1; i <= entriesToAdd; i++) {
+            assertEquals(i % 2 == 0, map.containsKey(i * 1024));
+            if (i % 2 == 0) assertEquals(i, map.get(i * 1024));
+        }
+    }
+
+}
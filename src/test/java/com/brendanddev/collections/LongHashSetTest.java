@@ -0,0 +1,65 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.core.CustomLongIterator;
+import com.brendanddev.collections.set.LongHashSet;
+
+/**
+ * Unit tests for the LongHashSet class.
+ * Tests values that only differ in their upper 32 bits, the value 0, and iterating without boxing.
+ */
+public class LongHashSetTest {
+
+    /**
+     * Tests that values sharing their lower 32 bits are kept apart, and that 0 is a regular value.
+     */
+    @Test
+    void testWideValues() {
+        LongHashSet set = new LongHashSet();
+        for (long high = 0; high < 1000; high++) assertTrue(set.add(high << 32));
+        assertFalse(set.add(0L));
+        assertEquals(1000, set.size());
+        for (long high = 0; high < 1000; high++) assertTrue(set.contains(high << 32));
+        assertFalse(set.contains(1L));
+
+        assertTrue(set.remove(0L));
+        assertFalse(set.contains(0L));
+        assertTrue(set.contains(1L << 32));
+    }
+
+    /**
+     * Tests that the set agrees with Java's HashSet, and that the iterator visits every value once.
+     */
+    @Test
+    void testAgainstJavaHashSet() {
+        LongHashSet set = new LongHashSet();
+        HashSet<Long> expected = new HashSet<>();
+        Random random = new Random(13);
+        for (int i = 0; i < 50_000; i++) {
+            long value = random.nextInt(5_000) * 0x1_0000_0001L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+        }
+        assertEquals(expected.size(), set.size());
+
+        int count = 0;
+        CustomLongIterator iterator = set.iterator();
+        while (iterator.hasNext()) {
+            assertTrue(expected.contains(iterator.nextLong()));
+            count++;
+        }
+        assertEquals(expected.size(), count);
+    }
+
+}
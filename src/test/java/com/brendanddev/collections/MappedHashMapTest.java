@@ -0,0 +1,148 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.brendanddev.collections.map.MappedHashMap;
+
+/**
+ * Unit tests for the MappedHashMap class.
+ * Tests basic operations, persistence across close and reopen, growth into a new file,
+ * recovery of a file that was never closed cleanly, and the clean flag after a flush.
+ */
+public class MappedHashMapTest {
+
+    private static final int STATE_OFFSET = 24;
+    private static final int CLEAN = 0;
+    private static final int DIRTY = 1;
+
+    @TempDir
+    Path directory;
+
+    private Path path;
+
+    /**
+     * Resolves the path of the map file inside the temporary directory before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        path = directory.resolve("map.bin");
+    }
+
+    /**
+     * Tests adding, updating, looking up and removing entries.
+     */
+    @Test
+    void testPutGetAndRemove() throws IOException {
+        try (MappedHashMap map = MappedHashMap.create(path, 4, 8)) {
+            assertTrue(map.put(key(1), value(10)));
+            assertFalse(map.put(key(1), value(11)));
+            assertArrayEquals(value(11), map.get(key(1)));
+            assertNull(map.get(key(2)));
+
+            assertTrue(map.remove(key(1)));
+            assertFalse(map.remove(key(1)));
+            assertTrue(map.isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> map.put(new byte[3], value(1)));
+        }
+    }
+
+    /**
+     * Tests that entries survive growing the table and reopening the file.
+     */
+    @Test
+    void testGrowthAndReopen() throws IOException {
+        try (MappedHashMap map = MappedHashMap.create(path, 4, 8, 16)) {
+            for (int i = 0; i < 1000; i++) map.put(key(i), value(i * 2L));
+            for (int i = 0; i < 1000; i += 2) map.remove(key(i));
+            assertTrue(map.getCapacity() >= 1024);
+        }
+        assertFalse(Files.exists(directory.resolve("map.bin.grow")));
+
+        try (MappedHashMap map = MappedHashMap.open(path)) {
+            assertEquals(500, map.size());
+            for (int i = 0; i < 1000; i++) {
+                if (i % 2 == 0) assertFalse(map.containsKey(key(i)));
+                else assertArrayEquals(value(i * 2L), map.get(key(i)));
+            }
+        }
+    }
+
+    /**
+     * Tests that a file left dirty by a map that was never closed is rebuilt on open, discarding
+     * the partial file of an earlier recovery that was itself interrupted.
+     */
+    @Test
+    void testRecoveryAfterUncleanShutdown() throws IOException {
+        MappedHashMap crashed = MappedHashMap.create(path, 4, 8);
+        for (int i = 0; i < 100; i++) crashed.put(key(i), value(i));
+        Files.write(directory.resolve("map.bin.grow"), new byte[16]);
+
+        // The crashed map is never closed, so its header still has the dirty flag set
+        try (MappedHashMap map = MappedHashMap.open(path)) {
+            assertFalse(Files.exists(directory.resolve("map.bin.grow")));
+            assertEquals(CLEAN, state());
+            assertEquals(100, map.size());
+            for (int i = 0; i < 100; i++) assertArrayEquals(value(i), map.get(key(i)));
+        }
+    }
+
+    /**
+     * Tests that a flushed file stays marked clean until the next modification.
+     */
+    @Test
+    void testFlushStaysCleanUntilNextWrite() throws IOException {
+        try (MappedHashMap map = MappedHashMap.create(path, 4, 8)) {
+            map.put(key(1), value(1));
+            assertEquals(DIRTY, state());
+
+            map.flush();
+            assertEquals(CLEAN, state());
+            map.get(key(1));
+            map.remove(key(2));
+            assertEquals(CLEAN, state());
+
+            map.put(key(2), value(2));
+            assertEquals(DIRTY, state());
+        }
+        assertEquals(CLEAN, state());
+    }
+
+    /**
+     * Tests that a file that is not a map file is rejected.
+     */
+    @Test
+    void testOpenRejectsForeignFile() throws IOException {
+        Files.write(path, new byte[128]);
+        assertThrows(IOException.class, () -> MappedHashMap.open(path));
+    }
+
+    /**
+     * Helper to read the state flag from the header of the map file.
+     */
+    private int state() throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(path)).getInt(STATE_OFFSET);
+    }
+
+    private static byte[] key(int i) {
+        return ByteBuffer.allocate(4).putInt(i).array();
+    }
+
+    private static byte[] value(long v) {
+        return ByteBuffer.allocate(8).putLong(v).array();
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.core.CustomCodec;
+import com.brendanddev.collections.map.OffHeapHashMap;
+
+/**
+ * Unit tests for the OffHeapHashMap class.
+ * Tests basic operations, updates that change the encoded size, compaction of
+ * replaced records, clearing, and the closed state.
+ */
+public class OffHeapHashMapTest {
+
+    private OffHeapHashMap<String, String> map;
+
+    /**
+     * Initializes a new OffHeapHashMap with small chunks before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        map = new OffHeapHashMap<>(CustomCodec.STRING, CustomCodec.STRING, 1024);
+    }
+
+    /**
+     * Releases the native memory of the map after each test method.
+     */
+    @AfterEach
+    void tearDown() {
+        map.close();
+    }
+
+    /**
+     * Tests adding, updating, looking up and removing entries.
+     */
+    @Test
+    void testPutGetAndRemove() {
+        assertNull(map.put("Brendan", "A"));
+        assertEquals("A", map.put("Brendan", "B"));
+        assertEquals("B", map.put("Brendan", "Longer value"));
+        assertEquals("Longer value", map.get("Brendan"));
+        assertNull(map.get("Alice"));
+
+        assertTrue(map.remove("Brendan"));
+        assertFalse(map.remove("Brendan"));
+        assertTrue(map.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> map.put(null, "A"));
+    }
+
+    /**
+     * Tests that many entries survive index growth and compaction of replaced records.
+     */
+    @Test
+    void testGrowthAndCompaction() {
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 2000; i++) {
+                map.put("key" + i, "value" + i + "-" + round + (round % 2 == 0 ? "" : "-odd"));
+            }
+        }
+        for (int i = 0; i < 2000; i += 2) map.remove("key" + i);
+
+        assertEquals(1000, map.size());
+        for (int i = 1; i < 2000; i += 2) assertEquals("value" + i + "-4", map.get("key" + i));
+        assertTrue(map.getGarbageBytes() < map.getOffHeapBytes());
+    }
+
+    /**
+     * Tests that clearing a map that has grown its index several times empties it, and that the
+     * cleared map accepts new entries.
+     */
+    @Test
+    void testClear() {
+        for (int i = 0; i < 20_000; i++) map.put("key" + i, "value" + i);
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        for (int i = 0; i < 20_000; i += 100) assertNull(map.get("key" + i));
+        assertEquals(0, map.getGarbageBytes());
+
+        for (int i = 0; i < 1000; i++) assertNull(map.put("key" + i, "new" + i));
+        assertEquals(1000, map.size());
+        for (int i = 0; i < 1000; i++) assertEquals("new" + i, map.get("key" + i));
+    }
+
+    /**
+     * Tests that a closed map rejects further operations.
+     */
+    @Test
+    void testClose() {
+        map.put("Brendan", "A");
+        map.close();
+        assertThrows(IllegalStateException.class, () -> map.get("Brendan"));
+    }
+
+}
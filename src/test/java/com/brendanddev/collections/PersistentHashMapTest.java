@@ -0,0 +1,111 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.map.PersistentHashMap;
+
+/**
+ * Unit tests for the PersistentHashMap class.
+ * Tests that updates leave earlier versions unchanged, that colliding keys are handled,
+ * and that the Transient builder produces the same maps as persistent updates.
+ */
+public class PersistentHashMapTest {
+
+    private PersistentHashMap<String, Integer> map;
+
+    /**
+     * Initializes the empty PersistentHashMap before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        map = PersistentHashMap.empty();
+    }
+
+    /**
+     * Tests that assoc and dissoc return new versions and never modify the original.
+     */
+    @Test
+    void testAssocAndDissoc() {
+        PersistentHashMap<String, Integer> one = map.assoc("Brendan", 1);
+        PersistentHashMap<String, Integer> two = one.assoc("Alice", 2);
+        PersistentHashMap<String, Integer> updated = two.assoc("Brendan", 3);
+
+        assertTrue(map.isEmpty());
+        assertEquals(1, one.get("Brendan"));
+        assertNull(one.get("Alice"));
+        assertEquals(1, two.get("Brendan"));
+        assertEquals(3, updated.get("Brendan"));
+        assertEquals(2, updated.size());
+        assertSame(updated, updated.assoc("Brendan", updated.get("Brendan")));
+
+        PersistentHashMap<String, Integer> removed = updated.dissoc("Brendan");
+        assertFalse(removed.containsKey("Brendan"));
+        assertEquals(3, updated.get("Brendan"));
+        assertSame(removed, removed.dissoc("Missing"));
+        assertThrows(IllegalArgumentException.class, () -> map.assoc("Key", null));
+    }
+
+    /**
+     * Tests keys with identical hash codes, which end up in collision nodes.
+     */
+    @Test
+    void testCollisions() {
+        String[] colliding = CustomHashSetTest.collidingStrings(5);
+        for (int i = 0; i < colliding.length; i++) map = map.assoc(colliding[i], i);
+        assertEquals(colliding.length, map.size());
+        for (int i = 0; i < colliding.length; i++) assertEquals(i, map.get(colliding[i]));
+
+        for (int i = 0; i < colliding.length; i += 2) map = map.dissoc(colliding[i]);
+        assertEquals(colliding.length / 2, map.size());
+        assertNull(map.get(colliding[0]));
+        assertEquals(1, map.get(colliding[1]));
+    }
+
+    /**
+     * Tests random updates against java.util.HashMap, building the same content both persistently
+     * and through a Transient, and checks that the Transient cannot be used after persistent.
+     */
+    @Test
+    void testRandomOperationsAndTransient() {
+        HashMap<String, Integer> expected = new HashMap<>();
+        PersistentHashMap.Transient<String, Integer> builder = map.asTransient();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            String key = "k" + random.nextInt(5000);
+            if (random.nextInt(4) == 0) {
+                expected.remove(key);
+                map = map.dissoc(key);
+                builder.remove(key);
+            } else {
+                expected.put(key, i);
+                map = map.assoc(key, i);
+                builder.put(key, i);
+            }
+        }
+
+        PersistentHashMap<String, Integer> built = builder.persistent();
+        assertThrows(IllegalStateException.class, () -> builder.put("k", 1));
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.size(), built.size());
+        expected.forEach((key, value) -> {
+            assertEquals(value, map.get(key));
+            assertEquals(value, built.get(key));
+        });
+
+        int[] visited = new int[1];
+        built.forEach((key, value) -> visited[0]++);
+        assertEquals(expected.size(), visited[0]);
+    }
+
+}
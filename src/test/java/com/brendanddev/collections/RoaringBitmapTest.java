@@ -0,0 +1,182 @@
+package com.brendanddev.collections;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import com.brendanddev.collections.core.CustomIntIterator;
+import com.brendanddev.collections.set.RoaringBitmap;
+
+/**
+ * Unit tests for the RoaringBitmap class.
+ * Tests membership, the conversions between array, bitmap and run containers, set algebra,
+ * rank and select, all checked against a TreeSet of the same values.
+ */
+public class RoaringBitmapTest {
+
+    /**
+     * Tests adding and removing values, including negative values and values in distant chunks.
+     */
+    @Test
+    void testAddContainsRemove() {
+        RoaringBitmap bitmap = RoaringBitmap.of(1, 5, 70_000, -1, Integer.MIN_VALUE);
+        assertFalse(bitmap.add(5));
+        assertEquals(5, bitmap.getCardinality());
+        assertTrue(bitmap.contains(70_000));
+        assertTrue(bitmap.contains(-1));
+        assertFalse(bitmap.contains(2));
+        assertEquals(4, bitmap.getNumberOfContainers());
+
+        assertTrue(bitmap.remove(70_000));
+        assertFalse(bitmap.remove(70_000));
+        assertEquals(3, bitmap.getNumberOfContainers());
+
+        // Unsigned order places negative values last
+        assertArrayEquals(new int[] {1, 5, Integer.MIN_VALUE, -1}, bitmap.toArray());
+    }
+
+    /**
+     * Tests that a chunk turns into a bitmap past ARRAY_MAX_SIZE values and back into an array below it.
+     */
+    @Test
+    void testContainerConversions() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i <= RoaringBitmap.ARRAY_MAX_SIZE; i++) bitmap.add(i * 3);
+        assertArrayEquals(new int[] {0, 1, 0}, bitmap.getContainerCounts());
+
+        bitmap.remove(0);
+        assertArrayEquals(new int[] {1, 0, 0}, bitmap.getContainerCounts());
+
+        RoaringBitmap runs = new RoaringBitmap();
+        for (int i = 100; i < 50_000; i++) runs.add(i);
+        long before = runs.footprint().retainedBytes();
+        assertTrue(runs.runOptimize());
+        assertArrayEquals(new int[] {0, 0, 1}, runs.getContainerCounts());
+        assertTrue(runs.footprint().retainedBytes() < before / 10);
+        assertTrue(runs.contains(100));
+        assertTrue(runs.contains(49_999));
+        assertFalse(runs.contains(50_000));
+
+        // Values at the ends of runs are added and removed in place, merging runs that touch
+        assertTrue(runs.remove(100));
+        assertTrue(runs.remove(49_999));
+        assertTrue(runs.add(100));
+        assertTrue(runs.add(49_999));
+        assertTrue(runs.add(50_000));
+        assertArrayEquals(new int[] {0, 0, 1}, runs.getContainerCounts());
+        assertEquals(49_901, runs.getCardinality());
+        assertTrue(runs.contains(50_000));
+
+        RoaringBitmap gap = new RoaringBitmap();
+        for (int i = 0; i < 2000; i++) if (i != 1000) gap.add(i);
+        gap.add(5000);
+        assertTrue(gap.runOptimize());
+        assertTrue(gap.add(1000));
+        assertTrue(gap.remove(5000));
+        assertArrayEquals(new int[] {0, 0, 1}, gap.getContainerCounts());
+        assertEquals(2000, gap.getCardinality());
+        assertEquals(1999, gap.select(1999));
+
+        // Splitting a run converts the chunk back to a mutable container
+        assertTrue(runs.remove(25_000));
+        assertFalse(runs.contains(25_000));
+        assertEquals(49_900, runs.getCardinality());
+        assertArrayEquals(new int[] {0, 1, 0}, runs.getContainerCounts());
+    }
+
+    /**
+     * Tests and, or, andNot and xor over sparse, dense and run containers against TreeSet results.
+     */
+    @Test
+    void testSetAlgebra() {
+        Random random = new Random(17);
+        TreeSet<Integer> expectedA = new TreeSet<>();
+        TreeSet<Integer> expectedB = new TreeSet<>();
+        RoaringBitmap a = new RoaringBitmap();
+        RoaringBitmap b = new RoaringBitmap();
+        for (int i = 0; i < 40_000; i++) {
+            // Dense values in the first chunks, sparse values further out
+            int x = random.nextInt(3) == 0 ? random.nextInt(1 << 24) : random.nextInt(200_000);
+            int y = random.nextInt(3) == 0 ? random.nextInt(1 << 24) : random.nextInt(200_000);
+            a.add(x);
+            expectedA.add(x);
+            b.add(y);
+            expectedB.add(y);
+        }
+        for (int i = 300_000; i < 400_000; i++) {
+            a.add(i);
+            expectedA.add(i);
+        }
+        a.runOptimize();
+
+        TreeSet<Integer> and = new TreeSet<>(expectedA);
+        and.retainAll(expectedB);
+        TreeSet<Integer> or = new TreeSet<>(expectedA);
+        or.addAll(expectedB);
+        TreeSet<Integer> andNot = new TreeSet<>(expectedA);
+        andNot.removeAll(expectedB);
+        TreeSet<Integer> xor = new TreeSet<>(or);
+        xor.removeAll(and);
+
+        assertSameValues(and, a.and(b));
+        assertSameValues(or, a.or(b));
+        assertSameValues(andNot, a.andNot(b));
+        assertSameValues(xor, a.xor(b));
+        assertSameValues(xor, b.xor(a));
+
+        // The operands are left untouched
+        assertSameValues(expectedA, a);
+        assertSameValues(expectedB, b);
+
+        // An empty result is still a usable set
+        RoaringBitmap empty = a.and(new RoaringBitmap());
+        assertTrue(empty.isEmpty());
+        assertTrue(empty.add(3));
+        assertTrue(empty.contains(3));
+    }
+
+    /**
+     * Tests that rank and select agree with the sorted position of every value.
+     */
+    @Test
+    void testRankAndSelect() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < 10_000; i++) bitmap.add(i * 7);
+        for (int i = 1_000_000; i < 1_020_000; i++) bitmap.add(i);
+        bitmap.runOptimize();
+
+        int[] values = bitmap.toArray();
+        for (int i = 0; i < values.length; i += 13) {
+            assertEquals(i + 1, bitmap.rank(values[i]));
+            assertEquals(values[i], bitmap.select(i));
+        }
+        assertEquals(1, bitmap.rank(6));
+        assertEquals(values.length, bitmap.rank(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> bitmap.select(values.length));
+        assertThrows(IndexOutOfBoundsException.class, () -> bitmap.select(-1));
+    }
+
+    /**
+     * Helper to check that a bitmap holds exactly the values of a TreeSet, in the same order.
+     * 
+     * @param expected The expected values, all non negative so that signed and unsigned order agree.
+     * @param actual The bitmap to check.
+     */
+    private static void assertSameValues(TreeSet<Integer> expected, RoaringBitmap actual) {
+        assertEquals(expected.size(), actual.getCardinality());
+        CustomIntIterator iterator = actual.iterator();
+        for (int value : expected) {
+            assertTrue(iterator.hasNext());
+            assertEquals(value, iterator.nextInt());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+}